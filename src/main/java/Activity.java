@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
  * for different activity types.
  */
 public abstract class Activity {
-    private int id;
+    private long id;
     private String name;
     private double burnedCalories;
     private double duration;
@@ -27,7 +27,7 @@ public abstract class Activity {
      * @param startTime      the start time of the activity
      * @param endTime        the end time of the activity
      */
-    public Activity(int id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime) {
+    public Activity(long id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime) {
         this.id = id;
         this.name = name;
         this.burnedCalories = burnedCalories;
@@ -41,7 +41,7 @@ public abstract class Activity {
      *
      * @return the activity ID
      */
-    public int getId() {
+    public long getId() {
         return id;
     }
 
@@ -50,7 +50,7 @@ public abstract class Activity {
      *
      * @param id the activity ID to set
      */
-    public void setId(int id) {
+    public void setId(long id) {
         this.id = id;
     }
 
@@ -0,0 +1,184 @@
+package main.java;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The `ActivityAggregates` class keeps summary statistics of a collection of activities up to date
+ * as activities are added and removed, so that reading a statistic never iterates over the activities.
+ * Counts and sums are updated in constant time. The longest, shortest and most effective activity
+ * are kept in ordered maps and updated in logarithmic time, which also keeps them correct when the
+ * current extreme is removed.
+ * <p>
+ * The values of an activity are captured when it is added; activities should not be modified
+ * while they are part of the aggregates. Among equal values, the activity added first wins.
+ */
+public class ActivityAggregates {
+
+    /**
+     * The values of an added activity, captured so that removing it undoes exactly what adding it did.
+     */
+    private static final class Entry {
+        final double duration;
+        final double calories;
+        final double caloriesPerMinute;
+        int occurrences;
+
+        Entry(Activity activity) {
+            this.duration = activity.getDuration();
+            this.calories = activity.getBurnedCalories();
+            this.caloriesPerMinute = activity.calculateCaloriesPerMinute();
+        }
+    }
+
+    private final Map<Activity, Entry> entries = new IdentityHashMap<>();
+    private final TreeMap<Double, LinkedHashSet<Activity>> byDuration = new TreeMap<>();
+    private final TreeMap<Double, LinkedHashSet<Activity>> byCaloriesPerMinute = new TreeMap<>();
+    private int count;
+    private double totalDuration;
+    private double totalCalories;
+
+    /**
+     * Adds an activity to the aggregates.
+     *
+     * @param activity the activity to add
+     */
+    public void add(Activity activity) {
+        Entry entry = entries.get(activity);
+        if (entry == null) {
+            entry = new Entry(activity);
+            entries.put(activity, entry);
+            byDuration.computeIfAbsent(entry.duration, k -> new LinkedHashSet<>()).add(activity);
+            byCaloriesPerMinute.computeIfAbsent(entry.caloriesPerMinute, k -> new LinkedHashSet<>()).add(activity);
+        }
+        entry.occurrences++;
+        count++;
+        totalDuration += entry.duration;
+        totalCalories += entry.calories;
+    }
+
+    /**
+     * Removes one occurrence of an activity from the aggregates.
+     *
+     * @param activity the activity to remove
+     * @return true if the activity was part of the aggregates
+     */
+    public boolean remove(Activity activity) {
+        Entry entry = entries.get(activity);
+        if (entry == null) {
+            return false;
+        }
+        count--;
+        totalDuration -= entry.duration;
+        totalCalories -= entry.calories;
+        if (--entry.occurrences == 0) {
+            entries.remove(activity);
+            removeFrom(byDuration, entry.duration, activity);
+            removeFrom(byCaloriesPerMinute, entry.caloriesPerMinute, activity);
+        }
+        if (count == 0) {
+            // Start from exact zeros again instead of accumulated rounding errors
+            totalDuration = 0.0;
+            totalCalories = 0.0;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of activities.
+     *
+     * @return the number of activities
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the total duration of all activities.
+     *
+     * @return the total duration in minutes
+     */
+    public double getTotalDuration() {
+        return totalDuration;
+    }
+
+    /**
+     * Returns the total calories burned in all activities.
+     *
+     * @return the total calories burned
+     */
+    public double getTotalCalories() {
+        return totalCalories;
+    }
+
+    /**
+     * Returns the average duration of an activity.
+     *
+     * @return the average duration in minutes, NaN if there are no activities
+     */
+    public double getAverageDuration() {
+        return totalDuration / count;
+    }
+
+    /**
+     * Returns the average calories burned per activity.
+     *
+     * @return the average calories burned, NaN if there are no activities
+     */
+    public double getAverageCalories() {
+        return totalCalories / count;
+    }
+
+    /**
+     * Returns the activity with the longest duration.
+     *
+     * @return the longest activity, or null if there are no activities
+     */
+    public Activity getLongest() {
+        return byDuration.isEmpty() ? null : byDuration.lastEntry().getValue().iterator().next();
+    }
+
+    /**
+     * Returns the activity with the shortest duration.
+     *
+     * @return the shortest activity, or null if there are no activities
+     */
+    public Activity getShortest() {
+        return byDuration.isEmpty() ? null : byDuration.firstEntry().getValue().iterator().next();
+    }
+
+    /**
+     * Returns the activity with the most calories burned per minute.
+     *
+     * @return the most effective activity, or null if there are no activities
+     */
+    public Activity getMostEffective() {
+        return byCaloriesPerMinute.isEmpty() ? null : byCaloriesPerMinute.lastEntry().getValue().iterator().next();
+    }
+
+    /**
+     * Returns the highest number of calories burned per minute in a single activity.
+     *
+     * @return the best kcal/min, or NaN if there are no activities
+     */
+    public double getBestCaloriesPerMinute() {
+        return byCaloriesPerMinute.isEmpty() ? Double.NaN : byCaloriesPerMinute.lastKey();
+    }
+
+    /**
+     * Removes an activity from the bucket of its value, dropping the bucket when it becomes empty.
+     *
+     * @param buckets  the ordered buckets
+     * @param value    the value the activity was added with
+     * @param activity the activity to remove
+     */
+    private static void removeFrom(TreeMap<Double, LinkedHashSet<Activity>> buckets, double value, Activity activity) {
+        LinkedHashSet<Activity> bucket = buckets.get(value);
+        bucket.remove(activity);
+        if (bucket.isEmpty()) {
+            buckets.remove(value);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package main.java;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The `ActivityIdGenerator` class generates unique 64-bit activity IDs that grow with time. An ID holds
+ * the milliseconds since `EPOCH_MILLIS` in its upper 41 bits, the node (e.g. one installation) in the next
+ * 10 bits and a sequence number within the millisecond in the lower 12 bits.
+ * <p>
+ * The last millisecond and sequence are kept together in one `AtomicLong` and advanced with a
+ * compare-and-set loop, so threads never block each other. When the 4096 IDs of a millisecond are used up,
+ * or the clock goes backwards, the generator continues with the next millisecond ahead of the clock instead
+ * of waiting, so the IDs of one generator are strictly increasing.
+ */
+public class ActivityIdGenerator {
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static ActivityIdGenerator defaultGenerator; // Generator shared by the whole application
+
+    private final long node;
+    private final LongSupplier clock;
+    private final AtomicLong state = new AtomicLong(); // Milliseconds since the epoch << SEQUENCE_BITS | sequence
+
+    /**
+     * Returns the generator shared by the whole application. Its node can be configured with the
+     * `fitness.nodeId` system property, so installations that share their data generate distinct IDs.
+     *
+     * @return the default `ActivityIdGenerator`
+     */
+    public static synchronized ActivityIdGenerator getDefault() {
+        if (defaultGenerator == null) {
+            defaultGenerator = new ActivityIdGenerator(Integer.getInteger("fitness.nodeId", 0), System::currentTimeMillis);
+        }
+        return defaultGenerator;
+    }
+
+    /**
+     * Constructs a generator for a node.
+     *
+     * @param node  the node number, from 0 to `MAX_NODE`
+     * @param clock the source of the current time in epoch milliseconds
+     * @throws IllegalArgumentException if the node is out of range
+     */
+    public ActivityIdGenerator(int node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+        this.clock = clock;
+    }
+
+    /**
+     * Generates the next ID.
+     *
+     * @return an ID greater than every ID this generator returned before
+     */
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            // A full sequence carries over into the millisecond
+            long next = now > last ? now : last + 1;
+            if (state.compareAndSet(last, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return millis << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | sequence;
+            }
+        }
+    }
+
+    /**
+     * Returns the time an ID was generated at.
+     *
+     * @param id an ID of an `ActivityIdGenerator`
+     * @return the epoch milliseconds encoded in the ID
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+}
@@ -0,0 +1,41 @@
+package main.java;
+
+/**
+ * The `ActivityType` enum lists the kinds of activities the Fitness Tracker can record.
+ * Each type keeps the display name used in the GUI and in the stored activity text.
+ */
+public enum ActivityType {
+    RUNNING("Running"),
+    CYCLING("Cycling"),
+    ROPE_JUMPING("Rope Jumping");
+
+    private final String displayName;
+
+    ActivityType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns the name of the activity type as shown to the user.
+     *
+     * @return the display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Finds the activity type with the given display name, ignoring case.
+     *
+     * @param displayName the display name, e.g. "Rope Jumping"
+     * @return the matching type, or null if there is none
+     */
+    public static ActivityType fromDisplayName(String displayName) {
+        for (ActivityType type : values()) {
+            if (type.displayName.equalsIgnoreCase(displayName)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -24,7 +24,7 @@ public class CyclingActivity extends Activity {
      * @param coveredDistance the distance covered during the activity in kilometers
      * @param maxSpeed        the maximum speed achieved during the activity in kilometers per hour
      */
-    public CyclingActivity(int id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime, double coveredDistance, double maxSpeed) {
+    public CyclingActivity(long id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime, double coveredDistance, double maxSpeed) {
         super(id, name, burnedCalories, duration, startTime, endTime);
         this.coveredDistance = coveredDistance;
         this.maxSpeed = maxSpeed;
@@ -0,0 +1,279 @@
+package main.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The `IntervalTree` class stores time intervals, each with a value, in a balanced (AVL) search tree ordered
+ * by start. Every node also keeps the latest end of its subtree, so finding an interval that overlaps a
+ * given one takes O(log n), and finding all k of them O(log n + k) for the intervals of a short range.
+ * <p>
+ * Intervals are half-open, measured in epoch seconds, and at least one second long, so two intervals
+ * that start at the same time always overlap while one that ends when the next one starts does not.
+ *
+ * @param <T> the type of the values stored with the intervals
+ */
+public class IntervalTree<T> {
+
+    /**
+     * An interval of the tree together with its value.
+     *
+     * @param <T> the type of the value
+     */
+    public static final class Interval<T> {
+        private final long start;
+        private final long end;
+        private final T value;
+
+        private Interval(long start, long end, T value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+
+    private static final class Node<T> {
+        final Interval<T> interval;
+        final long sequence; // Orders intervals with the same start and end by insertion
+        Node<T> left;
+        Node<T> right;
+        int height = 1;
+        long maxEnd; // Latest end in the subtree
+
+        Node(Interval<T> interval, long sequence) {
+            this.interval = interval;
+            this.sequence = sequence;
+            this.maxEnd = interval.end;
+        }
+    }
+
+    private Node<T> root;
+    private int size;
+    private long nextSequence;
+
+    /**
+     * Adds an interval.
+     *
+     * @param start the start in epoch seconds
+     * @param end   the end in epoch seconds; an end before start + 1 is treated as start + 1
+     * @param value the value stored with the interval
+     */
+    public void add(long start, long end, T value) {
+        Node<T> node = new Node<>(new Interval<>(start, Math.max(end, start + 1), value), nextSequence++);
+        root = insert(root, node);
+        size++;
+    }
+
+    /**
+     * Removes an interval with the given bounds and an equal value.
+     *
+     * @param start the start in epoch seconds
+     * @param end   the end in epoch seconds, as it was added
+     * @param value the value stored with the interval
+     * @return true if such an interval was removed
+     */
+    public boolean remove(long start, long end, T value) {
+        Node<T> node = find(root, start, Math.max(end, start + 1), value);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node);
+        size--;
+        return true;
+    }
+
+    /**
+     * Finds an interval that overlaps the given one.
+     *
+     * @param start the start in epoch seconds
+     * @param end   the end in epoch seconds
+     * @return an overlapping interval, or null if there is none
+     */
+    public Interval<T> findOverlap(long start, long end) {
+        long queryEnd = Math.max(end, start + 1);
+        Node<T> node = root;
+        while (node != null) {
+            if (overlaps(node.interval, start, queryEnd)) {
+                return node.interval;
+            }
+            // If the left subtree reaches past the start but has no overlap, all later intervals start too late
+            node = node.left != null && node.left.maxEnd > start ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Finds all intervals that overlap the given one.
+     *
+     * @param start the start in epoch seconds
+     * @param end   the end in epoch seconds
+     * @return the overlapping intervals, ordered by start
+     */
+    public List<Interval<T>> findOverlaps(long start, long end) {
+        List<Interval<T>> result = new ArrayList<>();
+        collect(root, start, Math.max(end, start + 1), result);
+        return result;
+    }
+
+    /**
+     * Returns the number of intervals in the tree.
+     *
+     * @return the number of intervals
+     */
+    public int size() {
+        return size;
+    }
+
+    private static boolean overlaps(Interval<?> interval, long start, long end) {
+        return interval.start < end && start < interval.end;
+    }
+
+    private void collect(Node<T> node, long start, long end, List<Interval<T>> result) {
+        if (node == null || node.maxEnd <= start) {
+            return; // Nothing in the subtree reaches past the start
+        }
+        collect(node.left, start, end, result);
+        if (node.interval.start >= end) {
+            return; // The node and its right subtree start too late
+        }
+        if (overlaps(node.interval, start, end)) {
+            result.add(node.interval);
+        }
+        collect(node.right, start, end, result);
+    }
+
+    private Node<T> find(Node<T> node, long start, long end, T value) {
+        if (node == null || node.maxEnd < end) {
+            return null;
+        }
+        int comparison = compare(start, end, node);
+        if (comparison == 0 && Objects.equals(node.interval.value, value)) {
+            return node;
+        }
+        // Intervals with the same bounds can be on both sides of a node with those bounds
+        Node<T> found = comparison <= 0 ? find(node.left, start, end, value) : null;
+        return found != null || comparison < 0 ? found : find(node.right, start, end, value);
+    }
+
+    /**
+     * Compares bounds with the bounds of a node, ignoring the insertion order.
+     */
+    private static int compare(long start, long end, Node<?> node) {
+        int comparison = Long.compare(start, node.interval.start);
+        return comparison != 0 ? comparison : Long.compare(end, node.interval.end);
+    }
+
+    private static int compare(Node<?> a, Node<?> b) {
+        int comparison = compare(a.interval.start, a.interval.end, b);
+        return comparison != 0 ? comparison : Long.compare(a.sequence, b.sequence);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node<T> delete(Node<T> node, Node<T> removed) {
+        int comparison = compare(removed, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, removed);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, removed);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Replace the node by the first node of its right subtree
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteFirst(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node<T> deleteFirst(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteFirst(node.left);
+        return balance(node);
+    }
+
+    private Node<T> balance(Node<T> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.interval.end;
+        if (node.left != null) {
+            node.maxEnd = Math.max(node.maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            node.maxEnd = Math.max(node.maxEnd, node.right.maxEnd);
+        }
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -21,7 +21,7 @@ public class RopeJumpingActivity extends Activity {
      * @param endTime             the end time of the activity
      * @param numberOfRepetitions the number of repetitions performed during the activity
      */
-    public RopeJumpingActivity(int id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime, int numberOfRepetitions) {
+    public RopeJumpingActivity(long id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime, int numberOfRepetitions) {
         super(id, name, burnedCalories, duration, startTime, endTime);
         this.numberOfRepetitions = numberOfRepetitions;
     }
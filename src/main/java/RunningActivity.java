@@ -24,7 +24,7 @@ public class RunningActivity extends Activity {
      * @param coveredDistance the distance covered during the activity in kilometers
      * @param averageSpeed    the average speed during the activity in kilometers per hour
      */
-    public RunningActivity(int id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime, double coveredDistance, double averageSpeed) {
+    public RunningActivity(long id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime, double coveredDistance, double averageSpeed) {
         super(id, name, burnedCalories, duration, startTime, endTime);
         this.coveredDistance = coveredDistance;
         this.averageSpeed = averageSpeed;
@@ -1,11 +1,15 @@
 package main.java;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * The `StandardUser` class represents a user in the Fitness Tracker application.
  * It contains user details, weight history, activity list, and methods to perform
- * various calculations based on the user's data and activities.
+ * various calculations based on the user's data and activities. The activity statistics
+ * are maintained incrementally by an `ActivityAggregates` object, so reading them does not
+ * iterate over the activities.
  */
 public class StandardUser {
     private int id;
@@ -14,8 +18,9 @@ public class StandardUser {
     private double height;
     private int age;
     private String gender;
-    private ArrayList<Double> weightHistory;
+    private WeightSeries weightHistory;
     private ArrayList<Activity> activitiesList;
+    private final ActivityAggregates aggregates = new ActivityAggregates();
 
     /**
      * Constructs a `StandardUser` object with the specified properties.
@@ -26,10 +31,10 @@ public class StandardUser {
      * @param height          the user's height in meters
      * @param age             the user's age in years
      * @param gender          the user's gender
-     * @param weightHistory   the history of the user's weight measurements
+     * @param weightHistory   the history of the user's weight measurements, one per day
      * @param activitiesList  the list of activities performed by the user
      */
-    public StandardUser(int id, String name, double weight, double height, int age, String gender, ArrayList<Double> weightHistory, ArrayList<Activity> activitiesList) {
+    public StandardUser(int id, String name, double weight, double height, int age, String gender, WeightSeries weightHistory, ArrayList<Activity> activitiesList) {
         this.id = id;
         this.name = name;
         this.weight = weight;
@@ -37,7 +42,10 @@ public class StandardUser {
         this.age = age;
         this.gender = gender;
         this.weightHistory = weightHistory;
-        this.activitiesList = activitiesList;
+        this.activitiesList = new ArrayList<>(activitiesList);
+        for (Activity activity : this.activitiesList) {
+            aggregates.add(activity);
+        }
     }
 
     public int getId() {
@@ -88,12 +96,51 @@ public class StandardUser {
         this.gender = gender;
     }
 
-    public ArrayList<Double> getWeightHistory() {
+    public WeightSeries getWeightHistory() {
         return weightHistory;
     }
 
-    public ArrayList<Activity> getActivitiesList() {
-        return activitiesList;
+    /**
+     * Returns the activities of the user. Use `addActivity` and `removeActivity` to change them,
+     * so that the statistics stay up to date.
+     *
+     * @return an unmodifiable view of the activities
+     */
+    public List<Activity> getActivitiesList() {
+        return Collections.unmodifiableList(activitiesList);
+    }
+
+    /**
+     * Adds an activity to the user and updates the statistics.
+     *
+     * @param activity the activity to add
+     */
+    public void addActivity(Activity activity) {
+        activitiesList.add(activity);
+        aggregates.add(activity);
+    }
+
+    /**
+     * Removes an activity from the user and updates the statistics.
+     *
+     * @param activity the activity to remove
+     * @return true if the user had the activity
+     */
+    public boolean removeActivity(Activity activity) {
+        if (!activitiesList.remove(activity)) {
+            return false;
+        }
+        aggregates.remove(activity);
+        return true;
+    }
+
+    /**
+     * Returns the incrementally maintained statistics of the user's activities.
+     *
+     * @return the activity aggregates
+     */
+    public ActivityAggregates getAggregates() {
+        return aggregates;
     }
 
     /**
@@ -113,10 +160,7 @@ public class StandardUser {
      * @return the average activity duration in minutes
      */
     public double calculateAverageActivityTime() {
-        double totalDuration = activitiesList.stream()
-                .mapToDouble(Activity::calculateDuration)
-                .sum();
-        return totalDuration / activitiesList.size();
+        return aggregates.getAverageDuration();
     }
 
     /**
@@ -125,10 +169,7 @@ public class StandardUser {
      * @return the average calories burned
      */
     public double calculateAverageActivityCalories() {
-        double totalCalories = activitiesList.stream()
-                .mapToDouble(Activity::getBurnedCalories)
-                .sum();
-        return totalCalories / activitiesList.size();
+        return aggregates.getAverageCalories();
     }
 
     /**
@@ -137,9 +178,7 @@ public class StandardUser {
      * @return the total activity duration in minutes
      */
     public double calculateTotalActivityTime() {
-        return activitiesList.stream()
-                .mapToDouble(Activity::getDuration)
-                .sum();
+        return aggregates.getTotalDuration();
     }
 
     /**
@@ -148,9 +187,7 @@ public class StandardUser {
      * @return the total calories burned
      */
     public double calculateTotalBurnedCalories() {
-        return activitiesList.stream()
-                .mapToDouble(Activity::getBurnedCalories)
-                .sum();
+        return aggregates.getTotalCalories();
     }
 
     /**
@@ -159,9 +196,7 @@ public class StandardUser {
      * @return the longest activity
      */
     public Activity findTheLongestActivity() {
-        return activitiesList.stream()
-                .max((a, b) -> Double.compare(a.getDuration(), b.getDuration()))
-                .orElse(null);
+        return aggregates.getLongest();
     }
 
     /**
@@ -170,9 +205,7 @@ public class StandardUser {
      * @return the shortest activity
      */
     public Activity findTheShortestActivity() {
-        return activitiesList.stream()
-                .min((a, b) -> Double.compare(a.getDuration(), b.getDuration()))
-                .orElse(null);
+        return aggregates.getShortest();
     }
 
     /**
@@ -181,9 +214,7 @@ public class StandardUser {
      * @return the most effective activity
      */
     public Activity findMostEffectiveActivity() {
-        return activitiesList.stream()
-                .max((a, b) -> Double.compare(a.calculateCaloriesPerMinute(), b.calculateCaloriesPerMinute()))
-                .orElse(null);
+        return aggregates.getMostEffective();
     }
 
     /**
@@ -200,8 +231,12 @@ public class StandardUser {
         info.append("Gender: ").append(getGender()).append("\n");
         info.append("Total activity time: ").append(calculateTotalActivityTime()).append(" mins [Avg: ").append(calculateAverageActivityTime()).append(" mins]\n");
         info.append("Total burnt calories: ").append(calculateTotalBurnedCalories()).append(" kcal [Avg: ").append(calculateAverageActivityCalories()).append(" kcal]\n");
-        info.append("Longest activity: ").append(findTheLongestActivity().getName()).append(": ").append(findTheLongestActivity().getDuration()).append(" mins\n");
-        info.append("Most effective activity: ").append(findMostEffectiveActivity().getName()).append(": ").append(findMostEffectiveActivity().calculateCaloriesPerMinute()).append(" kcal/min\n");
+        Activity longest = findTheLongestActivity();
+        Activity mostEffective = findMostEffectiveActivity();
+        if (longest != null) {
+            info.append("Longest activity: ").append(longest.getName()).append(": ").append(longest.getDuration()).append(" mins\n");
+            info.append("Most effective activity: ").append(mostEffective.getName()).append(": ").append(aggregates.getBestCaloriesPerMinute()).append(" kcal/min\n");
+        }
 
         return info.toString();
     }
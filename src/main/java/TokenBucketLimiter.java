@@ -0,0 +1,111 @@
+package main.java;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The `TokenBucketLimiter` class limits how often an action may be taken per key (e.g. login attempts per login).
+ * Every key has a bucket of `capacity` tokens that refills with one token every `refillMillis` milliseconds;
+ * an action takes one token and is refused while the bucket is empty.
+ * <p>
+ * The bucket of a key is stored as a single `long`, the time at which it will be full again (the generic cell
+ * rate algorithm), so taking a token is one compare-and-set and never blocks. The buckets are kept in striped maps
+ * in least recently used order: a key only takes the short lock of its stripe to find its bucket, and once a stripe
+ * holds its share of `maxKeys` buckets, the bucket used longest ago is dropped. A dropped bucket is full again
+ * when its key returns, which only happens to keys that have not been used for a while.
+ */
+public class TokenBucketLimiter {
+    private static final int STRIPES = 16;
+
+    private final long refillMillis;
+    private final long burstMillis; // How far ahead of now the full time may be while a token is left
+    private final LongSupplier clock;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * The buckets of the keys that hash to one stripe, in least recently used order.
+     */
+    private static final class Stripe extends LinkedHashMap<String, AtomicLong> {
+        private static final long serialVersionUID = 1L; // Serializable through LinkedHashMap, but never serialized
+
+        private final int maxKeys;
+
+        Stripe(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AtomicLong> eldest) {
+            return size() > maxKeys;
+        }
+    }
+
+    /**
+     * Constructs a limiter.
+     *
+     * @param capacity     the number of actions a key may take at once
+     * @param refillMillis the milliseconds after which a key may take one more action
+     * @param maxKeys      the number of keys whose buckets are remembered
+     * @param clock        the source of the current time in milliseconds
+     * @throws IllegalArgumentException if a parameter is not positive
+     */
+    public TokenBucketLimiter(int capacity, long refillMillis, int maxKeys, LongSupplier clock) {
+        if (capacity <= 0 || refillMillis <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("Capacity, refill time and key count must be positive.");
+        }
+        this.refillMillis = refillMillis;
+        this.burstMillis = (capacity - 1) * refillMillis;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(Math.max(1, maxKeys / STRIPES));
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of a key.
+     *
+     * @param key the key, e.g. a login
+     * @return `true` if the action may be taken; `false` if the key has to wait
+     */
+    public boolean tryAcquire(String key) {
+        AtomicLong fullAt = bucketOf(key);
+        while (true) {
+            long now = clock.getAsLong();
+            long previous = fullAt.get();
+            long start = Math.max(previous, now);
+            if (start - now > burstMillis) {
+                return false; // Empty; nothing is written, so refusing stays cheap
+            }
+            if (fullAt.compareAndSet(previous, start + refillMillis)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys whose buckets are remembered.
+     *
+     * @return the number of buckets
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private AtomicLong bucketOf(String key) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ hash >>> 16) & (STRIPES - 1)];
+        synchronized (stripe) {
+            // A new bucket is full: its full time lies in the past
+            return stripe.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package main.java;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The `WeightPyramid` class summarizes a `WeightSeries` at day, week, month and year resolution.
+ * Each resolution keeps one bucket per period that has weights, with the minimum, the maximum and
+ * the average weight of the period, so a chart of any date range can be drawn from a bounded number
+ * of buckets instead of from every weigh-in.
+ * <p>
+ * The pyramid is built in one pass over the series. When a weight is recorded afterwards, `update`
+ * recomputes only the buckets of its day, one per resolution.
+ */
+public class WeightPyramid {
+
+    /**
+     * The resolutions of the pyramid, from the finest to the coarsest. Weeks start on Monday.
+     */
+    public enum Resolution {
+        DAY, WEEK, MONTH, YEAR;
+
+        /**
+         * Returns the first day of the bucket that contains a day.
+         *
+         * @param epochDay the day, as counted by `LocalDate.toEpochDay`
+         * @return the first day of its bucket, as an epoch day
+         */
+        public int bucketStart(int epochDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            switch (this) {
+                case DAY:
+                    return epochDay;
+                case WEEK:
+                    return epochDay - (date.getDayOfWeek().getValue() - 1);
+                case MONTH:
+                    return epochDay - (date.getDayOfMonth() - 1);
+                default:
+                    return epochDay - (date.getDayOfYear() - 1);
+            }
+        }
+
+        /**
+         * Returns the first day of the bucket after the one that starts on a day.
+         *
+         * @param bucketStart the first day of a bucket, as an epoch day
+         * @return the first day of the next bucket, as an epoch day
+         */
+        public int nextBucketStart(int bucketStart) {
+            LocalDate date = LocalDate.ofEpochDay(bucketStart);
+            switch (this) {
+                case DAY:
+                    return bucketStart + 1;
+                case WEEK:
+                    return bucketStart + 7;
+                case MONTH:
+                    return Math.toIntExact(date.plusMonths(1).toEpochDay());
+                default:
+                    return Math.toIntExact(date.plusYears(1).toEpochDay());
+            }
+        }
+    }
+
+    /**
+     * The buckets of one resolution, sorted by their first day.
+     */
+    public static final class Level {
+        private final Resolution resolution;
+        private int[] starts = new int[8];
+        private double[] mins = new double[8];
+        private double[] maxs = new double[8];
+        private double[] sums = new double[8];
+        private int[] counts = new int[8];
+        private int size;
+
+        private Level(Resolution resolution) {
+            this.resolution = resolution;
+        }
+
+        public Resolution getResolution() {
+            return resolution;
+        }
+
+        /**
+         * Returns the number of buckets.
+         *
+         * @return the number of periods with at least one weight
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the index of the first bucket that starts on or after a day.
+         *
+         * @param epochDay the day
+         * @return the index of the first bucket not before the day, or `size()` if there is none
+         */
+        public int ceilingIndex(int epochDay) {
+            int index = Arrays.binarySearch(starts, 0, size, epochDay);
+            return index >= 0 ? index : -(index + 1);
+        }
+
+        public LocalDate getStartDate(int index) {
+            checkIndex(index);
+            return LocalDate.ofEpochDay(starts[index]);
+        }
+
+        public double getMin(int index) {
+            checkIndex(index);
+            return mins[index];
+        }
+
+        public double getMax(int index) {
+            checkIndex(index);
+            return maxs[index];
+        }
+
+        public double getAverage(int index) {
+            checkIndex(index);
+            return sums[index] / counts[index];
+        }
+
+        public int getCount(int index) {
+            checkIndex(index);
+            return counts[index];
+        }
+
+        /**
+         * Appends a weight to the last bucket, or to a new one if the weight starts a new period.
+         * The weights must be added in date order.
+         */
+        private void append(int epochDay, double weight) {
+            int start = resolution.bucketStart(epochDay);
+            if (size > 0 && starts[size - 1] == start) {
+                int last = size - 1;
+                mins[last] = Math.min(mins[last], weight);
+                maxs[last] = Math.max(maxs[last], weight);
+                sums[last] += weight;
+                counts[last]++;
+            } else {
+                insert(size, start, weight, weight, weight, 1);
+            }
+        }
+
+        /**
+         * Replaces the bucket that starts on a day, inserting or removing it as needed.
+         */
+        private void put(int start, double min, double max, double sum, int count) {
+            int index = Arrays.binarySearch(starts, 0, size, start);
+            if (count == 0) {
+                if (index >= 0) {
+                    remove(index);
+                }
+            } else if (index >= 0) {
+                mins[index] = min;
+                maxs[index] = max;
+                sums[index] = sum;
+                counts[index] = count;
+            } else {
+                insert(-(index + 1), start, min, max, sum, count);
+            }
+        }
+
+        private void insert(int index, int start, double min, double max, double sum, int count) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                mins = Arrays.copyOf(mins, size * 2);
+                maxs = Arrays.copyOf(maxs, size * 2);
+                sums = Arrays.copyOf(sums, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            int moved = size - index;
+            System.arraycopy(starts, index, starts, index + 1, moved);
+            System.arraycopy(mins, index, mins, index + 1, moved);
+            System.arraycopy(maxs, index, maxs, index + 1, moved);
+            System.arraycopy(sums, index, sums, index + 1, moved);
+            System.arraycopy(counts, index, counts, index + 1, moved);
+            starts[index] = start;
+            mins[index] = min;
+            maxs[index] = max;
+            sums[index] = sum;
+            counts[index] = count;
+            size++;
+        }
+
+        private void remove(int index) {
+            int moved = size - index - 1;
+            System.arraycopy(starts, index + 1, starts, index, moved);
+            System.arraycopy(mins, index + 1, mins, index, moved);
+            System.arraycopy(maxs, index + 1, maxs, index, moved);
+            System.arraycopy(sums, index + 1, sums, index, moved);
+            System.arraycopy(counts, index + 1, counts, index, moved);
+            size--;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            }
+        }
+    }
+
+    private final Level[] levels = new Level[Resolution.values().length];
+
+    /**
+     * Constructs a `WeightPyramid` of a series.
+     *
+     * @param series the weight history to summarize
+     */
+    public WeightPyramid(WeightSeries series) {
+        for (Resolution resolution : Resolution.values()) {
+            Level level = new Level(resolution);
+            for (int i = 0; i < series.size(); i++) {
+                level.append(series.getDay(i), series.getWeight(i));
+            }
+            levels[resolution.ordinal()] = level;
+        }
+    }
+
+    /**
+     * Updates the buckets of a day after its weight was recorded in the series. Only the entries of
+     * the changed buckets are read, at most a year of weigh-ins.
+     *
+     * @param series   the series the pyramid was built from, after the change
+     * @param epochDay the day whose weight was recorded
+     */
+    public void update(WeightSeries series, int epochDay) {
+        for (Level level : levels) {
+            int start = level.resolution.bucketStart(epochDay);
+            int end = series.ceilingIndex(level.resolution.nextBucketStart(start));
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0;
+            int count = 0;
+            for (int i = series.ceilingIndex(start); i < end; i++) {
+                double weight = series.getWeight(i);
+                min = Math.min(min, weight);
+                max = Math.max(max, weight);
+                sum += weight;
+                count++;
+            }
+            level.put(start, min, max, sum, count);
+        }
+    }
+
+    /**
+     * Returns the buckets of a resolution.
+     *
+     * @param resolution the resolution
+     * @return the `Level` of that resolution
+     */
+    public Level getLevel(Resolution resolution) {
+        return levels[resolution.ordinal()];
+    }
+
+    /**
+     * Returns the finest resolution at which a date range has at most the given number of buckets.
+     *
+     * @param fromDay    the first day of the range, as an epoch day
+     * @param toDay      the last day of the range, inclusive
+     * @param maxBuckets the largest number of buckets to draw
+     * @return the finest fitting resolution, or `YEAR` if none fits
+     */
+    public Resolution selectResolution(int fromDay, int toDay, int maxBuckets) {
+        for (Level level : levels) {
+            int first = level.ceilingIndex(level.resolution.bucketStart(fromDay));
+            int last = level.ceilingIndex(toDay + 1);
+            if (last - first <= maxBuckets) {
+                return level.resolution;
+            }
+        }
+        return Resolution.YEAR;
+    }
+}
@@ -0,0 +1,273 @@
+package main.java;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The `WeightSeries` class stores a weight history as two parallel primitive arrays, the days
+ * (as epoch days) and the weights, kept sorted by day with at most one weight per day. Nothing is boxed,
+ * so a history of many years of daily weigh-ins takes a few kilobytes and loads without allocating
+ * an object per entry.
+ * <p>
+ * Looking up a day and finding the entries of a date range use binary search. Recording a weight
+ * replaces the weight of its day if there is one; the search takes logarithmic time, and since weights
+ * are normally recorded in date order, the new entry usually goes at the end without moving any other.
+ * The series is written in a compact binary form that stores each day as a variable-length difference
+ * to the previous day.
+ */
+public class WeightSeries {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] days;
+    private double[] weights;
+    private int size;
+
+    /**
+     * Constructs an empty `WeightSeries`.
+     */
+    public WeightSeries() {
+        this.days = new int[INITIAL_CAPACITY];
+        this.weights = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Constructs a copy of another `WeightSeries`.
+     *
+     * @param other the series to copy
+     */
+    public WeightSeries(WeightSeries other) {
+        this.days = Arrays.copyOf(other.days, Math.max(other.size, INITIAL_CAPACITY));
+        this.weights = Arrays.copyOf(other.weights, Math.max(other.size, INITIAL_CAPACITY));
+        this.size = other.size;
+    }
+
+    /**
+     * Records the weight of a day, replacing the weight already recorded for that day.
+     *
+     * @param date   the day of the weigh-in
+     * @param weight the weight in kilograms
+     * @return true if the day had no weight before
+     */
+    public boolean upsert(LocalDate date, double weight) {
+        return upsert(Math.toIntExact(date.toEpochDay()), weight);
+    }
+
+    /**
+     * Records the weight of a day, replacing the weight already recorded for that day.
+     *
+     * @param epochDay the day of the weigh-in, as counted by `LocalDate.toEpochDay`
+     * @param weight   the weight in kilograms
+     * @return true if the day had no weight before
+     */
+    public boolean upsert(int epochDay, double weight) {
+        // Appending in date order is the common case and needs no search
+        int index = size == 0 || days[size - 1] < epochDay ? -(size + 1) : indexOf(epochDay);
+        if (index >= 0) {
+            weights[index] = weight;
+            return false;
+        }
+        index = -(index + 1);
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        System.arraycopy(days, index, days, index + 1, size - index);
+        System.arraycopy(weights, index, weights, index + 1, size - index);
+        days[index] = epochDay;
+        weights[index] = weight;
+        size++;
+        return true;
+    }
+
+    /**
+     * Finds the entry of a day.
+     *
+     * @param epochDay the day to find
+     * @return the index of the entry, or `-(insertion point) - 1` if the day has no weight
+     */
+    public int indexOf(int epochDay) {
+        return Arrays.binarySearch(days, 0, size, epochDay);
+    }
+
+    /**
+     * Returns the index of the first entry on or after a day.
+     *
+     * @param epochDay the day
+     * @return the index of the first entry not before the day, or `size()` if there is none
+     */
+    public int ceilingIndex(int epochDay) {
+        int index = indexOf(epochDay);
+        return index >= 0 ? index : -(index + 1);
+    }
+
+    /**
+     * Returns the entries of a date range.
+     *
+     * @param from the first day of the range
+     * @param to   the last day of the range, inclusive
+     * @return a new series with the entries from `from` to `to`
+     */
+    public WeightSeries range(LocalDate from, LocalDate to) {
+        int start = ceilingIndex(Math.toIntExact(from.toEpochDay()));
+        int end = Math.max(start, ceilingIndex(Math.toIntExact(to.toEpochDay()) + 1));
+        WeightSeries range = new WeightSeries();
+        range.days = Arrays.copyOfRange(days, start, start + Math.max(end - start, INITIAL_CAPACITY));
+        range.weights = Arrays.copyOfRange(weights, start, start + Math.max(end - start, INITIAL_CAPACITY));
+        range.size = end - start;
+        return range;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of days with a weight
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the series has no entries.
+     *
+     * @return true if no weight is recorded
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the day of an entry.
+     *
+     * @param index the index of the entry, in date order
+     * @return the day as an epoch day
+     */
+    public int getDay(int index) {
+        checkIndex(index);
+        return days[index];
+    }
+
+    /**
+     * Returns the day of an entry as a date.
+     *
+     * @param index the index of the entry, in date order
+     * @return the day of the entry
+     */
+    public LocalDate getDate(int index) {
+        return LocalDate.ofEpochDay(getDay(index));
+    }
+
+    /**
+     * Returns the weight of an entry.
+     *
+     * @param index the index of the entry, in date order
+     * @return the weight in kilograms
+     */
+    public double getWeight(int index) {
+        checkIndex(index);
+        return weights[index];
+    }
+
+    /**
+     * Writes the series in its binary form: the number of entries, then for each entry the difference
+     * to the previous day as a variable-length integer followed by the weight.
+     *
+     * @param out the output to write to
+     * @throws IOException if the series cannot be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        writeVarInt(out, size);
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            // The first delta is the epoch day itself, zigzag encoded as it may be negative
+            int delta = days[i] - previous;
+            writeVarInt(out, i == 0 ? (delta << 1) ^ (delta >> 31) : delta);
+            out.writeDouble(weights[i]);
+            previous = days[i];
+        }
+    }
+
+    /**
+     * Reads a series written by `writeTo`.
+     *
+     * @param in the input to read from
+     * @return the series that was read
+     * @throws IOException if the series cannot be read or is corrupt
+     */
+    public static WeightSeries readFrom(DataInput in) throws IOException {
+        int size = readVarInt(in);
+        if (size < 0) {
+            throw new IOException("Corrupt weight series size: " + size);
+        }
+        WeightSeries series = new WeightSeries();
+        series.days = new int[Math.max(size, INITIAL_CAPACITY)];
+        series.weights = new double[Math.max(size, INITIAL_CAPACITY)];
+        int day = 0;
+        for (int i = 0; i < size; i++) {
+            int encoded = readVarInt(in);
+            if (i == 0) {
+                day = (encoded >>> 1) ^ -(encoded & 1);
+            } else if (encoded <= 0) {
+                throw new IOException("Corrupt weight series: days are not increasing");
+            } else {
+                day += encoded;
+            }
+            series.days[i] = day;
+            series.weights[i] = in.readDouble();
+        }
+        series.size = size;
+        return series;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof WeightSeries)) {
+            return false;
+        }
+        WeightSeries series = (WeightSeries) other;
+        return size == series.size
+                && Arrays.equals(days, 0, size, series.days, 0, size)
+                && Arrays.equals(weights, 0, size, series.weights, 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = size;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + days[i];
+            hash = 31 * hash + Double.hashCode(weights[i]);
+        }
+        return hash;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt variable-length integer");
+    }
+}
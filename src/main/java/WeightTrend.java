@@ -0,0 +1,197 @@
+package main.java;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The `WeightTrend` class follows the trend of a `WeightSeries`. It keeps an exponentially weighted
+ * moving average of every entry and a linear regression over the weigh-ins of the last
+ * `REGRESSION_DAYS` days, from which it projects when a goal weight will be reached.
+ * <p>
+ * The trend is computed once from the whole series. After that, recording a weigh-in on a new latest day,
+ * or replacing the weight of the latest day, updates it in constant time: the moving average continues
+ * from the previous entry, and the sums of the regression add the new weigh-in and drop the ones that
+ * left the window. Only a weigh-in dated before the latest day recomputes the whole trend.
+ */
+public class WeightTrend {
+    public static final int REGRESSION_DAYS = 28;       // Length of the regression window
+    private static final double SMOOTHING_DAYS = 10.0;  // Time constant of the moving average
+
+    private double[] averages = new double[8]; // Moving average at each entry of the series
+    private int size;
+    private double lastWeight; // Weight of the last entry as it was added to the regression
+
+    private int originDay;   // Day the regression measures x from, to keep the sums small
+    private int windowStart; // Index of the first entry in the regression window
+    private double sumX;
+    private double sumY;
+    private double sumXY;
+    private double sumXX;
+    private int count;
+
+    /**
+     * Constructs the `WeightTrend` of a series.
+     *
+     * @param series the weight history to follow
+     */
+    public WeightTrend(WeightSeries series) {
+        rebuild(series);
+    }
+
+    /**
+     * Updates the trend after a weight was recorded in the series.
+     *
+     * @param series   the series the trend was built from, after the change
+     * @param epochDay the day whose weight was recorded
+     */
+    public void record(WeightSeries series, int epochDay) {
+        int lastDay = size == 0 ? Integer.MIN_VALUE : series.getDay(size - 1);
+        if (series.size() == size + 1 && epochDay > lastDay && series.getDay(size) == epochDay) {
+            append(series);
+        } else if (series.size() == size && size > 0 && epochDay == lastDay) {
+            replaceLast(series);
+        } else {
+            rebuild(series);
+        }
+    }
+
+    /**
+     * Returns the moving average at an entry of the series.
+     *
+     * @param index the index of the entry in the series
+     * @return the moving average in kilograms
+     */
+    public double getAverage(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return averages[index];
+    }
+
+    /**
+     * Returns the slope of the regression over the last `REGRESSION_DAYS` days.
+     *
+     * @return the change in kilograms per day, or `NaN` if the window has weights of less than two days
+     */
+    public double getSlope() {
+        double denominator = count * sumXX - sumX * sumX;
+        if (count < 2 || denominator == 0) {
+            return Double.NaN;
+        }
+        return (count * sumXY - sumX * sumY) / denominator;
+    }
+
+    /**
+     * Returns the weight of the regression line on a day.
+     *
+     * @param epochDay the day, as counted by `LocalDate.toEpochDay`
+     * @return the weight in kilograms, or `NaN` if there is no slope
+     */
+    public double getRegressionWeight(int epochDay) {
+        double slope = getSlope();
+        if (Double.isNaN(slope)) {
+            return Double.NaN;
+        }
+        double intercept = (sumY - slope * sumX) / count;
+        return intercept + slope * (epochDay - originDay);
+    }
+
+    /**
+     * Projects the day on which the regression line reaches a goal weight.
+     *
+     * @param series     the series the trend was built from
+     * @param goalWeight the goal weight in kilograms
+     * @return the projected day, or `null` if there is no trend or it moves away from the goal
+     */
+    public LocalDate projectGoalDate(WeightSeries series, double goalWeight) {
+        double slope = getSlope();
+        if (size == 0 || Double.isNaN(slope)) {
+            return null;
+        }
+        int lastDay = series.getDay(size - 1);
+        double remaining = goalWeight - getRegressionWeight(lastDay);
+        if (remaining == 0) {
+            return LocalDate.ofEpochDay(lastDay);
+        }
+        if (Math.signum(remaining) != Math.signum(slope)) {
+            return null;
+        }
+        // The tolerance keeps rounding errors from moving an exact day to the next one
+        return LocalDate.ofEpochDay(lastDay + (long) Math.ceil(remaining / slope - 1e-9));
+    }
+
+    /**
+     * Adds the new last entry of the series.
+     */
+    private void append(WeightSeries series) {
+        int day = series.getDay(size);
+        double weight = series.getWeight(size);
+        if (size == averages.length) {
+            averages = Arrays.copyOf(averages, size * 2);
+        }
+        averages[size] = size == 0 ? weight : smooth(averages[size - 1], series.getDay(size - 1), day, weight);
+        size++;
+
+        lastWeight = weight;
+        addToWindow(day, weight);
+        // Drop the weigh-ins that are no longer within the window of the new latest day
+        while (series.getDay(windowStart) <= day - REGRESSION_DAYS) {
+            removeFromWindow(series.getDay(windowStart), series.getWeight(windowStart));
+            windowStart++;
+        }
+    }
+
+    /**
+     * Recomputes the last entry after its weight was replaced in the series.
+     */
+    private void replaceLast(WeightSeries series) {
+        int last = size - 1;
+        int day = series.getDay(last);
+        double weight = series.getWeight(last);
+        averages[last] = last == 0 ? weight : smooth(averages[last - 1], series.getDay(last - 1), day, weight);
+        removeFromWindow(day, lastWeight);
+        addToWindow(day, weight);
+        lastWeight = weight;
+    }
+
+    /**
+     * Recomputes the whole trend from the series.
+     */
+    private void rebuild(WeightSeries series) {
+        averages = new double[Math.max(8, series.size())];
+        size = 0;
+        originDay = series.isEmpty() ? 0 : series.getDay(0);
+        windowStart = 0;
+        sumX = sumY = sumXY = sumXX = 0;
+        count = 0;
+        while (size < series.size()) {
+            append(series);
+        }
+    }
+
+    /**
+     * Moves the average towards a new weight, the more the longer ago the previous weigh-in was.
+     */
+    private static double smooth(double previousAverage, int previousDay, int day, double weight) {
+        double alpha = 1 - Math.exp(-(day - previousDay) / SMOOTHING_DAYS);
+        return previousAverage + alpha * (weight - previousAverage);
+    }
+
+    private void addToWindow(int day, double weight) {
+        double x = day - originDay;
+        sumX += x;
+        sumY += weight;
+        sumXY += x * weight;
+        sumXX += x * x;
+        count++;
+    }
+
+    private void removeFromWindow(int day, double weight) {
+        double x = day - originDay;
+        sumX -= x;
+        sumY -= weight;
+        sumXY -= x * weight;
+        sumXX -= x * x;
+        count--;
+    }
+}
@@ -0,0 +1,113 @@
+package main.java;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * The `WeightedLruCache` class keeps values in least recently used order, bounded both by the number of values
+ * and by their total weight (e.g. their estimated size in bytes). When a value is added and a bound is exceeded,
+ * the values used longest ago are evicted and handed to a listener, so the owner can release what they hold.
+ * <p>
+ * The weight of a value is taken when it is added. The cache is not synchronized.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class WeightedLruCache<K, V> {
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final BiConsumer<K, V> onEvict;
+    private final LinkedHashMap<K, V> values = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, Long> weights = new HashMap<>();
+    private long totalWeight;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param maxEntries the maximum number of values
+     * @param maxWeight  the maximum total weight of the values
+     * @param weigher    computes the weight of a value
+     * @param onEvict    receives every evicted key and value
+     * @throws IllegalArgumentException if a bound is not positive
+     */
+    public WeightedLruCache(int maxEntries, long maxWeight, ToLongFunction<V> weigher, BiConsumer<K, V> onEvict) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("The bounds of the cache must be positive.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.onEvict = onEvict;
+    }
+
+    /**
+     * Returns the value of a key and marks it as the most recently used.
+     *
+     * @param key the key
+     * @return the value, or `null` if the key is not cached
+     */
+    public V get(K key) {
+        return values.get(key);
+    }
+
+    /**
+     * Adds a value as the most recently used, replacing the previous value of its key without evicting it,
+     * and evicts the least recently used values while a bound is exceeded. A value that alone weighs more
+     * than the maximum is evicted at once.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        remove(key);
+        long weight = weigher.applyAsLong(value);
+        values.put(key, value);
+        weights.put(key, weight);
+        totalWeight += weight;
+
+        Iterator<Map.Entry<K, V>> eldest = values.entrySet().iterator();
+        while (values.size() > maxEntries || totalWeight > maxWeight) {
+            Map.Entry<K, V> entry = eldest.next();
+            eldest.remove();
+            totalWeight -= weights.remove(entry.getKey());
+            onEvict.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the value of a key without handing it to the eviction listener.
+     *
+     * @param key the key
+     * @return the removed value, or `null` if the key was not cached
+     */
+    public V remove(K key) {
+        V value = values.remove(key);
+        if (value != null) {
+            totalWeight -= weights.remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of cached values.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Returns the total weight of the cached values.
+     *
+     * @return the sum of the weights taken when the values were added
+     */
+    public long weight() {
+        return totalWeight;
+    }
+}
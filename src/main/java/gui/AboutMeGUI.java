@@ -1,12 +1,13 @@
 package main.java.gui;
 
+import main.java.storage.ProfileStore;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 
 /**
  * The {@code AboutMeGUI} class creates a graphical user interface
@@ -14,7 +15,8 @@ import java.util.ArrayList;
  * of certain details. It includes a BMI indicator and navigation
  * to other sections of the application.
  */
-public class AboutMeGUI {
+public class AboutMeGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
 
     private final BMIIndicator bmiIndicator;
     public final JLabel bmiLabel;
@@ -29,23 +31,29 @@ public class AboutMeGUI {
     public String dateOfAccountCreation;
     public String dateOfCurrentWeight;
 
+    private final JPanel panel;             // The root panel of the screen
+    private final JLabel nameLabel;         // Labels displaying the user information
+    private final JLabel weightLabel;
+    private final JLabel heightLabel;
+    private final JLabel currentWeightDateLabel;
+
     /**
      * Constructs the {@code AboutMeGUI} and initializes the GUI components.
-     * It loads user data, sets up the main frame, and configures all panels and actions.
+     * It loads user data, sets up the main panel, and configures all panels and actions.
+     *
+     * @param context The session of the logged-in user.
      */
-    public AboutMeGUI() {
+    public AboutMeGUI(SessionContext context) {
+        this.context = context;
         // Retrieve the UUID of the logged-in user
-        userUUID = LoginGUI.loggedInUserUUID;
+        userUUID = context.getUserUUID();
 
-        // Load user data from the specified file
-        loadUserDataFromFile("src/main/resources/usersData.txt");
+        // Take the user data from the session loaded at login
+        loadUserDataFromSession(context.getUserSession());
 
-        // Create the main application frame
-        JFrame frame = new JFrame("Fitness Tracker - About Me");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(1000, 600);
-        frame.setLocationRelativeTo(null); // Center the frame on the screen
-        frame.setLayout(new BorderLayout());
+        // Create the root panel of the screen
+        panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(1000, 600));
 
         // Top Panel with navigation buttons
         JPanel topPanel = new JPanel();
@@ -105,23 +113,19 @@ public class AboutMeGUI {
 
         // Action listeners for menu items
         aboutMe.addActionListener(e -> {
-            frame.dispose();
-            new AboutMeGUI();
+            Navigator.show(context, AboutMeGUI.class, AboutMeGUI::new);
         });
 
         workoutStats.addActionListener(e -> {
-            frame.dispose();
-            new WorkoutStatsGUI();
+            Navigator.show(context, WorkoutStatsGUI.class, WorkoutStatsGUI::new);
         });
 
         weightHistory.addActionListener(e -> {
-            frame.dispose();
-            new WeightHistoryGUI();
+            Navigator.show(context, WeightHistoryGUI.class, WeightHistoryGUI::new);
         });
 
         logOut.addActionListener(e -> {
-            frame.dispose();
-            new LoginGUI();
+            context.logOut(); // Leave the session and open the LoginGUI
         });
 
         // Show the profile menu when the "PROFILE" button is hovered over
@@ -136,8 +140,7 @@ public class AboutMeGUI {
         mainSiteButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();
-                new MainGUI();
+                Navigator.show(context, MainGUI.class, MainGUI::new);
             }
 
             @Override
@@ -156,8 +159,7 @@ public class AboutMeGUI {
             @Override
             public void mouseClicked(MouseEvent e) {
                 System.out.println("Go to Our Coaches...");
-                frame.dispose();
-                new OurCoachesGUI();
+                Navigator.show(context, OurCoachesGUI.class, OurCoachesGUI::new);
             }
 
             @Override
@@ -175,8 +177,7 @@ public class AboutMeGUI {
         workoutsButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();
-                new WorkoutsGUI();
+                Navigator.show(context, WorkoutsGUI.class, WorkoutsGUI::new);
             }
 
             @Override
@@ -190,8 +191,8 @@ public class AboutMeGUI {
             }
         });
 
-        // Add the top panel to the frame
-        frame.add(topPanel, BorderLayout.NORTH);
+        // Add the top panel to the main panel
+        panel.add(topPanel, BorderLayout.NORTH);
 
         // Center Panel
         JPanel centerPanel = new JPanel(new BorderLayout());
@@ -215,14 +216,14 @@ public class AboutMeGUI {
 
         // Labels displaying user information
         JLabel uuidLabel = new JLabel("UUID: " + (userUUID != null ? userUUID : "-"));
-        JLabel nameLabel = new JLabel("Name: " + (userName != null ? userName : "-"));
-        JLabel weightLabel = new JLabel("Weight: " + userWeight);
-        JLabel heightLabel = new JLabel("Height: " + userHeight);
+        nameLabel = new JLabel("Name: " + (userName != null ? userName : "-"));
+        weightLabel = new JLabel("Weight: " + userWeight);
+        heightLabel = new JLabel("Height: " + userHeight);
         JLabel ageLabel = new JLabel("Age: " + userAge);
         JLabel genderLabel = new JLabel("Gender: " + (userGender != null ? userGender : "-"));
         JLabel accountDateLabel = new JLabel("Date of account creation: "
                 + (dateOfAccountCreation != null ? dateOfAccountCreation : "-"));
-        JLabel currentWeightDateLabel = new JLabel("Date of current weight: "
+        currentWeightDateLabel = new JLabel("Date of current weight: "
                 + (dateOfCurrentWeight != null ? dateOfCurrentWeight : "-"));
 
         // Configure label fonts and colors
@@ -269,7 +270,7 @@ public class AboutMeGUI {
         leftPanel.add(editButton);
 
         // Action listener for the edit button
-        editButton.addActionListener(e -> openEditDialog(frame, nameLabel, weightLabel, heightLabel, currentWeightDateLabel));
+        editButton.addActionListener(e -> openEditDialog(Navigator.getFrame(), nameLabel, weightLabel, heightLabel, currentWeightDateLabel));
 
         // Add the left panel to the center panel
         centerPanel.add(leftPanel, BorderLayout.WEST);
@@ -306,8 +307,7 @@ public class AboutMeGUI {
 
         // Add the right panel to the center panel
         centerPanel.add(rightPanel, BorderLayout.EAST);
-        frame.add(centerPanel, BorderLayout.CENTER);
-        frame.setVisible(true);
+        panel.add(centerPanel, BorderLayout.CENTER);
 
         // Calculate and set BMI if height is available
         if (userHeight > 0) {
@@ -317,6 +317,33 @@ public class AboutMeGUI {
         }
     }
 
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - About Me";
+    }
+
+    /**
+     * Updates the displayed user information and BMI from the session loaded at login.
+     */
+    @Override
+    public void refresh() {
+        loadUserDataFromSession(context.getUserSession());
+        nameLabel.setText("Name: " + (userName != null ? userName : "-"));
+        weightLabel.setText("Weight: " + userWeight);
+        heightLabel.setText("Height: " + userHeight);
+        currentWeightDateLabel.setText("Date of current weight: "
+                + (dateOfCurrentWeight != null ? dateOfCurrentWeight : "-"));
+        if (userHeight > 0) {
+            double heightInMeters = userHeight / 100.0;
+            setBMI(userWeight / Math.pow(heightInMeters, 2));
+        }
+    }
+
     /**
      * Opens a dialog that allows the user to edit their information.
      *
@@ -424,42 +451,47 @@ public class AboutMeGUI {
             String newWeightDate = LocalDateTime.now()
                     .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
 
-            // 1) Update the usersData.txt file
-            updateUserDataInFile(
-                    userUUID,
-                    newName,
-                    newWeight,
-                    newHeight,
-                    userAge,
-                    userGender,
-                    dateOfAccountCreation,
-                    newWeightDate
-            );
-
-            // 2) Update the in-memory data
-            userName = newName;
-            userWeight = newWeight;
-            userHeight = newHeight;
-            dateOfCurrentWeight = newWeightDate;
-
-            // 3) Refresh the labels in the GUI
-            nameLabel.setText("Name: " + userName);
-            weightLabel.setText("Weight: " + userWeight);
-            heightLabel.setText("Height: " + userHeight);
-            currentWeightDateLabel.setText("Date of current weight: " + dateOfCurrentWeight);
-
-            // 4) Recalculate and set BMI
-            if (userHeight > 0) {
-                double heightInMeters = userHeight / 100.0;
-                double newBMI = userWeight / Math.pow(heightInMeters, 2);
-                setBMI(newBMI);
-            }
-
-            // 5) Update the weightsData.txt file
-            updateWeightsDataInFile(userUUID, newWeightDate, newWeight);
+            // 1) Save the profile and the weight entry in the background, as one new version
+            //    of the profile store, so readers see either both changes or none of them
+            ProfileStore.Profile profile = new ProfileStore.Profile(userUUID, newName, newWeight, newHeight,
+                    userAge, userGender, dateOfAccountCreation, newWeightDate);
+            LocalDate weighInDay = LocalDate.now();
+            double savedWeight = newWeight;
+            double savedHeight = newHeight;
+            saveButton.setEnabled(false); // Keep the profile from being saved twice
+            AsyncData.onEdt(AsyncData.run(() -> ProfileStore.getDefault().updateProfile(profile, weighInDay)), saved -> {
+                // 2) Once stored, update the in-memory data and the session shared by all screens
+                userName = newName;
+                userWeight = savedWeight;
+                userHeight = savedHeight;
+                dateOfCurrentWeight = newWeightDate;
+                context.getUserSession().updateProfile(newName, savedWeight, savedHeight, newWeightDate);
+
+                // 3) Refresh the labels in the GUI
+                nameLabel.setText("Name: " + userName);
+                weightLabel.setText("Weight: " + userWeight);
+                heightLabel.setText("Height: " + userHeight);
+                currentWeightDateLabel.setText("Date of current weight: " + dateOfCurrentWeight);
+
+                // 4) Recalculate and set BMI
+                if (userHeight > 0) {
+                    double heightInMeters = userHeight / 100.0;
+                    double newBMI = userWeight / Math.pow(heightInMeters, 2);
+                    setBMI(newBMI);
+                }
 
-            // Close the dialog
-            dialog.dispose();
+                // 5) Update the cached weight history
+                context.getUserSession().addWeightEntry(newWeightDate, savedWeight);
+
+                // Close the dialog
+                dialog.dispose();
+            }, error -> {
+                // The store rolled the update back, so the screen and the session keep the old data
+                saveButton.setEnabled(true);
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(dialog, "Error saving your information: " + error.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            });
         });
 
         // Action listener for the "Cancel" button
@@ -469,71 +501,6 @@ public class AboutMeGUI {
         dialog.setVisible(true);
     }
 
-    /**
-     * Updates the user data in the {@code usersData.txt} file.
-     *
-     * @param uuid                 The UUID of the user.
-     * @param newName              The new name of the user.
-     * @param newWeight            The new weight of the user.
-     * @param newHeight            The new height of the user.
-     * @param age                  The age of the user.
-     * @param gender               The gender of the user.
-     * @param accountCreationDate  The account creation date of the user.
-     * @param weightDate           The date of the current weight.
-     */
-    public void updateUserDataInFile(String uuid, String newName, double newWeight, double newHeight,
-                                     int age, String gender, String accountCreationDate,
-                                     String weightDate) {
-
-        File file = new File("src/main/resources/usersData.txt");
-        if (!file.exists()) {
-            System.err.println("File not found: " + file.getAbsolutePath());
-            return;
-        }
-
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean found = false;
-            while ((line = br.readLine()) != null) {
-                if (line.isEmpty()) {
-                    sb.append("\n");
-                    continue;
-                }
-                String[] parts = line.split(";");
-                if (parts.length < 8) {
-                    sb.append(line).append("\n");
-                    continue;
-                }
-
-                String uuidFromFile = parts[0];
-                if (uuidFromFile.equals(uuid)) {
-                    // Overwrite the user data line
-                    String newLine = uuid + ";" + newName + ";" + newWeight + ";" +
-                            newHeight + ";" + age + ";" + gender + ";" +
-                            accountCreationDate + ";" + weightDate;
-                    sb.append(newLine).append("\n");
-                    found = true;
-                } else {
-                    sb.append(line).append("\n");
-                }
-            }
-
-            if (!found) {
-                System.out.println("UUID not found in file; nothing updated.");
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        // Write the updated content back to the file
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file, false))) {
-            bw.write(sb.toString());
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
-    }
-
     /**
      * Sets the BMI value and updates the corresponding labels and indicators.
      *
@@ -561,136 +528,18 @@ public class AboutMeGUI {
     }
 
     /**
-     * Loads user data from the specified file.
-     *
-     * @param fileName The path to the file containing user data.
-     */
-    public void loadUserDataFromFile(String fileName) {
-        File file = new File(fileName);
-        if (!file.exists()) {
-            System.err.println("File " + fileName + " does not exist!");
-            return;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.isEmpty()) continue;
-                String[] parts = line.split(";");
-                if (parts.length < 8) continue;
-
-                String uuidFromFile = parts[0];
-                if (uuidFromFile.equals(userUUID)) {
-                    userName = parts[1];
-                    try {
-                        userWeight = Double.parseDouble(parts[2]);
-                    } catch (NumberFormatException e) {
-                        userWeight = 0.0;
-                    }
-                    try {
-                        userHeight = Double.parseDouble(parts[3]);
-                    } catch (NumberFormatException e) {
-                        userHeight = 0.0;
-                    }
-                    try {
-                        userAge = Integer.parseInt(parts[4]);
-                    } catch (NumberFormatException e) {
-                        userAge = 0;
-                    }
-                    userGender = parts[5];
-                    dateOfAccountCreation = parts[6];
-                    dateOfCurrentWeight = parts[7];
-                    break;
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Updates the weights data in the {@code weightsData.txt} file for the user.
+     * Copies the user data from the session of the logged-in user.
      *
-     * @param uuid      The UUID of the user.
-     * @param newDate   The date of the weight update.
-     * @param newWeight The new weight of the user.
+     * @param session The {@code UserSession} of the logged-in user.
      */
-    public void updateWeightsDataInFile(String uuid, String newDate, double newWeight) {
-        File file = new File("src/main/resources/weightsData.txt");
-        boolean fileExists = file.exists();
-        StringBuilder sb = new StringBuilder();
-        boolean foundUserLine = false;
-
-        // If the file does not exist, create a new one
-        if (!fileExists) {
-            try {
-                file.createNewFile();
-            } catch (IOException e) {
-                e.printStackTrace();
-                return;
-            }
-        }
-
-        ArrayList<String> lines = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                lines.add(line);
-            }
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
-
-        // Process each line to update or add weight data
-        for (String line : lines) {
-            if (line.trim().isEmpty()) {
-                sb.append(line).append("\n");
-                continue;
-            }
-            String[] parts = line.split(";");
-            if (parts.length < 2) {
-                sb.append(line).append("\n");
-                continue;
-            }
-
-            String uuidFromFile = parts[0];
-            if (uuidFromFile.equals(uuid)) {
-                // Found the user's line
-                foundUserLine = true;
-                // Check if the date is already recorded
-                boolean dateAlreadySaved = false;
-                StringBuilder userLineBuilder = new StringBuilder();
-                userLineBuilder.append(uuid);
-
-                for (int i = 1; i < parts.length; i++) {
-                    String entry = parts[i];
-                    if (entry.startsWith(newDate + "~")) {
-                        dateAlreadySaved = true;
-                    }
-                    userLineBuilder.append(";").append(entry);
-                }
-                // If the date is not already saved, append it
-                if (!dateAlreadySaved) {
-                    userLineBuilder.append(";").append(newDate).append("~").append(newWeight);
-                }
-                sb.append(userLineBuilder.toString()).append("\n");
-            } else {
-                sb.append(line).append("\n");
-            }
-        }
-
-        // If the user's line was not found, add a new entry
-        if (!foundUserLine) {
-            String newLine = uuid + ";" + newDate + "~" + newWeight;
-            sb.append(newLine).append("\n");
-        }
-
-        // Write the updated content back to the file
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file, false))) {
-            bw.write(sb.toString());
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+    private void loadUserDataFromSession(UserSession session) {
+        userName = session.getUserName();
+        userWeight = session.getUserWeight();
+        userHeight = session.getUserHeight();
+        userAge = session.getUserAge();
+        userGender = session.getUserGender();
+        dateOfAccountCreation = session.getDateOfAccountCreation();
+        dateOfCurrentWeight = session.getDateOfCurrentWeight();
     }
 
     /**
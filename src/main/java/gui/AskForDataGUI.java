@@ -2,14 +2,15 @@ package main.java.gui;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.Period;
 import java.util.Properties;
+import java.util.UUID;
 
 import main.java.DateLabelFormatter;
+import main.java.storage.PasswordHasher;
+import main.java.storage.ProfileStore;
 import org.jdatepicker.impl.JDatePanelImpl;
 import org.jdatepicker.impl.JDatePickerImpl;
 import org.jdatepicker.impl.UtilDateModel;
@@ -166,10 +167,6 @@ public class AskForDataGUI {
                     throw new IllegalArgumentException("Date of Birth cannot be today or a future date.");
                 }
 
-                // Create the user in the usersLoginData.txt file and get the UUID
-                String userUUID = RegisterGUI.addNewUser(login, password);
-                LoginGUI.loggedInUserUUID = userUUID;
-
                 // Set the exact time of account creation
                 accDate = LocalDateTime.now();
 
@@ -180,31 +177,39 @@ public class AskForDataGUI {
                 DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
                 String creationDateStr = accDate.format(formatter);
 
-                // Compile the data to be saved in usersData.txt
-                // Format: uuid;Name;Weight;Height;Age;Gender;AccountCreationDate;CurrentWeightDate
-                String userDataLine = userUUID + ";" + name + ";"
-                        + weightValue + ";" + heightValue + ";"
-                        + age + ";" + gender + ";" + creationDateStr + ";" + creationDateStr;
-
-                // Write to usersData.txt (appending at the end)
-                try (FileWriter writer = new FileWriter("src/main/resources/usersData.txt", true)) {
-                    writer.write(userDataLine + System.lineSeparator());
-                } catch (IOException ioex) {
-                    ioex.printStackTrace();
+                // Save the new user in the background while the window shows that it is busy
+                submitButton.setEnabled(false);
+                messageLabel.setText("Saving...");
+                // Hash the password on the compute pool first, so the file access is not held up by it
+                AsyncData.onEdt(AsyncData.compute(() -> PasswordHasher.getDefault().hash(password.toCharArray()))
+                        .thenCompose(secret -> AsyncData.write(() -> {
+                    // Save the profile of the new user in the profile store (usersData.txt) first, so a
+                    // failed save leaves no login without a profile; a profile without a login is never read
+                    String userUUID = UUID.randomUUID().toString();
+                    ProfileStore.getDefault().putProfile(new ProfileStore.Profile(userUUID, name,
+                            weightValue, heightValue, age, gender, creationDateStr, creationDateStr));
+
+                    // Create the user in the login index
+                    RegisterGUI.addNewUser(login, userUUID, secret);
+
+                    // Load the data of the new user once for all screens
+                    return UserSession.load(userUUID);
+                })), session -> {
+                    // If execution reaches here, registration and file writing were successful
+                    messageLabel.setText("Data submitted successfully!");
+                    messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+                    messageLabel.setForeground(Color.GREEN);
+
+                    // Close the current window and open the main GUI
+                    frame.dispose();
+                    Navigator.show(SessionContext.forUser(session), MainGUI.class, MainGUI::new);
+                }, error -> {
+                    error.printStackTrace();
                     // Display error message if writing to file fails
+                    submitButton.setEnabled(true);
                     messageLabel.setText("Error writing data to file!");
                     messageLabel.setForeground(Color.RED);
-                    return;
-                }
-
-                // If execution reaches here, registration and file writing were successful
-                messageLabel.setText("Data submitted successfully!");
-                messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
-                messageLabel.setForeground(Color.GREEN);
-
-                // Close the current window and open the main GUI
-                frame.dispose();
-                new MainGUI();
+                });
 
             } catch (NumberFormatException ex) {
                 // Handle non-numeric weight and height inputs
@@ -0,0 +1,171 @@
+package main.java.gui;
+
+import javax.swing.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The {@code AsyncData} class runs the file access of the GUI off the Swing event dispatch thread,
+ * so the windows keep repainting and reacting while data files are read or written.
+ * Tasks return {@code CompletableFuture}s; {@link #onEdt} delivers their results back to Swing.
+ * <p>
+ * Reads run through {@link #supply}, each on its own virtual thread, so a slow read never holds up
+ * the others. The stores are thread-safe, so reads may run at the same time as each other and as a write.
+ * Writes run through {@link #write} and {@link #run}, one after another on a single background thread:
+ * several of them check the stored data before changing it (e.g. a login that must still be free), and
+ * keeping them in order means a write never acts on data an earlier write is about to change. A read
+ * that must see a write is chained to the future of that write.
+ * <p>
+ * CPU-heavy tasks that do not touch the data files, such as hashing passwords, run on a small separate pool
+ * through {@link #compute}, so they neither block file access nor occupy every core. Its queue is bounded and
+ * served in arrival order: a burst of logins waits its turn, and once the queue is full further tasks fail
+ * at once instead of piling up.
+ */
+public final class AsyncData {
+
+    /**
+     * A file access task, which may throw any exception.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * A file access task without a result, which may throw any exception.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    // Virtual threads are daemon threads, so pending reads never keep the application from exiting
+    private static final ExecutorService READS = Executors.newVirtualThreadPerTaskExecutor();
+
+    // A single daemon thread for the same reason
+    private static final ExecutorService WRITES = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fitness-tracker-writes");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int COMPUTE_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final int COMPUTE_QUEUE = 32;
+
+    private static final AtomicInteger computeThreadCount = new AtomicInteger();
+    private static final ExecutorService COMPUTE = new ThreadPoolExecutor(COMPUTE_THREADS, COMPUTE_THREADS,
+            0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(COMPUTE_QUEUE), runnable -> {
+        Thread thread = new Thread(runnable, "fitness-tracker-compute-" + computeThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private AsyncData() {
+    }
+
+    /**
+     * Runs a task that only reads data on a new virtual thread.
+     *
+     * @param task The task to run.
+     * @param <T>  The type of the result.
+     * @return A future completed with the result of the task, or exceptionally with the exception it threw.
+     */
+    public static <T> CompletableFuture<T> supply(Task<T> task) {
+        return CompletableFuture.supplyAsync(unchecked(task), READS);
+    }
+
+    /**
+     * Runs a task that writes data on the writer thread, after all writes submitted before it.
+     *
+     * @param task The task to run.
+     * @param <T>  The type of the result.
+     * @return A future completed with the result of the task, or exceptionally with the exception it threw.
+     */
+    public static <T> CompletableFuture<T> write(Task<T> task) {
+        return CompletableFuture.supplyAsync(unchecked(task), WRITES);
+    }
+
+    /**
+     * Runs a CPU-heavy task on the bounded compute pool.
+     *
+     * @param task The task to run; it must not access the data files.
+     * @param <T>  The type of the result.
+     * @return A future completed with the result of the task, or exceptionally with the exception it threw,
+     *         or with a {@code RejectedExecutionException} if too many tasks are already waiting.
+     */
+    public static <T> CompletableFuture<T> compute(Task<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(unchecked(task), COMPUTE);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs an action that writes data on the writer thread, after all writes submitted before it.
+     *
+     * @param action The action to run.
+     * @return A future completed when the action has finished, or exceptionally with the exception it threw.
+     */
+    public static CompletableFuture<Void> run(Action action) {
+        return write(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Delivers the outcome of a future to the event dispatch thread. Exactly one of the callbacks is
+     * called, on the event dispatch thread, once the future has completed.
+     *
+     * @param future    The future to wait for.
+     * @param onSuccess Receives the result if the future completed normally.
+     * @param onFailure Receives the cause if the future completed exceptionally.
+     * @param <T>       The type of the result.
+     */
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        future.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                // Unwrap the exception thrown by the task
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                onFailure.accept(cause);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Delivers the result of a future to the event dispatch thread, printing the stack trace of a failure.
+     *
+     * @param future    The future to wait for.
+     * @param onSuccess Receives the result if the future completed normally.
+     * @param <T>       The type of the result.
+     */
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<T> onSuccess) {
+        onEdt(future, onSuccess, Throwable::printStackTrace);
+    }
+
+    private static <T> Supplier<T> unchecked(Task<T> task) {
+        return () -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+}
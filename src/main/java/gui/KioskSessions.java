@@ -0,0 +1,55 @@
+package main.java.gui;
+
+import main.java.WeightedLruCache;
+
+/**
+ * The {@code KioskSessions} class keeps the sessions of users who logged out of a shared terminal, such as a
+ * gym kiosk, so members taking turns at it switch without reloading their data or rebuilding their screens.
+ * <p>
+ * Kiosk mode is enabled with the {@code fitness.kiosk} system property. Logged-out sessions are kept in a
+ * least recently used cache bounded by {@code fitness.kiosk.maxSessions} sessions (8 by default) and by
+ * {@code fitness.kiosk.maxBytes} of estimated memory (64 MB by default); the screens of an evicted session are
+ * dropped. A kept session is only resumed after its user has logged in again with their password.
+ * Like the rest of the GUI, this class is only used on the Swing event dispatch thread.
+ */
+public final class KioskSessions {
+    private static final boolean ENABLED = Boolean.getBoolean("fitness.kiosk");
+
+    private static final WeightedLruCache<String, SessionContext> parked = new WeightedLruCache<>(
+            Integer.getInteger("fitness.kiosk.maxSessions", 8),
+            Long.getLong("fitness.kiosk.maxBytes", 64L * 1024 * 1024),
+            SessionContext::estimatedBytes,
+            (key, context) -> Navigator.drop(context));
+
+    private KioskSessions() {
+    }
+
+    /**
+     * Tells whether the application runs in kiosk mode.
+     *
+     * @return {@code true} if logged-out sessions are kept.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Takes the kept session with the given key, after its user or coach has logged in again.
+     *
+     * @param key The key of the session, see {@link SessionContext#userKey} and {@link SessionContext#coachKey}.
+     * @return The kept {@code SessionContext}, or {@code null} if there is none or kiosk mode is off.
+     */
+    public static SessionContext resume(String key) {
+        return ENABLED ? parked.remove(key) : null;
+    }
+
+    /**
+     * Keeps the session of a user or coach who logged out, evicting the sessions used longest ago
+     * while the bounds are exceeded.
+     *
+     * @param context The session that was left.
+     */
+    static void park(SessionContext context) {
+        parked.put(context.getKey(), context);
+    }
+}
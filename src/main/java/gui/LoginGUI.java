@@ -1,12 +1,16 @@
 package main.java.gui;
 
+import main.java.TokenBucketLimiter;
 import main.java.gui.coachgui.CoachGUI;
+import main.java.storage.CredentialIndex;
+import main.java.storage.PasswordHasher;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * The {@code LoginGUI} class creates a graphical user interface for users and coaches to log into the Fitness Tracker application.
@@ -14,11 +18,13 @@ import java.util.Map;
  * Upon successful login, it redirects users to the main application or coaches to their respective dashboards.
  */
 public class LoginGUI {
-    public static String loggedInUserUUID = null; // Stores the UUID of the logged-in user
-    public static String loggedInCoachID = null;  // Stores the ID of the logged-in coach
+    // Login attempts: 5 at once per login, then one every 30 seconds; 20 at once per terminal, then one every 3 seconds.
+    // The application runs one process per terminal, so all login screens of this process share the terminal's bucket.
+    private static final TokenBucketLimiter LOGIN_ATTEMPTS = new TokenBucketLimiter(5, 30_000, 10_000, System::currentTimeMillis);
+    private static final TokenBucketLimiter TERMINAL_ATTEMPTS = new TokenBucketLimiter(20, 3_000, 1, System::currentTimeMillis);
+    private static final String TERMINAL_KEY = "terminal";
 
-    private Map<String, UserCredential> loginData; // Stores user login credentials
-    private Map<String, String> coachData;         // Stores coach login credentials
+    private Map<String, String> coachData; // Stores coach login credentials
 
     /**
      * Constructs the {@code LoginGUI} and initializes the login interface.
@@ -27,10 +33,6 @@ public class LoginGUI {
      * @param password The password of the user.
      */
     public LoginGUI() {
-        // Load user and coach login data from respective files
-        loadLoginData("src/main/resources/usersLoginData.txt");
-        loadCoachData("src/main/resources/coachesLogin.txt");
-
         // Create the main frame for the login GUI
         JFrame frame = new JFrame("Fitness Tracker - Login");
         JPanel panel = new JPanel();
@@ -124,11 +126,38 @@ public class LoginGUI {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setVisible(true);
 
+        // Open the user login index and load the coach login data in the background
+        loginButton.setEnabled(false);
+        messageLabel.setText("Loading...");
+        AsyncData.onEdt(AsyncData.supply(() -> {
+            CredentialIndex.getDefault();
+            loadCoachData("src/main/resources/coachesLogin.txt");
+            return null;
+        }), ignored -> {
+            loginButton.setEnabled(true);
+            messageLabel.setText("");
+        }, error -> {
+            error.printStackTrace();
+            loginButton.setEnabled(true); // A login tries to open the index again
+            messageLabel.setText("Error reading the login data!");
+            messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+            messageLabel.setForeground(Color.RED);
+        });
+
         // Add action listener to the login button
         loginButton.addActionListener(e -> {
             String login = userField.getText();
             String password = new String(passField.getPassword());
 
+            // Refuse repeated attempts before any credentials are read or hashed. The terminal is checked
+            // first, so an attempt it refuses does not use up a token of the login
+            if (!TERMINAL_ATTEMPTS.tryAcquire(TERMINAL_KEY) || !LOGIN_ATTEMPTS.tryAcquire(login)) {
+                messageLabel.setText("Too many attempts, please wait a moment.");
+                messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+                messageLabel.setForeground(Color.RED);
+                return;
+            }
+
             // Validate coach login first
             if (validateCoachLogin(login, password)) {
                 // If coach login is successful
@@ -136,23 +165,63 @@ public class LoginGUI {
                 messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
                 messageLabel.setForeground(Color.GREEN);
 
-                loggedInCoachID = login; // Store the logged-in coach ID
-                frame.dispose();         // Close the current frame
-                new CoachGUI();          // Open the coach's GUI
-            } else if (validateUserLogin(login, password)) {
-                // If user login is successful
-                messageLabel.setText("Login successful!");
-                messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
-                messageLabel.setForeground(Color.GREEN);
-
-                loggedInUserUUID = loginData.get(login).uuid; // Store the user's UUID
-                frame.dispose();                            // Close the current frame
-                new MainGUI();                             // Open the main application GUI
+                // Resume the coach's session kept in kiosk mode, or start a new one
+                SessionContext kept = KioskSessions.resume(SessionContext.coachKey(login));
+                SessionContext context = kept != null ? kept : SessionContext.forCoach(login);
+                frame.dispose();                                        // Close the current frame
+                Navigator.show(context, CoachGUI.class, CoachGUI::new); // Open the coach's GUI
             } else {
-                // If login credentials are invalid
-                messageLabel.setText("Invalid login or password.");
-                messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
-                messageLabel.setForeground(Color.RED);
+                // Look up the user in the login index, then verify the password on the compute pool
+                char[] passwordChars = passField.getPassword();
+                loginButton.setEnabled(false);
+                AsyncData.onEdt(AsyncData.supply(() -> CredentialIndex.getDefault().find(login))
+                        .thenCompose(cred -> AsyncData.compute(() -> validateUserLogin(cred, passwordChars))), userUUID -> {
+                    if (userUUID == null) {
+                        // If login credentials are invalid
+                        loginButton.setEnabled(true);
+                        messageLabel.setText("Invalid login or password.");
+                        messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+                        messageLabel.setForeground(Color.RED);
+                        return;
+                    }
+
+                    // If user login is successful
+                    messageLabel.setText("Login successful!");
+                    messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+                    messageLabel.setForeground(Color.GREEN);
+
+                    // Resume the user's session kept in kiosk mode without loading anything
+                    SessionContext kept = KioskSessions.resume(SessionContext.userKey(userUUID));
+                    if (kept != null) {
+                        frame.dispose();                                      // Close the current frame
+                        Navigator.show(kept, MainGUI.class, MainGUI::new);    // Open the main application GUI
+                        return;
+                    }
+
+                    // Load the user's data once for all screens in the background, then open the main GUI
+                    messageLabel.setText("Loading your data...");
+                    AsyncData.onEdt(AsyncData.supply(() -> UserSession.load(userUUID)), session -> {
+                        frame.dispose();                                      // Close the current frame
+                        Navigator.show(SessionContext.forUser(session), MainGUI.class, MainGUI::new);
+                    }, loadError -> {
+                        loadError.printStackTrace();
+                        loginButton.setEnabled(true);
+                        messageLabel.setText("Error loading your data!");
+                        messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+                        messageLabel.setForeground(Color.RED);
+                    });
+                }, error -> {
+                    loginButton.setEnabled(true);
+                    if (error instanceof RejectedExecutionException) {
+                        // Too many logins are already waiting for verification
+                        messageLabel.setText("Too many logins at once, please try again.");
+                    } else {
+                        error.printStackTrace();
+                        messageLabel.setText("Error reading the login data!");
+                    }
+                    messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+                    messageLabel.setForeground(Color.RED);
+                });
             }
         });
 
@@ -176,30 +245,6 @@ public class LoginGUI {
         });
     }
 
-    /**
-     * Loads user login data from the specified file.
-     *
-     * @param filePath The path to the usersLoginData.txt file.
-     */
-    private void loadLoginData(String filePath) {
-        loginData = new HashMap<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            // Read each line and parse user credentials
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(";");
-                if (parts.length == 3) {
-                    String uuid = parts[0];
-                    String login = parts[1];
-                    String password = parts[2];
-                    loginData.put(login, new UserCredential(uuid, password));
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading the user login file: " + e.getMessage());
-        }
-    }
-
     /**
      * Loads coach login data from the specified file.
      *
@@ -224,18 +269,31 @@ public class LoginGUI {
     }
 
     /**
-     * Validates user login credentials.
+     * Validates user login credentials. Runs on the compute pool, since hashing the password is slow on purpose.
+     * The password of a login that is not registered is checked against a dummy secret of the same cost, so an
+     * unknown login takes as long to refuse as a wrong password. A password stored in clear text or hashed with
+     * a lower cost is rehashed after a successful login.
      *
-     * @param login    The login username entered by the user.
+     * @param cred     The stored credentials of the login, or {@code null} if the login is not registered.
      * @param password The password entered by the user.
-     * @return {@code true} if the credentials are valid; {@code false} otherwise.
+     * @return The UUID of the user if the credentials are valid; {@code null} otherwise.
      */
-    private boolean validateUserLogin(String login, String password) {
-        if (!loginData.containsKey(login)) {
-            return false;
+    private static String validateUserLogin(CredentialIndex.Credential cred, char[] password) {
+        PasswordHasher hasher = PasswordHasher.getDefault();
+        boolean valid = hasher.verify(password, cred != null ? cred.getSecret() : hasher.getDummySecret());
+        if (cred == null || !valid) {
+            return null;
         }
-        UserCredential cred = loginData.get(login);
-        return cred.password.equals(password);
+        if (hasher.needsRehash(cred.getSecret())) {
+            // Best effort: the login does not wait for it, and if it fails the old secret stays valid
+            // and is rehashed after the next successful login
+            AsyncData.onEdt(AsyncData.compute(() -> hasher.hash(password))
+                    .thenCompose(secret -> AsyncData.run(() -> CredentialIndex.getDefault().replaceSecret(cred.getLogin(), secret))),
+                    ignored -> {
+                    },
+                    error -> System.err.println("Error rehashing the password of " + cred.getLogin() + ": " + error.getMessage()));
+        }
+        return cred.getUuid().toString();
     }
 
     /**
@@ -248,23 +306,4 @@ public class LoginGUI {
     private boolean validateCoachLogin(String login, String password) {
         return coachData.containsKey(login) && coachData.get(login).equals(password);
     }
-
-    /**
-     * The {@code UserCredential} class represents a user's login credentials, including their UUID and password.
-     */
-    private static class UserCredential {
-        String uuid;
-        String password;
-
-        /**
-         * Constructs a {@code UserCredential} with the specified UUID and password.
-         *
-         * @param uuid     The UUID of the user.
-         * @param password The password of the user.
-         */
-        public UserCredential(String uuid, String password) {
-            this.uuid = uuid;
-            this.password = password;
-        }
-    }
 }
@@ -4,10 +4,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -18,26 +14,26 @@ import java.time.format.DateTimeFormatter;
  * such as Profile, Our Coaches, and Workouts. The class also calculates and displays the duration
  * since the user's account creation.
  */
-public class MainGUI {
+public class MainGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
 
     private String userName;               // Stores the name of the logged-in user
     private String dateOfAccountCreation;  // Stores the account creation date of the user
 
+    private final JPanel panel;            // The root panel of the screen
+    private final JLabel welcomeLabel;     // Shows the welcome message
+
     /**
      * Constructs the {@code MainGUI} and initializes the main interface.
-     * It loads the logged-in user's data, sets up the main frame, and configures navigation buttons.
+     * It sets up the main panel, configures navigation buttons and shows the logged-in user's data.
+     *
+     * @param context The session of the logged-in user.
      */
-    public MainGUI() {
-        // Load data for the currently logged-in user using their UUID from LoginGUI
-        String currentUserUUID = LoginGUI.loggedInUserUUID;
-        loadUserDataFromFile("src/main/resources/usersData.txt", currentUserUUID);
-
-        // Create the main application frame
-        JFrame frame = new JFrame("Fitness Tracker - Main");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(1000, 600);
-        frame.setLocationRelativeTo(null); // Center the frame on the screen
-        frame.setLayout(new BorderLayout());
+    public MainGUI(SessionContext context) {
+        this.context = context;
+        // Create the root panel of the screen
+        panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(1000, 600));
 
         // ----------------
         // TOP PANEL (Navigation)
@@ -99,23 +95,19 @@ public class MainGUI {
 
         // Action listeners for profile menu items
         aboutMe.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new AboutMeGUI();   // Open the AboutMeGUI
+            Navigator.show(context, AboutMeGUI.class, AboutMeGUI::new); // Open the AboutMeGUI
         });
 
         workoutStats.addActionListener(e -> {
-            frame.dispose();        // Close the current frame
-            new WorkoutStatsGUI();  // Open the WorkoutStatsGUI
+            Navigator.show(context, WorkoutStatsGUI.class, WorkoutStatsGUI::new); // Open the WorkoutStatsGUI
         });
 
         weightHistory.addActionListener(e -> {
-            frame.dispose();          // Close the current frame
-            new WeightHistoryGUI();   // Open the WeightHistoryGUI
+            Navigator.show(context, WeightHistoryGUI.class, WeightHistoryGUI::new); // Open the WeightHistoryGUI
         });
 
         logOut.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new LoginGUI();     // Open the LoginGUI
+            context.logOut(); // Leave the session and open the LoginGUI
         });
 
         // Show the profile menu when the "PROFILE" button is hovered over
@@ -134,8 +126,7 @@ public class MainGUI {
         mainSiteButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();    // Close the current frame
-                new MainGUI();      // Reload the MainGUI
+                Navigator.show(context, MainGUI.class, MainGUI::new); // Reload the MainGUI
             }
 
             @Override
@@ -153,8 +144,7 @@ public class MainGUI {
         coachesButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();          // Close the current frame
-                new OurCoachesGUI();      // Open the OurCoachesGUI
+                Navigator.show(context, OurCoachesGUI.class, OurCoachesGUI::new); // Open the OurCoachesGUI
             }
 
             @Override
@@ -172,8 +162,7 @@ public class MainGUI {
         workoutsButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();      // Close the current frame
-                new WorkoutsGUI();    // Open the WorkoutsGUI
+                Navigator.show(context, WorkoutsGUI.class, WorkoutsGUI::new); // Open the WorkoutsGUI
             }
 
             @Override
@@ -187,8 +176,8 @@ public class MainGUI {
             }
         });
 
-        // Add the top navigation panel to the frame
-        frame.add(topPanel, BorderLayout.NORTH);
+        // Add the top navigation panel to the main panel
+        panel.add(topPanel, BorderLayout.NORTH);
 
         // ----------------
         // Center Panel (Welcome Message)
@@ -196,6 +185,44 @@ public class MainGUI {
         JPanel centerPanel = new JPanel(new BorderLayout());
         centerPanel.setBackground(new Color(230, 220, 250)); // Light purple background
 
+        // Create the welcome label and fill it with the user's data
+        welcomeLabel = new JLabel("", SwingConstants.CENTER);
+        updateWelcomeMessage();
+
+        // Add the welcome label to the center panel
+        centerPanel.add(welcomeLabel, BorderLayout.CENTER);
+
+        // ----------------
+        // Add panels to the main panel
+        // ----------------
+        panel.add(topPanel, BorderLayout.NORTH);
+        panel.add(centerPanel, BorderLayout.CENTER);
+    }
+
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - Main";
+    }
+
+    @Override
+    public void refresh() {
+        updateWelcomeMessage();
+    }
+
+    /**
+     * Updates the welcome message with the logged-in user's name and the time since the account
+     * creation, taking the data from the session loaded at login.
+     */
+    private void updateWelcomeMessage() {
+        UserSession session = context.getUserSession();
+        userName = session.getUserName();
+        dateOfAccountCreation = session.getDateOfAccountCreation();
+
         // Placeholder texts if user data is missing
         String nameText = (userName != null && !userName.isEmpty()) ? userName : "Guest";
         String dateText = (dateOfAccountCreation != null && !dateOfAccountCreation.isEmpty())
@@ -243,62 +270,7 @@ public class MainGUI {
                 + "</div>"
                 + "</html>";
 
-        // Create and configure the welcome label
-        JLabel welcomeLabel = new JLabel(welcomeHtml, SwingConstants.CENTER);
-
-        // Add the welcome label to the center panel
-        centerPanel.add(welcomeLabel, BorderLayout.CENTER);
-
-        // ----------------
-        // Add panels to the main frame
-        // ----------------
-        frame.add(topPanel, BorderLayout.NORTH);
-        frame.add(centerPanel, BorderLayout.CENTER);
-
-        // Make the frame visible
-        frame.setVisible(true);
-    }
-
-    /**
-     * Loads the logged-in user's data from the specified file based on their UUID.
-     *
-     * @param filePath The path to the usersData.txt file.
-     * @param userUUID The UUID of the logged-in user.
-     */
-    private void loadUserDataFromFile(String filePath, String userUUID) {
-        // If there is no logged-in user, skip loading data
-        if (userUUID == null) {
-            return;
-        }
-
-        File file = new File(filePath);
-        if (!file.exists()) {
-            System.err.println("File " + filePath + " does not exist!");
-            return;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            // Read each line and parse user data
-            while ((line = br.readLine()) != null) {
-                if (line.isEmpty()) continue; // Skip empty lines
-                String[] parts = line.split(";");
-                if (parts.length < 8) continue; // Ensure the line has enough parts
-
-                String uuidFromFile = parts[0];
-                if (uuidFromFile.equals(userUUID)) {
-                    this.userName = parts[1];
-                    // parts[2] = weight
-                    // parts[3] = height
-                    // parts[4] = age
-                    // parts[5] = gender
-                    this.dateOfAccountCreation = parts[6];
-                    // parts[7] = dateOfCurrentWeight
-                    break; // Exit loop after finding the user
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace(); // Print stack trace if an IO error occurs
-        }
+        // Show the welcome message
+        welcomeLabel.setText(welcomeHtml);
     }
 }
@@ -0,0 +1,152 @@
+package main.java.gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The {@code Navigator} class shows the screens of the Fitness Tracker application in a single window.
+ * Each screen is built the first time it is visited and then kept, so navigating back to a screen only
+ * refreshes its data instead of rebuilding its components, fonts, images and charts. The cached screens
+ * belong to the {@link SessionContext} they were built for; they are dropped when its user or coach logs out,
+ * or kept for the next login in kiosk mode.
+ * <p>
+ * Like the rest of the GUI, the navigator is only used on the Swing event dispatch thread.
+ */
+public class Navigator {
+
+    /**
+     * The {@code Screen} interface is implemented by every screen shown by the navigator.
+     */
+    public interface Screen {
+
+        /**
+         * Returns the panel holding the components of the screen.
+         *
+         * @return The root {@code JPanel} of the screen.
+         */
+        JPanel getPanel();
+
+        /**
+         * Returns the title of the window while the screen is shown.
+         *
+         * @return The window title.
+         */
+        String getTitle();
+
+        /**
+         * Updates the data shown by the screen. Called every time a cached screen is shown again.
+         */
+        void refresh();
+    }
+
+    private static JFrame frame;                 // The single application window
+    private static JPanel cards;                 // Holds the panels of all built screens
+    private static final Map<String, Screen> screens = new HashMap<>(); // Built screens by card name
+
+    private Navigator() {
+    }
+
+    /**
+     * Shows the screen of the given class in a session, building it with the factory on the first visit
+     * and refreshing it on later visits.
+     *
+     * @param context The session the screen belongs to.
+     * @param type    The class of the screen.
+     * @param factory Builds the screen for the session if it is not cached yet.
+     * @param <T>     The type of the screen.
+     * @return The shown screen.
+     */
+    public static <T extends Screen> T show(SessionContext context, Class<T> type, Function<SessionContext, T> factory) {
+        ensureFrame();
+        String card = cardName(context, type);
+        T screen = type.cast(screens.get(card));
+        if (screen == null) {
+            screen = factory.apply(context);
+            screens.put(card, screen);
+            cards.add(screen.getPanel(), card);
+        } else {
+            screen.refresh();
+        }
+
+        // Resize the window only if the screen needs a different size, like the separate windows did
+        frame.setTitle(screen.getTitle());
+        Dimension size = screen.getPanel().getPreferredSize();
+        if (!frame.isVisible() || !size.equals(cards.getSize())) {
+            cards.setPreferredSize(size);
+            frame.pack();
+            frame.setLocationRelativeTo(null); // Center the frame on the screen
+        }
+        ((CardLayout) cards.getLayout()).show(cards, card);
+        frame.setVisible(true);
+        return screen;
+    }
+
+    /**
+     * Returns the application window, for example to own dialogs.
+     *
+     * @return The {@code JFrame} of the navigator.
+     */
+    public static JFrame getFrame() {
+        ensureFrame();
+        return frame;
+    }
+
+    /**
+     * Hides the application window but keeps the cached screens, for example when a user leaves a kiosk session.
+     */
+    public static void hide() {
+        if (frame != null) {
+            frame.setVisible(false);
+        }
+    }
+
+    /**
+     * Drops the cached screens of a session, for example when a kiosk session is evicted.
+     *
+     * @param context The session whose screens are dropped.
+     */
+    public static void drop(SessionContext context) {
+        String prefix = context.getId() + ":";
+        Iterator<Map.Entry<String, Screen>> entries = screens.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Screen> entry = entries.next();
+            if (entry.getKey().startsWith(prefix)) {
+                cards.remove(entry.getValue().getPanel());
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * Closes the application window and drops all cached screens, for example when the user logs out.
+     */
+    public static void close() {
+        if (frame != null) {
+            frame.dispose();
+        }
+        frame = null;
+        cards = null;
+        screens.clear();
+    }
+
+    private static String cardName(SessionContext context, Class<?> type) {
+        return context.getId() + ":" + type.getName();
+    }
+
+    /**
+     * Creates the application window if it does not exist yet.
+     */
+    private static void ensureFrame() {
+        if (frame != null) {
+            return;
+        }
+        frame = new JFrame("Fitness Tracker");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        cards = new JPanel(new CardLayout());
+        frame.setContentPane(cards);
+    }
+}
@@ -1,12 +1,12 @@
 package main.java.gui;
 
+import main.java.storage.CoachIndex;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 
 /**
  * The {@code OurCoachesGUI} class creates a graphical user interface that displays information
@@ -15,23 +15,26 @@ import java.util.List;
  * the logic for sending training session requests while ensuring users are not already students
  * of the selected coach.
  */
-public class OurCoachesGUI {
+public class OurCoachesGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
+
+    private final JPanel panel; // The root panel of the screen
 
     /**
      * Constructs the {@code OurCoachesGUI} and initializes the user interface components.
-     * It loads the logged-in user's data, sets up the main frame, and configures navigation buttons
+     * It loads the logged-in user's data, sets up the main panel, and configures navigation buttons
      * and coach profiles.
+     *
+     * @param context The session of the logged-in user.
      */
-    public OurCoachesGUI() {
+    public OurCoachesGUI(SessionContext context) {
+        this.context = context;
         // Retrieve the UUID of the currently logged-in user from LoginGUI
-        String currentUserUUID = LoginGUI.loggedInUserUUID;
+        String currentUserUUID = context.getUserUUID();
 
-        // Create the main application frame
-        JFrame frame = new JFrame("Fitness Tracker - Our Coaches");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(1000, 600);
-        frame.setLocationRelativeTo(null); // Center the frame on the screen
-        frame.setLayout(new BorderLayout());
+        // Create the root panel of the screen
+        panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(1000, 600));
 
         // ----------------
         // TOP PANEL (Navigation)
@@ -97,23 +100,19 @@ public class OurCoachesGUI {
 
         // Action listeners for profile menu items
         aboutMe.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new AboutMeGUI();   // Open the AboutMeGUI
+            Navigator.show(context, AboutMeGUI.class, AboutMeGUI::new); // Open the AboutMeGUI
         });
 
         workoutStats.addActionListener(e -> {
-            frame.dispose();        // Close the current frame
-            new WorkoutStatsGUI();  // Open the WorkoutStatsGUI
+            Navigator.show(context, WorkoutStatsGUI.class, WorkoutStatsGUI::new); // Open the WorkoutStatsGUI
         });
 
         weightHistory.addActionListener(e -> {
-            frame.dispose();          // Close the current frame
-            new WeightHistoryGUI();   // Open the WeightHistoryGUI
+            Navigator.show(context, WeightHistoryGUI.class, WeightHistoryGUI::new); // Open the WeightHistoryGUI
         });
 
         logOut.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new LoginGUI();     // Open the LoginGUI
+            context.logOut(); // Leave the session and open the LoginGUI
         });
 
         // Show the profile menu when the "PROFILE" button is hovered over
@@ -132,8 +131,7 @@ public class OurCoachesGUI {
         mainSiteButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();    // Close the current frame
-                new MainGUI();      // Reload the MainGUI
+                Navigator.show(context, MainGUI.class, MainGUI::new); // Reload the MainGUI
             }
 
             @Override
@@ -151,8 +149,7 @@ public class OurCoachesGUI {
         coachesButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();          // Close the current frame
-                new OurCoachesGUI();      // Reload the OurCoachesGUI
+                Navigator.show(context, OurCoachesGUI.class, OurCoachesGUI::new); // Reload the OurCoachesGUI
             }
 
             @Override
@@ -170,8 +167,7 @@ public class OurCoachesGUI {
         workoutsButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();      // Close the current frame
-                new WorkoutsGUI();    // Open the WorkoutsGUI
+                Navigator.show(context, WorkoutsGUI.class, WorkoutsGUI::new); // Open the WorkoutsGUI
             }
 
             @Override
@@ -185,8 +181,8 @@ public class OurCoachesGUI {
             }
         });
 
-        // Add the top navigation panel to the frame
-        frame.add(topPanel, BorderLayout.NORTH);
+        // Add the top navigation panel to the main panel
+        panel.add(topPanel, BorderLayout.NORTH);
 
         // ----------------
         // Center Panel (Coaches Display)
@@ -201,7 +197,7 @@ public class OurCoachesGUI {
                 "c1",
                 "Jose knows exactly what he does. He coaches people for 15 years now and is a professional team sports competitor!",
                 currentUserUUID,
-                frame
+                Navigator.getFrame()
         );
 
         // Right Panel - Jorge Echevarría
@@ -211,18 +207,33 @@ public class OurCoachesGUI {
                 "c2",
                 "Jorge is passionate about fitness and well-being. He specializes in strength training and personalized coaching plans.",
                 currentUserUUID,
-                frame
+                Navigator.getFrame()
         );
 
         // Add both coach panels to the center panel
         centerPanel.add(leftPanel);
         centerPanel.add(rightPanel);
 
-        // Add the center panel to the main frame
-        frame.add(centerPanel, BorderLayout.CENTER);
+        // Add the center panel to the main panel
+        panel.add(centerPanel, BorderLayout.CENTER);
+    }
+
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - Our Coaches";
+    }
 
-        // Make the frame visible
-        frame.setVisible(true);
+    /**
+     * Nothing to update: the coach profiles do not change, and requests are checked against
+     * the files when they are sent.
+     */
+    @Override
+    public void refresh() {
     }
 
     /**
@@ -269,7 +280,7 @@ public class OurCoachesGUI {
         requestButton.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         // Add an action listener to handle button clicks
-        requestButton.addActionListener(e -> handleRequestClick(coachID, currentUserUUID, frame));
+        requestButton.addActionListener(e -> handleRequestClick(coachID, currentUserUUID, frame, requestButton));
 
         // Add components to the coach panel with spacing
         panel.add(Box.createVerticalGlue());
@@ -287,111 +298,56 @@ public class OurCoachesGUI {
 
     /**
      * Handles the logic when the "Request Training Session" button is clicked.
-     * It ensures that the user is not already a student of the coach and that
-     * the user has not previously sent a request to the same coach. If validations
-     * pass, it records the request in the appropriate file.
+     * The request is sent in the background; meanwhile the button is disabled, and
+     * afterwards the outcome is shown in a dialog.
      *
      * @param coachID           The unique identifier of the coach.
      * @param currentUserUUID   The UUID of the currently logged-in user.
      * @param frame             The main application frame.
+     * @param requestButton     The button that was clicked.
      */
-    private void handleRequestClick(String coachID, String currentUserUUID, JFrame frame) {
-        // File path for accepted coach-student relationships
-        String acceptedFilePath = "src/main/resources/coachesStudents.txt";
-        boolean userIsAlreadyStudent = false;
-
-        // Check if the user is already a student of the coach
-        try (BufferedReader br = new BufferedReader(new FileReader(acceptedFilePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith(coachID + ";")) {
-                    if (line.contains(currentUserUUID)) {
-                        userIsAlreadyStudent = true;
-                        break;
-                    }
-                }
-            }
-        } catch (FileNotFoundException e) {
-            // File does not exist – assume no students yet
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(frame, "Error reading accepted file: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            return;
-        }
+    private void handleRequestClick(String coachID, String currentUserUUID, JFrame frame, JButton requestButton) {
+        requestButton.setEnabled(false);
+        requestButton.setText("Sending Request...");
+        AsyncData.onEdt(AsyncData.write(() -> sendRequest(coachID, currentUserUUID)), message -> {
+            requestButton.setEnabled(true);
+            requestButton.setText("Request Training Session");
+            JOptionPane.showMessageDialog(frame, message); // Inform the user about the outcome
+        }, error -> {
+            requestButton.setEnabled(true);
+            requestButton.setText("Request Training Session");
+            JOptionPane.showMessageDialog(frame, error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            error.printStackTrace();
+        });
+    }
 
-        if (userIsAlreadyStudent) {
-            // Inform the user that they are already a student of this coach
-            JOptionPane.showMessageDialog(frame,
-                    "You are already a student of this coach – you cannot request again!");
-            return;
-        }
+    /**
+     * Sends a training session request to a coach. It ensures that the user is not
+     * already a student of the coach and that the user has not previously sent a
+     * request to the same coach. If validations pass, it records the request in the
+     * coach index. Both checks are hash lookups in the {@link CoachIndex}, and the request
+     * is persisted by appending a single line to its change log. Runs in the background.
+     *
+     * @param coachID           The unique identifier of the coach.
+     * @param currentUserUUID   The UUID of the currently logged-in user.
+     * @return The message to show to the user.
+     * @throws IOException If the request cannot be written.
+     */
+    private String sendRequest(String coachID, String currentUserUUID) throws IOException {
+        CoachIndex index = CoachIndex.getDefault();
 
-        // File path for pending coach training session requests
-        String requestsFilePath = "src/main/resources/coachesRequests.txt";
-        List<String> lines = new ArrayList<>();
-        boolean userAlreadyRequested = false;
-
-        // Read existing requests to check if the user has already sent a request
-        try (BufferedReader br = new BufferedReader(new FileReader(requestsFilePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith(coachID + ";")) {
-                    if (line.contains(currentUserUUID)) {
-                        userAlreadyRequested = true;
-                    } else {
-                        line += ";" + currentUserUUID; // Append the user's UUID to the existing line
-                    }
-                }
-                lines.add(line);
-            }
-        } catch (FileNotFoundException e) {
-            // If the file does not exist, it will be created later
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(frame, "Error reading requests file: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            return;
+        if (index.isStudent(coachID, currentUserUUID)) {
+            // Inform the user that they are already a student of this coach
+            return "You are already a student of this coach – you cannot request again!";
         }
 
-        if (userAlreadyRequested) {
+        if (!index.addRequest(coachID, currentUserUUID)) {
             // Inform the user that they have already sent a request to this coach
-            JOptionPane.showMessageDialog(frame,
-                    "You have already sent a request to this coach!");
-            return;
-        }
-
-        // Check if there is an existing line for the coach in the requests file
-        boolean coachLineFound = false;
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            if (line.startsWith(coachID + ";")) {
-                coachLineFound = true;
-                lines.set(i, line); // Already appended the user's UUID if not present
-                break;
-            }
-        }
-        if (!coachLineFound) {
-            // If no existing line for the coach, add a new line with the user's UUID
-            lines.add(coachID + ";" + currentUserUUID);
-        }
-
-        // Write the updated requests back to the file
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(requestsFilePath))) {
-            for (String line : lines) {
-                bw.write(line);
-                bw.newLine();
-            }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(frame, "Error writing requests file: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            return;
+            return "You have already sent a request to this coach!";
         }
 
         // Inform the user that the request has been sent successfully
-        JOptionPane.showMessageDialog(frame,
-                "Request sent to the coach successfully!");
+        return "Request sent to the coach successfully!";
     }
 
     /**
@@ -1,10 +1,13 @@
 package main.java.gui;
 
+import main.java.storage.CredentialIndex;
+import main.java.storage.LoginFilter;
+import main.java.storage.UuidKey;
+
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
-import java.util.HashMap;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
 
 /**
  * The {@code RegisterGUI} class creates a graphical user interface that allows new users
@@ -13,16 +16,12 @@ import java.util.UUID;
  * Upon successful registration, it directs the user to provide additional personal data.
  */
 public class RegisterGUI {
-    private static HashMap<String, String> loginData; // Stores existing user login credentials
 
     /**
      * Constructs the {@code RegisterGUI} and initializes the registration interface.
      * It sets up the GUI components, handles user interactions, and manages the registration logic.
      */
     public RegisterGUI() {
-        // Load existing login data from the specified file
-        loadLoginData("src/main/resources/usersLoginData.txt");
-
         // Create the main frame for the registration GUI
         JFrame frame = new JFrame("Fitness Tracker - Register");
         JPanel panel = new JPanel();
@@ -111,6 +110,20 @@ public class RegisterGUI {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setVisible(true);
 
+        // Open the login index and load the filter over the existing logins in the background
+        registerButton.setEnabled(false);
+        messageLabel.setText("Loading...");
+        AsyncData.onEdt(AsyncData.supply(LoginFilter::getDefault), ignored -> {
+            registerButton.setEnabled(true);
+            messageLabel.setText("");
+        }, error -> {
+            error.printStackTrace();
+            registerButton.setEnabled(true); // A registration tries to open the index again
+            messageLabel.setText("Error reading the login data!");
+            messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+            messageLabel.setForeground(Color.RED);
+        });
+
         // Add action listener to handle register button clicks
         registerButton.addActionListener(e -> {
             String login = userField.getText(); // Retrieve the entered login
@@ -127,20 +140,38 @@ public class RegisterGUI {
                 messageLabel.setText("Login or password cannot contain ';'.");
                 messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
                 messageLabel.setForeground(Color.RED);
-            } else if (loginData.containsKey(login)) {
-                // Check if the login already exists
-                messageLabel.setText("Login already exists.");
-                messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
-                messageLabel.setForeground(Color.RED);
             } else if (login.contains(" ") || password.contains(" ")) {
                 // Prevent use of spaces in login or password
                 messageLabel.setText("Login or password cannot contain spaces.");
                 messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
                 messageLabel.setForeground(Color.RED);
+            } else if (login.getBytes(StandardCharsets.UTF_8).length > CredentialIndex.MAX_LOGIN_BYTES) {
+                // The login index stores records of a fixed size
+                messageLabel.setText("Login is too long.");
+                messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+                messageLabel.setForeground(Color.RED);
             } else {
-                // If all validations pass, proceed with registration
-                frame.dispose(); // Close the current registration window
-                new AskForDataGUI(login, password); // Open the data input GUI
+                // Check in the background; the login index is only read if the filter says the login may exist
+                registerButton.setEnabled(false);
+                AsyncData.onEdt(AsyncData.supply(() -> LoginFilter.getDefault().mightContain(login)
+                        && CredentialIndex.getDefault().find(login) != null), exists -> {
+                    registerButton.setEnabled(true);
+                    if (exists) {
+                        messageLabel.setText("Login already exists.");
+                        messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+                        messageLabel.setForeground(Color.RED);
+                    } else {
+                        // If all validations pass, proceed with registration
+                        frame.dispose(); // Close the current registration window
+                        new AskForDataGUI(login, password); // Open the data input GUI
+                    }
+                }, error -> {
+                    error.printStackTrace();
+                    registerButton.setEnabled(true);
+                    messageLabel.setText("Error reading the login data!");
+                    messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 12));
+                    messageLabel.setForeground(Color.RED);
+                });
             }
         });
 
@@ -178,54 +209,28 @@ public class RegisterGUI {
     }
 
     /**
-     * Loads existing user login data from the specified file.
-     * Each line in the file should follow the format: uniqueID;login;password
+     * Adds a new user to the login index and the login filter. The profile of the user is saved before,
+     * so that a registered login always has a profile.
      *
-     * @param filePath The path to the usersLoginData.txt file.
+     * @param login    The login username for the new user.
+     * @param userUUID The UUID of the new user's profile.
+     * @param secret   The password of the new user as hashed by {@code PasswordHasher}.
+     * @throws UncheckedIOException If the login index cannot be written.
+     * @throws IllegalStateException If the login was registered in the meantime.
      */
-    private void loadLoginData(String filePath) {
-        loginData = new HashMap<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            // Read each line and parse the login credentials
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(";");
-                if (parts.length == 3) {
-                    // parts[0] = uniqueID, parts[1] = login, parts[2] = password
-                    loginData.put(parts[1], parts[2]);
-                }
+    public static void addNewUser(String login, String userUUID, byte[] secret) {
+        try {
+            if (!CredentialIndex.getDefault().insert(login, UuidKey.parse(userUUID), secret)) {
+                throw new IllegalStateException("Login already exists: " + login);
             }
         } catch (IOException e) {
-            // Print error message if the file cannot be read
-            System.err.println("Error reading the login file: " + e.getMessage());
+            throw new UncheckedIOException("Error writing the new login.", e);
         }
-    }
-
-    /**
-     * Adds a new user to the usersLoginData.txt file and returns the generated UUID.
-     *
-     * @param login    The login username for the new user.
-     * @param password The password for the new user.
-     * @return A {@code String} representing the generated UUID for the new user.
-     */
-    public static String addNewUser(String login, String password) {
-        String filePath = "src/main/resources/usersLoginData.txt";
-        String uniqueID = UUID.randomUUID().toString(); // Generate a unique UUID
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, true))) {
-            // Write the new user's data in the format: uniqueID;login;password
-            writer.write(uniqueID + ";" + login + ";" + password);
-            writer.newLine();
-        } catch (IOException e) {
-            // Print error message if the file cannot be written to
-            System.err.println("Error writing to the login file: " + e.getMessage());
+        try {
+            LoginFilter.getDefault().add(login);
+        } catch (IOException | UncheckedIOException e) {
+            // The login is registered; a filter that misses it only lets a registration reach the index
+            System.err.println("Error updating the login filter: " + e.getMessage());
         }
-
-        // Add the new user's login and password to the in-memory HashMap
-        loginData.put(login, password);
-
-        // Return the generated UUID
-        return uniqueID;
     }
 }
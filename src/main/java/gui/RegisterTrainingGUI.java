@@ -11,13 +11,14 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Properties;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.jdatepicker.impl.JDatePanelImpl;
 import org.jdatepicker.impl.JDatePickerImpl;
 import org.jdatepicker.impl.UtilDateModel;
 import main.java.DateLabelFormatter;
 import main.java.*;
+import main.java.storage.ActivityJournal;
 
 /**
  * The {@code RegisterTrainingGUI} class provides a graphical user interface for users to register their training sessions
@@ -25,29 +26,34 @@ import main.java.*;
  * distance (if applicable), and intensity. The class calculates the calories burned based on the provided inputs and
  * saves the training data to a file.
  */
-public class RegisterTrainingGUI {
+public class RegisterTrainingGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
+
     // Constants representing the Metabolic Equivalent of Task (MET) values for different training types
     private static final double MET_RUNNING = 7.0;
     private static final double MET_CYCLING = 6.0;
     private static final double MET_ROPE_JUMPING = 12.0;
 
     private double userWeight; // Stores the weight of the user
-    String loggedInUUID = LoginGUI.loggedInUserUUID; // Retrieves the UUID of the currently logged-in user
+
+    private final JPanel panel;          // The root panel of the screen
+    private final JTextField durationField;
+    private final JTextField distanceField;
+    private final JLabel messageLabel;   // Displays messages to the user
+    private final JLabel caloriesLabel;  // Displays the calories of the saved training
 
     /**
      * Constructs the {@code RegisterTrainingGUI} and initializes the training registration interface.
      *
+     * @param context    The session of the logged-in user.
      * @param userWeight The weight of the user, used for calculating calories burned.
      */
-    public RegisterTrainingGUI(double userWeight) {
+    public RegisterTrainingGUI(SessionContext context, double userWeight) {
+        this.context = context;
         this.userWeight = userWeight;
 
-        // Create the main frame for the training registration GUI
-        JFrame frame = new JFrame("Fitness Tracker - Register Training");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-
         // Create and configure the main panel with vertical BoxLayout
-        JPanel panel = new JPanel();
+        panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
         panel.setBackground(new Color(230, 220, 250)); // Light purple background
         panel.setBorder(BorderFactory.createEmptyBorder(30, 30, 30, 30)); // Padding around the panel
@@ -81,11 +87,11 @@ public class RegisterTrainingGUI {
 
         // Create and configure the training duration label and text field
         JLabel durationLabel = createCenteredLabel("Training Duration (minutes):");
-        JTextField durationField = createTextField();
+        durationField = createTextField();
 
         // Create and configure the covered distance label and text field
         JLabel distanceLabel = createCenteredLabel("Covered Distance (km):");
-        JTextField distanceField = createTextField();
+        distanceField = createTextField();
         distanceField.setEnabled(false); // Disable by default
 
         // Create and configure the intensity label and combo box
@@ -102,10 +108,10 @@ public class RegisterTrainingGUI {
         submitButton.setAlignmentX(Component.CENTER_ALIGNMENT); // Center alignment
 
         // Create labels to display messages and calorie information
-        JLabel messageLabel = new JLabel("", SwingConstants.CENTER);
+        messageLabel = new JLabel("", SwingConstants.CENTER);
         messageLabel.setAlignmentX(Component.CENTER_ALIGNMENT); // Center alignment
 
-        JLabel caloriesLabel = new JLabel("", SwingConstants.CENTER);
+        caloriesLabel = new JLabel("", SwingConstants.CENTER);
         caloriesLabel.setAlignmentX(Component.CENTER_ALIGNMENT); // Center alignment
 
         // Add components to the panel with spacing using rigid areas
@@ -139,12 +145,7 @@ public class RegisterTrainingGUI {
         panel.add(caloriesLabel);
         panel.add(Box.createVerticalGlue());
 
-        // Add the panel to the frame's center region
-        frame.add(panel, BorderLayout.CENTER);
-        frame.setPreferredSize(new Dimension(500, 600)); // Set preferred size
-        frame.pack(); // Adjust frame to fit content
-        frame.setLocationRelativeTo(null); // Center the frame on the screen
-        frame.setVisible(true); // Make the frame visible
+        panel.setPreferredSize(new Dimension(500, 600)); // Set preferred size
 
         // Add action listener to handle changes in the training type selection
         trainingTypeComboBox.addActionListener(e -> {
@@ -180,46 +181,62 @@ public class RegisterTrainingGUI {
                         double distance = Double.parseDouble(distanceField.getText()); // Get covered distance
                         double avgSpeed = distance / (duration / 60.0); // Calculate average speed
                         // Create a RunningActivity instance with relevant data
-                        activity = new RunningActivity(UUID.randomUUID().hashCode(), "Running", caloriesBurned, duration, startTime, startTime.plusMinutes(duration), distance, avgSpeed);
+                        activity = new RunningActivity(ActivityIdGenerator.getDefault().nextId(), "Running", caloriesBurned, duration, startTime, startTime.plusMinutes(duration), distance, avgSpeed);
                     } else if ("Cycling".equals(trainingType)) {
                         double distance = Double.parseDouble(distanceField.getText()); // Get covered distance
                         double avgSpeed = distance / (duration / 60.0); // Calculate average speed
                         double maxSpeed = avgSpeed + 5.0; // Assume max speed is average speed plus 5 km/h
                         // Create a CyclingActivity instance with relevant data
-                        activity = new CyclingActivity(UUID.randomUUID().hashCode(), "Cycling", caloriesBurned, duration, startTime, startTime.plusMinutes(duration), distance, maxSpeed);
+                        activity = new CyclingActivity(ActivityIdGenerator.getDefault().nextId(), "Cycling", caloriesBurned, duration, startTime, startTime.plusMinutes(duration), distance, maxSpeed);
                     } else {
                         // Calculate repetitions for Rope Jumping based on duration
                         int repetitions = calculateRepetitions(duration);
                         // Create a RopeJumpingActivity instance with relevant data
-                        activity = new RopeJumpingActivity(UUID.randomUUID().hashCode(), "Rope Jumping", caloriesBurned, duration, startTime, startTime.plusMinutes(duration), repetitions);
+                        activity = new RopeJumpingActivity(ActivityIdGenerator.getDefault().nextId(), "Rope Jumping", caloriesBurned, duration, startTime, startTime.plusMinutes(duration), repetitions);
                     }
 
-                    saveTrainingToFile(activity); // Save the training activity to a file
+                    // Reject the same training submitted twice
+                    if (context.getUserSession().isDuplicateWorkout(activity)) {
+                        throw new IllegalArgumentException("This training is already registered.");
+                    }
 
-                    // Update message and calories label to inform the user of successful registration
-                    messageLabel.setText("Training saved successfully!");
-                    caloriesLabel.setText("Calories Burned: " + String.format("%.2f", caloriesBurned) + " kcal");
-                    messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 20));
-                    messageLabel.setForeground(new Color(113, 54, 143));
-                    caloriesLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 20));
-                    caloriesLabel.setForeground(new Color(113, 54, 143));
+                    // Save the training activity in the background, keeping the form from being submitted twice
+                    submitButton.setEnabled(false);
+                    messageLabel.setText("Saving training...");
+                    AsyncData.onEdt(saveTrainingToFile(activity), saved -> {
+                        submitButton.setEnabled(true);
+                        context.getUserSession().addActivity(activity); // Keep the cached workout statistics up to date
 
-                    // Set a timer to display a redirect message after 5 seconds
-                    Timer timer = new Timer(5000, event -> {
-                        messageLabel.setText("Redirecting to the main page...");
+                        // Update message and calories label to inform the user of successful registration
+                        messageLabel.setText("Training saved successfully!");
+                        caloriesLabel.setText("Calories Burned: " + String.format("%.2f", caloriesBurned) + " kcal");
                         messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 20));
                         messageLabel.setForeground(new Color(113, 54, 143));
-
-                        // Set another timer to perform the actual redirection after an additional 2 seconds
-                        Timer redirectTimer = new Timer(2000, redirectEvent -> {
-                            frame.dispose(); // Close the current frame
-                            new WorkoutsGUI(); // Redirect to the WorkoutsGUI (replace with MainGUI() if intended)
+                        caloriesLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 20));
+                        caloriesLabel.setForeground(new Color(113, 54, 143));
+
+                        // Set a timer to display a redirect message after 5 seconds
+                        Timer timer = new Timer(5000, event -> {
+                            messageLabel.setText("Redirecting to the main page...");
+                            messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 20));
+                            messageLabel.setForeground(new Color(113, 54, 143));
+
+                            // Set another timer to perform the actual redirection after an additional 2 seconds
+                            Timer redirectTimer = new Timer(2000, redirectEvent -> {
+                                Navigator.show(context, WorkoutsGUI.class, WorkoutsGUI::new); // Redirect to the WorkoutsGUI (replace with MainGUI() if intended)
+                            });
+                            redirectTimer.setRepeats(false); // Ensure the timer only runs once
+                            redirectTimer.start();
                         });
-                        redirectTimer.setRepeats(false); // Ensure the timer only runs once
-                        redirectTimer.start();
+                        timer.setRepeats(false); // Ensure the timer only runs once
+                        timer.start();
+                    }, error -> {
+                        submitButton.setEnabled(true);
+                        messageLabel.setText("Error: Failed to save training data.");
+                        messageLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 20));
+                        messageLabel.setForeground(new Color(113, 54, 143));
+                        error.printStackTrace();
                     });
-                    timer.setRepeats(false); // Ensure the timer only runs once
-                    timer.start();
 
                 } catch (NumberFormatException ex) {
                     // Handle cases where numeric input is invalid
@@ -236,47 +253,39 @@ public class RegisterTrainingGUI {
         });
     }
 
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - Register Training";
+    }
+
     /**
-     * Saves the provided training activity to the trainingData.txt file.
-     * If the user already has entries, appends the new activity separated by "~".
-     * Otherwise, creates a new entry for the user.
+     * Clears the form of the previous training and takes the current weight of the user from the session.
+     */
+    @Override
+    public void refresh() {
+        userWeight = context.getUserSession().getUserWeight();
+        durationField.setText("");
+        distanceField.setText("");
+        messageLabel.setText("");
+        caloriesLabel.setText("");
+    }
+
+    /**
+     * Saves the provided training activity by appending it to the activity journal on the writer thread.
+     * The journal is folded into the training data file in the background, so saving
+     * costs a single small write no matter how much training data is already stored.
      *
      * @param activity The {@code Activity} object representing the training session.
+     * @return A future completed when the activity has been saved, or exceptionally if saving failed.
      */
-    private void saveTrainingToFile(Activity activity) {
-        try {
-            File file = new File("src/main/resources/trainingData.txt"); // Define the training data file
-            if (!file.exists()) {
-                file.createNewFile(); // Create the file if it does not exist
-            }
-
-            boolean userExists = false; // Flag to check if the user already has entries
-            StringBuilder fileContent = new StringBuilder(); // StringBuilder to accumulate file content
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                // Read each line and look for the user's UUID
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith(loggedInUUID + ";")) {
-                        userExists = true;
-                        // Append the new training activity separated by "~"
-                        line += "~" + activity.getAllInfo();
-                    }
-                    fileContent.append(line).append("\n"); // Accumulate the line
-                }
-            }
-
-            if (!userExists) {
-                // If the user does not have any entries, add a new line with their UUID and the activity
-                fileContent.append(loggedInUUID).append(";").append(activity.getAllInfo()).append("\n");
-            }
-
-            // Write the accumulated content back to the file
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-                writer.write(fileContent.toString());
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to save training data.", e); // Throw a runtime exception if saving fails
-        }
+    private CompletableFuture<Void> saveTrainingToFile(Activity activity) {
+        String userUUID = context.getUserUUID();
+        return AsyncData.run(() -> ActivityJournal.getDefault().append(userUUID, activity)); // Append one record for this activity
     }
 
     /**
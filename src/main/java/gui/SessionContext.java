@@ -0,0 +1,138 @@
+package main.java.gui;
+
+/**
+ * The {@code SessionContext} class identifies the logged-in user or coach of a set of screens. Every screen
+ * receives the context it belongs to when it is built and passes it on to the screens it opens, so no screen
+ * depends on global login state and several sessions can be kept side by side (see {@link KioskSessions}).
+ * <p>
+ * The context of a user holds the {@link UserSession} with the data loaded at login; the context of a coach
+ * holds the coach's ID. Like the rest of the GUI, contexts are only used on the Swing event dispatch thread.
+ */
+public final class SessionContext {
+    private static final long BASE_BYTES = 512 * 1024; // Estimated size of the built screens of a session
+    private static int nextId;                         // Distinguishes the screens of different sessions
+
+    private final int id;
+    private final String userUUID;
+    private final String coachID;
+    private final UserSession userSession;
+
+    private SessionContext(String userUUID, String coachID, UserSession userSession) {
+        this.id = ++nextId;
+        this.userUUID = userUUID;
+        this.coachID = coachID;
+        this.userSession = userSession;
+    }
+
+    /**
+     * Creates the context of a logged-in user.
+     *
+     * @param userSession The data of the user, loaded with {@link UserSession#load}.
+     * @return The new {@code SessionContext}.
+     */
+    public static SessionContext forUser(UserSession userSession) {
+        return new SessionContext(userSession.getUserUUID(), null, userSession);
+    }
+
+    /**
+     * Creates the context of a logged-in coach.
+     *
+     * @param coachID The ID of the coach.
+     * @return The new {@code SessionContext}.
+     */
+    public static SessionContext forCoach(String coachID) {
+        return new SessionContext(null, coachID, null);
+    }
+
+    /**
+     * Returns the key under which {@link KioskSessions} keeps the session of a user.
+     *
+     * @param userUUID The UUID of the user.
+     * @return The session key.
+     */
+    public static String userKey(String userUUID) {
+        return "user:" + userUUID;
+    }
+
+    /**
+     * Returns the key under which {@link KioskSessions} keeps the session of a coach.
+     *
+     * @param coachID The ID of the coach.
+     * @return The session key.
+     */
+    public static String coachKey(String coachID) {
+        return "coach:" + coachID;
+    }
+
+    /**
+     * Returns the UUID of the logged-in user.
+     *
+     * @return The UUID, or {@code null} in the session of a coach.
+     */
+    public String getUserUUID() {
+        return userUUID;
+    }
+
+    /**
+     * Returns the ID of the logged-in coach.
+     *
+     * @return The coach ID, or {@code null} in the session of a user.
+     */
+    public String getCoachID() {
+        return coachID;
+    }
+
+    /**
+     * Returns the data of the logged-in user.
+     *
+     * @return The {@code UserSession} loaded at login.
+     * @throws IllegalStateException In the session of a coach.
+     */
+    public UserSession getUserSession() {
+        if (userSession == null) {
+            throw new IllegalStateException("No user is logged in to this session.");
+        }
+        return userSession;
+    }
+
+    /**
+     * Returns the key of this session in {@link KioskSessions}.
+     *
+     * @return The session key.
+     */
+    public String getKey() {
+        return userUUID != null ? userKey(userUUID) : coachKey(coachID);
+    }
+
+    /**
+     * Returns the number that distinguishes the screens of this session from those of other sessions.
+     *
+     * @return The session number.
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Estimates the memory held by the session: its built screens and the cached data of the user.
+     *
+     * @return The estimated size in bytes.
+     */
+    long estimatedBytes() {
+        return BASE_BYTES + (userSession == null ? 0 : userSession.estimatedBytes());
+    }
+
+    /**
+     * Leaves the session and opens the login screen. In kiosk mode, the session and its screens are kept,
+     * so the user's next login resumes them without loading anything; otherwise they are dropped.
+     */
+    public void logOut() {
+        if (KioskSessions.isEnabled()) {
+            KioskSessions.park(this);
+            Navigator.hide();  // Hide the application window until the next login
+        } else {
+            Navigator.close(); // Close the application window and drop the screens
+        }
+        new LoginGUI();
+    }
+}
@@ -0,0 +1,321 @@
+package main.java.gui;
+
+import main.java.Activity;
+import main.java.ActivityType;
+import main.java.IntervalTree;
+import main.java.WeightPyramid;
+import main.java.WeightSeries;
+import main.java.WeightTrend;
+import main.java.storage.ActivityCodec;
+import main.java.storage.ActivityJournal;
+import main.java.storage.ActivityListener;
+import main.java.storage.ActivityRollups;
+import main.java.storage.ActivityStats;
+import main.java.storage.ProfileStore;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * The {@code UserSession} class caches the data of a logged-in user: the profile and the weight
+ * history from the {@link ProfileStore} and the workout statistics from the activity journal.
+ * The data is loaded once when the user logs in and is held by the user's {@link SessionContext},
+ * so switching between screens does not read any file. Screens that save data save it as before and
+ * then update the session, which therefore never has to be reloaded.
+ * <p>
+ * Like the rest of the GUI, the session is only used on the Swing event dispatch thread; only
+ * {@link #load} may be called from a background thread of {@link AsyncData}.
+ */
+public class UserSession {
+
+    private final String userUUID;
+    private String userName;
+    private double userWeight;
+    private double userHeight;
+    private int userAge;
+    private String userGender;
+    private String dateOfAccountCreation;
+    private String dateOfCurrentWeight;
+    private WeightSeries weightSeries = new WeightSeries();
+    private WeightPyramid weightPyramid = new WeightPyramid(weightSeries); // Chart buckets of weightSeries
+    private WeightTrend weightTrend = new WeightTrend(weightSeries);       // Trend of weightSeries
+    private ActivityStats stats = new ActivityStats();
+    private ActivityRollups rollups = new ActivityRollups();
+    private IntervalTree<ActivityType> workoutIntervals = new IntervalTree<>(); // Start and end of every saved workout
+
+    /**
+     * Constructs an empty session for the given user.
+     *
+     * @param userUUID The UUID of the user.
+     */
+    private UserSession(String userUUID) {
+        this.userUUID = userUUID;
+    }
+
+    /**
+     * Loads all data of the given user into a new session.
+     * This reads the data files, so it is called on a background thread when the user logs in.
+     *
+     * @param userUUID The UUID of the user.
+     * @return The loaded {@code UserSession}.
+     */
+    public static UserSession load(String userUUID) {
+        return load(userUUID, ProfileStore.getDefault(), ActivityJournal.getDefault());
+    }
+
+    /**
+     * Loads all data of the given user from the given stores into a new session.
+     *
+     * @param userUUID The UUID of the user.
+     * @param profiles The {@code ProfileStore} holding the user's profile and weight history.
+     * @param journal  The {@code ActivityJournal} holding the user's activities.
+     * @return The loaded {@code UserSession}.
+     */
+    public static UserSession load(String userUUID, ProfileStore profiles, ActivityJournal journal) {
+        UserSession session = new UserSession(userUUID);
+        session.loadProfile(profiles);
+        session.loadWorkoutStats(journal);
+        return session;
+    }
+
+    /**
+     * Updates the cached profile after it has been saved to the {@link ProfileStore}.
+     *
+     * @param newName       The new name of the user.
+     * @param newWeight     The new weight of the user.
+     * @param newHeight     The new height of the user.
+     * @param newWeightDate The date of the current weight.
+     */
+    public void updateProfile(String newName, double newWeight, double newHeight, String newWeightDate) {
+        userName = newName;
+        userWeight = newWeight;
+        userHeight = newHeight;
+        dateOfCurrentWeight = newWeightDate;
+    }
+
+    /**
+     * Records a weight in the cached history after it has been saved to the {@link ProfileStore}.
+     * Like the store, the history keeps one weight per day, so a later weigh-in replaces the weight of its day.
+     *
+     * @param date   The date of the weight ({@code yyyy-MM-dd HH:mm:ss}).
+     * @param weight The weight value.
+     */
+    public void addWeightEntry(String date, double weight) {
+        LocalDate day = LocalDate.parse(date.substring(0, 10));
+        weightSeries.upsert(day, weight);
+        weightPyramid.update(weightSeries, Math.toIntExact(day.toEpochDay()));
+        weightTrend.record(weightSeries, Math.toIntExact(day.toEpochDay()));
+    }
+
+    /**
+     * Adds an activity to the cached workout statistics, rollups and intervals after it has been saved.
+     *
+     * @param activity The saved {@code Activity}.
+     */
+    public void addActivity(Activity activity) {
+        stats.add(activity);
+        rollups.add(activity);
+        if (activity.getStartTime() != null) {
+            workoutIntervals.add(intervalStart(activity), intervalEnd(activity), ActivityType.fromDisplayName(activity.getName()));
+        }
+    }
+
+    /**
+     * Tells whether a workout with the same type, start and duration as an activity that is about to be
+     * saved is already saved. Other overlapping workouts are allowed, since the training form has no time of day.
+     *
+     * @param activity The new {@code Activity}.
+     * @return {@code true} if the activity duplicates a saved workout.
+     */
+    public boolean isDuplicateWorkout(Activity activity) {
+        if (activity.getStartTime() == null) {
+            return false;
+        }
+        return isDuplicate(workoutIntervals, ActivityType.fromDisplayName(activity.getName()),
+                intervalStart(activity), intervalEnd(activity));
+    }
+
+    /**
+     * Estimates the memory held by the cached data, for bounding the sessions kept in kiosk mode.
+     *
+     * @return The estimated size in bytes.
+     */
+    public long estimatedBytes() {
+        // Weights are held by the series, the pyramid and the trend; workouts by the rollups and the intervals
+        return 4096 + weightSeries.size() * 96L + rollups.getCount() * 48L + workoutIntervals.size() * 64L;
+    }
+
+    public String getUserUUID() {
+        return userUUID;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public double getUserWeight() {
+        return userWeight;
+    }
+
+    public double getUserHeight() {
+        return userHeight;
+    }
+
+    public int getUserAge() {
+        return userAge;
+    }
+
+    public String getUserGender() {
+        return userGender;
+    }
+
+    public String getDateOfAccountCreation() {
+        return dateOfAccountCreation;
+    }
+
+    public String getDateOfCurrentWeight() {
+        return dateOfCurrentWeight;
+    }
+
+    /**
+     * Returns the weight history of the user in date order. The series must not be modified.
+     *
+     * @return The {@code WeightSeries} of the user.
+     */
+    public WeightSeries getWeightSeries() {
+        return weightSeries;
+    }
+
+    /**
+     * Returns the day, week, month and year buckets of the weight history, for drawing it.
+     *
+     * @return The {@code WeightPyramid} of the weight history.
+     */
+    public WeightPyramid getWeightPyramid() {
+        return weightPyramid;
+    }
+
+    /**
+     * Returns the workout totals of the user per day, week and month.
+     *
+     * @return The {@code ActivityRollups} of all saved activities.
+     */
+    public ActivityRollups getRollups() {
+        return rollups;
+    }
+
+    /**
+     * Returns the moving average and regression of the weight history.
+     *
+     * @return The {@code WeightTrend} of the weight history.
+     */
+    public WeightTrend getWeightTrend() {
+        return weightTrend;
+    }
+
+    /**
+     * Returns the workout statistics of the user.
+     *
+     * @return The {@code ActivityStats} of all saved activities.
+     */
+    public ActivityStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Copies the profile and the weight history of the user from a snapshot of the {@link ProfileStore}.
+     */
+    private void loadProfile(ProfileStore profiles) {
+        if (userUUID == null) {
+            return; // No logged-in user
+        }
+
+        try (ProfileStore.Snapshot snapshot = profiles.openSnapshot()) {
+            ProfileStore.Profile profile = snapshot.getProfile(userUUID);
+            if (profile != null) {
+                userName = profile.getName();
+                userWeight = profile.getWeight();
+                userHeight = profile.getHeight();
+                userAge = profile.getAge();
+                userGender = profile.getGender();
+                dateOfAccountCreation = profile.getAccountCreationDate();
+                dateOfCurrentWeight = profile.getCurrentWeightDate();
+            }
+            // A copy, as the session adds weights while the store's series is shared by its snapshots
+            weightSeries = new WeightSeries(snapshot.getWeightSeries(userUUID));
+            weightPyramid = new WeightPyramid(weightSeries);
+            weightTrend = new WeightTrend(weightSeries);
+        }
+    }
+
+    /**
+     * Computes the workout statistics, rollups and intervals of the user in one pass over the activity
+     * journal. The stored activities end their duration after they start, as {@link RegisterTrainingGUI}
+     * saves them.
+     * <p>
+     * Workouts that were logged twice (the same type, start and end as a workout read before, as devices
+     * tend to import them) are skipped, so they do not inflate the totals. Each is found with one lookup
+     * in the interval tree of the workouts read so far.
+     */
+    private void loadWorkoutStats(ActivityJournal journal) {
+        if (userUUID == null) {
+            return;
+        }
+        try {
+            ActivityStats loadedStats = new ActivityStats();
+            ActivityRollups loadedRollups = new ActivityRollups();
+            IntervalTree<ActivityType> loadedIntervals = new IntervalTree<>();
+            int[] duplicates = {0};
+            journal.readActivities(userUUID, new ActivityListener() {
+                @Override
+                public void onActivity(ActivityType type, double burnedCalories, double duration,
+                                       double distance, double speed, int repetitions) {
+                    onActivity(type, ActivityCodec.NO_TIME, burnedCalories, duration, distance, speed, repetitions);
+                }
+
+                @Override
+                public void onActivity(ActivityType type, long startTime, double burnedCalories, double duration,
+                                       double distance, double speed, int repetitions) {
+                    if (startTime != ActivityCodec.NO_TIME) {
+                        long endTime = startTime + Math.round(duration * 60);
+                        if (isDuplicate(loadedIntervals, type, startTime, endTime)) {
+                            duplicates[0]++;
+                            return;
+                        }
+                        loadedIntervals.add(startTime, endTime, type);
+                    }
+                    loadedStats.onActivity(type, burnedCalories, duration, distance, speed, repetitions);
+                    loadedRollups.onActivity(type, startTime, burnedCalories, duration, distance, speed, repetitions);
+                }
+            });
+            stats = loadedStats;
+            workoutIntervals = loadedIntervals;
+            // The journal's rollups count the skipped duplicates, so they are only used when there were none
+            rollups = duplicates[0] == 0 ? journal.getRollups(userUUID) : loadedRollups;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Tells whether a workout of the same type with the same start and end has already been read.
+     */
+    private static boolean isDuplicate(IntervalTree<ActivityType> intervals, ActivityType type, long start, long end) {
+        long storedEnd = Math.max(end, start + 1); // As the tree stores workouts without a duration
+        for (IntervalTree.Interval<ActivityType> overlap : intervals.findOverlaps(start, end)) {
+            if (overlap.getStart() == start && overlap.getEnd() == storedEnd && overlap.getValue() == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long intervalStart(Activity activity) {
+        return activity.getStartTime().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long intervalEnd(Activity activity) {
+        return intervalStart(activity) + Math.round(activity.getDuration() * 60);
+    }
+}
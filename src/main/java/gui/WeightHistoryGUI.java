@@ -6,39 +6,69 @@ import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.chart.plot.CategoryPlot;
-
+import org.jfree.chart.axis.CategoryLabelPositions;
+import main.java.WeightPyramid;
+import main.java.WeightSeries;
+import main.java.WeightTrend;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.*;
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 
 /**
  * The {@code WeightHistoryGUI} class provides a graphical user interface for users to view their weight history.
- * It displays a line chart representing the user's weight over time. The class reads weight data from a file,
- * processes it, and visualizes it using JFreeChart. It also includes navigation buttons to other sections of
+ * It displays a line chart representing the user's weight over time. The class takes the weight data from the
+ * user's session and visualizes it using JFreeChart. It also includes navigation buttons to other sections of
  * the Fitness Tracker application.
+ * <p>
+ * The chart shows a window of the history that can be zoomed and panned. It is drawn from the
+ * {@link WeightPyramid} of the session at the finest resolution that fits {@value #MAX_BUCKETS} points into
+ * the window, showing the average and the range of each week, month or year once single days no longer fit.
+ * The moving average and the regression of the recent weigh-ins from the session's {@link WeightTrend}
+ * are drawn over the weights, and the regression projects when a goal weight will be reached.
  */
-public class WeightHistoryGUI {
+public class WeightHistoryGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
 
     private String userUUID; // Stores the UUID of the currently logged-in user
-    private ArrayList<WeightEntry> weightEntries = new ArrayList<>(); // List to store weight entries
+    private WeightSeries weightSeries; // The user's weights, in date order
+    private WeightPyramid weightPyramid; // Buckets of the weights at each resolution
+    private WeightTrend weightTrend;     // Moving average and regression of the weights
+    private final JPanel panel;                          // The root panel of the screen
+    private final DefaultCategoryDataset dataset = new DefaultCategoryDataset(); // Data of the weight chart
+
+    private final JLabel rangeLabel = new JLabel();                             // Shows the visible window
+    private final JLabel trendLabel = new JLabel();                             // Shows the slope and projection
+    private final JTextField goalField = new JTextField(5);                     // Goal weight for the projection
+    private int viewEnd;     // Last visible day, as an epoch day
+    private int viewDays;    // Number of visible days
+    private boolean followLatest = true; // Whether the window moves along with new weigh-ins
+
+    static final int MAX_BUCKETS = 120;   // Most points drawn at once
+    private static final int MIN_VIEW_DAYS = 14;
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MM-yyyy");
+    private static final DateTimeFormatter YEAR_FORMAT = DateTimeFormatter.ofPattern("yyyy");
 
     /**
      * Constructs the {@code WeightHistoryGUI} and initializes the weight history interface.
-     * It loads the user's weight data, sets up the main frame, and configures navigation buttons and the weight chart.
+     * It loads the user's weight data, sets up the main panel, and configures navigation buttons and the weight chart.
+     *
+     * @param context The session of the logged-in user.
      */
-    public WeightHistoryGUI() {
-        userUUID = LoginGUI.loggedInUserUUID; // Retrieve the UUID of the currently logged-in user
-        loadWeightDataFromFile("src/main/resources/weightsData.txt"); // Load weight data from the specified file
-
-        // Create the main application frame
-        JFrame frame = new JFrame("Fitness Tracker - Weight History");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(1000, 600);
-        frame.setLocationRelativeTo(null); // Center the frame on the screen
-        frame.setLayout(new BorderLayout());
+    public WeightHistoryGUI(SessionContext context) {
+        this.context = context;
+        userUUID = context.getUserUUID(); // Retrieve the UUID of the currently logged-in user
+        weightSeries = context.getUserSession().getWeightSeries(); // Take the weight data from the session loaded at login
+        weightPyramid = context.getUserSession().getWeightPyramid();
+        weightTrend = context.getUserSession().getWeightTrend();
+        showAll();
+
+        // Create the root panel of the screen
+        panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(1000, 600));
 
         // ----------------
         // TOP PANEL (Navigation)
@@ -104,23 +134,19 @@ public class WeightHistoryGUI {
 
         // Action listeners for profile menu items
         aboutMe.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new AboutMeGUI();   // Open the AboutMeGUI
+            Navigator.show(context, AboutMeGUI.class, AboutMeGUI::new); // Open the AboutMeGUI
         });
 
         workoutStats.addActionListener(e -> {
-            frame.dispose();        // Close the current frame
-            new WorkoutStatsGUI();  // Open the WorkoutStatsGUI
+            Navigator.show(context, WorkoutStatsGUI.class, WorkoutStatsGUI::new); // Open the WorkoutStatsGUI
         });
 
         weightHistory.addActionListener(e -> {
-            frame.dispose();          // Close the current frame
-            new WeightHistoryGUI();   // Reload the WeightHistoryGUI
+            Navigator.show(context, WeightHistoryGUI.class, WeightHistoryGUI::new); // Reload the WeightHistoryGUI
         });
 
         logOut.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new LoginGUI();     // Open the LoginGUI
+            context.logOut(); // Leave the session and open the LoginGUI
         });
 
         // Show the profile menu when the "PROFILE" button is hovered over
@@ -139,8 +165,7 @@ public class WeightHistoryGUI {
         mainSiteButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();    // Close the current frame
-                new MainGUI();      // Reload the MainGUI
+                Navigator.show(context, MainGUI.class, MainGUI::new); // Reload the MainGUI
             }
 
             @Override
@@ -158,8 +183,7 @@ public class WeightHistoryGUI {
         coachesButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();          // Close the current frame
-                new OurCoachesGUI();      // Open the OurCoachesGUI
+                Navigator.show(context, OurCoachesGUI.class, OurCoachesGUI::new); // Open the OurCoachesGUI
             }
 
             @Override
@@ -177,8 +201,7 @@ public class WeightHistoryGUI {
         workoutsButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();      // Close the current frame
-                new WorkoutsGUI();    // Open the WorkoutsGUI
+                Navigator.show(context, WorkoutsGUI.class, WorkoutsGUI::new); // Open the WorkoutsGUI
             }
 
             @Override
@@ -192,8 +215,8 @@ public class WeightHistoryGUI {
             }
         });
 
-        // Add the top navigation panel to the frame
-        frame.add(topPanel, BorderLayout.NORTH);
+        // Add the top navigation panel to the main panel
+        panel.add(topPanel, BorderLayout.NORTH);
 
         // ----------------
         // CENTER PANEL (Weight History Chart)
@@ -201,12 +224,8 @@ public class WeightHistoryGUI {
         JPanel centerPanel = new JPanel(new BorderLayout());
         centerPanel.setBackground(new Color(230, 220, 250)); // Light purple background
 
-        // Create dataset for the weight history chart
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        for (WeightEntry we : weightEntries) {
-            // "Weight" is the series name, we.getDate() is the category (X-axis)
-            dataset.addValue(we.getWeight(), "Weight", we.getDate());
-        }
+        // Fill the dataset for the weight history chart
+        fillDataset();
 
         // Create a line chart using the dataset
         JFreeChart lineChart = ChartFactory.createLineChart(
@@ -215,7 +234,7 @@ public class WeightHistoryGUI {
                 "Weight (kg)",    // Y-axis label
                 dataset,          // Dataset
                 PlotOrientation.VERTICAL, // Plot orientation
-                false, // Include legend
+                true,  // Include legend
                 true,  // Include tooltips
                 false  // URLs
         );
@@ -239,9 +258,23 @@ public class WeightHistoryGUI {
         org.jfree.chart.renderer.category.LineAndShapeRenderer renderer =
                 (org.jfree.chart.renderer.category.LineAndShapeRenderer) plot.getRenderer();
 
-        // 6. Set the series color to dark purple and make the line thicker
+        // 6. Set the series color to dark purple and make the line thicker;
+        //    the minimum and maximum of coarser buckets are drawn as thin lines
         renderer.setSeriesPaint(0, darkPurple);
         renderer.setSeriesStroke(0, new BasicStroke(3.0f)); // 3-pixel thick lines
+        for (int series = 1; series <= 2; series++) {
+            renderer.setSeriesPaint(series, new Color(180, 150, 210));
+            renderer.setSeriesStroke(series, new BasicStroke(1.0f));
+            renderer.setSeriesShapesVisible(series, false);
+        }
+        //    the moving average as an orange line and the regression as a dashed green one
+        renderer.setSeriesPaint(3, new Color(230, 140, 40));
+        renderer.setSeriesStroke(3, new BasicStroke(2.0f));
+        renderer.setSeriesShapesVisible(3, false);
+        renderer.setSeriesPaint(4, new Color(60, 150, 90));
+        renderer.setSeriesStroke(4, new BasicStroke(2.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
+                10.0f, new float[]{6.0f, 4.0f}, 0.0f));
+        renderer.setSeriesShapesVisible(4, false);
 
         // 7. Change fonts to Comic Sans for various chart components
         Font comicSansPlain = new Font("Comic Sans MS", Font.PLAIN, 12);
@@ -256,6 +289,7 @@ public class WeightHistoryGUI {
         plot.getDomainAxis().setLabelFont(comicSansBold);
         // - X-axis tick labels font
         plot.getDomainAxis().setTickLabelFont(comicSansPlain);
+        plot.getDomainAxis().setCategoryLabelPositions(CategoryLabelPositions.UP_45);
 
         // - Y-axis label font
         plot.getRangeAxis().setLabelFont(comicSansBold);
@@ -271,97 +305,233 @@ public class WeightHistoryGUI {
         chartPanel.setPreferredSize(new Dimension(800, 500)); // Set preferred size for the chart
         centerPanel.add(chartPanel, BorderLayout.CENTER); // Add the chart to the center panel
 
-        // Add the center panel to the main frame
-        frame.add(centerPanel, BorderLayout.CENTER);
+        // Zoom with the mouse wheel: rotating towards the user zooms out
+        chartPanel.addMouseWheelListener(e -> zoom(e.getWheelRotation() > 0 ? 2.0 : 0.5));
 
-        // Make the frame visible
-        frame.setVisible(true);
+        // ----------------
+        // ZOOM PANEL (Zoom and Pan Controls)
+        // ----------------
+        JPanel zoomPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        zoomPanel.setBackground(lightPurple);
+
+        JButton earlierButton = new JButton("< Earlier");
+        JButton zoomInButton = new JButton("Zoom In");
+        JButton zoomOutButton = new JButton("Zoom Out");
+        JButton allButton = new JButton("All");
+        JButton laterButton = new JButton("Later >");
+        for (JButton button : new JButton[]{earlierButton, zoomInButton, zoomOutButton, allButton, laterButton}) {
+            button.setFont(new Font("Comic Sans MS", Font.BOLD, 14));
+            button.setForeground(darkPurple);
+            zoomPanel.add(button);
+        }
+        rangeLabel.setFont(comicSansPlain);
+        rangeLabel.setForeground(darkPurple);
+        zoomPanel.add(rangeLabel);
+
+        earlierButton.addActionListener(e -> pan(-viewDays / 2));
+        laterButton.addActionListener(e -> pan(viewDays / 2));
+        zoomInButton.addActionListener(e -> zoom(0.5));
+        zoomOutButton.addActionListener(e -> zoom(2.0));
+        allButton.addActionListener(e -> {
+            showAll();
+            fillDataset();
+        });
+
+        // ----------------
+        // TREND PANEL (Goal Weight and Projection)
+        // ----------------
+        JPanel trendPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        trendPanel.setBackground(lightPurple);
+
+        JLabel goalLabel = new JLabel("Goal weight (kg):");
+        goalLabel.setFont(comicSansBold);
+        goalLabel.setForeground(darkPurple);
+        goalField.setFont(comicSansPlain);
+        goalField.addActionListener(e -> updateTrendLabel());
+        trendLabel.setFont(comicSansPlain);
+        trendLabel.setForeground(darkPurple);
+        trendPanel.add(goalLabel);
+        trendPanel.add(goalField);
+        trendPanel.add(trendLabel);
+        updateTrendLabel();
+
+        JPanel southPanel = new JPanel(new GridLayout(2, 1));
+        southPanel.add(zoomPanel);
+        southPanel.add(trendPanel);
+        centerPanel.add(southPanel, BorderLayout.SOUTH);
+
+        // Add the center panel to the main panel
+        panel.add(centerPanel, BorderLayout.CENTER);
+    }
+
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - Weight History";
+    }
+
+    /**
+     * Updates the chart with the weight entries added since the screen was last shown.
+     * If the chart showed the latest weigh-in, the window moves on to the new latest one.
+     */
+    @Override
+    public void refresh() {
+        weightSeries = context.getUserSession().getWeightSeries();
+        weightPyramid = context.getUserSession().getWeightPyramid();
+        weightTrend = context.getUserSession().getWeightTrend();
+        if (followLatest && !weightSeries.isEmpty()) {
+            viewEnd = weightSeries.getDay(weightSeries.size() - 1);
+        }
+        fillDataset();
+        updateTrendLabel();
     }
 
     /**
-     * Loads weight data from the specified file for the currently logged-in user.
-     * The file format is expected to be:
-     * uuid;date1~weight1;date2~weight2;...
+     * Sets the window to the whole weight history.
+     */
+    private void showAll() {
+        if (weightSeries.isEmpty()) {
+            viewEnd = Math.toIntExact(LocalDate.now().toEpochDay());
+            viewDays = MIN_VIEW_DAYS;
+        } else {
+            viewEnd = weightSeries.getDay(weightSeries.size() - 1);
+            viewDays = Math.max(MIN_VIEW_DAYS, viewEnd - weightSeries.getDay(0) + 1);
+        }
+        followLatest = true;
+    }
+
+    /**
+     * Changes the length of the window, keeping its center in place.
+     *
+     * @param factor The factor to multiply the number of visible days by.
+     */
+    private void zoom(double factor) {
+        int center = viewEnd - viewDays / 2;
+        viewDays = Math.max(MIN_VIEW_DAYS, Math.min(maxViewDays(), (int) Math.round(viewDays * factor)));
+        viewEnd = center + viewDays / 2;
+        clampView();
+        fillDataset();
+    }
+
+    /**
+     * Moves the window by a number of days.
      *
-     * @param fileName The path to the weightsData.txt file.
+     * @param days The number of days to move by; negative values move to earlier days.
      */
-    private void loadWeightDataFromFile(String fileName) {
-        File file = new File(fileName);
-        if (!file.exists()) {
-            System.out.println("weightsData.txt does not exist or is empty.");
-            return; // Exit if the file does not exist
+    private void pan(int days) {
+        viewEnd += days;
+        clampView();
+        fillDataset();
+    }
+
+    /**
+     * Keeps the window within the weight history.
+     */
+    private void clampView() {
+        if (weightSeries.isEmpty()) {
+            return;
         }
+        int first = weightSeries.getDay(0);
+        int last = weightSeries.getDay(weightSeries.size() - 1);
+        viewEnd = Math.max(Math.min(viewEnd, last), Math.min(first + viewDays - 1, last));
+        followLatest = viewEnd == last;
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue; // Skip empty lines
-                String[] parts = line.split(";");
-                if (parts.length < 2) continue; // Ensure there are enough parts
-
-                String uuidFromFile = parts[0];
-                if (!uuidFromFile.equals(userUUID)) {
-                    // Skip entries that do not belong to the current user
-                    continue;
-                }
-
-                // From index 1 to the end, we have entries in the format "date~weight"
-                for (int i = 1; i < parts.length; i++) {
-                    String entry = parts[i];
-                    if (entry.contains("~")) {
-                        String[] subParts = entry.split("~");
-                        if (subParts.length == 2) {
-                            String date = subParts[0];
-                            double weightVal = 0;
-                            try {
-                                weightVal = Double.parseDouble(subParts[1]);
-                            } catch (NumberFormatException e) {
-                                e.printStackTrace(); // Print stack trace if parsing fails
-                            }
-                            weightEntries.add(new WeightEntry(date, weightVal)); // Add the weight entry to the list
-                        }
-                    }
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace(); // Print stack trace if an IO error occurs
+    /**
+     * Returns the largest number of visible days, which shows the whole history.
+     */
+    private int maxViewDays() {
+        if (weightSeries.isEmpty()) {
+            return MIN_VIEW_DAYS;
         }
+        return Math.max(MIN_VIEW_DAYS, weightSeries.getDay(weightSeries.size() - 1) - weightSeries.getDay(0) + 1);
     }
 
     /**
-     * A simple class to store weight entries, consisting of a date and the corresponding weight value.
+     * Fills the chart dataset with the buckets of the visible window, at the finest resolution that
+     * needs at most {@value #MAX_BUCKETS} points. The moving average of a bucket is the one of its
+     * last weigh-in; the regression is drawn over the buckets within its window.
      */
-    private static class WeightEntry {
-        private final String date;   // The date of the weight entry
-        private final double weight; // The weight value
-
-        /**
-         * Constructs a {@code WeightEntry} with the specified date and weight.
-         *
-         * @param date   The date of the weight entry.
-         * @param weight The weight value.
-         */
-        public WeightEntry(String date, double weight) {
-            this.date = date;
-            this.weight = weight;
+    private void fillDataset() {
+        dataset.clear();
+        int viewStart = viewEnd - viewDays + 1;
+        WeightPyramid.Resolution resolution = weightPyramid.selectResolution(viewStart, viewEnd, MAX_BUCKETS);
+        WeightPyramid.Level level = weightPyramid.getLevel(resolution);
+        int end = level.ceilingIndex(viewEnd + 1);
+        int regressionStart = weightSeries.isEmpty() ? Integer.MAX_VALUE
+                : weightSeries.getDay(weightSeries.size() - 1) - WeightTrend.REGRESSION_DAYS + 1;
+        for (int i = level.ceilingIndex(resolution.bucketStart(viewStart)); i < end; i++) {
+            String label = formatBucket(level.getStartDate(i), resolution);
+            int bucketStart = Math.toIntExact(level.getStartDate(i).toEpochDay());
+            int lastEntry = weightSeries.ceilingIndex(resolution.nextBucketStart(bucketStart)) - 1;
+            boolean coarse = resolution != WeightPyramid.Resolution.DAY;
+            // Every bucket adds all series, some without a value, so each series keeps its color
+            // "Weight" is the series name, the bucket is the category (X-axis)
+            dataset.addValue(level.getAverage(i), "Weight", label);
+            dataset.addValue(coarse ? (Double) level.getMin(i) : null, "Minimum", label);
+            dataset.addValue(coarse ? (Double) level.getMax(i) : null, "Maximum", label);
+            dataset.addValue(weightTrend.getAverage(lastEntry), "Moving Average", label);
+            double regression = weightTrend.getRegressionWeight(Math.max(bucketStart, regressionStart));
+            boolean inWindow = weightSeries.getDay(lastEntry) >= regressionStart && !Double.isNaN(regression);
+            dataset.addValue(inWindow ? (Double) regression : null, "Regression", label);
+        }
+
+        String unit;
+        switch (resolution) {
+            case DAY:
+                unit = "daily weights";
+                break;
+            case WEEK:
+                unit = "weekly averages";
+                break;
+            case MONTH:
+                unit = "monthly averages";
+                break;
+            default:
+                unit = "yearly averages";
         }
+        rangeLabel.setText(LocalDate.ofEpochDay(viewStart).format(DAY_FORMAT) + " - "
+                + LocalDate.ofEpochDay(viewEnd).format(DAY_FORMAT) + " (" + unit + ")");
+    }
 
-        /**
-         * Retrieves the date of the weight entry.
-         *
-         * @return A {@code String} representing the date.
-         */
-        public String getDate() {
-            return date;
+    /**
+     * Shows the slope of the regression and, if a goal weight is entered, the day it is projected to be reached.
+     */
+    private void updateTrendLabel() {
+        double slope = weightTrend.getSlope();
+        if (Double.isNaN(slope)) {
+            trendLabel.setText("Not enough weigh-ins in the last " + WeightTrend.REGRESSION_DAYS + " days for a trend.");
+            return;
+        }
+        String text = String.format("Trend: %+.2f kg/week", slope * 7);
+        String goal = goalField.getText().trim();
+        if (!goal.isEmpty()) {
+            try {
+                LocalDate projected = weightTrend.projectGoalDate(weightSeries, Double.parseDouble(goal));
+                text += projected == null ? "  The trend does not lead to the goal."
+                        : "  Goal projected for " + projected.format(DAY_FORMAT) + ".";
+            } catch (NumberFormatException ex) {
+                text += "  Please enter the goal weight as a number.";
+            }
         }
+        trendLabel.setText(text);
+    }
 
-        /**
-         * Retrieves the weight value of the weight entry.
-         *
-         * @return A {@code double} representing the weight.
-         */
-        public double getWeight() {
-            return weight;
+    /**
+     * Formats the first day of a bucket as the label of its category.
+     */
+    private static String formatBucket(LocalDate start, WeightPyramid.Resolution resolution) {
+        switch (resolution) {
+            case MONTH:
+                return start.format(MONTH_FORMAT);
+            case YEAR:
+                return start.format(YEAR_FORMAT);
+            default:
+                return start.format(DAY_FORMAT);
         }
     }
 }
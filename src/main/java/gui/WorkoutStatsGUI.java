@@ -4,12 +4,19 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.*;
 import org.jfree.chart.*;
 import org.jfree.chart.plot.*;
 import org.jfree.chart.renderer.category.BarRenderer;
 import org.jfree.data.category.*;
+import main.java.ActivityType;
+import main.java.storage.ActivityJournal;
+import main.java.storage.ActivityRollups;
+import main.java.storage.ActivityStats;
 
 /**
  * The {@code WorkoutStatsGUI} class provides a graphical user interface for users to view statistics
@@ -17,31 +24,41 @@ import org.jfree.data.category.*;
  * and a bar chart representing the total calories burned by each activity type. The class reads
  * workout data from a file, processes it, and visualizes it using JFreeChart. It also includes
  * navigation buttons to other sections of the application.
+ * <p>
+ * A time range selector restricts the statistics to recent workouts. Those totals are read from the
+ * user's {@link ActivityRollups}, so a range costs a few bucket lookups however long the history is.
+ * The individual workouts of a range are read through the start time index of the {@link ActivityJournal}.
  */
-public class WorkoutStatsGUI {
+public class WorkoutStatsGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
 
     private String userUUID; // Stores the UUID of the currently logged-in user
-    private ArrayList<Workout> userWorkouts = new ArrayList<>(); // List to store user's workouts
-    private Workout mostIntenseWorkout; // Stores the most intense workout based on calories burned
+    private ActivityStats stats = new ActivityStats(); // Statistics of the user's workouts
+    private ActivityRollups rollups = new ActivityRollups(); // Totals of the user's workouts per day, week and month
+    private final JComboBox<String> rangeBox = new JComboBox<>(new String[]{
+            "All Time", "Last 7 Days", "Last 30 Days", "Last 12 Months", "This Year"}); // Selects the time range
+    private final JPanel panel;     // The root panel of the screen
+    private JPanel centerPanel;     // Shows the statistics, rebuilt when they change
+    private int shownCount;         // The number of workouts the center panel shows
 
     /**
      * Constructs the {@code WorkoutStatsGUI} and initializes the workout statistics interface.
-     * It loads the user's workout data, sets up the main frame, configures navigation buttons,
+     * It loads the user's workout data, sets up the main panel, configures navigation buttons,
      * and displays the most intense workout and a bar chart of calories burned by activity type.
+     *
+     * @param context The session of the logged-in user.
      */
-    public WorkoutStatsGUI() {
+    public WorkoutStatsGUI(SessionContext context) {
+        this.context = context;
         // Retrieve the UUID of the currently logged-in user
-        userUUID = LoginGUI.loggedInUserUUID;
+        userUUID = context.getUserUUID();
 
-        // Load workout data from the specified file
-        loadWorkoutDataFromFile("src/main/resources/trainingData.txt");
+        // Load workout data of the user from the session
+        loadWorkoutData();
 
-        // Create the main application frame
-        JFrame frame = new JFrame("Fitness Tracker - Workout Stats");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(1200, 800); // Increased size for better layout
-        frame.setLocationRelativeTo(null); // Center the frame on the screen
-        frame.setLayout(new BorderLayout());
+        // Create the root panel of the screen
+        panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(1200, 800)); // Increased size for better layout
 
         // ----------------
         // TOP PANEL (Navigation)
@@ -107,23 +124,19 @@ public class WorkoutStatsGUI {
 
         // Action listeners for profile menu items
         aboutMe.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new AboutMeGUI();   // Open the AboutMeGUI
+            Navigator.show(context, AboutMeGUI.class, AboutMeGUI::new); // Open the AboutMeGUI
         });
 
         workoutStats.addActionListener(e -> {
-            frame.dispose();        // Close the current frame
-            new WorkoutStatsGUI();  // Reload the WorkoutStatsGUI
+            Navigator.show(context, WorkoutStatsGUI.class, WorkoutStatsGUI::new); // Reload the WorkoutStatsGUI
         });
 
         weightHistory.addActionListener(e -> {
-            frame.dispose();          // Close the current frame
-            new WeightHistoryGUI();   // Open the WeightHistoryGUI
+            Navigator.show(context, WeightHistoryGUI.class, WeightHistoryGUI::new); // Open the WeightHistoryGUI
         });
 
         logOut.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new LoginGUI();     // Open the LoginGUI
+            context.logOut(); // Leave the session and open the LoginGUI
         });
 
         // Show the profile menu when the "PROFILE" button is hovered over
@@ -142,8 +155,7 @@ public class WorkoutStatsGUI {
         mainSiteButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();    // Close the current frame
-                new MainGUI();      // Reload the MainGUI
+                Navigator.show(context, MainGUI.class, MainGUI::new); // Reload the MainGUI
             }
 
             @Override
@@ -161,8 +173,7 @@ public class WorkoutStatsGUI {
         coachesButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();          // Close the current frame
-                new OurCoachesGUI();      // Open the OurCoachesGUI
+                Navigator.show(context, OurCoachesGUI.class, OurCoachesGUI::new); // Open the OurCoachesGUI
             }
 
             @Override
@@ -180,8 +191,7 @@ public class WorkoutStatsGUI {
         workoutsButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();      // Close the current frame
-                new WorkoutsGUI();    // Open the WorkoutsGUI
+                Navigator.show(context, WorkoutsGUI.class, WorkoutsGUI::new); // Open the WorkoutsGUI
             }
 
             @Override
@@ -195,8 +205,61 @@ public class WorkoutStatsGUI {
             }
         });
 
-        // Add the top navigation panel to the frame
-        frame.add(topPanel, BorderLayout.NORTH);
+        // Add the top navigation panel to the main panel
+        panel.add(topPanel, BorderLayout.NORTH);
+
+        // Rebuild the statistics when another time range is selected
+        rangeBox.setFont(new Font("Comic Sans MS", Font.PLAIN, 16));
+        rangeBox.setForeground(darkPurple);
+        rangeBox.addActionListener(e -> rebuildCenterPanel());
+
+        // Add the workout statistics
+        centerPanel = createCenterPanel();
+        panel.add(centerPanel, BorderLayout.CENTER); // Add the center panel to the main panel
+    }
+
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - Workout Stats";
+    }
+
+    /**
+     * Rebuilds the statistics panel if workouts were saved since the screen was last shown.
+     * The navigation bar is kept.
+     */
+    @Override
+    public void refresh() {
+        loadWorkoutData();
+        if (stats.getCount() != shownCount || rangeBox.getSelectedIndex() > 0) {
+            rebuildCenterPanel(); // Ranges end today, so they can change without new workouts
+        }
+    }
+
+    /**
+     * Replaces the statistics panel with one for the current data and time range.
+     */
+    private void rebuildCenterPanel() {
+        panel.remove(centerPanel);
+        centerPanel = createCenterPanel();
+        panel.add(centerPanel, BorderLayout.CENTER);
+        panel.revalidate();
+        panel.repaint();
+    }
+
+    /**
+     * Creates the panel showing the most intense workout, the summary statistics and
+     * a bar chart of calories burned by activity type.
+     *
+     * @return The center {@code JPanel} of the screen.
+     */
+    private JPanel createCenterPanel() {
+        Color darkPurple = new Color(113, 54, 143); // Define a dark purple color for styling
+        shownCount = stats.getCount();
 
         // ----------------
         // CENTER PANEL (Workout Statistics)
@@ -204,6 +267,21 @@ public class WorkoutStatsGUI {
         JPanel centerPanel = new JPanel(new BorderLayout()); // Create the center panel with BorderLayout
         centerPanel.setBackground(new Color(230, 220, 250)); // Set background color to light purple
 
+        // Time range selector
+        JPanel rangePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        rangePanel.setBackground(new Color(230, 220, 250));
+        JLabel rangeLabel = new JLabel("Time Range:");
+        rangeLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 16));
+        rangeLabel.setForeground(darkPurple);
+        rangePanel.add(rangeLabel);
+        rangePanel.add(rangeBox);
+        centerPanel.add(rangePanel, BorderLayout.NORTH);
+
+        if (rangeBox.getSelectedIndex() > 0) {
+            addRangeStatistics(centerPanel, darkPurple);
+            return centerPanel;
+        }
+
         // Left panel: Most intense workout and summary
         JPanel leftPanel = new JPanel(); // Create the left panel to display the most intense workout and summary
         leftPanel.setLayout(new BoxLayout(leftPanel, BoxLayout.Y_AXIS)); // Set layout to vertical BoxLayout
@@ -215,14 +293,15 @@ public class WorkoutStatsGUI {
         leftPanel.add(intenseWorkoutLabel); // Add the label to the left panel
         leftPanel.add(Box.createRigidArea(new Dimension(0, 10))); // Add vertical spacing
 
+        ActivityStats.Entry mostIntenseWorkout = stats.getMostIntense(); // The workout with the most calories burned
         if (mostIntenseWorkout != null) {
             // Conditionally display workout details based on the type of workout
             StringBuilder html = new StringBuilder("<html>");
-            html.append("Name: ").append(mostIntenseWorkout.getName()).append("<br>");
-            html.append("Calories Burned: ").append(mostIntenseWorkout.getCaloriesBurned()).append("<br>");
+            html.append("Name: ").append(mostIntenseWorkout.getType().getDisplayName()).append("<br>");
+            html.append("Calories Burned: ").append(mostIntenseWorkout.getBurnedCalories()).append("<br>");
             html.append("Duration: ").append(mostIntenseWorkout.getDuration()).append(" minutes<br>");
 
-            if (mostIntenseWorkout.getName().equalsIgnoreCase("Rope Jumping")) {
+            if (mostIntenseWorkout.getType() == ActivityType.ROPE_JUMPING) {
                 html.append("Repetitions: ").append(mostIntenseWorkout.getRepetitions()).append("<br>");
             } else {
                 html.append("Distance: ").append(mostIntenseWorkout.getDistance()).append(" km<br>");
@@ -252,12 +331,12 @@ public class WorkoutStatsGUI {
         summaryPanel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0)); // Add top padding
 
         // Calculate statistics
-        double averageActivityTime = calculateAverageActivityTime();
-        double averageActivityCalories = calculateAverageActivityCalories();
-        double totalActivityTime = calculateTotalActivityTime();
-        double totalBurnedCalories = calculateTotalBurnedCalories();
-        Workout longestActivity = findTheLongestActivity();
-        Workout shortestActivity = findTheShortestActivity();
+        double averageActivityTime = stats.getAverageDuration();
+        double averageActivityCalories = stats.getAverageCalories();
+        double totalActivityTime = stats.getTotalDuration();
+        double totalBurnedCalories = stats.getTotalCalories();
+        ActivityStats.Entry longestActivity = stats.getLongest();
+        ActivityStats.Entry shortestActivity = stats.getShortest();
 
         // Create labels for each statistic
         JLabel averageTimeLabel = new JLabel("Average Activity Time: " + String.format("%.2f", averageActivityTime) + " minutes");
@@ -276,11 +355,11 @@ public class WorkoutStatsGUI {
         totalCaloriesLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 18));
         totalCaloriesLabel.setForeground(darkPurple);
 
-        JLabel longestActivityLabel = new JLabel("Longest Activity: " + (longestActivity != null ? longestActivity.getName() + " (" + longestActivity.getDuration() + " minutes)" : "N/A"));
+        JLabel longestActivityLabel = new JLabel("Longest Activity: " + (longestActivity != null ? longestActivity.getType().getDisplayName() + " (" + longestActivity.getDuration() + " minutes)" : "N/A"));
         longestActivityLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 18));
         longestActivityLabel.setForeground(darkPurple);
 
-        JLabel shortestActivityLabel = new JLabel("Shortest Activity: " + (shortestActivity != null ? shortestActivity.getName() + " (" + shortestActivity.getDuration() + " minutes)" : "N/A"));
+        JLabel shortestActivityLabel = new JLabel("Shortest Activity: " + (shortestActivity != null ? shortestActivity.getType().getDisplayName() + " (" + shortestActivity.getDuration() + " minutes)" : "N/A"));
         shortestActivityLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 18));
         shortestActivityLabel.setForeground(darkPurple);
 
@@ -302,358 +381,174 @@ public class WorkoutStatsGUI {
         centerPanel.add(leftPanel, BorderLayout.WEST); // Add the left panel to the center panel's west region
 
         // Right panel: Chart of total calories burned by activity type
-        if (!userWorkouts.isEmpty()) {
-            // Calculate total calories burned by each activity type
-            Map<String, Double> caloriesByType = userWorkouts.stream()
-                    .collect(Collectors.groupingBy(
-                            Workout::getName,
-                            Collectors.summingDouble(Workout::getCaloriesBurned)
-                    ));
-
-            // Create a dataset for the bar chart
+        if (stats.getCount() > 0) {
+            // Create a dataset of the total calories burned by each activity type
             DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-            for (Map.Entry<String, Double> entry : caloriesByType.entrySet()) {
-                dataset.addValue(entry.getValue(), "Calories Burned", entry.getKey());
+            for (ActivityType type : ActivityType.values()) {
+                if (stats.getCount(type) > 0) {
+                    dataset.addValue(stats.getCalories(type), "Calories Burned", type.getDisplayName());
+                }
             }
 
-            // Create a bar chart using the dataset
-            JFreeChart barChart = ChartFactory.createBarChart(
-                    "Total Calories Burned by Activity", // Chart title
-                    "Activity Type",                      // X-axis label
-                    "Calories Burned",                    // Y-axis label
-                    dataset,                              // Dataset
-                    PlotOrientation.VERTICAL,             // Plot orientation
-                    false, // Include legend
-                    true,  // Include tooltips
-                    false  // URLs
-            );
-
-            // Customize the background color of the chart
-            barChart.setBackgroundPaint(new Color(230, 220, 250)); // Light purple background
-
-            // Retrieve the plot from the chart to customize further
-            CategoryPlot plot = barChart.getCategoryPlot();
-
-            // Set the background color of the plot area
-            plot.setBackgroundPaint(new Color(230, 220, 250)); // Match the overall background color
-
-            // Set gridline colors
-            plot.setDomainGridlinePaint(Color.GRAY); // X-axis gridlines
-            plot.setRangeGridlinePaint(Color.GRAY);  // Y-axis gridlines
-
-            // Retrieve and customize the renderer for the bar chart
-            BarRenderer renderer = (BarRenderer) plot.getRenderer();
-            renderer.setSeriesPaint(0, new Color(113, 54, 143)); // Set bar color to dark purple
-
-            // Create a ChartPanel to display the bar chart
-            ChartPanel chartPanel = new ChartPanel(barChart);
-            chartPanel.setPreferredSize(new Dimension(600, 400)); // Set preferred size for the chart
-
-            centerPanel.add(chartPanel, BorderLayout.CENTER); // Add the chart panel to the center panel's center region
-        }
-
-        frame.add(centerPanel, BorderLayout.CENTER); // Add the center panel to the main frame
-        frame.setVisible(true); // Make the frame visible
-    }
-
-    /**
-     * Loads workout data from the specified file for the currently logged-in user.
-     * The file format is expected to be:
-     * uuid;Workout1~Workout2~Workout3~...
-     *
-     * Each workout entry should contain details separated by identifiable markers.
-     *
-     * @param fileName The path to the trainingData.txt file.
-     */
-    private void loadWorkoutDataFromFile(String fileName) {
-        File file = new File(fileName); // Define the workout data file
-        if (!file.exists()) {
-            System.err.println("Workout data file not found: " + fileName); // Print error if file does not exist
-            return;
+            centerPanel.add(createCaloriesChart(dataset, "Total Calories Burned by Activity"), BorderLayout.CENTER);
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) { // Open the file for reading
-            String line;
-            while ((line = br.readLine()) != null) { // Read each line
-                if (line.isEmpty()) continue; // Skip empty lines
-
-                // Split the line by semicolon to separate UUID from workout entries
-                String[] parts = line.split(";");
-                String uuidFromFile = parts[0];
-
-                if (!uuidFromFile.equals(userUUID)) continue; // Skip data that does not belong to the current user
-
-                // Split the workout entries by tilde (~)
-                String[] workouts = parts[1].split("~");
-                for (String workoutEntry : workouts) { // Parse each workout entry
-                    parseActivity(workoutEntry);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace(); // Print stack trace if an IO error occurs
-        }
+        return centerPanel;
     }
 
     /**
-     * Parses a single workout entry string and adds it to the user's workout list.
+     * Adds the totals of the selected time range and a bar chart of their calories by activity type.
      *
-     * @param activityEntry The workout entry string containing workout details.
+     * @param centerPanel The panel to add the statistics to.
+     * @param darkPurple  The text color.
      */
-    private void parseActivity(String activityEntry) {
-        try {
-            // Extract the workout name
-            String name = extractField(activityEntry, "Name: ", "Burned calories:");
-
-            // Extract calories burned
-            String caloriesStr = extractField(activityEntry, "Burned calories: ", "Duration:");
-            double caloriesBurned = Double.parseDouble(caloriesStr.trim());
-
-            // Initialize variables for duration and other fields
-            double duration = 0.0;
-            double distance = 0.0;
-            double speed = 0.0;
-            int repetitions = 0;
-
-            // Conditional parsing based on workout name
-            if (name.equalsIgnoreCase("Running")) {
-                // For Running, duration ends at "Distance ran:"
-                String durationStr = extractField(activityEntry, "Duration: ", "Distance ran:");
-                duration = Double.parseDouble(durationStr.trim());
-
-                // Extract distance ran
-                String distanceStr = extractField(activityEntry, "Distance ran: ", "Average speed:");
-                distance = Double.parseDouble(distanceStr.replace(" km", "").trim());
-
-                // Extract average speed
-                String speedStr = extractField(activityEntry, "Average speed: ", "");
-                speed = Double.parseDouble(speedStr.replace(" km/h", "").trim());
-
-                // Create and add the Running workout
-                Workout running = new Workout(name, caloriesBurned, duration, distance, speed);
-                userWorkouts.add(running);
-
-            } else if (name.equalsIgnoreCase("Cycling")) {
-                // For Cycling, duration ends at "Distance cycled:"
-                String durationStr = extractField(activityEntry, "Duration: ", "Distance cycled:");
-                duration = Double.parseDouble(durationStr.trim());
-
-                // Extract distance cycled
-                String distanceStr = extractField(activityEntry, "Distance cycled: ", "Maximum speed:");
-                distance = Double.parseDouble(distanceStr.replace(" km", "").trim());
-
-                // Extract maximum speed
-                String speedStr = extractField(activityEntry, "Maximum speed: ", "");
-                speed = Double.parseDouble(speedStr.replace(" km/h", "").trim());
-
-                // Create and add the Cycling workout
-                Workout cycling = new Workout(name, caloriesBurned, duration, distance, speed);
-                userWorkouts.add(cycling);
-
-            } else if (name.equalsIgnoreCase("Rope Jumping")) {
-                // For Rope Jumping, duration ends at "Repetitions:"
-                String durationStr = extractField(activityEntry, "Duration: ", "Repetitions:");
-                duration = Double.parseDouble(durationStr.trim());
-
-                // Extract repetitions
-                String repetitionsStr = extractField(activityEntry, "Repetitions: ", "");
-                repetitions = Integer.parseInt(repetitionsStr.trim());
-
-                // Create and add the Rope Jumping workout
-                Workout ropeJumping = new Workout(name, caloriesBurned, duration, repetitions, 0);
-                userWorkouts.add(ropeJumping);
-
-            } else {
-                System.err.println("Unsupported activity type: " + name); // Inform about unsupported activity types
-            }
-
-            // Update the most intense workout based on calories burned
-            if (mostIntenseWorkout == null || caloriesBurned > mostIntenseWorkout.getCaloriesBurned()) {
-                mostIntenseWorkout = userWorkouts.get(userWorkouts.size() - 1); // Set as the most intense workout
-            }
-        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
-            System.err.println("Error parsing activity: " + activityEntry); // Inform about parsing errors
-            e.printStackTrace(); // Print stack trace for debugging
+    private void addRangeStatistics(JPanel centerPanel, Color darkPurple) {
+        LocalDate to = LocalDate.now();
+        LocalDate from;
+        switch (rangeBox.getSelectedIndex()) {
+            case 1:
+                from = to.minusDays(6);
+                break;
+            case 2:
+                from = to.minusDays(29);
+                break;
+            case 3:
+                from = to.minusMonths(12).plusDays(1);
+                break;
+            default:
+                from = to.withDayOfYear(1);
         }
-    }
-
-    /**
-     * Extracts a specific field from a workout entry string based on start and end markers.
-     *
-     * @param entry    The workout entry string.
-     * @param startTag The starting marker indicating the beginning of the desired field.
-     * @param endTag   The ending marker indicating the end of the desired field.
-     * @return The extracted field as a {@code String}. Returns an empty string if markers are not found.
-     */
-    private String extractField(String entry, String startTag, String endTag) {
-        int startIndex = entry.indexOf(startTag); // Find the start index of the desired field
-        if (startIndex == -1) {
-            return ""; // Return empty string if start marker is not found
+        ActivityRollups.Totals totals = rollups.query(from, to);
+        int count = totals.getCount();
+
+        JPanel leftPanel = new JPanel();
+        leftPanel.setLayout(new BoxLayout(leftPanel, BoxLayout.Y_AXIS));
+        leftPanel.setBackground(new Color(230, 220, 250));
+
+        JLabel titleLabel = new JLabel(rangeBox.getSelectedItem() + ":");
+        titleLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 24));
+        titleLabel.setForeground(darkPurple);
+        leftPanel.add(titleLabel);
+        leftPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+
+        String[] lines = {
+                "Workouts: " + count,
+                "Average Activity Time: " + String.format("%.2f", count == 0 ? 0.0 : totals.getTotalDuration() / count) + " minutes",
+                "Average Activity Calories: " + String.format("%.2f", count == 0 ? 0.0 : totals.getTotalCalories() / count) + " calories",
+                "Total Activity Time: " + String.format("%.2f", totals.getTotalDuration()) + " minutes",
+                "Total Burned Calories: " + String.format("%.2f", totals.getTotalCalories()) + " calories",
+                "Total Distance: " + String.format("%.2f", totals.getTotalDistance()) + " km"
+        };
+        for (String line : lines) {
+            JLabel label = new JLabel(line);
+            label.setFont(new Font("Comic Sans MS", Font.PLAIN, 18));
+            label.setForeground(darkPurple);
+            leftPanel.add(label);
+            leftPanel.add(Box.createRigidArea(new Dimension(0, 5)));
         }
-        startIndex += startTag.length(); // Move past the start marker
-
-        int endIndex = endTag.isEmpty() ? entry.length() : entry.indexOf(endTag, startIndex); // Find the end index
-        if (endIndex == -1) {
-            endIndex = entry.length(); // If end marker is not found, set to the end of the string
+        if (count > 0) {
+            addRangeWorkouts(leftPanel, darkPurple, from.atStartOfDay(), to.atTime(LocalTime.MAX));
         }
+        centerPanel.add(leftPanel, BorderLayout.WEST);
 
-        if (startIndex >= endIndex) {
-            return ""; // Return empty string if the range is invalid
+        if (count > 0) {
+            DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+            for (ActivityType type : ActivityType.values()) {
+                if (totals.getCount(type) > 0) {
+                    dataset.addValue(totals.getCalories(type), "Calories Burned", type.getDisplayName());
+                }
+            }
+            centerPanel.add(createCaloriesChart(dataset, "Calories Burned by Activity"), BorderLayout.CENTER);
         }
-
-        return entry.substring(startIndex, endIndex).trim(); // Extract and return the desired field
-    }
-
-    /**
-     * Calculates the average duration of all workouts.
-     *
-     * @return The average activity time in minutes. Returns 0.0 if there are no workouts.
-     */
-    private double calculateAverageActivityTime() {
-        return userWorkouts.stream()
-                .mapToDouble(Workout::getDuration)
-                .average()
-                .orElse(0.0);
-    }
-
-    /**
-     * Calculates the average calories burned per workout.
-     *
-     * @return The average calories burned. Returns 0.0 if there are no workouts.
-     */
-    private double calculateAverageActivityCalories() {
-        return userWorkouts.stream()
-                .mapToDouble(Workout::getCaloriesBurned)
-                .average()
-                .orElse(0.0);
-    }
-
-    /**
-     * Calculates the total duration of all workouts.
-     *
-     * @return The total activity time in minutes.
-     */
-    private double calculateTotalActivityTime() {
-        return userWorkouts.stream()
-                .mapToDouble(Workout::getDuration)
-                .sum();
-    }
-
-    /**
-     * Calculates the total calories burned across all workouts.
-     *
-     * @return The total burned calories.
-     */
-    private double calculateTotalBurnedCalories() {
-        return userWorkouts.stream()
-                .mapToDouble(Workout::getCaloriesBurned)
-                .sum();
     }
 
     /**
-     * Finds the workout with the longest duration.
+     * Adds the most intense, longest and shortest workout of the selected time range. The rollups only
+     * hold totals, so the workouts of the range are read from the activity journal, whose start time
+     * index finds them without reading the rest of the history. The label is filled in once they are read.
      *
-     * @return The longest {@code Workout}. Returns {@code null} if there are no workouts.
+     * @param leftPanel  The panel to add the workouts to.
+     * @param darkPurple The text color.
+     * @param from       The earliest start time of the range.
+     * @param to         The latest start time of the range, inclusive.
      */
-    private Workout findTheLongestActivity() {
-        return userWorkouts.stream()
-                .max(Comparator.comparingDouble(Workout::getDuration))
-                .orElse(null);
+    private void addRangeWorkouts(JPanel leftPanel, Color darkPurple, LocalDateTime from, LocalDateTime to) {
+        JLabel workoutsLabel = new JLabel("Loading workouts...");
+        workoutsLabel.setFont(new Font("Comic Sans MS", Font.PLAIN, 18));
+        workoutsLabel.setForeground(darkPurple);
+        workoutsLabel.setBorder(BorderFactory.createEmptyBorder(15, 0, 0, 0));
+        leftPanel.add(workoutsLabel);
+
+        String uuid = userUUID;
+        AsyncData.onEdt(AsyncData.supply(() -> {
+            ActivityStats rangeStats = new ActivityStats();
+            ActivityJournal.getDefault().readActivities(uuid, from, to, rangeStats);
+            return rangeStats;
+        }), rangeStats -> {
+            ActivityStats.Entry mostIntense = rangeStats.getMostIntense();
+            ActivityStats.Entry longest = rangeStats.getLongest();
+            ActivityStats.Entry shortest = rangeStats.getShortest();
+            workoutsLabel.setText("<html>"
+                    + "Most Intense Workout: " + (mostIntense != null ? mostIntense.getType().getDisplayName() + " (" + mostIntense.getBurnedCalories() + " calories)" : "N/A") + "<br>"
+                    + "Longest Activity: " + (longest != null ? longest.getType().getDisplayName() + " (" + longest.getDuration() + " minutes)" : "N/A") + "<br>"
+                    + "Shortest Activity: " + (shortest != null ? shortest.getType().getDisplayName() + " (" + shortest.getDuration() + " minutes)" : "N/A")
+                    + "</html>");
+        }, error -> {
+            error.printStackTrace();
+            workoutsLabel.setText("The workouts of this range could not be loaded.");
+        });
     }
 
     /**
-     * Finds the workout with the shortest duration.
+     * Creates a bar chart of the calories burned by activity type.
      *
-     * @return The shortest {@code Workout}. Returns {@code null} if there are no workouts.
+     * @param dataset The calories of each activity type.
+     * @param title   The title of the chart.
+     * @return The {@code ChartPanel} showing the chart.
      */
-    private Workout findTheShortestActivity() {
-        return userWorkouts.stream()
-                .min(Comparator.comparingDouble(Workout::getDuration))
-                .orElse(null);
+    private ChartPanel createCaloriesChart(DefaultCategoryDataset dataset, String title) {
+        // Create a bar chart using the dataset
+        JFreeChart barChart = ChartFactory.createBarChart(
+                title,                                // Chart title
+                "Activity Type",                      // X-axis label
+                "Calories Burned",                    // Y-axis label
+                dataset,                              // Dataset
+                PlotOrientation.VERTICAL,             // Plot orientation
+                false, // Include legend
+                true,  // Include tooltips
+                false  // URLs
+        );
+
+        // Customize the background color of the chart
+        barChart.setBackgroundPaint(new Color(230, 220, 250)); // Light purple background
+
+        // Retrieve the plot from the chart to customize further
+        CategoryPlot plot = barChart.getCategoryPlot();
+
+        // Set the background color of the plot area
+        plot.setBackgroundPaint(new Color(230, 220, 250)); // Match the overall background color
+
+        // Set gridline colors
+        plot.setDomainGridlinePaint(Color.GRAY); // X-axis gridlines
+        plot.setRangeGridlinePaint(Color.GRAY);  // Y-axis gridlines
+
+        // Retrieve and customize the renderer for the bar chart
+        BarRenderer renderer = (BarRenderer) plot.getRenderer();
+        renderer.setSeriesPaint(0, new Color(113, 54, 143)); // Set bar color to dark purple
+
+        // Create a ChartPanel to display the bar chart
+        ChartPanel chartPanel = new ChartPanel(barChart);
+        chartPanel.setPreferredSize(new Dimension(600, 400)); // Set preferred size for the chart
+
+        return chartPanel;
     }
 
     /**
-     * The {@code Workout} class represents a single workout session, containing details such as
-     * the workout name, calories burned, duration, distance, and speed.
+     * Loads the workout statistics of the currently logged-in user from the session. They are computed
+     * from the activity journal once at login and updated whenever a training is saved.
      */
-    private static class Workout {
-        private final String name;             // Name of the workout (e.g., Running, Cycling)
-        private final double caloriesBurned;   // Calories burned during the workout
-        private final double duration;         // Duration of the workout in minutes
-        private final double distance;         // Distance covered during the workout in kilometers or repetitions for Rope Jumping
-        private final double speed;            // Speed achieved during the workout in km/h
-
-        /**
-         * Constructs a {@code Workout} with the specified details.
-         *
-         * @param name           The name of the workout.
-         * @param caloriesBurned The number of calories burned.
-         * @param duration       The duration of the workout in minutes.
-         * @param distance       The distance covered in kilometers or repetitions.
-         * @param speed          The speed achieved in kilometers per hour.
-         */
-        public Workout(String name, double caloriesBurned, double duration, double distance, double speed) {
-            this.name = name;
-            this.caloriesBurned = caloriesBurned;
-            this.duration = duration;
-            this.distance = distance;
-            this.speed = speed;
-        }
-
-        /**
-         * Retrieves the name of the workout.
-         *
-         * @return A {@code String} representing the workout name.
-         */
-        public String getName() {
-            return name;
-        }
-
-        /**
-         * Retrieves the number of calories burned during the workout.
-         *
-         * @return A {@code double} representing calories burned.
-         */
-        public double getCaloriesBurned() {
-            return caloriesBurned;
-        }
-
-        /**
-         * Retrieves the duration of the workout.
-         *
-         * @return A {@code double} representing the duration in minutes.
-         */
-        public double getDuration() {
-            return duration;
-        }
-
-        /**
-         * Retrieves the distance covered during the workout.
-         *
-         * @return A {@code double} representing the distance in kilometers or repetitions.
-         */
-        public double getDistance() {
-            return distance;
-        }
-
-        /**
-         * Retrieves the speed achieved during the workout.
-         *
-         * @return A {@code double} representing the speed in kilometers per hour.
-         */
-        public double getSpeed() {
-            return speed;
-        }
-
-        /**
-         * Retrieves the number of repetitions for Rope Jumping workouts.
-         *
-         * @return An {@code int} representing repetitions. Returns 0 for other workout types.
-         */
-        public int getRepetitions() {
-            if (name.equalsIgnoreCase("Rope Jumping")) {
-                return (int) distance; // distance is used to store repetitions for Rope Jumping
-            }
-            return 0; // 0 for other workout types
-        }
+    private void loadWorkoutData() {
+        stats = context.getUserSession().getStats(); // Statistics of all workouts of the user
+        rollups = context.getUserSession().getRollups(); // Totals of the workouts per day, week and month
     }
 }
@@ -11,9 +11,6 @@ import org.jfree.chart.plot.CategoryPlot;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
 
 /**
@@ -22,19 +19,23 @@ import java.util.ArrayList;
  * exercises and includes navigation buttons to other sections of the application. Users can register their workouts
  * by clicking the "REGISTER MY WORKOUT" button, which directs them to the {@code RegisterTrainingGUI}.
  */
-public class WorkoutsGUI {
+public class WorkoutsGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
+
+    private final JPanel panel; // The root panel of the screen
 
     /**
      * Constructs the {@code WorkoutsGUI} and initializes the workout interface.
-     * It loads the user's weight data, sets up the main frame, configures navigation buttons,
+     * It loads the user's weight data, sets up the main panel, configures navigation buttons,
      * and displays images representing different workout types.
+     *
+     * @param context The session of the logged-in user.
      */
-    public WorkoutsGUI() {
-        String loggedInUUID = LoginGUI.loggedInUserUUID; // Retrieve the UUID of the currently logged-in user
-        JFrame frame = new JFrame("Fitness Tracker - Workouts"); // Create the main application frame
-        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE); // Dispose frame on close
-        frame.setSize(1000, 600); // Set frame size
-        frame.setLocationRelativeTo(null); // Center the frame on the screen
+    public WorkoutsGUI(SessionContext context) {
+        this.context = context;
+        String loggedInUUID = context.getUserUUID(); // Retrieve the UUID of the currently logged-in user
+        panel = new JPanel(new BorderLayout()); // Create the root panel of the screen
+        panel.setPreferredSize(new Dimension(1000, 600)); // Set panel size
 
         // ----------------
         // TOP PANEL (Navigation)
@@ -100,23 +101,19 @@ public class WorkoutsGUI {
 
         // Action listeners for profile menu items
         aboutMe.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new AboutMeGUI();   // Open the AboutMeGUI
+            Navigator.show(context, AboutMeGUI.class, AboutMeGUI::new); // Open the AboutMeGUI
         });
 
         workoutStats.addActionListener(e -> {
-            frame.dispose();        // Close the current frame
-            new WorkoutStatsGUI();  // Open the WorkoutStatsGUI
+            Navigator.show(context, WorkoutStatsGUI.class, WorkoutStatsGUI::new); // Open the WorkoutStatsGUI
         });
 
         weightHistory.addActionListener(e -> {
-            frame.dispose();          // Close the current frame
-            new WeightHistoryGUI();   // Reload the WeightHistoryGUI
+            Navigator.show(context, WeightHistoryGUI.class, WeightHistoryGUI::new); // Reload the WeightHistoryGUI
         });
 
         logOut.addActionListener(e -> {
-            frame.dispose();    // Close the current frame
-            new LoginGUI();     // Open the LoginGUI
+            context.logOut(); // Leave the session and open the LoginGUI
         });
 
         // Show the profile menu when the "PROFILE" button is hovered over
@@ -135,8 +132,7 @@ public class WorkoutsGUI {
         mainSiteButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();    // Close the current frame
-                new MainGUI();      // Reload the MainGUI
+                Navigator.show(context, MainGUI.class, MainGUI::new); // Reload the MainGUI
             }
 
             @Override
@@ -154,8 +150,7 @@ public class WorkoutsGUI {
         coachesButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();          // Close the current frame
-                new OurCoachesGUI();      // Open the OurCoachesGUI
+                Navigator.show(context, OurCoachesGUI.class, OurCoachesGUI::new); // Open the OurCoachesGUI
             }
 
             @Override
@@ -173,8 +168,7 @@ public class WorkoutsGUI {
         workoutsButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose();      // Close the current frame
-                new WorkoutsGUI();    // Open the WorkoutsGUI
+                Navigator.show(context, WorkoutsGUI.class, WorkoutsGUI::new); // Open the WorkoutsGUI
             }
 
             @Override
@@ -188,8 +182,8 @@ public class WorkoutsGUI {
             }
         });
 
-        // Add the top navigation panel to the frame
-        frame.add(topPanel, BorderLayout.NORTH);
+        // Add the top navigation panel to the main panel
+        panel.add(topPanel, BorderLayout.NORTH);
 
         // ----------------
         // CENTER PANEL (Workout Types Display)
@@ -265,8 +259,8 @@ public class WorkoutsGUI {
 
             @Override
             public void mouseClicked(java.awt.event.MouseEvent e) {
-                frame.dispose(); // Close the current frame
-                new RegisterTrainingGUI(getUserWeight(loggedInUUID)); // Open the RegisterTrainingGUI with the user's weight
+                // Open the RegisterTrainingGUI with the user's weight
+                Navigator.show(context, RegisterTrainingGUI.class, sessionContext -> new RegisterTrainingGUI(sessionContext, getUserWeight(loggedInUUID)));
             }
         });
 
@@ -277,39 +271,36 @@ public class WorkoutsGUI {
         centerPanel.add(Box.createRigidArea(new Dimension(0, 20))); // Add vertical spacing
         centerPanel.add(registerButton); // Add the register button
 
-        // Set the frame's layout and add panels
-        frame.setLayout(new BorderLayout());
-        frame.add(topPanel, BorderLayout.NORTH);    // Add the top navigation panel
-        frame.add(centerPanel, BorderLayout.CENTER); // Add the center panel with workout types
+        // Add panels to the main panel
+        panel.add(topPanel, BorderLayout.NORTH);    // Add the top navigation panel
+        panel.add(centerPanel, BorderLayout.CENTER); // Add the center panel with workout types
+    }
+
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - Workouts";
+    }
 
-        frame.setVisible(true); // Make the frame visible
+    /**
+     * Nothing to update: the workout types do not change.
+     */
+    @Override
+    public void refresh() {
     }
 
     /**
-     * Retrieves the user's weight from the usersData.txt file based on their UUID.
+     * Retrieves the user's weight from the session loaded at login.
      *
      * @param uuid The UUID of the currently logged-in user.
-     * @return The weight of the user as a {@code double}. Returns 0.0 if not found or on error.
+     * @return The weight of the user as a {@code double}. Returns 0.0 if not known.
      */
     private double getUserWeight(String uuid) {
-        String filePath = "src/main/resources/usersData.txt"; // Path to the user data file
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            // Read each line to find the matching UUID
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(";");
-                if (parts.length >= 3 && parts[0].equals(uuid)) {
-                    return Double.parseDouble(parts[2]); // Weight is the third element
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading the user data file: " + e.getMessage()); // Print error if file reading fails
-        } catch (NumberFormatException e) {
-            System.err.println("Invalid weight format in file."); // Print error if weight parsing fails
-        }
-
-        // Default value if weight is not found
-        return 0.0;
+        UserSession session = context.getUserSession();
+        return uuid != null && uuid.equals(session.getUserUUID()) ? session.getUserWeight() : 0.0;
     }
 }
@@ -1,6 +1,7 @@
 package main.java.gui.coachgui;
 
-import main.java.gui.LoginGUI;
+import main.java.gui.Navigator;
+import main.java.gui.SessionContext;
 
 import javax.swing.*;
 import java.awt.*;
@@ -12,18 +13,21 @@ import java.awt.event.MouseEvent;
  * in the Fitness Tracker application. It provides navigation options for logging out,
  * viewing students, and handling exercise session requests.
  */
-public class CoachGUI {
+public class CoachGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
+
+    private final JPanel panel; // The root panel of the screen
 
     /**
-     * Constructs the CoachGUI, initializing and displaying the coach dashboard frame.
+     * Constructs the CoachGUI, initializing the coach dashboard panel.
+     *
+     * @param context The session of the logged-in coach.
      */
-    public CoachGUI() {
-        // Create the main application frame with title
-        JFrame frame = new JFrame("Fitness Tracker - Coach Dashboard");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(1000, 600);
-        frame.setLocationRelativeTo(null); // Centers the frame on the screen
-        frame.setLayout(new BorderLayout());
+    public CoachGUI(SessionContext context) {
+        this.context = context;
+        // Create the root panel of the screen
+        panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(1000, 600));
 
         // Initialize the top panel containing navigation buttons
         JPanel topPanel = new JPanel();
@@ -56,8 +60,7 @@ public class CoachGUI {
         logOutButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose(); // Close the current frame
-                new LoginGUI();   // Open the Login GUI
+                context.logOut(); // Leave the session and open the LoginGUI
             }
 
             @Override
@@ -75,8 +78,7 @@ public class CoachGUI {
         myStudentsButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose(); // Close the current frame
-                new MyStudentsGUI(); // Open the My Students GUI
+                Navigator.show(context, MyStudentsGUI.class, MyStudentsGUI::new); // Open the My Students GUI
             }
 
             @Override
@@ -94,8 +96,7 @@ public class CoachGUI {
         exerciseRequestsButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                frame.dispose(); // Close the current frame
-                new SessionRequestsGUI(); // Open the Session Requests GUI
+                Navigator.show(context, SessionRequestsGUI.class, SessionRequestsGUI::new); // Open the Session Requests GUI
             }
 
             @Override
@@ -130,11 +131,25 @@ public class CoachGUI {
         JLabel welcomeLabel = new JLabel(welcomeHtml, SwingConstants.CENTER);
         centerPanel.add(welcomeLabel, BorderLayout.CENTER); // Add label to the center panel
 
-        // Add the top and center panels to the frame
-        frame.add(topPanel, BorderLayout.NORTH);
-        frame.add(centerPanel, BorderLayout.CENTER);
+        // Add the top and center panels to the main panel
+        panel.add(topPanel, BorderLayout.NORTH);
+        panel.add(centerPanel, BorderLayout.CENTER);
+    }
+
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - Coach Dashboard";
+    }
 
-        // Make the frame visible
-        frame.setVisible(true);
+    /**
+     * Nothing to update: the dashboard only shows a welcome message.
+     */
+    @Override
+    public void refresh() {
     }
 }
@@ -1,28 +1,46 @@
 package main.java.gui.coachgui;
 
-import main.java.gui.LoginGUI;
+import main.java.gui.AsyncData;
+import main.java.gui.Navigator;
+import main.java.gui.SessionContext;
+import main.java.storage.CoachIndex;
+import main.java.storage.ProfileStore;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * The {@code MyStudentsGUI} class creates a graphical user interface
  * that displays a list of students associated with the currently logged-in coach.
- * It retrieves student data from text files and presents it in a JTable.
+ * It retrieves student data from the coach index and the profile store and presents it in a JTable.
  */
-public class MyStudentsGUI {
+public class MyStudentsGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
+
+    private static final String[] COLUMN_NAMES = {"Name", "Weight (kg)", "Height (cm)", "Age", "Gender", "BMI"};
+
+    private final JPanel panel; // The root panel of the screen
+    private JTable table;       // Displays the students of the coach
+    private JLabel statusLabel; // Shows that the students are being loaded
 
     /**
      * Constructs the MyStudentsGUI and initializes the GUI components.
      * It checks for a logged-in coach, fetches the associated students,
      * and displays them in a table.
+     *
+     * @param context The session of the logged-in coach.
      */
-    public MyStudentsGUI() {
+    public MyStudentsGUI(SessionContext context) {
+        this.context = context;
         // Logged-in user UUID holder
-        String coachID = LoginGUI.loggedInCoachID;
+        String coachID = context.getCoachID();
+
+        // Create the root panel of the screen
+        panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(800, 600));
 
         // Validate that a coach is logged in
         if (coachID == null || coachID.isEmpty()) {
@@ -30,13 +48,6 @@ public class MyStudentsGUI {
             return;
         }
 
-        // Create the main application frame
-        JFrame frame = new JFrame("Fitness Tracker - My Students");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(800, 600);
-        frame.setLocationRelativeTo(null); // Center the frame on the screen
-        frame.setLayout(new BorderLayout());
-
         // Initialize the top panel with a back button
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         Color darkPurple = new Color(113, 54, 143);
@@ -48,98 +59,120 @@ public class MyStudentsGUI {
 
         topPanel.add(backButton);
 
+        statusLabel = new JLabel();
+        statusLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 16));
+        statusLabel.setForeground(Color.WHITE);
+        topPanel.add(statusLabel);
+
         // Add action listener to handle back button clicks
         backButton.addActionListener(e -> {
-            frame.dispose(); // Close the current frame
-            new CoachGUI(); // Open the CoachGUI
+            Navigator.show(context, CoachGUI.class, CoachGUI::new); // Open the CoachGUI
         });
 
-        frame.add(topPanel, BorderLayout.NORTH); // Add the top panel to the frame
+        panel.add(topPanel, BorderLayout.NORTH); // Add the top panel to the main panel
 
         // Initialize the center panel to display student data
         JPanel centerPanel = new JPanel(new BorderLayout());
         centerPanel.setBackground(new Color(230, 220, 250));
 
+        // Create a table to display the student data, which is filled once it has been loaded
+        table = new JTable(new DefaultTableModel(COLUMN_NAMES, 0));
+        table.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
+        table.setRowHeight(25);
+        JScrollPane scrollPane = new JScrollPane(table);
+
+        centerPanel.add(scrollPane, BorderLayout.CENTER); // Add the table to the center panel
+        panel.add(centerPanel, BorderLayout.CENTER); // Add the center panel to the main panel
+
+        loadStudents(coachID);
+    }
+
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - My Students";
+    }
+
+    /**
+     * Reloads the students of the coach, who may have accepted new requests in the meantime.
+     */
+    @Override
+    public void refresh() {
+        if (table != null) {
+            loadStudents(context.getCoachID());
+        }
+    }
+
+    /**
+     * Loads the students of the coach in the background and shows them in the table once they are loaded.
+     *
+     * @param coachID The ID of the coach.
+     */
+    private void loadStudents(String coachID) {
+        statusLabel.setText("Loading students...");
+        AsyncData.onEdt(AsyncData.supply(() -> createStudentsModel(coachID)), model -> {
+            table.setModel(model);
+            statusLabel.setText("");
+        }, error -> {
+            statusLabel.setText("Error loading students!");
+            error.printStackTrace();
+        });
+    }
+
+    /**
+     * Creates the table model holding the students associated with a given coach.
+     * Reads the data files, so it is called on a background thread.
+     *
+     * @param coachID The ID of the coach.
+     * @return A {@code DefaultTableModel} with one row per student.
+     */
+    private DefaultTableModel createStudentsModel(String coachID) {
         // Fetch the list of students associated with the coach
         List<String[]> students = getCoachStudents(coachID);
-        String[] columnNames = {"Name", "Weight (kg)", "Height (cm)", "Age", "Gender", "BMI"};
-        String[][] data = new String[students.size()][columnNames.length];
+        String[][] data = new String[students.size()][COLUMN_NAMES.length];
 
         // Populate the data array with student information
         for (int i = 0; i < students.size(); i++) {
             data[i] = students.get(i);
         }
-
-        // Create a table to display the student data
-        JTable table = new JTable(data, columnNames);
-        table.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
-        table.setRowHeight(25);
-        JScrollPane scrollPane = new JScrollPane(table);
-
-        centerPanel.add(scrollPane, BorderLayout.CENTER); // Add the table to the center panel
-        frame.add(centerPanel, BorderLayout.CENTER); // Add the center panel to the frame
-
-        frame.setVisible(true); // Make the frame visible
+        return new DefaultTableModel(data, COLUMN_NAMES);
     }
 
     /**
      * Retrieves the list of students associated with a given coach.
-     * It reads from the coachesStudents.txt file to get student UUIDs
-     * and then matches them with user data in usersData.txt.
+     * The student UUIDs come from the {@link CoachIndex} and their profiles from one snapshot of the
+     * {@link ProfileStore}, so the list is consistent even while students edit their profiles, and the
+     * cost depends only on the number of students of the coach.
      *
      * @param coachID The UUID of the coach.
      * @return A list of student data arrays containing name, weight, height, age, gender, and BMI.
      */
     private List<String[]> getCoachStudents(String coachID) {
         List<String[]> students = new ArrayList<>();
-        String coachStudentsFile = "src/main/resources/coachesStudents.txt";
-        String userDataFile = "src/main/resources/usersData.txt";
-
-        List<String> studentUUIDs = new ArrayList<>();
-
-        // Reading coachesStudents.txt file to find student UUIDs for the given coach
-        try (BufferedReader br = new BufferedReader(new FileReader(coachStudentsFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith(coachID)) { // Check if the line corresponds to the coach
-                    String[] parts = line.split(";");
-                    for (int i = 1; i < parts.length; i++) { // Start from 1 to skip the coachID
-                        studentUUIDs.add(parts[i]); // Add each student UUID to the list
-                    }
-                    break; // Exit after finding the relevant coach entry
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading coach's students file: " + e.getMessage());
-        }
 
-        // Match student UUIDs with user data in usersData.txt
-        try (BufferedReader br = new BufferedReader(new FileReader(userDataFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(";");
-                if (studentUUIDs.contains(parts[0])) { // Check if the user is a student of the coach
-                    String name = parts[1];
-                    double weight = Double.parseDouble(parts[2]);
-                    double height = Double.parseDouble(parts[3]) / 100.0; // Convert cm to meters
-                    int age = Integer.parseInt(parts[4]);
-                    String gender = parts[5];
-
-                    double bmi = calculateBMI(weight, height); // Calculate BMI
-
-                    // Add the student's data to the list in the required format
-                    students.add(new String[]{
-                            name,
-                            String.format("%.1f", weight),
-                            String.format("%.0f", height * 100),
-                            String.valueOf(age),
-                            gender,
-                            String.format("%.2f", bmi)
-                    });
-                }
+        try (ProfileStore.Snapshot snapshot = ProfileStore.getDefault().openSnapshot()) {
+            for (String studentUUID : CoachIndex.getDefault().getStudents(coachID)) {
+                ProfileStore.Profile profile = snapshot.getProfile(studentUUID);
+                if (profile == null) continue; // The student has no user data
+                double weight = profile.getWeight();
+                double height = profile.getHeight() / 100.0; // Convert cm to meters
+
+                double bmi = calculateBMI(weight, height); // Calculate BMI
+
+                // Add the student's data to the list in the required format
+                students.add(new String[]{
+                        profile.getName(),
+                        String.format("%.1f", weight),
+                        String.format("%.0f", height * 100),
+                        String.valueOf(profile.getAge()),
+                        profile.getGender(),
+                        String.format("%.2f", bmi)
+                });
             }
-        } catch (IOException e) {
-            System.err.println("Error reading user data file: " + e.getMessage());
         }
 
         return students; // Return the list of students
@@ -1,14 +1,19 @@
 package main.java.gui.coachgui;
 
-import main.java.gui.LoginGUI;
+import main.java.gui.AsyncData;
+import main.java.gui.Navigator;
+import main.java.gui.SessionContext;
+import main.java.storage.CoachIndex;
+import main.java.storage.ProfileStore;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellEditor;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
-import java.io.*;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -16,20 +21,29 @@ import java.util.List;
  * that allows coaches to view and manage session requests from students.
  * It displays pending requests in a JTable with options to accept or dismiss each request.
  */
-public class SessionRequestsGUI {
+public final class SessionRequestsGUI implements Navigator.Screen {
+    private final SessionContext context; // The session the screen belongs to
 
-    private JFrame frame;
+    private final JPanel panel; // The root panel of the screen
     private JTable table;
     private DefaultTableModel tableModel;
+    private JLabel statusLabel; // Shows that the requests are being loaded
 
     /**
      * Constructs the SessionRequestsGUI and initializes the GUI components.
      * It checks for a logged-in coach, fetches the associated session requests,
      * and displays them in a table with action buttons.
+     *
+     * @param context The session of the logged-in coach.
      */
-    public SessionRequestsGUI() {
+    public SessionRequestsGUI(SessionContext context) {
+        this.context = context;
         // Logged-in user UUID holder
-        String coachID = LoginGUI.loggedInCoachID;
+        String coachID = context.getCoachID();
+
+        // Create the root panel of the screen
+        panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(1200, 600));
 
         // Validate that a coach is logged in
         if (coachID == null || coachID.isEmpty()) {
@@ -39,13 +53,6 @@ public class SessionRequestsGUI {
             return;
         }
 
-        // Create the main application frame
-        frame = new JFrame("Fitness Tracker - Session Requests");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(1200, 600);
-        frame.setLocationRelativeTo(null); // Center the frame on the screen
-        frame.setLayout(new BorderLayout());
-
         // Initialize the top panel with a back button
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         Color darkPurple = new Color(113, 54, 143);
@@ -57,21 +64,29 @@ public class SessionRequestsGUI {
 
         topPanel.add(backButton);
 
+        // Button to accept all pending requests at once
+        JButton acceptAllButton = new JButton("Accept All");
+        acceptAllButton.setFont(new Font("Comic Sans MS", Font.BOLD, 16));
+        acceptAllButton.setForeground(darkPurple);
+        acceptAllButton.addActionListener(e -> handleAcceptAll(coachID));
+        topPanel.add(acceptAllButton);
+
+        statusLabel = new JLabel();
+        statusLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 16));
+        statusLabel.setForeground(Color.WHITE);
+        topPanel.add(statusLabel);
+
         // Add action listener to handle back button clicks
         backButton.addActionListener(e -> {
-            frame.dispose(); // Close the current frame
-            new CoachGUI(); // Open the CoachGUI
+            Navigator.show(context, CoachGUI.class, CoachGUI::new); // Open the CoachGUI
         });
 
-        frame.add(topPanel, BorderLayout.NORTH); // Add the top panel to the frame
+        panel.add(topPanel, BorderLayout.NORTH); // Add the top panel to the main panel
 
         // Initialize the center panel to display session requests
         JPanel centerPanel = new JPanel(new BorderLayout());
         centerPanel.setBackground(new Color(230, 220, 250));
 
-        // Fetch the list of session requests associated with the coach
-        List<String[]> requests = getCoachRequests(coachID);
-
         // Define the table columns
         String[] columnNames = {"Name", "Weight (kg)", "Height (cm)", "Age", "Gender", "UUID", "Actions"};
 
@@ -83,20 +98,6 @@ public class SessionRequestsGUI {
             }
         };
 
-        // Populate the table model with request data
-        for (String[] request : requests) {
-            Object[] rowData = {
-                    request[0], // Name
-                    request[1], // Weight
-                    request[2], // Height
-                    request[3], // Age
-                    request[4], // Gender
-                    request[5], // UUID (hidden column)
-                    "Actions"   // Button text placeholder
-            };
-            tableModel.addRow(rowData);
-        }
-
         // Create the JTable with the table model
         table = new JTable(tableModel);
         table.setFont(new Font("Comic Sans MS", Font.PLAIN, 14));
@@ -115,62 +116,139 @@ public class SessionRequestsGUI {
         JScrollPane scrollPane = new JScrollPane(table);
         centerPanel.add(scrollPane, BorderLayout.CENTER);
 
-        frame.add(centerPanel, BorderLayout.CENTER); // Add the center panel to the frame
-        frame.setVisible(true); // Make the frame visible
+        panel.add(centerPanel, BorderLayout.CENTER); // Add the center panel to the main panel
+
+        // Populate the table model with request data
+        loadRequests(coachID);
+    }
+
+    @Override
+    public JPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Fitness Tracker - Session Requests";
+    }
+
+    /**
+     * Reloads the session requests, as students may have sent new ones in the meantime.
+     */
+    @Override
+    public void refresh() {
+        if (table == null) {
+            return; // No coach is logged in
+        }
+        if (table.isEditing()) {
+            table.getCellEditor().cancelCellEditing();
+        }
+        loadRequests(context.getCoachID());
+    }
+
+    /**
+     * Fetches the session requests associated with the coach in the background
+     * and shows them in the table once they are loaded.
+     *
+     * @param coachID The ID of the coach.
+     */
+    private void loadRequests(String coachID) {
+        statusLabel.setText("Loading requests...");
+        AsyncData.onEdt(AsyncData.supply(() -> getCoachRequests(coachID)), requests -> {
+            if (table.isEditing()) {
+                table.getCellEditor().cancelCellEditing();
+            }
+            showRequests(requests);
+            statusLabel.setText("");
+        }, error -> {
+            statusLabel.setText("Error loading requests!");
+            error.printStackTrace();
+        });
+    }
+
+    /**
+     * Accepts all requests shown in the table. The requests are accepted in a single transaction,
+     * so they cost one write to the coach index no matter how many there are.
+     *
+     * @param coachID The ID of the coach.
+     */
+    private void handleAcceptAll(String coachID) {
+        if (table.isEditing()) {
+            table.getCellEditor().cancelCellEditing();
+        }
+        List<String> uuids = new ArrayList<>();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            uuids.add((String) tableModel.getValueAt(row, 5)); // UUID from the hidden column
+        }
+        if (uuids.isEmpty()) {
+            return;
+        }
+        tableModel.setRowCount(0);
+        commitInBackground(() -> acceptRequests(coachID, uuids));
+    }
+
+    /**
+     * Runs an update of the coach index in the background. If it fails, nothing of it was applied,
+     * so the requests are loaded again to show them as they are.
+     *
+     * @param update The update to run.
+     */
+    private void commitInBackground(AsyncData.Action update) {
+        AsyncData.onEdt(AsyncData.run(update), done -> {
+        }, error -> {
+            error.printStackTrace();
+            JOptionPane.showMessageDialog(panel, "Error saving the requests: " + error.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            refresh();
+        });
+    }
+
+    /**
+     * Replaces the rows of the table model with the given session requests.
+     *
+     * @param requests The request data arrays returned by {@link #getCoachRequests}.
+     */
+    private void showRequests(List<String[]> requests) {
+        tableModel.setRowCount(0);
+        for (String[] request : requests) {
+            Object[] rowData = {
+                    request[0], // Name
+                    request[1], // Weight
+                    request[2], // Height
+                    request[3], // Age
+                    request[4], // Gender
+                    request[5], // UUID (hidden column)
+                    "Actions"   // Button text placeholder
+            };
+            tableModel.addRow(rowData);
+        }
     }
 
     /**
      * Retrieves the list of session requests associated with a given coach.
-     * It reads from the coachesRequests.txt file to get student UUIDs
-     * and then matches them with user data in usersData.txt.
+     * The requesting UUIDs come from the {@link CoachIndex} and their profiles from one snapshot of the
+     * {@link ProfileStore}, so the cost depends only on the number of requests of the coach.
+     * Called on a background thread.
      *
      * @param coachID The UUID of the coach.
      * @return A list of request data arrays containing name, weight, height, age, gender, and UUID.
      */
     private List<String[]> getCoachRequests(String coachID) {
         List<String[]> requests = new ArrayList<>();
-        String coachRequestsFile = "src/main/resources/coachesRequests.txt";
-        String userDataFile = "src/main/resources/usersData.txt";
-
-        List<String> studentUUIDs = new ArrayList<>();
-
-        // Read the coachesRequests.txt file to find student UUIDs requesting sessions with the coach
-        try (BufferedReader br = new BufferedReader(new FileReader(coachRequestsFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith(coachID + ";")) { // Check if the line corresponds to the coach
-                    String[] parts = line.split(";");
-                    for (int i = 1; i < parts.length; i++) { // Start from 1 to skip the coachID
-                        studentUUIDs.add(parts[i]); // Add each student UUID to the list
-                    }
-                    break; // Exit after finding the relevant coach entry
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
 
-        // Match student UUIDs with user data in usersData.txt to retrieve detailed information
-        try (BufferedReader br = new BufferedReader(new FileReader(userDataFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(";");
-                if (parts.length < 6) continue; // Ensure the line has all required fields
-
-                String uuid = parts[0];
-                if (studentUUIDs.contains(uuid)) { // Check if the user has requested a session
-                    requests.add(new String[]{
-                            parts[1],                // Name
-                            parts[2],                // Weight
-                            parts[3],                // Height
-                            parts[4],                // Age
-                            parts[5],                // Gender
-                            uuid                     // UUID
-                    });
-                }
+        try (ProfileStore.Snapshot snapshot = ProfileStore.getDefault().openSnapshot()) {
+            for (String uuid : CoachIndex.getDefault().getRequests(coachID)) {
+                ProfileStore.Profile profile = snapshot.getProfile(uuid);
+                if (profile == null) continue; // The user has no user data
+                requests.add(new String[]{
+                        profile.getName(),                        // Name
+                        String.valueOf(profile.getWeight()),      // Weight
+                        String.valueOf(profile.getHeight()),      // Height
+                        String.valueOf(profile.getAge()),         // Age
+                        profile.getGender(),                      // Gender
+                        uuid                                      // UUID
+                });
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
 
         return requests; // Return the list of session requests
@@ -266,21 +344,24 @@ public class SessionRequestsGUI {
 
         /**
          * Handles the acceptance of a session request.
-         * It moves the student to the coach's list and removes the request.
+         * It moves the student to the coach's list and removes the request. The row is removed
+         * right away, while the files are updated in the background.
          */
         private void handleAcceptRequest() {
-            moveStudentToCoach(coachID, studentUUID); // Add the student to the coach's list
-            removeRequest(coachID, studentUUID);       // Remove the request from the pending list
-            finishEditing();                           // Finalize the editing process
+            String uuid = studentUUID;
+            finishEditing(); // Finalize the editing process
+            commitInBackground(() -> acceptRequests(coachID, Collections.singletonList(uuid)));
         }
 
         /**
          * Handles the dismissal of a session request.
-         * It removes the request without adding the student to the coach's list.
+         * It removes the request without adding the student to the coach's list. The row is removed
+         * right away, while the file is updated in the background.
          */
         private void handleDismissRequest() {
-            removeRequest(coachID, studentUUID); // Remove the request from the pending list
-            finishEditing();                      // Finalize the editing process
+            String uuid = studentUUID;
+            finishEditing(); // Finalize the editing process
+            commitInBackground(() -> CoachIndex.getDefault().removeRequest(coachID, uuid)); // Remove the request from the pending list
         }
 
         /**
@@ -295,87 +376,20 @@ public class SessionRequestsGUI {
     }
 
     /**
-     * Adds a student UUID to the coach's list in coachesStudents.txt.
-     * If the coach does not already have an entry, a new one is created.
-     *
-     * @param coachID     The UUID of the coach.
-     * @param studentUUID The UUID of the student to be added.
-     */
-    private void moveStudentToCoach(String coachID, String studentUUID) {
-        String coachesStudentsFile = "src/main/resources/coachesStudents.txt";
-        List<String> fileLines = new ArrayList<>();
-        boolean foundCoach = false;
-
-        // Read the coachesStudents.txt file to find the coach's current list of students
-        try (BufferedReader br = new BufferedReader(new FileReader(coachesStudentsFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith(coachID + ";")) { // Check if the line corresponds to the coach
-                    foundCoach = true;
-                    if (!line.contains(";" + studentUUID)) { // Avoid duplicate entries
-                        line += ";" + studentUUID; // Append the new student UUID
-                    }
-                }
-                fileLines.add(line); // Add the line to the list
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        // If the coach does not have an entry, create a new one
-        if (!foundCoach) {
-            fileLines.add(coachID + ";" + studentUUID);
-        }
-
-        // Write the updated list back to the coachesStudents.txt file
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(coachesStudentsFile, false))) {
-            for (String line : fileLines) {
-                bw.write(line);
-                bw.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Removes a student UUID from the coach's session requests in coachesRequests.txt.
+     * Accepts session requests: every student is added to the coach's students and their request
+     * is removed. All changes are committed as one transaction of the {@link CoachIndex}, so a crash
+     * can never leave a student both accepted and still requesting, or neither.
      *
-     * @param coachID     The UUID of the coach.
-     * @param studentUUID The UUID of the student to be removed from requests.
+     * @param coachID      The UUID of the coach.
+     * @param studentUUIDs The UUIDs of the students whose requests are accepted.
+     * @throws IOException If the transaction cannot be written; then none of the requests is accepted.
      */
-    private void removeRequest(String coachID, String studentUUID) {
-        String coachRequestsFile = "src/main/resources/coachesRequests.txt";
-        List<String> fileLines = new ArrayList<>();
-
-        // Read the coachesRequests.txt file and remove the specified student UUID from the coach's requests
-        try (BufferedReader br = new BufferedReader(new FileReader(coachRequestsFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith(coachID + ";")) { // Check if the line corresponds to the coach
-                    String[] parts = line.split(";");
-                    StringBuilder newLine = new StringBuilder(coachID);
-                    for (int i = 1; i < parts.length; i++) {
-                        if (!parts[i].equals(studentUUID)) { // Exclude the specified student UUID
-                            newLine.append(";").append(parts[i]);
-                        }
-                    }
-                    line = newLine.toString(); // Update the line without the removed UUID
-                }
-                fileLines.add(line); // Add the line to the list
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        // Write the updated list back to the coachesRequests.txt file
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(coachRequestsFile, false))) {
-            for (String line : fileLines) {
-                bw.write(line);
-                bw.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    private void acceptRequests(String coachID, List<String> studentUUIDs) throws IOException {
+        CoachIndex.Transaction transaction = CoachIndex.getDefault().begin();
+        for (String studentUUID : studentUUIDs) {
+            transaction.addStudent(coachID, studentUUID)    // Add the student to the coach's list
+                    .removeRequest(coachID, studentUUID);   // Remove the request from the pending list
         }
+        transaction.commit();
     }
 }
@@ -0,0 +1,325 @@
+package main.java.storage;
+
+import main.java.Activity;
+import main.java.ActivityType;
+import main.java.CyclingActivity;
+import main.java.RopeJumpingActivity;
+import main.java.RunningActivity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code ActivityCodec} class defines the binary storage format of training activities.
+ * Every activity is encoded as a fixed-width record of {@value #RECORD_SIZE} bytes:
+ * <pre>
+ *  0  byte   type tag (1 = Running, 2 = Cycling, 3 = Rope Jumping)
+ *  1  byte[7] reserved (0)
+ *  8  long   id
+ * 16  long   start time in epoch seconds, {@link #NO_TIME} if unknown
+ * 24  long   end time in epoch seconds, {@link #NO_TIME} if unknown
+ * 32  double burned calories
+ * 40  double duration in minutes
+ * 48  double covered distance in km     | int repetitions (Rope Jumping)
+ * 56  double average or maximum speed   | reserved (Rope Jumping)
+ * </pre>
+ * Times are {@code LocalDateTime}s stored as seconds since the epoch at UTC, so they are restored exactly
+ * (to the second) regardless of the time zone. Files of records start with a {@value #HEADER_SIZE}-byte
+ * header holding a file magic, the codec {@link #VERSION} and the record size, and user keys are stored
+ * in {@value #KEY_SIZE}-byte slots, so every structure in a file stays aligned to the record size.
+ * A slot holds the key as a length-prefixed UTF-8 string rather than a two-long {@link UuidKey}: the slot
+ * would keep its size for the alignment, so the shorter key would not make the files any smaller.
+ */
+public final class ActivityCodec {
+    public static final int VERSION = 1;
+    public static final int RECORD_SIZE = 64;
+    public static final int HEADER_SIZE = 64;
+    public static final int KEY_SIZE = 64;
+    public static final int MAX_KEY_BYTES = KEY_SIZE - 10; // Length prefix and trailing long value
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    // Field offsets within a record
+    static final int TYPE_OFFSET = 0;
+    static final int ID_OFFSET = 8;
+    static final int START_OFFSET = 16;
+    static final int END_OFFSET = 24;
+    static final int CALORIES_OFFSET = 32;
+    static final int DURATION_OFFSET = 40;
+    static final int DISTANCE_OFFSET = 48;
+    static final int REPETITIONS_OFFSET = 48;
+    static final int SPEED_OFFSET = 56;
+
+    private static final int KEY_VALUE_OFFSET = KEY_SIZE - 8;
+
+    private ActivityCodec() {
+    }
+
+    /**
+     * Encodes an activity at the current position of the buffer and advances the position by one record.
+     *
+     * @param activity The activity to encode.
+     * @param buffer   The buffer to write to.
+     * @throws IllegalArgumentException If the activity is not one of the supported types.
+     */
+    public static void encode(Activity activity, ByteBuffer buffer) {
+        long start = toEpochSecond(activity.getStartTime());
+        long end = toEpochSecond(activity.getEndTime());
+        if (activity instanceof RunningActivity) {
+            RunningActivity running = (RunningActivity) activity;
+            encode(buffer, ActivityType.RUNNING, activity.getId(), start, end, activity.getBurnedCalories(),
+                    activity.getDuration(), running.getCoveredDistance(), running.getAverageSpeed(), 0);
+        } else if (activity instanceof CyclingActivity) {
+            CyclingActivity cycling = (CyclingActivity) activity;
+            encode(buffer, ActivityType.CYCLING, activity.getId(), start, end, activity.getBurnedCalories(),
+                    activity.getDuration(), cycling.getCoveredDistance(), cycling.getMaxSpeed(), 0);
+        } else if (activity instanceof RopeJumpingActivity) {
+            encode(buffer, ActivityType.ROPE_JUMPING, activity.getId(), start, end, activity.getBurnedCalories(),
+                    activity.getDuration(), 0, 0, ((RopeJumpingActivity) activity).getNumberOfRepetitions());
+        } else {
+            throw new IllegalArgumentException("Unsupported activity type: " + activity.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Encodes the fields of an activity at the current position of the buffer and advances the position
+     * by one record.
+     *
+     * @param buffer         The buffer to write to.
+     * @param type           The type of the activity.
+     * @param id             The id of the activity.
+     * @param start          The start time in epoch seconds, or {@link #NO_TIME}.
+     * @param end            The end time in epoch seconds, or {@link #NO_TIME}.
+     * @param burnedCalories The calories burned.
+     * @param duration       The duration in minutes.
+     * @param distance       The covered distance in km (ignored for rope jumping).
+     * @param speed          The average or maximum speed in km/h (ignored for rope jumping).
+     * @param repetitions    The number of repetitions (ignored unless rope jumping).
+     */
+    public static void encode(ByteBuffer buffer, ActivityType type, long id, long start, long end,
+                              double burnedCalories, double duration, double distance, double speed, int repetitions) {
+        int base = buffer.position();
+        buffer.put(base + TYPE_OFFSET, (byte) (type.ordinal() + 1));
+        for (int i = 1; i < ID_OFFSET; i++) {
+            buffer.put(base + i, (byte) 0);
+        }
+        buffer.putLong(base + ID_OFFSET, id);
+        buffer.putLong(base + START_OFFSET, start);
+        buffer.putLong(base + END_OFFSET, end);
+        buffer.putDouble(base + CALORIES_OFFSET, burnedCalories);
+        buffer.putDouble(base + DURATION_OFFSET, duration);
+        if (type == ActivityType.ROPE_JUMPING) {
+            buffer.putLong(base + DISTANCE_OFFSET, 0L);
+            buffer.putInt(base + REPETITIONS_OFFSET, repetitions);
+            buffer.putLong(base + SPEED_OFFSET, 0L);
+        } else {
+            buffer.putDouble(base + DISTANCE_OFFSET, distance);
+            buffer.putDouble(base + SPEED_OFFSET, speed);
+        }
+        buffer.position(base + RECORD_SIZE);
+    }
+
+    /**
+     * Decodes the record at the current position of the buffer into an activity and advances the
+     * position by one record.
+     *
+     * @param buffer The buffer to read from.
+     * @return The decoded {@code Activity}.
+     * @throws IllegalArgumentException If the record has an unknown type tag.
+     */
+    public static Activity decode(ByteBuffer buffer) {
+        int base = buffer.position();
+        ActivityType type = typeOf(buffer, base);
+        long id = buffer.getLong(base + ID_OFFSET);
+        LocalDateTime start = toDateTime(buffer.getLong(base + START_OFFSET));
+        LocalDateTime end = toDateTime(buffer.getLong(base + END_OFFSET));
+        double calories = buffer.getDouble(base + CALORIES_OFFSET);
+        double duration = buffer.getDouble(base + DURATION_OFFSET);
+        buffer.position(base + RECORD_SIZE);
+        switch (type) {
+            case RUNNING:
+                return new RunningActivity(id, type.getDisplayName(), calories, duration, start, end,
+                        buffer.getDouble(base + DISTANCE_OFFSET), buffer.getDouble(base + SPEED_OFFSET));
+            case CYCLING:
+                return new CyclingActivity(id, type.getDisplayName(), calories, duration, start, end,
+                        buffer.getDouble(base + DISTANCE_OFFSET), buffer.getDouble(base + SPEED_OFFSET));
+            default:
+                return new RopeJumpingActivity(id, type.getDisplayName(), calories, duration, start, end,
+                        buffer.getInt(base + REPETITIONS_OFFSET));
+        }
+    }
+
+    /**
+     * Decodes the record at the current position of the buffer field by field, reports it to the
+     * listener and advances the position by one record. No objects are created.
+     *
+     * @param buffer   The buffer to read from.
+     * @param listener The listener receiving the fields.
+     * @throws IllegalArgumentException If the record has an unknown type tag.
+     */
+    public static void decode(ByteBuffer buffer, ActivityListener listener) {
+        decode(buffer, buffer.position(), listener);
+        buffer.position(buffer.position() + RECORD_SIZE);
+    }
+
+    /**
+     * Decodes the record starting at the given index field by field and reports it to the listener.
+     * The position of the buffer is not used or changed, so a shared buffer can be read concurrently.
+     *
+     * @param buffer   The buffer to read from.
+     * @param base     The index of the record.
+     * @param listener The listener receiving the fields.
+     * @throws IllegalArgumentException If the record has an unknown type tag.
+     */
+    public static void decode(ByteBuffer buffer, int base, ActivityListener listener) {
+        ActivityType type = typeOf(buffer, base);
+        boolean ropeJumping = type == ActivityType.ROPE_JUMPING;
+        listener.onActivity(type,
+                buffer.getLong(base + START_OFFSET),
+                buffer.getDouble(base + CALORIES_OFFSET),
+                buffer.getDouble(base + DURATION_OFFSET),
+                ropeJumping ? 0.0 : buffer.getDouble(base + DISTANCE_OFFSET),
+                ropeJumping ? 0.0 : buffer.getDouble(base + SPEED_OFFSET),
+                ropeJumping ? buffer.getInt(base + REPETITIONS_OFFSET) : 0);
+    }
+
+    /**
+     * Returns the type of the record starting at the given index.
+     *
+     * @param buffer The buffer holding the record.
+     * @param base   The index of the record.
+     * @return The {@code ActivityType} of the record.
+     * @throws IllegalArgumentException If the type tag is unknown.
+     */
+    static ActivityType typeOf(ByteBuffer buffer, int base) {
+        int tag = buffer.get(base + TYPE_OFFSET);
+        ActivityType[] types = ActivityType.values();
+        if (tag < 1 || tag > types.length) {
+            throw new IllegalArgumentException("Unknown activity type tag: " + tag);
+        }
+        return types[tag - 1];
+    }
+
+    /**
+     * Writes a file header at the current position of the buffer and advances the position past it.
+     *
+     * @param buffer The buffer to write to.
+     * @param magic  The magic number identifying the kind of file.
+     */
+    public static void writeHeader(ByteBuffer buffer, int magic) {
+        int base = buffer.position();
+        for (int i = 0; i < HEADER_SIZE; i++) {
+            buffer.put(base + i, (byte) 0);
+        }
+        buffer.putInt(base, magic);
+        buffer.putInt(base + 4, VERSION);
+        buffer.putInt(base + 8, RECORD_SIZE);
+        buffer.position(base + HEADER_SIZE);
+    }
+
+    /**
+     * Reads and validates a file header at the current position of the buffer.
+     *
+     * @param buffer The buffer to read from.
+     * @param magic  The magic number the file must have.
+     * @throws IOException If the header does not match this version of the codec.
+     */
+    public static void readHeader(ByteBuffer buffer, int magic) throws IOException {
+        int base = buffer.position();
+        if (buffer.getInt(base) != magic) {
+            throw new IOException("Not an activity file of the expected kind.");
+        }
+        int version = buffer.getInt(base + 4);
+        if (version != VERSION || buffer.getInt(base + 8) != RECORD_SIZE) {
+            throw new IOException("Unsupported activity file version: " + version);
+        }
+        buffer.position(base + HEADER_SIZE);
+    }
+
+    /**
+     * Writes a user key slot at the current position of the buffer and advances the position past it.
+     *
+     * @param buffer   The buffer to write to.
+     * @param userUUID The UUID of the user.
+     * @param value    A value stored with the key (e.g. a record count or a checksum).
+     * @throws IllegalArgumentException If the UUID is longer than {@link #MAX_KEY_BYTES} bytes.
+     */
+    public static void writeKey(ByteBuffer buffer, String userUUID, long value) {
+        byte[] key = userUUID.getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0 || key.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Invalid user key: " + userUUID);
+        }
+        int base = buffer.position();
+        buffer.putShort(base, (short) key.length);
+        for (int i = 0; i < KEY_VALUE_OFFSET - 2; i++) {
+            buffer.put(base + 2 + i, i < key.length ? key[i] : 0);
+        }
+        buffer.putLong(base + KEY_VALUE_OFFSET, value);
+        buffer.position(base + KEY_SIZE);
+    }
+
+    /**
+     * Reads the user UUID of the key slot at the current position of the buffer. The position is not changed.
+     *
+     * @param buffer The buffer to read from.
+     * @return The UUID, or {@code null} if the slot does not hold a valid key.
+     */
+    public static String readKey(ByteBuffer buffer) {
+        int base = buffer.position();
+        int length = buffer.getShort(base);
+        if (length <= 0 || length > MAX_KEY_BYTES) {
+            return null;
+        }
+        byte[] key = new byte[length];
+        for (int i = 0; i < length; i++) {
+            key[i] = buffer.get(base + 2 + i);
+        }
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the value stored with the key slot at the current position of the buffer. The position is not changed.
+     *
+     * @param buffer The buffer to read from.
+     * @return The value of the key slot.
+     */
+    public static long readKeyValue(ByteBuffer buffer) {
+        return buffer.getLong(buffer.position() + KEY_VALUE_OFFSET);
+    }
+
+    /**
+     * Computes the checksum of the record starting at the given index, used to detect torn journal writes.
+     *
+     * @param buffer The buffer holding the record.
+     * @param base   The index of the record.
+     * @return The CRC-32 of the record.
+     */
+    public static long checksum(ByteBuffer buffer, int base) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(base + RECORD_SIZE).position(base));
+        return crc.getValue();
+    }
+
+    /**
+     * Converts a time to epoch seconds at UTC.
+     *
+     * @param time The time, may be {@code null}.
+     * @return The epoch seconds, or {@link #NO_TIME} for {@code null}.
+     */
+    public static long toEpochSecond(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts epoch seconds at UTC back to a time.
+     *
+     * @param epochSecond The epoch seconds, or {@link #NO_TIME}.
+     * @return The time, or {@code null} for {@link #NO_TIME}.
+     */
+    public static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == NO_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,750 @@
+package main.java.storage;
+
+import main.java.Activity;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The {@code ActivityJournal} class stores training activities as an append-only journal next to
+ * the training data file. Saving an activity appends a single fixed-width record (a user key slot followed
+ * by the {@link ActivityCodec} encoding of the activity) to the journal, so the cost of a save no longer
+ * depends on how much data the other users have.
+ * <p>
+ * A background thread periodically folds the journal back into the data file (compaction), which stores
+ * every user's activities as one contiguous block of records behind a key slot holding the UUID and the
+ * record count. Readers always see the data file plus every record that has not been compacted yet.
+ * A {@link TrainingIndex} sidecar locates each user's records, so reads never touch the data of other users,
+ * a {@link RollupIndex} sidecar keeps each user's totals per day, week and month, and a {@link StartTimeIndex}
+ * sidecar keeps each user's activities sorted by start time for range queries.
+ * The legacy {@code trainingData.txt} is imported once by {@link ActivityTextMigration}.
+ * <p>
+ * Compaction is crash safe: the journal is first rotated to a {@code .compacting} file, merged into a
+ * temporary copy of the data file, and only then switched in. Leftovers of an interrupted compaction are
+ * recovered when the journal is opened again.
+ * <p>
+ * Every compaction writes a new generation of the data file under a new name ({@code trainingData.bin.1},
+ * {@code trainingData.bin.2}, ...) instead of replacing the file that is memory-mapped by the readers, which
+ * Windows does not allow. Older generations are deleted once they can be; a generation that is still mapped
+ * is deleted by a later compaction or on the next start.
+ */
+public final class ActivityJournal {
+    public static final String DATA_FILE = "src/main/resources/trainingData.bin";       // Compacted training data
+    public static final String JOURNAL_FILE = "src/main/resources/trainingJournal.bin"; // Pending appended records
+    public static final String INDEX_FILE = "src/main/resources/trainingData.idx";      // Per-user offset index
+    public static final String ROLLUP_FILE = "src/main/resources/trainingRollups.bin";  // Per-user date rollups
+    public static final String START_TIME_FILE = "src/main/resources/trainingTimes.idx"; // Per-user start time index
+    public static final String LEGACY_DATA_FILE = "src/main/resources/trainingData.txt"; // Text data before the binary format
+
+    static final int DATA_MAGIC = 0x46544144;    // "FTAD"
+    static final int JOURNAL_MAGIC = 0x4654414A; // "FTAJ"
+    static final int JOURNAL_RECORD_SIZE = ActivityCodec.KEY_SIZE + ActivityCodec.RECORD_SIZE;
+
+    private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 256 * 1024;
+    private static final int READ_WINDOW_SIZE = 64 * 1024; // A multiple of the record size
+
+    private static ActivityJournal defaultJournal; // Journal shared by all screens
+
+    private final Path dataFile;        // Generation 0 of the data file
+    private final Path journalFile;
+    private final Path compactingFile;  // Rotated journal that is being merged into the data file
+    private final Path committedFile;   // Rotated journal whose merge result is ready to be swapped in
+    private final Path mergedFile;      // Temporary data file produced by the merge
+    private final FsyncPolicy fsyncPolicy;
+    private final long compactionThreshold;
+    private final TrainingIndex index;
+    private final RollupIndex rollups;
+    private final StartTimeIndex startTimes;
+
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock(); // Guards file rotation and swaps
+    private final Object compactionLock = new Object();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService background;
+
+    private long generation;               // Guarded by swapLock; the current generation of the data file
+    private MappedActivityStore dataStore; // Guarded by swapLock; the mapped current generation
+    private FileChannel journalChannel; // Guarded by "this"
+    private boolean dirty;              // Guarded by "this"; true when records were written but not forced
+
+    /**
+     * Returns the journal shared by the whole application, opening it on first use.
+     * On the first start after an upgrade, the legacy text file is migrated to the binary format.
+     * The fsync policy can be configured with the {@code fitness.journal.fsync} system property
+     * ({@code ALWAYS}, {@code INTERVAL} or {@code NEVER}) and the interval with
+     * {@code fitness.journal.syncIntervalMillis}.
+     *
+     * @return The default {@code ActivityJournal}.
+     */
+    public static synchronized ActivityJournal getDefault() {
+        if (defaultJournal == null) {
+            FsyncPolicy policy = FsyncPolicy.fromName(System.getProperty("fitness.journal.fsync"), FsyncPolicy.INTERVAL);
+            long interval = Long.getLong("fitness.journal.syncIntervalMillis", DEFAULT_SYNC_INTERVAL_MILLIS);
+            try {
+                if (generations(Paths.get(DATA_FILE)).isEmpty()) {
+                    ActivityTextMigration.migrate(Paths.get(LEGACY_DATA_FILE), Paths.get(DATA_FILE));
+                }
+                defaultJournal = new ActivityJournal(Paths.get(DATA_FILE), Paths.get(JOURNAL_FILE), Paths.get(INDEX_FILE),
+                        Paths.get(ROLLUP_FILE), Paths.get(START_TIME_FILE), policy, interval, DEFAULT_COMPACTION_THRESHOLD);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open the activity journal.", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(defaultJournal::close, "activity-journal-shutdown"));
+        }
+        return defaultJournal;
+    }
+
+    /**
+     * Opens a journal for the given data file, recovering any interrupted compaction.
+     *
+     * @param dataFile            The compacted training data file (its generation 0).
+     * @param journalFile         The journal file receiving appended records; a torn trailing record is discarded.
+     * @param indexFile           The sidecar file of the per-user offset index.
+     * @param rollupFile          The sidecar file of the per-user date rollups.
+     * @param startTimeFile       The sidecar file of the per-user start time index.
+     * @param fsyncPolicy         When appended records are forced to disk.
+     * @param syncIntervalMillis  The flush period used by {@link FsyncPolicy#INTERVAL}.
+     * @param compactionThreshold The journal size in bytes that triggers a background compaction.
+     * @throws IOException If the journal cannot be opened.
+     */
+    public ActivityJournal(Path dataFile, Path journalFile, Path indexFile, Path rollupFile, Path startTimeFile, FsyncPolicy fsyncPolicy,
+                           long syncIntervalMillis, long compactionThreshold) throws IOException {
+        this.dataFile = dataFile;
+        this.journalFile = journalFile;
+        this.compactingFile = journalFile.resolveSibling(journalFile.getFileName() + ".compacting");
+        this.committedFile = journalFile.resolveSibling(journalFile.getFileName() + ".committed");
+        this.mergedFile = dataFile.resolveSibling(dataFile.getFileName() + ".merged");
+        this.fsyncPolicy = fsyncPolicy;
+        this.compactionThreshold = compactionThreshold;
+
+        recoverInterruptedCompaction();
+        this.dataStore = new MappedActivityStore(generationFile(generation));
+        this.journalChannel = openJournalChannel();
+        this.index = new TrainingIndex(indexFile, generationFile(generation), compactingFile, journalFile);
+        this.rollups = new RollupIndex(rollupFile, index.recordCounts(), this::readActivities);
+        this.startTimes = new StartTimeIndex(startTimeFile, index.recordCounts(), this::readActivities);
+
+        this.background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "activity-journal");
+            thread.setDaemon(true); // Never keep the application alive
+            return thread;
+        });
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            background.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        if (Files.exists(compactingFile) || journalChannel.size() >= compactionThreshold) {
+            scheduleCompaction(); // Finish leftovers from the previous run
+        }
+    }
+
+    /**
+     * Appends one activity of the given user to the journal.
+     * This is a single sequential write regardless of the size of the data file.
+     *
+     * @param userUUID The UUID of the user the activity belongs to.
+     * @param activity The {@code Activity} to store.
+     * @throws IOException              If the record cannot be written.
+     * @throws IllegalArgumentException If the key is not a UUID, which the offset index could not hold.
+     */
+    public void append(String userUUID, Activity activity) throws IOException {
+        UuidKey user = UuidKey.parse(userUUID);
+        ByteBuffer record = ByteBuffer.allocate(JOURNAL_RECORD_SIZE);
+        record.position(ActivityCodec.KEY_SIZE);
+        ActivityCodec.encode(activity, record);
+        record.position(0);
+        ActivityCodec.writeKey(record, userUUID, ActivityCodec.checksum(record, ActivityCodec.KEY_SIZE));
+        record.position(0);
+
+        long journalSize;
+        synchronized (this) {
+            long offset = journalChannel.position();
+            try {
+                while (record.hasRemaining()) {
+                    journalChannel.write(record);
+                }
+            } catch (IOException e) {
+                // Never leave a partial record that would shift all following records
+                journalChannel.truncate(offset);
+                journalChannel.position(offset);
+                throw e;
+            }
+            try {
+                index.addJournalRecord(user, offset + ActivityCodec.KEY_SIZE, ActivityCodec.RECORD_SIZE);
+            } catch (IOException e) {
+                // The activity is saved and indexed in memory, so a retry would save it twice;
+                // the sidecar is caught up by the journal scan when the journal is opened again
+                System.err.println("Error updating the training index: " + e.getMessage());
+            }
+            try {
+                rollups.add(userUUID, record, ActivityCodec.KEY_SIZE);
+            } catch (IOException e) {
+                // The activity is saved; its rollups are recomputed when the journal is opened again
+                System.err.println("Error updating the rollup index: " + e.getMessage());
+            }
+            try {
+                startTimes.add(userUUID, record, ActivityCodec.KEY_SIZE);
+            } catch (IOException e) {
+                System.err.println("Error updating the start time index: " + e.getMessage());
+            }
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                journalChannel.force(false);
+            } else {
+                dirty = true;
+            }
+            journalSize = journalChannel.position();
+        }
+        if (journalSize >= compactionThreshold) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Streams all activities of the given user, in the order they were saved, to the listener.
+     * The user's records are located through the offset index. Records of the data file are decoded
+     * straight from its memory mapping; records of the journals are read with positional reads into
+     * a single reused window. Neither the cost nor the memory of a read depends on the data of other users.
+     *
+     * @param userUUID The UUID of the user.
+     * @param listener The {@code ActivityListener} receiving the activities.
+     * @throws IOException If the data cannot be read or is corrupt.
+     */
+    public void readActivities(String userUUID, ActivityListener listener) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(READ_WINDOW_SIZE);
+        swapLock.readLock().lock();
+        try (SourceChannels channels = new SourceChannels()) {
+            for (TrainingIndex.Span span : index.spansOf(userUUID)) {
+                if (span.getSource() == TrainingIndex.Source.DATA) {
+                    dataStore.scan(span.getOffset(), span.getLength(), listener);
+                    continue;
+                }
+                FileChannel channel = channels.get(span.getSource());
+                long position = span.getOffset();
+                long end = span.getOffset() + span.getLength();
+                while (position < end) {
+                    window.clear();
+                    window.limit((int) Math.min(window.capacity(), end - position));
+                    while (window.hasRemaining()) {
+                        if (channel.read(window, position + window.position()) < 0) {
+                            throw new EOFException("Training index points past the end of " + span.getSource());
+                        }
+                    }
+                    position += window.position();
+                    window.flip();
+                    try {
+                        while (window.hasRemaining()) {
+                            ActivityCodec.decode(window, listener);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("Corrupt activity record in " + span.getSource(), e);
+                    }
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Streams the activities of the given user that started within a time range to the listener,
+     * ordered by start time. The {@link StartTimeIndex} yields the positions of the matching records,
+     * which are then read one by one, so the cost of a read is O(log n + k) for k matching activities.
+     * Activities without a start time are never part of a range.
+     *
+     * @param userUUID The UUID of the user.
+     * @param from     The earliest start time.
+     * @param to       The latest start time, inclusive.
+     * @param listener The {@code ActivityListener} receiving the activities.
+     * @throws IOException If the data cannot be read or is corrupt.
+     */
+    public void readActivities(String userUUID, LocalDateTime from, LocalDateTime to, ActivityListener listener) throws IOException {
+        int[] ordinals = startTimes.ordinalsBetween(userUUID, ActivityCodec.toEpochSecond(from), ActivityCodec.toEpochSecond(to));
+        if (ordinals.length == 0) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(ActivityCodec.RECORD_SIZE);
+        swapLock.readLock().lock();
+        try (SourceChannels channels = new SourceChannels()) {
+            // The spans are read after the ordinals, so they cover every record the ordinals point to
+            List<TrainingIndex.Span> spans = index.spansOf(userUUID);
+            long[] firstOrdinals = new long[spans.size() + 1];
+            for (int i = 0; i < spans.size(); i++) {
+                firstOrdinals[i + 1] = firstOrdinals[i] + spans.get(i).getLength() / ActivityCodec.RECORD_SIZE;
+            }
+            for (int ordinal : ordinals) {
+                int i = Arrays.binarySearch(firstOrdinals, 0, spans.size(), ordinal);
+                if (i < 0) {
+                    i = -i - 2; // The span that starts before the ordinal
+                }
+                if (i < 0 || ordinal >= firstOrdinals[spans.size()]) {
+                    throw new IOException("Start time index points past the records of user " + userUUID);
+                }
+                TrainingIndex.Span span = spans.get(i);
+                long offset = span.getOffset() + (ordinal - firstOrdinals[i]) * ActivityCodec.RECORD_SIZE;
+                if (span.getSource() == TrainingIndex.Source.DATA) {
+                    dataStore.scan(offset, ActivityCodec.RECORD_SIZE, listener);
+                    continue;
+                }
+                readFully(channels.get(span.getSource()), record.clear(), offset);
+                try {
+                    ActivityCodec.decode(record, 0, listener);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Corrupt activity record in " + span.getSource(), e);
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Computes the workout statistics of the given user without building {@code Activity} objects.
+     *
+     * @param userUUID The UUID of the user.
+     * @return The {@code ActivityStats} of all the user's activities.
+     * @throws IOException If the data cannot be read or is corrupt.
+     */
+    public ActivityStats computeStats(String userUUID) throws IOException {
+        ActivityStats stats = new ActivityStats();
+        readActivities(userUUID, stats);
+        return stats;
+    }
+
+    /**
+     * Returns the totals of the given user per day, week and month, without reading any activities.
+     *
+     * @param userUUID The UUID of the user.
+     * @return A copy of the user's {@code ActivityRollups}.
+     */
+    public ActivityRollups getRollups(String userUUID) {
+        return rollups.rollupsOf(userUUID);
+    }
+
+    /**
+     * Folds all records currently in the journal into the data file.
+     * It is normally called from the background thread, but can also be called directly.
+     *
+     * @throws IOException If the compaction fails; the journal is left intact in that case.
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            swapLock.writeLock().lock();
+            try {
+                if (!Files.exists(compactingFile)) {
+                    synchronized (this) {
+                        if (journalChannel.size() <= ActivityCodec.HEADER_SIZE) {
+                            return; // Nothing to compact
+                        }
+                        journalChannel.force(false);
+                        journalChannel.close();
+                        Files.move(journalFile, compactingFile, StandardCopyOption.ATOMIC_MOVE);
+                        journalChannel = openJournalChannel();
+                        dirty = false;
+                        index.journalRotated();
+                    }
+                }
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            // Merge without blocking readers or writers
+            Map<String, TrainingIndex.Span> dataSpans = mergeInto(mergedFile);
+
+            swapLock.writeLock().lock();
+            try {
+                Path next = generationFile(generation + 1);
+                Files.move(compactingFile, committedFile, StandardCopyOption.ATOMIC_MOVE); // Commit point
+                Files.move(mergedFile, next, StandardCopyOption.ATOMIC_MOVE); // A new name, so no mapped file is replaced
+                Files.delete(committedFile);
+                generation++;
+                dataStore = new MappedActivityStore(next);
+                index.dataReplaced(next, dataSpans);
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            deleteOldGenerations();
+        }
+    }
+
+    /**
+     * Forces pending records to disk and stops the background thread. A compaction that is
+     * already queued or running is finished first, so it never works on closed files.
+     */
+    public void close() {
+        background.shutdown();
+        try {
+            background.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        index.close();
+        rollups.close();
+        startTimes.close();
+        synchronized (this) {
+            try {
+                if (journalChannel.isOpen()) {
+                    journalChannel.force(false);
+                    journalChannel.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Error closing the activity journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Opens the journal file for appending, creating it with a header if necessary. A trailing record
+     * that was torn by a crash (incomplete or failing its checksum) is cut off.
+     *
+     * @return The journal {@code FileChannel}, positioned at its end.
+     * @throws IOException If the file cannot be opened or has an unsupported format.
+     */
+    private FileChannel openJournalChannel() throws IOException {
+        FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(ActivityCodec.HEADER_SIZE);
+            long size = channel.size();
+            if (size < ActivityCodec.HEADER_SIZE) {
+                // A new journal, or one whose header write was interrupted
+                channel.truncate(0);
+                ActivityCodec.writeHeader(header, JOURNAL_MAGIC);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                size = ActivityCodec.HEADER_SIZE;
+            } else {
+                readFully(channel, header, 0);
+                ActivityCodec.readHeader(header, JOURNAL_MAGIC);
+                long validSize = validJournalSize(channel, size);
+                if (validSize < size) {
+                    System.err.println("Discarding " + (size - validSize) + " bytes of a torn activity journal record.");
+                    channel.truncate(validSize);
+                    size = validSize;
+                }
+            }
+            channel.position(size);
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the length of the journal up to the last complete record with a valid checksum.
+     *
+     * @param channel The journal channel.
+     * @param size    The size of the journal file.
+     * @return The number of valid bytes, including the header.
+     * @throws IOException If the journal cannot be read.
+     */
+    private static long validJournalSize(FileChannel channel, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(JOURNAL_RECORD_SIZE * 512);
+        long position = ActivityCodec.HEADER_SIZE;
+        while (position + JOURNAL_RECORD_SIZE <= size) {
+            window.clear();
+            window.limit((int) Math.min(window.capacity(), (size - position) / JOURNAL_RECORD_SIZE * JOURNAL_RECORD_SIZE));
+            readFully(channel, window, position);
+            while (window.hasRemaining()) {
+                int base = window.position();
+                if (ActivityCodec.readKey(window) == null
+                        || ActivityCodec.readKeyValue(window) != ActivityCodec.checksum(window, base + ActivityCodec.KEY_SIZE)) {
+                    return position;
+                }
+                window.position(base + JOURNAL_RECORD_SIZE);
+                position += JOURNAL_RECORD_SIZE;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Completes or rolls back a compaction that was interrupted by a crash.
+     *
+     * @throws IOException If the leftover files cannot be moved or deleted.
+     */
+    private void recoverInterruptedCompaction() throws IOException {
+        List<Long> existing = generations(dataFile);
+        generation = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+        if (Files.exists(committedFile)) {
+            // The merge finished; only the switch to the new generation is missing
+            if (Files.exists(mergedFile)) {
+                generation++;
+                Files.move(mergedFile, generationFile(generation), StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.delete(committedFile);
+        } else {
+            // A partial merge result is useless; the .compacting file is merged again later
+            Files.deleteIfExists(mergedFile);
+        }
+        deleteOldGenerations();
+    }
+
+    /**
+     * Returns the file of a generation of the data file.
+     *
+     * @param generation The generation; 0 is the data file itself.
+     * @return The path of the generation.
+     */
+    private Path generationFile(long generation) {
+        return generation == 0 ? dataFile : dataFile.resolveSibling(dataFile.getFileName() + "." + generation);
+    }
+
+    /**
+     * Returns the generations of a data file that exist on disk.
+     *
+     * @param dataFile The data file (its generation 0).
+     * @return The generation numbers in ascending order.
+     * @throws IOException If the directory cannot be listed.
+     */
+    private static List<Long> generations(Path dataFile) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        if (Files.exists(dataFile)) {
+            generations.add(0L);
+        }
+        Path directory = dataFile.toAbsolutePath().getParent();
+        String prefix = dataFile.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : files) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.length() < 19 && suffix.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                    generations.add(Long.parseLong(suffix));
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Deletes the generations of the data file before the current one. A generation that cannot be deleted
+     * yet (on Windows, while it is still mapped) is left for a later attempt.
+     */
+    private void deleteOldGenerations() {
+        long current;
+        swapLock.readLock().lock();
+        try {
+            current = generation;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        try {
+            for (long old : generations(dataFile)) {
+                if (old < current) {
+                    try {
+                        Files.deleteIfExists(generationFile(old));
+                    } catch (IOException e) {
+                        // Still mapped; deleted by a later compaction or on the next start
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error deleting old training data files: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a new data file containing the current data file plus the records of the rotated journal.
+     * The existing user blocks are copied channel to channel without decoding them.
+     *
+     * @param target The file to write the merged data to.
+     * @return The span of every user block in the merged file, for the offset index.
+     * @throws IOException If reading or writing fails.
+     */
+    private Map<String, TrainingIndex.Span> mergeInto(Path target) throws IOException {
+        // The rotated journal is bounded by the compaction threshold, so it fits in memory
+        Map<String, ByteArrayOutputStream> pending = new LinkedHashMap<>();
+        try (FileChannel in = FileChannel.open(compactingFile, StandardOpenOption.READ)) {
+            ByteBuffer window = ByteBuffer.allocate(JOURNAL_RECORD_SIZE * 512);
+            long size = in.size();
+            long position = ActivityCodec.HEADER_SIZE;
+            while (position + JOURNAL_RECORD_SIZE <= size) {
+                window.clear();
+                window.limit((int) Math.min(window.capacity(), (size - position) / JOURNAL_RECORD_SIZE * JOURNAL_RECORD_SIZE));
+                readFully(in, window, position);
+                position += window.limit();
+                while (window.hasRemaining()) {
+                    String uuid = ActivityCodec.readKey(window);
+                    if (uuid != null) {
+                        pending.computeIfAbsent(uuid, k -> new ByteArrayOutputStream())
+                                .write(window.array(), window.position() + ActivityCodec.KEY_SIZE, ActivityCodec.RECORD_SIZE);
+                    }
+                    window.position(window.position() + JOURNAL_RECORD_SIZE);
+                }
+            }
+        }
+
+        Map<String, TrainingIndex.Span> dataSpans = new HashMap<>();
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer slot = ByteBuffer.allocate(ActivityCodec.KEY_SIZE);
+            ActivityCodec.writeHeader(slot, DATA_MAGIC);
+            writeFully(out, slot.flip());
+            Path current = generationFile(generation);
+            if (Files.exists(current)) {
+                try (FileChannel in = FileChannel.open(current, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    if (size >= ActivityCodec.HEADER_SIZE) {
+                        readFully(in, slot.clear(), 0);
+                        ActivityCodec.readHeader(slot, DATA_MAGIC);
+                    }
+                    long position = ActivityCodec.HEADER_SIZE;
+                    while (position + ActivityCodec.KEY_SIZE <= size) {
+                        readFully(in, slot.clear(), position);
+                        String uuid = ActivityCodec.readKey(slot);
+                        long length = ActivityCodec.readKeyValue(slot) * ActivityCodec.RECORD_SIZE;
+                        if (uuid == null || length < 0 || position + ActivityCodec.KEY_SIZE + length > size) {
+                            throw new IOException("Corrupt training data block at offset " + position);
+                        }
+                        ByteArrayOutputStream userRecords = pending.remove(uuid);
+                        long blockStart = out.position();
+                        long mergedLength = length + (userRecords != null ? userRecords.size() : 0);
+                        writeKeySlot(out, slot, uuid, mergedLength / ActivityCodec.RECORD_SIZE);
+                        for (long copied = 0; copied < length; ) {
+                            copied += in.transferTo(position + ActivityCodec.KEY_SIZE + copied, length - copied, out);
+                        }
+                        if (userRecords != null) {
+                            writeFully(out, ByteBuffer.wrap(userRecords.toByteArray())); // Append after the existing activities
+                        }
+                        dataSpans.put(uuid, new TrainingIndex.Span(TrainingIndex.Source.DATA,
+                                blockStart + ActivityCodec.KEY_SIZE, (int) mergedLength));
+                        position += ActivityCodec.KEY_SIZE + length;
+                    }
+                }
+            }
+            // Users that had no block in the data file yet
+            for (Map.Entry<String, ByteArrayOutputStream> entry : pending.entrySet()) {
+                long blockStart = out.position();
+                writeKeySlot(out, slot, entry.getKey(), entry.getValue().size() / ActivityCodec.RECORD_SIZE);
+                writeFully(out, ByteBuffer.wrap(entry.getValue().toByteArray()));
+                dataSpans.put(entry.getKey(), new TrainingIndex.Span(TrainingIndex.Source.DATA,
+                        blockStart + ActivityCodec.KEY_SIZE, entry.getValue().size()));
+            }
+            out.force(true); // The merged file must be durable before it replaces the data file
+        }
+        return dataSpans;
+    }
+
+    /**
+     * Writes the key slot that starts a user block of the data file.
+     *
+     * @param out   The channel to write to.
+     * @param slot  A reusable buffer of one key slot.
+     * @param uuid  The UUID of the user.
+     * @param count The number of records in the block.
+     * @throws IOException If writing fails.
+     */
+    private static void writeKeySlot(FileChannel out, ByteBuffer slot, String uuid, long count) throws IOException {
+        slot.clear();
+        ActivityCodec.writeKey(slot, uuid, count);
+        writeFully(out, slot.flip());
+    }
+
+    /**
+     * Writes all remaining bytes of the buffer at the current position of the channel.
+     *
+     * @param out    The channel to write to.
+     * @param buffer The bytes to write.
+     * @throws IOException If writing fails.
+     */
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Fills a cleared buffer up to its limit from the given position of the channel and flips it.
+     *
+     * @param channel  The channel to read from.
+     * @param buffer   The buffer to fill, with its position at 0.
+     * @param position The byte offset to read at.
+     * @throws IOException If reading fails or the file ends first.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of training data file.");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Submits a compaction to the background thread unless one is already queued.
+     */
+    private void scheduleCompaction() {
+        if (compactionScheduled.compareAndSet(false, true)) {
+            background.execute(() -> {
+                compactionScheduled.set(false);
+                try {
+                    compact();
+                } catch (IOException e) {
+                    System.err.println("Error compacting the activity journal: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Forces the journal if records were written since the last flush ({@link FsyncPolicy#INTERVAL}).
+     */
+    private synchronized void syncQuietly() {
+        if (!dirty) {
+            return;
+        }
+        try {
+            journalChannel.force(false);
+            dirty = false;
+        } catch (IOException e) {
+            System.err.println("Error syncing the activity journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The {@code SourceChannels} class lazily opens one read channel per indexed file during a read.
+     */
+    private final class SourceChannels implements Closeable {
+        private final Map<TrainingIndex.Source, FileChannel> channels = new EnumMap<>(TrainingIndex.Source.class);
+
+        /**
+         * Returns a read channel for the given source, opening it on first use.
+         *
+         * @param source The indexed file.
+         * @return A {@code FileChannel} opened for reading.
+         * @throws IOException If the file cannot be opened.
+         */
+        FileChannel get(TrainingIndex.Source source) throws IOException {
+            FileChannel channel = channels.get(source);
+            if (channel == null) {
+                Path file = source == TrainingIndex.Source.DATA ? generationFile(generation)
+                        : source == TrainingIndex.Source.COMPACTING ? compactingFile : journalFile;
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+                channels.put(source, channel);
+            }
+            return channel;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (FileChannel channel : channels.values()) {
+                channel.close();
+            }
+        }
+    }
+}
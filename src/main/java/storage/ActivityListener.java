@@ -0,0 +1,39 @@
+package main.java.storage;
+
+import main.java.ActivityType;
+
+/**
+ * The {@code ActivityListener} interface receives stored activities field by field, so that readers can
+ * consume training data without building {@code Activity} objects.
+ */
+public interface ActivityListener {
+    /**
+     * Called for every activity that was read.
+     *
+     * @param type           The type of the activity.
+     * @param burnedCalories The calories burned.
+     * @param duration       The duration in minutes.
+     * @param distance       The covered distance in kilometers (0 for rope jumping).
+     * @param speed          The average speed for running or the maximum speed for cycling in km/h (0 for rope jumping).
+     * @param repetitions    The number of repetitions (0 unless rope jumping).
+     */
+    void onActivity(ActivityType type, double burnedCalories, double duration,
+                    double distance, double speed, int repetitions);
+
+    /**
+     * Called for every activity that was read from a source that knows its start time. Listeners that
+     * need the start time override this method; by default the start time is ignored.
+     *
+     * @param type           The type of the activity.
+     * @param startTime      The start time in epoch seconds at UTC, or {@link ActivityCodec#NO_TIME} if unknown.
+     * @param burnedCalories The calories burned.
+     * @param duration       The duration in minutes.
+     * @param distance       The covered distance in kilometers (0 for rope jumping).
+     * @param speed          The average speed for running or the maximum speed for cycling in km/h (0 for rope jumping).
+     * @param repetitions    The number of repetitions (0 unless rope jumping).
+     */
+    default void onActivity(ActivityType type, long startTime, double burnedCalories, double duration,
+                            double distance, double speed, int repetitions) {
+        onActivity(type, burnedCalories, duration, distance, speed, repetitions);
+    }
+}
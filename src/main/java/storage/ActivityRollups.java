@@ -0,0 +1,301 @@
+package main.java.storage;
+
+import main.java.Activity;
+import main.java.ActivityType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The {@code ActivityRollups} class holds the workout totals of one user per day, per week (starting on
+ * Monday) and per month, keyed on the start time of the activities. Each bucket holds the count, duration,
+ * calories and distance of every activity type. Adding an activity updates one bucket per granularity.
+ * <p>
+ * A date range is answered from the coarsest buckets that fit into it: whole months, then whole weeks,
+ * then single days at its edges. A range of any length therefore reads at most a few dozen buckets
+ * plus one per month, never the activities themselves. Activities without a start time are only counted
+ * in the number of activities.
+ */
+public class ActivityRollups implements ActivityListener {
+
+    /**
+     * The granularities of the buckets.
+     */
+    public enum Granularity { DAY, WEEK, MONTH }
+
+    /**
+     * The {@code Totals} class holds the totals of every activity type in one bucket or one date range.
+     */
+    public static final class Totals {
+        private final int[] counts = new int[ActivityType.values().length];
+        private final double[] durations = new double[ActivityType.values().length];
+        private final double[] calories = new double[ActivityType.values().length];
+        private final double[] distances = new double[ActivityType.values().length];
+
+        private void add(int type, double duration, double burnedCalories, double distance) {
+            counts[type]++;
+            durations[type] += duration;
+            calories[type] += burnedCalories;
+            distances[type] += distance;
+        }
+
+        private void addAll(Totals other) {
+            for (int type = 0; type < counts.length; type++) {
+                counts[type] += other.counts[type];
+                durations[type] += other.durations[type];
+                calories[type] += other.calories[type];
+                distances[type] += other.distances[type];
+            }
+        }
+
+        public int getCount(ActivityType type) {
+            return counts[type.ordinal()];
+        }
+
+        public double getDuration(ActivityType type) {
+            return durations[type.ordinal()];
+        }
+
+        public double getCalories(ActivityType type) {
+            return calories[type.ordinal()];
+        }
+
+        public double getDistance(ActivityType type) {
+            return distances[type.ordinal()];
+        }
+
+        /**
+         * Returns the number of activities of all types.
+         *
+         * @return The number of activities.
+         */
+        public int getCount() {
+            int sum = 0;
+            for (int count : counts) {
+                sum += count;
+            }
+            return sum;
+        }
+
+        public double getTotalDuration() {
+            return sum(durations);
+        }
+
+        public double getTotalCalories() {
+            return sum(calories);
+        }
+
+        public double getTotalDistance() {
+            return sum(distances);
+        }
+
+        private static double sum(double[] values) {
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+    }
+
+    private final Map<Granularity, TreeMap<Integer, Totals>> buckets = new EnumMap<>(Granularity.class); // Keyed on the first epoch day
+    private long count; // All activities, including those without a start time
+
+    /**
+     * Constructs empty rollups.
+     */
+    public ActivityRollups() {
+        for (Granularity granularity : Granularity.values()) {
+            buckets.put(granularity, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Constructs a copy of other rollups.
+     *
+     * @param other The rollups to copy.
+     */
+    public ActivityRollups(ActivityRollups other) {
+        this();
+        for (Granularity granularity : Granularity.values()) {
+            for (Map.Entry<Integer, Totals> entry : other.buckets.get(granularity).entrySet()) {
+                Totals copy = new Totals();
+                copy.addAll(entry.getValue());
+                buckets.get(granularity).put(entry.getKey(), copy);
+            }
+        }
+        count = other.count;
+    }
+
+    @Override
+    public void onActivity(ActivityType type, double burnedCalories, double duration,
+                           double distance, double speed, int repetitions) {
+        onActivity(type, ActivityCodec.NO_TIME, burnedCalories, duration, distance, speed, repetitions);
+    }
+
+    @Override
+    public void onActivity(ActivityType type, long startTime, double burnedCalories, double duration,
+                           double distance, double speed, int repetitions) {
+        count++;
+        if (startTime == ActivityCodec.NO_TIME) {
+            return;
+        }
+        int day = Math.toIntExact(Math.floorDiv(startTime, 86400L));
+        for (Granularity granularity : Granularity.values()) {
+            buckets.get(granularity).computeIfAbsent(bucketStart(granularity, day), k -> new Totals())
+                    .add(type.ordinal(), duration, burnedCalories, distance);
+        }
+    }
+
+    /**
+     * Adds a single activity. The activity goes through the record encoding, so it is counted
+     * exactly as it will be when the rollups are computed again from storage.
+     *
+     * @param activity The activity to add.
+     * @throws IllegalArgumentException If the activity is not one of the supported types.
+     */
+    public void add(Activity activity) {
+        ByteBuffer record = ByteBuffer.allocate(ActivityCodec.RECORD_SIZE);
+        ActivityCodec.encode(activity, record);
+        ActivityCodec.decode(record, 0, this);
+    }
+
+    /**
+     * Returns the number of activities that were added, including those without a start time.
+     *
+     * @return The number of activities.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the totals of the activities that started within a date range.
+     *
+     * @param from The first day of the range.
+     * @param to   The last day of the range, inclusive.
+     * @return The {@code Totals} of the range.
+     */
+    public Totals query(LocalDate from, LocalDate to) {
+        Totals totals = new Totals();
+        int day = Math.toIntExact(from.toEpochDay());
+        int last = Math.toIntExact(to.toEpochDay());
+        while (day <= last) {
+            // Take the coarsest bucket that starts here and ends within the range. Weeks that cross
+            // into the next month are split into days, so the cursor reaches the start of every month.
+            Granularity granularity = Granularity.DAY;
+            if (bucketStart(Granularity.MONTH, day) == day && nextBucketStart(Granularity.MONTH, day) - 1 <= last) {
+                granularity = Granularity.MONTH;
+            } else if (bucketStart(Granularity.WEEK, day) == day && day + 6 <= last
+                    && bucketStart(Granularity.MONTH, day + 6) == bucketStart(Granularity.MONTH, day)) {
+                granularity = Granularity.WEEK;
+            }
+            Totals bucket = buckets.get(granularity).get(day);
+            if (bucket != null) {
+                totals.addAll(bucket);
+            }
+            day = nextBucketStart(granularity, day);
+        }
+        return totals;
+    }
+
+    /**
+     * Returns the bucket of a granularity that starts on a day.
+     *
+     * @param granularity The granularity.
+     * @param start       The first day of the bucket.
+     * @return The {@code Totals} of the bucket, or {@code null} if no activity started in it.
+     */
+    public Totals getBucket(Granularity granularity, LocalDate start) {
+        return buckets.get(granularity).get(Math.toIntExact(start.toEpochDay()));
+    }
+
+    /**
+     * Writes the rollups in a binary form.
+     *
+     * @param out The output to write to.
+     * @throws IOException If the rollups cannot be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        for (Granularity granularity : Granularity.values()) {
+            TreeMap<Integer, Totals> level = buckets.get(granularity);
+            out.writeInt(level.size());
+            for (Map.Entry<Integer, Totals> entry : level.entrySet()) {
+                out.writeInt(entry.getKey());
+                Totals totals = entry.getValue();
+                for (int type = 0; type < totals.counts.length; type++) {
+                    out.writeInt(totals.counts[type]);
+                    out.writeDouble(totals.durations[type]);
+                    out.writeDouble(totals.calories[type]);
+                    out.writeDouble(totals.distances[type]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads rollups written by {@link #writeTo}.
+     *
+     * @param in The input to read from.
+     * @return The rollups that were read.
+     * @throws IOException If the rollups cannot be read or are corrupt.
+     */
+    public static ActivityRollups readFrom(DataInput in) throws IOException {
+        ActivityRollups rollups = new ActivityRollups();
+        rollups.count = in.readLong();
+        for (Granularity granularity : Granularity.values()) {
+            int size = in.readInt();
+            if (size < 0) {
+                throw new IOException("Corrupt rollup bucket count: " + size);
+            }
+            for (int i = 0; i < size; i++) {
+                int start = in.readInt();
+                Totals totals = new Totals();
+                for (int type = 0; type < totals.counts.length; type++) {
+                    totals.counts[type] = in.readInt();
+                    totals.durations[type] = in.readDouble();
+                    totals.calories[type] = in.readDouble();
+                    totals.distances[type] = in.readDouble();
+                }
+                rollups.buckets.get(granularity).put(start, totals);
+            }
+        }
+        return rollups;
+    }
+
+    /**
+     * Returns the first day of the bucket that contains a day.
+     */
+    private static int bucketStart(Granularity granularity, int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        switch (granularity) {
+            case DAY:
+                return epochDay;
+            case WEEK:
+                return epochDay - (date.getDayOfWeek().getValue() - 1);
+            default:
+                return epochDay - (date.getDayOfMonth() - 1);
+        }
+    }
+
+    /**
+     * Returns the first day of the bucket after the one that starts on a day.
+     */
+    private static int nextBucketStart(Granularity granularity, int bucketStart) {
+        switch (granularity) {
+            case DAY:
+                return bucketStart + 1;
+            case WEEK:
+                return bucketStart + 7;
+            default:
+                return Math.toIntExact(LocalDate.ofEpochDay(bucketStart).plusMonths(1).toEpochDay());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package main.java.storage;
+
+import main.java.Activity;
+import main.java.ActivityType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The {@code ActivityStats} class accumulates workout statistics from a stream of activities.
+ * It is an {@link ActivityListener}, so it can be fed directly by the storage readers without
+ * building {@code Activity} objects; memory use does not depend on the number of activities.
+ */
+public class ActivityStats implements ActivityListener {
+
+    /**
+     * The {@code Entry} class holds the fields of a single notable activity (e.g. the most intense one).
+     */
+    public static final class Entry {
+        private final ActivityType type;
+        private final double burnedCalories;
+        private final double duration;
+        private final double distance;
+        private final double speed;
+        private final int repetitions;
+
+        private Entry(ActivityType type, double burnedCalories, double duration, double distance, double speed, int repetitions) {
+            this.type = type;
+            this.burnedCalories = burnedCalories;
+            this.duration = duration;
+            this.distance = distance;
+            this.speed = speed;
+            this.repetitions = repetitions;
+        }
+
+        public ActivityType getType() {
+            return type;
+        }
+
+        public double getBurnedCalories() {
+            return burnedCalories;
+        }
+
+        public double getDuration() {
+            return duration;
+        }
+
+        public double getDistance() {
+            return distance;
+        }
+
+        public double getSpeed() {
+            return speed;
+        }
+
+        public int getRepetitions() {
+            return repetitions;
+        }
+    }
+
+    private final int[] countByType = new int[ActivityType.values().length];
+    private final double[] caloriesByType = new double[ActivityType.values().length];
+    private int count;
+    private double totalCalories;
+    private double totalDuration;
+    private double totalDistance;
+    private Entry mostIntense; // Most calories burned; the first one wins ties
+    private Entry longest;     // Longest duration; the first one wins ties
+    private Entry shortest;    // Shortest duration; the first one wins ties
+
+    @Override
+    public void onActivity(ActivityType type, double burnedCalories, double duration,
+                           double distance, double speed, int repetitions) {
+        count++;
+        countByType[type.ordinal()]++;
+        caloriesByType[type.ordinal()] += burnedCalories;
+        totalCalories += burnedCalories;
+        totalDuration += duration;
+        totalDistance += distance;
+
+        // Entries are only created when a new extreme is found
+        if (mostIntense == null || burnedCalories > mostIntense.burnedCalories) {
+            mostIntense = new Entry(type, burnedCalories, duration, distance, speed, repetitions);
+        }
+        if (longest == null || duration > longest.duration) {
+            longest = new Entry(type, burnedCalories, duration, distance, speed, repetitions);
+        }
+        if (shortest == null || duration < shortest.duration) {
+            shortest = new Entry(type, burnedCalories, duration, distance, speed, repetitions);
+        }
+    }
+
+    /**
+     * Adds a single activity. The activity goes through the record encoding, so it is counted
+     * exactly as it will be when the statistics are computed again from storage.
+     *
+     * @param activity The activity to add.
+     * @throws IllegalArgumentException If the activity is not one of the supported types.
+     */
+    public void add(Activity activity) {
+        ByteBuffer record = ByteBuffer.allocate(ActivityCodec.RECORD_SIZE);
+        ActivityCodec.encode(activity, record);
+        ActivityCodec.decode(record, 0, this);
+    }
+
+    /**
+     * Returns the number of activities.
+     *
+     * @return The number of activities.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of activities of the given type.
+     *
+     * @param type The activity type.
+     * @return The number of activities of that type.
+     */
+    public int getCount(ActivityType type) {
+        return countByType[type.ordinal()];
+    }
+
+    /**
+     * Returns the calories burned by all activities of the given type.
+     *
+     * @param type The activity type.
+     * @return The total calories of that type.
+     */
+    public double getCalories(ActivityType type) {
+        return caloriesByType[type.ordinal()];
+    }
+
+    public double getTotalCalories() {
+        return totalCalories;
+    }
+
+    public double getTotalDuration() {
+        return totalDuration;
+    }
+
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    /**
+     * Returns the average duration of an activity.
+     *
+     * @return The average duration in minutes, or 0 if there are no activities.
+     */
+    public double getAverageDuration() {
+        return count == 0 ? 0.0 : totalDuration / count;
+    }
+
+    /**
+     * Returns the average calories burned per activity.
+     *
+     * @return The average calories, or 0 if there are no activities.
+     */
+    public double getAverageCalories() {
+        return count == 0 ? 0.0 : totalCalories / count;
+    }
+
+    /**
+     * Returns the activity that burned the most calories.
+     *
+     * @return The most intense {@code Entry}, or {@code null} if there are no activities.
+     */
+    public Entry getMostIntense() {
+        return mostIntense;
+    }
+
+    /**
+     * Returns the activity with the longest duration.
+     *
+     * @return The longest {@code Entry}, or {@code null} if there are no activities.
+     */
+    public Entry getLongest() {
+        return longest;
+    }
+
+    /**
+     * Returns the activity with the shortest duration.
+     *
+     * @return The shortest {@code Entry}, or {@code null} if there are no activities.
+     */
+    public Entry getShortest() {
+        return shortest;
+    }
+}
@@ -0,0 +1,103 @@
+package main.java.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code ActivityTextMigration} class converts the legacy text training data
+ * ({@code uuid;Activity1~Activity2~...} lines of {@code getAllInfo()} strings) into the binary data file
+ * of the {@link ActivityJournal}. The migration runs once: it does nothing when the binary file exists.
+ * <p>
+ * The text format stores neither ids nor start and end times, so migrated activities get sequential ids
+ * and {@link ActivityCodec#NO_TIME} as their times. The text file is left in place as a backup.
+ */
+public final class ActivityTextMigration {
+
+    private ActivityTextMigration() {
+    }
+
+    /**
+     * Migrates the legacy text file into a new binary data file, unless the data file already exists.
+     *
+     * @param textDataFile The legacy {@code trainingData.txt}.
+     * @param dataFile     The binary data file to create.
+     * @return {@code true} if a migration was performed.
+     * @throws IOException If the text file cannot be read or the data file cannot be written.
+     */
+    public static boolean migrate(Path textDataFile, Path dataFile) throws IOException {
+        if (Files.exists(dataFile) || !Files.exists(textDataFile)) {
+            return false;
+        }
+
+        // Encoded records per user, in file order
+        Map<String, ByteArrayOutputStream> blocks = new LinkedHashMap<>();
+        read(textDataFile, blocks);
+
+        Path tmp = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer slot = ByteBuffer.allocate(ActivityCodec.KEY_SIZE);
+            ActivityCodec.writeHeader(slot, ActivityJournal.DATA_MAGIC);
+            write(out, slot.flip());
+            for (Map.Entry<String, ByteArrayOutputStream> entry : blocks.entrySet()) {
+                slot.clear();
+                ActivityCodec.writeKey(slot, entry.getKey(), entry.getValue().size() / ActivityCodec.RECORD_SIZE);
+                write(out, slot.flip());
+                write(out, ByteBuffer.wrap(entry.getValue().toByteArray()));
+            }
+            out.force(true);
+        }
+        Files.move(tmp, dataFile, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    /**
+     * Parses the text file and adds the encoded activities to the blocks of their users.
+     *
+     * @param file   The text file.
+     * @param blocks The encoded records per user.
+     * @throws IOException If the file cannot be read.
+     */
+    private static void read(Path file, Map<String, ByteArrayOutputStream> blocks) throws IOException {
+        long[] nextId = {1};
+        ByteBuffer record = ByteBuffer.allocate(ActivityCodec.RECORD_SIZE);
+        ActivityTextParser[] parser = new ActivityTextParser[1];
+        parser[0] = new ActivityTextParser((type, burnedCalories, duration, distance, speed, repetitions) -> {
+            String uuid = parser[0].getCurrentKey();
+            if (uuid == null) {
+                return; // Activities without a user cannot be migrated
+            }
+            record.clear();
+            ActivityCodec.encode(record, type, nextId[0]++, ActivityCodec.NO_TIME, ActivityCodec.NO_TIME,
+                    burnedCalories, duration, distance, speed, repetitions);
+            blocks.computeIfAbsent(uuid, k -> new ByteArrayOutputStream()).write(record.array(), 0, ActivityCodec.RECORD_SIZE);
+        });
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+            while (in.read(window.clear()) >= 0) {
+                parser[0].feed(window.flip());
+            }
+        }
+        parser[0].endOfRecord();
+    }
+
+    /**
+     * Writes all remaining bytes of the buffer to the channel.
+     *
+     * @param out    The channel to write to.
+     * @param buffer The bytes to write.
+     * @throws IOException If writing fails.
+     */
+    private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package main.java.storage;
+
+import main.java.ActivityType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@code ActivityTextParser} class is a streaming tokenizer for the text format of the training data
+ * ({@code uuid;Activity1~Activity2~...}, where each activity is an {@code Activity.getAllInfo()} string).
+ * <p>
+ * Bytes are pushed in windows of any size through {@link #feed(ByteBuffer)}, and every complete activity
+ * is reported to an {@link ActivityListener}. Only one activity entry is buffered at a time, in a reused byte array,
+ * so a user line is never materialized as a whole. Numbers are parsed straight from the bytes without
+ * creating intermediate {@code String}s, except for the rare values that cannot be converted exactly
+ * with a single floating-point operation.
+ * <p>
+ * Training data is stored in the binary {@link ActivityCodec} format; this parser is used to import
+ * the legacy text files.
+ */
+public class ActivityTextParser {
+
+    private static final byte[] NAME = ascii("Name: ");
+    private static final byte[] CALORIES = ascii(" Burned calories: ");
+    private static final byte[] DURATION = ascii(" Duration: ");
+    private static final byte[] DISTANCE_RAN = ascii(" Distance ran: ");
+    private static final byte[] AVERAGE_SPEED = ascii(" km Average speed: ");
+    private static final byte[] DISTANCE_CYCLED = ascii(" Distance cycled: ");
+    private static final byte[] MAXIMUM_SPEED = ascii(" km Maximum speed: ");
+    private static final byte[] REPETITIONS = ascii(" Repetitions: ");
+    private static final byte[] SPEED_UNIT = ascii(" km/h");
+    private static final byte[] INFINITY = ascii("Infinity");
+    private static final byte[] NAN = ascii("NaN");
+
+    private static final byte[][] TYPE_NAMES = new byte[ActivityType.values().length][];
+    static {
+        for (ActivityType type : ActivityType.values()) {
+            TYPE_NAMES[type.ordinal()] = ascii(type.getDisplayName());
+        }
+    }
+
+    // Powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final int INITIAL_ENTRY_CAPACITY = 256;
+    private static final int MAX_ENTRY_CAPACITY = 16 * 1024; // Longer entries are treated as corrupt
+
+    private final ActivityListener listener;
+    private byte[] entry = new byte[INITIAL_ENTRY_CAPACITY]; // The activity entry being collected
+    private int entryLength;
+    private boolean entryTooLong;
+    private final byte[] key = new byte[ActivityCodec.KEY_SIZE]; // The "uuid" prefix being collected
+    private int keyLength;
+    private String currentKey;
+    private boolean inKey = true; // True while reading the "uuid;" prefix of a record
+    private boolean numberError;  // Set by parseNumber when the bytes are not a number
+    private int malformedEntries;
+
+    /**
+     * Constructs a parser reporting to the given listener.
+     *
+     * @param listener The {@code ActivityListener} receiving parsed activities.
+     */
+    public ActivityTextParser(ActivityListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Consumes all remaining bytes of the window. Activities are reported as soon as they are complete;
+     * an entry that continues past the end of the window is completed by the next call.
+     *
+     * @param window The bytes to parse; its position is advanced to its limit.
+     */
+    public void feed(ByteBuffer window) {
+        while (window.hasRemaining()) {
+            byte b = window.get();
+            if (b == '\n' || b == '\r') {
+                endOfRecord();
+            } else if (inKey) {
+                if (b == ';') {
+                    inKey = false; // The activity entries start after the UUID
+                    currentKey = keyLength > 0 ? new String(key, 0, keyLength, StandardCharsets.UTF_8) : null;
+                } else if (keyLength < key.length) {
+                    key[keyLength++] = b;
+                }
+            } else if (b == '~') {
+                flushEntry();
+            } else if (entryLength < entry.length) {
+                entry[entryLength++] = b;
+            } else if (entry.length < MAX_ENTRY_CAPACITY) {
+                byte[] grown = new byte[Math.min(entry.length * 2, MAX_ENTRY_CAPACITY)];
+                System.arraycopy(entry, 0, grown, 0, entryLength);
+                entry = grown;
+                entry[entryLength++] = b;
+            } else {
+                entryTooLong = true;
+            }
+        }
+    }
+
+    /**
+     * Marks the end of a record (a data file line or a journal record), completing its last activity.
+     * The next bytes fed are expected to start with a {@code uuid;} prefix again.
+     */
+    public void endOfRecord() {
+        flushEntry();
+        inKey = true;
+        keyLength = 0;
+        currentKey = null;
+    }
+
+    /**
+     * Returns the UUID prefix of the record being parsed. Listeners can call it to find out which
+     * user a reported activity belongs to.
+     *
+     * @return The UUID of the current record, or {@code null} if the record has no UUID prefix.
+     */
+    public String getCurrentKey() {
+        return currentKey;
+    }
+
+    /**
+     * Returns the number of entries that could not be parsed so far.
+     *
+     * @return The number of malformed entries.
+     */
+    public int getMalformedEntries() {
+        return malformedEntries;
+    }
+
+    /**
+     * Parses the collected entry, reports it, and resets the entry buffer.
+     */
+    private void flushEntry() {
+        if (entryTooLong || (entryLength > 0 && !parseEntry())) {
+            malformedEntries++;
+            System.err.println("Error parsing activity: "
+                    + new String(entry, 0, entryLength, StandardCharsets.UTF_8) + (entryTooLong ? "..." : ""));
+        }
+        entryLength = 0;
+        entryTooLong = false;
+    }
+
+    /**
+     * Parses the collected entry and reports it to the listener.
+     *
+     * @return {@code true} if the entry was parsed; {@code false} if it is malformed.
+     */
+    private boolean parseEntry() {
+        if (indexOf(NAME, 0) != 0) {
+            return false;
+        }
+        int caloriesAt = indexOf(CALORIES, NAME.length);
+        if (caloriesAt < 0) {
+            return false;
+        }
+        ActivityType type = matchType(NAME.length, caloriesAt);
+        if (type == null) {
+            return false; // Unsupported activity type
+        }
+        int durationAt = indexOf(DURATION, caloriesAt + CALORIES.length);
+        if (durationAt < 0) {
+            return false;
+        }
+
+        numberError = false;
+        double calories = parseNumber(caloriesAt + CALORIES.length, durationAt);
+        int valueStart = durationAt + DURATION.length;
+        double duration;
+        double distance = 0.0;
+        double speed = 0.0;
+        int repetitions = 0;
+
+        if (type == ActivityType.ROPE_JUMPING) {
+            int repetitionsAt = indexOf(REPETITIONS, valueStart);
+            if (repetitionsAt < 0) {
+                return false;
+            }
+            duration = parseNumber(valueStart, repetitionsAt);
+            repetitions = (int) parseNumber(repetitionsAt + REPETITIONS.length, entryLength);
+        } else {
+            byte[] distanceLabel = type == ActivityType.RUNNING ? DISTANCE_RAN : DISTANCE_CYCLED;
+            byte[] speedLabel = type == ActivityType.RUNNING ? AVERAGE_SPEED : MAXIMUM_SPEED;
+            int distanceAt = indexOf(distanceLabel, valueStart);
+            int speedAt = distanceAt < 0 ? -1 : indexOf(speedLabel, distanceAt + distanceLabel.length);
+            if (speedAt < 0) {
+                return false;
+            }
+            int speedEnd = indexOf(SPEED_UNIT, speedAt + speedLabel.length);
+            duration = parseNumber(valueStart, distanceAt);
+            distance = parseNumber(distanceAt + distanceLabel.length, speedAt);
+            speed = parseNumber(speedAt + speedLabel.length, speedEnd < 0 ? entryLength : speedEnd);
+        }
+
+        if (numberError) {
+            return false;
+        }
+        listener.onActivity(type, calories, duration, distance, speed, repetitions);
+        return true;
+    }
+
+    /**
+     * Finds the activity type whose display name equals the bytes in the given range, ignoring case.
+     *
+     * @param from The start of the name (inclusive).
+     * @param to   The end of the name (exclusive).
+     * @return The matching {@code ActivityType}, or {@code null} if none matches.
+     */
+    private ActivityType matchType(int from, int to) {
+        for (ActivityType type : ActivityType.values()) {
+            byte[] name = TYPE_NAMES[type.ordinal()];
+            if (name.length != to - from) {
+                continue;
+            }
+            int i = 0;
+            while (i < name.length && toLower(entry[from + i]) == toLower(name[i])) {
+                i++;
+            }
+            if (i == name.length) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a decimal number in {@code Double.toString} notation from the bytes in the given range.
+     * Surrounding spaces are ignored. Sets {@code numberError} if the bytes are not a number.
+     *
+     * @param from The start of the number (inclusive).
+     * @param to   The end of the number (exclusive).
+     * @return The parsed value, or 0 on error.
+     */
+    private double parseNumber(int from, int to) {
+        while (from < to && entry[from] == ' ') from++;
+        while (to > from && entry[to - 1] == ' ') to--;
+
+        int start = from;
+        boolean negative = false;
+        if (from < to && (entry[from] == '-' || entry[from] == '+')) {
+            negative = entry[from] == '-';
+            from++;
+        }
+        if (regionEquals(from, to, INFINITY)) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        if (regionEquals(from, to, NAN)) {
+            return Double.NaN;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean afterPoint = false;
+        boolean sawDigit = false;
+        int i = from;
+        for (; i < to; i++) {
+            byte b = entry[i];
+            if (b >= '0' && b <= '9') {
+                sawDigit = true;
+                if (significantDigits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) {
+                        significantDigits++;
+                    }
+                    if (afterPoint) {
+                        exponent--;
+                    }
+                } else if (!afterPoint) {
+                    exponent++; // Digits beyond long precision only scale the value
+                }
+            } else if (b == '.' && !afterPoint) {
+                afterPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (i < to && (entry[i] == 'E' || entry[i] == 'e')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (entry[i] == '-' || entry[i] == '+')) {
+                negativeExponent = entry[i] == '-';
+                i++;
+            }
+            int explicitExponent = 0;
+            int exponentStart = i;
+            while (i < to && entry[i] >= '0' && entry[i] <= '9') {
+                explicitExponent = Math.min(explicitExponent * 10 + (entry[i] - '0'), 10_000);
+                i++;
+            }
+            if (i == exponentStart) {
+                sawDigit = false; // "1E" is not a number
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (!sawDigit || i != to) {
+            numberError = true;
+            return 0.0;
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (mantissa < MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            // Both operands are exact, so the single operation is correctly rounded
+            value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        } else {
+            // Rare for stored values (17 significant digits or extreme exponents); the JDK rounds these correctly
+            return Double.parseDouble(new String(entry, start, to - start, StandardCharsets.US_ASCII));
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Finds the first occurrence of a marker in the collected entry.
+     *
+     * @param marker The bytes to find.
+     * @param from   The index to start searching at.
+     * @return The index of the marker, or -1 if it does not occur.
+     */
+    private int indexOf(byte[] marker, int from) {
+        int last = entryLength - marker.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < marker.length; j++) {
+                if (entry[i + j] != marker[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the bytes in the given range equal the expected bytes.
+     *
+     * @param from     The start of the range (inclusive).
+     * @param to       The end of the range (exclusive).
+     * @param expected The expected bytes.
+     * @return {@code true} if the range matches.
+     */
+    private boolean regionEquals(int from, int to, byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (entry[from + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toLower(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
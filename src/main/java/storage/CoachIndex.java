@@ -0,0 +1,562 @@
+package main.java.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code CoachIndex} class keeps the relations between coaches and users in memory: the students of
+ * every coach, the pending session requests sent to every coach, and both relations in the reverse
+ * direction. Every lookup and update is a constant-time hash operation, and listing the students or
+ * requests of a coach takes time proportional to that coach's own entries.
+ * <p>
+ * The relations are stored in {@code coachesStudents.txt} and {@code coachesRequests.txt}
+ * ({@code coachID;uuid;uuid...}). Updates are not written to those files directly; they are grouped into
+ * {@link Transaction}s, and each transaction is written to a write-ahead log as a single append of its
+ * changes followed by a {@code COMMIT} line holding their count and CRC-32, and forced to disk once.
+ * Only then are the changes applied in memory, so a transaction that changes both files, like accepting
+ * a request, is either applied completely or not at all, at the cost of one small write and one fsync.
+ * <p>
+ * The log is replayed on open and folded back into the text files once it grows past a threshold.
+ * Replaying a change twice has no effect, so a crash while folding the log loses nothing. A transaction
+ * without a valid {@code COMMIT} line was interrupted while it was written; it is cut off and ignored.
+ */
+public final class CoachIndex {
+    public static final String STUDENTS_FILE = "src/main/resources/coachesStudents.txt";  // Accepted students per coach
+    public static final String REQUESTS_FILE = "src/main/resources/coachesRequests.txt";  // Pending requests per coach
+    public static final String CHANGE_LOG_FILE = "src/main/resources/coachesChanges.log"; // Write-ahead log of changes not folded in yet
+
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 1000; // Logged changes that trigger folding the log
+    private static final String COMMIT = "COMMIT"; // Marks the end of a transaction in the write-ahead log
+
+    private static CoachIndex defaultIndex; // Index shared by all screens
+
+    /**
+     * The kind of change recorded in the write-ahead log.
+     */
+    private enum Change { ADD_STUDENT, REMOVE_STUDENT, ADD_REQUEST, REMOVE_REQUEST }
+
+    private final Path studentsFile;
+    private final Path requestsFile;
+    private final Path changeLogFile;
+    private final int compactionThreshold;
+
+    private final Map<String, Set<String>> studentsByCoach = new LinkedHashMap<>(); // Coach ID -> student UUIDs
+    private final Map<String, Set<String>> coachesByStudent = new HashMap<>();      // Student UUID -> coach IDs
+    private final Map<String, Set<String>> requestsByCoach = new LinkedHashMap<>(); // Coach ID -> requesting UUIDs
+    private final Map<String, Set<String>> requestedByUser = new HashMap<>();       // User UUID -> requested coach IDs
+    private int loggedChanges; // Changes in the write-ahead log
+
+    /**
+     * The {@code Transaction} class collects changes that are committed to the index together.
+     * Changes are applied in the order they were added.
+     */
+    public final class Transaction {
+        private final List<Change> changes = new ArrayList<>();
+        private final List<String> coachIDs = new ArrayList<>();
+        private final List<String> userUUIDs = new ArrayList<>();
+
+        private Transaction() {
+        }
+
+        /**
+         * Adds a user to the students of a coach when the transaction is committed.
+         *
+         * @param coachID  The ID of the coach.
+         * @param userUUID The UUID of the user.
+         * @return This transaction.
+         */
+        public Transaction addStudent(String coachID, String userUUID) {
+            return add(Change.ADD_STUDENT, coachID, userUUID);
+        }
+
+        /**
+         * Removes a user from the students of a coach when the transaction is committed.
+         *
+         * @param coachID  The ID of the coach.
+         * @param userUUID The UUID of the user.
+         * @return This transaction.
+         */
+        public Transaction removeStudent(String coachID, String userUUID) {
+            return add(Change.REMOVE_STUDENT, coachID, userUUID);
+        }
+
+        /**
+         * Records a session request of a user with a coach when the transaction is committed.
+         *
+         * @param coachID  The ID of the coach.
+         * @param userUUID The UUID of the user.
+         * @return This transaction.
+         */
+        public Transaction addRequest(String coachID, String userUUID) {
+            return add(Change.ADD_REQUEST, coachID, userUUID);
+        }
+
+        /**
+         * Removes the session request of a user with a coach when the transaction is committed.
+         *
+         * @param coachID  The ID of the coach.
+         * @param userUUID The UUID of the user.
+         * @return This transaction.
+         */
+        public Transaction removeRequest(String coachID, String userUUID) {
+            return add(Change.REMOVE_REQUEST, coachID, userUUID);
+        }
+
+        /**
+         * Writes all changes of the transaction to the write-ahead log with a single append and fsync,
+         * and then applies them to the index.
+         *
+         * @return The number of changes that had an effect.
+         * @throws IOException If the transaction cannot be logged; none of its changes is applied then.
+         */
+        public int commit() throws IOException {
+            return CoachIndex.this.commit(this);
+        }
+
+        private Transaction add(Change change, String coachID, String userUUID) {
+            if (coachID.isEmpty() || userUUID.isEmpty() || (coachID + userUUID).matches(".*[;\\r\\n].*")) {
+                throw new IllegalArgumentException("IDs must be non-empty and cannot contain ';' or line breaks.");
+            }
+            changes.add(change);
+            coachIDs.add(coachID);
+            userUUIDs.add(userUUID);
+            return this;
+        }
+    }
+
+    /**
+     * Returns the index shared by the whole application, loading it on first use.
+     *
+     * @return The default {@code CoachIndex}.
+     */
+    public static synchronized CoachIndex getDefault() {
+        if (defaultIndex == null) {
+            try {
+                defaultIndex = new CoachIndex(Paths.get(STUDENTS_FILE), Paths.get(REQUESTS_FILE),
+                        Paths.get(CHANGE_LOG_FILE), DEFAULT_COMPACTION_THRESHOLD);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load the coach index.", e);
+            }
+        }
+        return defaultIndex;
+    }
+
+    /**
+     * Loads the index from the given files and replays the write-ahead log.
+     *
+     * @param studentsFile        The file of accepted students per coach.
+     * @param requestsFile        The file of pending requests per coach.
+     * @param changeLogFile       The write-ahead log; missing if there are no pending changes.
+     * @param compactionThreshold The number of logged changes that triggers folding the log into the files.
+     * @throws IOException If a file cannot be read.
+     */
+    public CoachIndex(Path studentsFile, Path requestsFile, Path changeLogFile, int compactionThreshold) throws IOException {
+        this.studentsFile = studentsFile;
+        this.requestsFile = requestsFile;
+        this.changeLogFile = changeLogFile;
+        this.compactionThreshold = compactionThreshold;
+
+        loadRelations(studentsFile, studentsByCoach, coachesByStudent);
+        loadRelations(requestsFile, requestsByCoach, requestedByUser);
+        replayChangeLog();
+        if (loggedChanges >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Checks whether a user is a student of a coach.
+     *
+     * @param coachID  The ID of the coach.
+     * @param userUUID The UUID of the user.
+     * @return {@code true} if the user is a student of the coach.
+     */
+    public synchronized boolean isStudent(String coachID, String userUUID) {
+        return contains(studentsByCoach, coachID, userUUID);
+    }
+
+    /**
+     * Checks whether a user has a pending session request with a coach.
+     *
+     * @param coachID  The ID of the coach.
+     * @param userUUID The UUID of the user.
+     * @return {@code true} if the request is pending.
+     */
+    public synchronized boolean hasRequested(String coachID, String userUUID) {
+        return contains(requestsByCoach, coachID, userUUID);
+    }
+
+    /**
+     * Returns the students of a coach in the order they were accepted.
+     *
+     * @param coachID The ID of the coach.
+     * @return A new list of student UUIDs.
+     */
+    public synchronized List<String> getStudents(String coachID) {
+        return copy(studentsByCoach, coachID);
+    }
+
+    /**
+     * Returns the users with a pending session request with a coach in the order the requests were sent.
+     *
+     * @param coachID The ID of the coach.
+     * @return A new list of user UUIDs.
+     */
+    public synchronized List<String> getRequests(String coachID) {
+        return copy(requestsByCoach, coachID);
+    }
+
+    /**
+     * Returns the coaches a user is a student of.
+     *
+     * @param userUUID The UUID of the user.
+     * @return A new list of coach IDs.
+     */
+    public synchronized List<String> getCoaches(String userUUID) {
+        return copy(coachesByStudent, userUUID);
+    }
+
+    /**
+     * Returns the coaches a user has a pending session request with.
+     *
+     * @param userUUID The UUID of the user.
+     * @return A new list of coach IDs.
+     */
+    public synchronized List<String> getRequestedCoaches(String userUUID) {
+        return copy(requestedByUser, userUUID);
+    }
+
+    /**
+     * Starts a transaction on the index.
+     *
+     * @return A new, empty {@code Transaction}.
+     */
+    public Transaction begin() {
+        return new Transaction();
+    }
+
+    /**
+     * Adds a user to the students of a coach.
+     *
+     * @param coachID  The ID of the coach.
+     * @param userUUID The UUID of the user.
+     * @return {@code true} if the user was not a student of the coach yet.
+     * @throws IOException If the change cannot be logged.
+     */
+    public synchronized boolean addStudent(String coachID, String userUUID) throws IOException {
+        return update(Change.ADD_STUDENT, coachID, userUUID);
+    }
+
+    /**
+     * Removes a user from the students of a coach.
+     *
+     * @param coachID  The ID of the coach.
+     * @param userUUID The UUID of the user.
+     * @return {@code true} if the user was a student of the coach.
+     * @throws IOException If the change cannot be logged.
+     */
+    public synchronized boolean removeStudent(String coachID, String userUUID) throws IOException {
+        return update(Change.REMOVE_STUDENT, coachID, userUUID);
+    }
+
+    /**
+     * Records a session request of a user with a coach.
+     *
+     * @param coachID  The ID of the coach.
+     * @param userUUID The UUID of the user.
+     * @return {@code true} if the user had no pending request with the coach yet.
+     * @throws IOException If the change cannot be logged.
+     */
+    public synchronized boolean addRequest(String coachID, String userUUID) throws IOException {
+        return update(Change.ADD_REQUEST, coachID, userUUID);
+    }
+
+    /**
+     * Removes the pending session request of a user with a coach.
+     *
+     * @param coachID  The ID of the coach.
+     * @param userUUID The UUID of the user.
+     * @return {@code true} if the request was pending.
+     * @throws IOException If the change cannot be logged.
+     */
+    public synchronized boolean removeRequest(String coachID, String userUUID) throws IOException {
+        return update(Change.REMOVE_REQUEST, coachID, userUUID);
+    }
+
+    /**
+     * Folds the write-ahead log into the text files and deletes it. Each file is written to a temporary
+     * file first and then moved over the old one, so a reader never sees a half-written file.
+     *
+     * @throws IOException If a file cannot be written.
+     */
+    public synchronized void compact() throws IOException {
+        writeRelations(studentsFile, studentsByCoach);
+        writeRelations(requestsFile, requestsByCoach);
+        Files.deleteIfExists(changeLogFile);
+        loggedChanges = 0;
+    }
+
+    /**
+     * Commits a transaction of a single change, unless the change would have no effect.
+     *
+     * @param change   The kind of change.
+     * @param coachID  The ID of the coach.
+     * @param userUUID The UUID of the user.
+     * @return {@code true} if the change had an effect.
+     * @throws IOException If the change cannot be logged.
+     */
+    private boolean update(Change change, String coachID, String userUUID) throws IOException {
+        boolean linked = change == Change.ADD_STUDENT || change == Change.REMOVE_STUDENT
+                ? contains(studentsByCoach, coachID, userUUID)
+                : contains(requestsByCoach, coachID, userUUID);
+        boolean adding = change == Change.ADD_STUDENT || change == Change.ADD_REQUEST;
+        if (linked == adding) {
+            return false; // Nothing to change, so nothing to log
+        }
+        return begin().add(change, coachID, userUUID).commit() > 0;
+    }
+
+    /**
+     * Writes a transaction to the write-ahead log and applies it to the in-memory relations.
+     *
+     * @param transaction The transaction to commit.
+     * @return The number of changes that had an effect.
+     * @throws IOException If the transaction cannot be logged; none of its changes is applied then.
+     */
+    private synchronized int commit(Transaction transaction) throws IOException {
+        int size = transaction.changes.size();
+        if (size == 0) {
+            return 0;
+        }
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            record.append(transaction.changes.get(i)).append(';')
+                    .append(transaction.coachIDs.get(i)).append(';')
+                    .append(transaction.userUUIDs.get(i)).append('\n');
+        }
+        byte[] changeLines = record.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] commitLine = (COMMIT + ";" + size + ";" + checksum(changeLines, 0, changeLines.length) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel channel = FileChannel.open(changeLogFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long offset = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(changeLines.length + commitLine.length);
+            buffer.put(changeLines).put(commitLine).flip();
+            try {
+                channel.position(offset);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false); // The only fsync of the transaction
+            } catch (IOException e) {
+                channel.truncate(offset); // Never leave a partial transaction in front of the next one
+                throw e;
+            }
+        }
+
+        int applied = 0;
+        for (int i = 0; i < size; i++) {
+            if (apply(transaction.changes.get(i), transaction.coachIDs.get(i), transaction.userUUIDs.get(i))) {
+                applied++;
+            }
+        }
+        loggedChanges += size;
+        if (loggedChanges >= compactionThreshold) {
+            compact();
+        }
+        return applied;
+    }
+
+    /**
+     * Applies a change to the in-memory relations.
+     *
+     * @param change   The kind of change.
+     * @param coachID  The ID of the coach.
+     * @param userUUID The UUID of the user.
+     * @return {@code true} if the change had an effect.
+     */
+    private boolean apply(Change change, String coachID, String userUUID) {
+        switch (change) {
+            case ADD_STUDENT:
+                return link(studentsByCoach, coachesByStudent, coachID, userUUID);
+            case REMOVE_STUDENT:
+                return unlink(studentsByCoach, coachesByStudent, coachID, userUUID);
+            case ADD_REQUEST:
+                return link(requestsByCoach, requestedByUser, coachID, userUUID);
+            default:
+                return unlink(requestsByCoach, requestedByUser, coachID, userUUID);
+        }
+    }
+
+    /**
+     * Replays the committed transactions of the write-ahead log on top of the relations loaded from the
+     * text files. Everything behind the last valid {@code COMMIT} line belongs to an interrupted transaction
+     * and is cut off, so the next transaction starts on a line of its own.
+     *
+     * @throws IOException If the write-ahead log cannot be read.
+     */
+    private void replayChangeLog() throws IOException {
+        if (!Files.exists(changeLogFile)) {
+            return;
+        }
+        byte[] content = Files.readAllBytes(changeLogFile);
+        List<String> pending = new ArrayList<>(); // Change lines of the current transaction
+        int transactionStart = 0; // Offset of the first change line of the current transaction
+        int committedEnd = 0;     // Offset behind the last valid COMMIT line
+        int lineStart = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != '\n') {
+                continue;
+            }
+            String line = new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8);
+            String[] parts = line.split(";");
+            if (parts.length == 3 && parts[0].equals(COMMIT)) {
+                if (!parts[1].equals(String.valueOf(pending.size()))
+                        || !parts[2].equals(checksum(content, transactionStart, lineStart - transactionStart))) {
+                    System.err.println("Discarding corrupt coach transactions from offset " + transactionStart);
+                    break;
+                }
+                for (String change : pending) {
+                    String[] fields = change.split(";");
+                    apply(Change.valueOf(fields[0]), fields[1], fields[2]);
+                }
+                loggedChanges += pending.size();
+                pending.clear();
+                committedEnd = i + 1;
+                transactionStart = i + 1;
+            } else if (parts.length == 3 && isChange(parts[0])) {
+                pending.add(line);
+            } else {
+                System.err.println("Discarding corrupt coach transactions from offset " + transactionStart);
+                break;
+            }
+            lineStart = i + 1;
+        }
+
+        if (committedEnd < content.length) {
+            try (FileChannel channel = FileChannel.open(changeLogFile, StandardOpenOption.WRITE)) {
+                channel.truncate(committedEnd);
+            }
+        }
+    }
+
+    private static boolean isChange(String name) {
+        for (Change change : Change.values()) {
+            if (change.name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the CRC-32 of a range of bytes as a hexadecimal string.
+     */
+    private static String checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Loads a relation file with lines in the format {@code coachID;uuid;uuid...}.
+     * Coaches without entries are kept, so they are written back with their empty line.
+     *
+     * @param file     The relation file; a missing file is an empty relation.
+     * @param forward  Receives the UUIDs per coach.
+     * @param backward Receives the coaches per UUID.
+     * @throws IOException If the file cannot be read.
+     */
+    private static void loadRelations(Path file, Map<String, Set<String>> forward,
+                                      Map<String, Set<String>> backward) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(";");
+                if (parts[0].isEmpty()) continue;
+                forward.computeIfAbsent(parts[0], k -> new LinkedHashSet<>());
+                for (int i = 1; i < parts.length; i++) { // Start from 1 to skip the coachID
+                    if (!parts[i].isEmpty()) {
+                        link(forward, backward, parts[0], parts[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a relation file with one line per coach, replacing the old file atomically.
+     *
+     * @param file    The relation file.
+     * @param forward The UUIDs per coach.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeRelations(Path file, Map<String, Set<String>> forward) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter bw = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Set<String>> entry : forward.entrySet()) {
+                bw.write(entry.getKey() + ";" + String.join(";", entry.getValue()));
+                bw.newLine();
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Links a coach and a user in both directions of a relation.
+     *
+     * @return {@code true} if they were not linked yet.
+     */
+    private static boolean link(Map<String, Set<String>> forward, Map<String, Set<String>> backward,
+                                String coachID, String userUUID) {
+        if (!forward.computeIfAbsent(coachID, k -> new LinkedHashSet<>()).add(userUUID)) {
+            return false;
+        }
+        backward.computeIfAbsent(userUUID, k -> new LinkedHashSet<>()).add(coachID);
+        return true;
+    }
+
+    /**
+     * Unlinks a coach and a user in both directions of a relation. The coach keeps its (possibly empty) entry.
+     *
+     * @return {@code true} if they were linked.
+     */
+    private static boolean unlink(Map<String, Set<String>> forward, Map<String, Set<String>> backward,
+                                  String coachID, String userUUID) {
+        Set<String> users = forward.get(coachID);
+        if (users == null || !users.remove(userUUID)) {
+            return false;
+        }
+        Set<String> coaches = backward.get(userUUID);
+        coaches.remove(coachID);
+        if (coaches.isEmpty()) {
+            backward.remove(userUUID);
+        }
+        return true;
+    }
+
+    private static boolean contains(Map<String, Set<String>> relation, String key, String value) {
+        Set<String> values = relation.get(key);
+        return values != null && values.contains(value);
+    }
+
+    private static List<String> copy(Map<String, Set<String>> relation, String key) {
+        Set<String> values = relation.get(key);
+        return values == null ? Collections.emptyList() : new ArrayList<>(values);
+    }
+}
@@ -0,0 +1,561 @@
+package main.java.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The {@code CredentialIndex} class stores the login credentials of all users in a hash file, so a login
+ * reads one page of the file instead of all of {@code usersLoginData.txt}.
+ * <p>
+ * The file is organized with linear hashing. Page 0 holds the header and bucket {@code b} is page {@code b + 1};
+ * a bucket page holds up to {@value #SLOTS_PER_PAGE} fixed-size records, and a full bucket continues in pages of
+ * a second, overflow file. The bucket of a login follows from its hash and the header alone, so a lookup reads
+ * one page unless the bucket has overflowed. When the records fill more than three quarters of the buckets, the
+ * next bucket in turn is split in two; the file grows one bucket at a time and an insert never rewrites it.
+ * <p>
+ * A split writes the new bucket first, then the header, then the old bucket without the records that moved.
+ * A crash in between at worst leaves copies of the moved records in the old bucket. A lookup never finds them
+ * there, because their logins now hash to the new bucket, and they are dropped when the old bucket is next written.
+ */
+public final class CredentialIndex {
+    public static final String INDEX_FILE = "src/main/resources/usersLogin.idx";
+    public static final String OVERFLOW_FILE = "src/main/resources/usersLogin.ovf";
+    public static final String LEGACY_LOGIN_FILE = "src/main/resources/usersLoginData.txt"; // Text logins before the index
+    public static final int MAX_LOGIN_BYTES = 64;
+    public static final int MAX_SECRET_BYTES = 96;
+
+    static final int PAGE_SIZE = 4096;
+    private static final int PAGE_HEADER = 16; // Record count, unused int, overflow page number
+    private static final int SLOT_SIZE = 1 + MAX_LOGIN_BYTES + 16 + 1 + MAX_SECRET_BYTES + 2; // Padded to 180 bytes
+    static final int SLOTS_PER_PAGE = (PAGE_SIZE - PAGE_HEADER) / SLOT_SIZE;
+
+    private static final int MAGIC = 0x4654434C; // "FTCL"
+    private static final int VERSION = 1;
+    private static final int INITIAL_LEVEL = 1;  // The file starts with two buckets
+    private static final long NO_PAGE = 0;       // Overflow pages are numbered from 1
+
+    private static CredentialIndex defaultIndex; // Index shared by the login and registration screens
+
+    /**
+     * The stored credentials of one user. Credentials are immutable.
+     */
+    public static final class Credential {
+        private final String login;
+        private final UuidKey uuid;
+        private final byte[] secret;
+
+        private Credential(String login, UuidKey uuid, byte[] secret) {
+            this.login = login;
+            this.uuid = uuid;
+            this.secret = secret;
+        }
+
+        public String getLogin() {
+            return login;
+        }
+
+        public UuidKey getUuid() {
+            return uuid;
+        }
+
+        /**
+         * Returns the stored secret that the password is checked against.
+         *
+         * @return A copy of the secret.
+         */
+        public byte[] getSecret() {
+            return secret.clone();
+        }
+    }
+
+    private FileChannel index;
+    private FileChannel overflow;
+    private int level;          // The first 2^level buckets are addressed with level bits of the hash
+    private int next;           // The next bucket to split; buckets below it use one bit more
+    private long records;
+    private long overflowPages; // Pages allocated in the overflow file
+    private long freeOverflow;  // First page of the chain of released overflow pages
+    private boolean force = true;
+
+    /**
+     * Returns the index shared by the whole application. The index file is created from the legacy
+     * text login file the first time it is opened.
+     *
+     * @return The default {@code CredentialIndex}.
+     */
+    public static synchronized CredentialIndex getDefault() {
+        if (defaultIndex == null) {
+            try {
+                defaultIndex = new CredentialIndex(Paths.get(INDEX_FILE), Paths.get(OVERFLOW_FILE), Paths.get(LEGACY_LOGIN_FILE));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open the login index.", e);
+            }
+        }
+        return defaultIndex;
+    }
+
+    /**
+     * Opens the index, hashing the passwords of a legacy text login file with the default {@link PasswordHasher}.
+     *
+     * @param indexFile       The file holding the header and the bucket pages.
+     * @param overflowFile    The file holding the overflow pages.
+     * @param legacyLoginFile The legacy text login file ({@code uuid;login;password}).
+     * @throws IOException If a file cannot be read or written, or the index file is not a login index.
+     */
+    public CredentialIndex(Path indexFile, Path overflowFile, Path legacyLoginFile) throws IOException {
+        this(indexFile, overflowFile, legacyLoginFile, PasswordHasher.getDefault());
+    }
+
+    /**
+     * Opens the index. If the index file does not exist yet, it is created and the legacy text login
+     * file, if any, is imported once. The imported passwords are stored hashed, and the text file is
+     * deleted once the index is in place, so no plain password remains on disk.
+     *
+     * @param indexFile       The file holding the header and the bucket pages.
+     * @param overflowFile    The file holding the overflow pages.
+     * @param legacyLoginFile The legacy text login file ({@code uuid;login;password}).
+     * @param hasher          The {@code PasswordHasher} hashing the imported passwords.
+     * @throws IOException If a file cannot be read or written, or the index file is not a login index.
+     */
+    public CredentialIndex(Path indexFile, Path overflowFile, Path legacyLoginFile, PasswordHasher hasher) throws IOException {
+        if (!Files.exists(indexFile)) {
+            // Build the index under temporary names, so an interrupted import is started over on the next open
+            Path tempIndex = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            Path tempOverflow = overflowFile.resolveSibling(overflowFile.getFileName() + ".tmp");
+            open(tempIndex, tempOverflow, true);
+            try {
+                if (Files.exists(legacyLoginFile)) {
+                    importLegacy(legacyLoginFile, hasher);
+                }
+                writeHeader();
+                overflow.force(true);
+                index.force(true);
+            } finally {
+                close();
+            }
+            Files.move(tempOverflow, overflowFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(tempIndex, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        // Only once the index is in place, so an interrupted import is started over
+        Files.deleteIfExists(legacyLoginFile);
+        open(indexFile, overflowFile, false);
+    }
+
+    /**
+     * Looks up the credentials of a login.
+     *
+     * @param login The login.
+     * @return The {@code Credential}, or {@code null} if the login is not registered.
+     * @throws IOException If the index cannot be read.
+     */
+    public synchronized Credential find(String login) throws IOException {
+        byte[] loginBytes = login.getBytes(StandardCharsets.UTF_8);
+        if (loginBytes.length > MAX_LOGIN_BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = readBucketPage(bucketOf(hash(loginBytes)));
+        while (true) {
+            int count = buffer.getInt(0);
+            for (int slot = 0; slot < count; slot++) {
+                if (loginMatches(buffer, slot, loginBytes)) {
+                    return readRecord(buffer, slot);
+                }
+            }
+            long page = buffer.getLong(8);
+            if (page == NO_PAGE) {
+                return null;
+            }
+            buffer = readOverflowPage(page);
+        }
+    }
+
+    /**
+     * Adds the credentials of a new user.
+     *
+     * @param login  The login, at most {@value #MAX_LOGIN_BYTES} bytes in UTF-8.
+     * @param uuid   The UUID of the user.
+     * @param secret The secret to check passwords against, at most {@value #MAX_SECRET_BYTES} bytes.
+     * @return {@code true} if the user was added; {@code false} if the login is already registered.
+     * @throws IOException              If the index cannot be read or written.
+     * @throws IllegalArgumentException If the login or the secret is too long.
+     */
+    public synchronized boolean insert(String login, UuidKey uuid, byte[] secret) throws IOException {
+        byte[] loginBytes = login.getBytes(StandardCharsets.UTF_8);
+        if (loginBytes.length > MAX_LOGIN_BYTES) {
+            throw new IllegalArgumentException("Login is longer than " + MAX_LOGIN_BYTES + " bytes.");
+        }
+        if (secret.length > MAX_SECRET_BYTES) {
+            throw new IllegalArgumentException("Secret is longer than " + MAX_SECRET_BYTES + " bytes.");
+        }
+        int bucket = bucketOf(hash(loginBytes));
+        List<Long> chain = new ArrayList<>();
+        List<Credential> bucketRecords = readBucket(bucket, chain);
+        List<Credential> kept = new ArrayList<>(bucketRecords.size() + 1);
+        for (Credential record : bucketRecords) {
+            if (record.login.equals(login)) {
+                return false;
+            }
+            if (bucketOf(hash(record.login.getBytes(StandardCharsets.UTF_8))) == bucket) {
+                kept.add(record); // Anything else is a copy left behind by an interrupted split
+            }
+        }
+        kept.add(new Credential(login, uuid, secret.clone()));
+        writeBucket(bucket, kept, chain);
+        records++;
+        if (records * 4 > (long) bucketCount() * SLOTS_PER_PAGE * 3) {
+            split();
+        }
+        writeHeader();
+        if (force) {
+            overflow.force(false);
+            index.force(false);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the secret of a registered login, e.g. with a hash of a higher cost. Only the page holding
+     * the login's record is rewritten.
+     *
+     * @param login  The login.
+     * @param secret The new secret, at most {@value #MAX_SECRET_BYTES} bytes.
+     * @return {@code true} if the secret was replaced; {@code false} if the login is not registered.
+     * @throws IOException              If the index cannot be read or written.
+     * @throws IllegalArgumentException If the secret is too long.
+     */
+    public synchronized boolean replaceSecret(String login, byte[] secret) throws IOException {
+        if (secret.length > MAX_SECRET_BYTES) {
+            throw new IllegalArgumentException("Secret is longer than " + MAX_SECRET_BYTES + " bytes.");
+        }
+        byte[] loginBytes = login.getBytes(StandardCharsets.UTF_8);
+        if (loginBytes.length > MAX_LOGIN_BYTES) {
+            return false;
+        }
+        int bucket = bucketOf(hash(loginBytes));
+        long page = NO_PAGE;
+        ByteBuffer buffer = readBucketPage(bucket);
+        while (true) {
+            int count = buffer.getInt(0);
+            for (int slot = 0; slot < count; slot++) {
+                if (loginMatches(buffer, slot, loginBytes)) {
+                    Credential record = readRecord(buffer, slot);
+                    writeRecord(buffer, slot, new Credential(record.login, record.uuid, secret.clone()));
+                    FileChannel channel = page == NO_PAGE ? index : overflow;
+                    writePage(channel, page == NO_PAGE ? bucket + 1L : page - 1, buffer);
+                    if (force) {
+                        channel.force(false);
+                    }
+                    return true;
+                }
+            }
+            page = buffer.getLong(8);
+            if (page == NO_PAGE) {
+                return false;
+            }
+            buffer = readOverflowPage(page);
+        }
+    }
+
+    /**
+     * Passes every registered login to an action, reading the buckets one after another.
+     *
+     * @param action Receives the logins.
+     * @throws IOException If the index cannot be read.
+     */
+    public synchronized void forEachLogin(Consumer<String> action) throws IOException {
+        for (int bucket = 0; bucket < bucketCount(); bucket++) {
+            for (Credential record : readBucket(bucket, new ArrayList<>())) {
+                if (bucketOf(hash(record.login.getBytes(StandardCharsets.UTF_8))) == bucket) {
+                    action.accept(record.login); // Skips copies left behind by an interrupted split
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of registered users.
+     *
+     * @return The number of credentials in the index.
+     */
+    public synchronized long size() {
+        return records;
+    }
+
+    /**
+     * Closes the index files.
+     */
+    public synchronized void close() {
+        try {
+            index.close();
+            overflow.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the login index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens the index files and reads the header, or writes the header and the first buckets of a new index.
+     */
+    private void open(Path indexFile, Path overflowFile, boolean create) throws IOException {
+        if (create) {
+            index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            overflow = FileChannel.open(overflowFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            level = INITIAL_LEVEL;
+            next = 0;
+            records = 0;
+            overflowPages = 0;
+            freeOverflow = NO_PAGE;
+            for (int bucket = 0; bucket < bucketCount(); bucket++) {
+                writePage(index, bucket + 1L, ByteBuffer.allocate(PAGE_SIZE));
+            }
+            writeHeader();
+            return;
+        }
+        index = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        overflow = FileChannel.open(overflowFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = readPage(index, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            close();
+            throw new IOException("Not a login index: " + indexFile);
+        }
+        level = header.getInt(8);
+        next = header.getInt(12);
+        records = header.getLong(16);
+        overflowPages = header.getLong(24);
+        freeOverflow = header.getLong(32);
+    }
+
+    /**
+     * Imports the lines of the legacy text login file with their passwords hashed, forcing the files
+     * only once at the end.
+     */
+    private void importLegacy(Path legacyLoginFile, PasswordHasher hasher) throws IOException {
+        force = false;
+        try (BufferedReader reader = Files.newBufferedReader(legacyLoginFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(";");
+                if (parts.length != 3) {
+                    continue;
+                }
+                UuidKey uuid = UuidKey.tryParse(parts[0]);
+                if (uuid == null || !uuid.toString().equals(parts[0])) {
+                    System.err.println("Skipping login without a canonical UUID: " + parts[0]);
+                    continue;
+                }
+                try {
+                    if (!insert(parts[1], uuid, hasher.hash(parts[2].toCharArray()))) {
+                        System.err.println("Skipping duplicate login: " + parts[1]);
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping login " + parts[1] + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            force = true;
+        }
+    }
+
+    /**
+     * Splits the next bucket: the records whose hash has the new bit set move to a bucket appended at the end.
+     */
+    private void split() throws IOException {
+        int oldBucket = next;
+        int newBucket = next + (1 << level);
+        long mask = (1L << (level + 1)) - 1;
+        List<Long> chain = new ArrayList<>();
+        List<Credential> stay = new ArrayList<>();
+        List<Credential> move = new ArrayList<>();
+        for (Credential record : readBucket(oldBucket, chain)) {
+            long bucket = hash(record.login.getBytes(StandardCharsets.UTF_8)) & mask;
+            if (bucket == oldBucket) {
+                stay.add(record);
+            } else if (bucket == newBucket) {
+                move.add(record);
+            }
+        }
+        writeBucket(newBucket, move, new ArrayList<>());
+        if (++next == 1 << level) {
+            level++;
+            next = 0;
+        }
+        writeHeader();
+        writeBucket(oldBucket, stay, chain);
+    }
+
+    private int bucketCount() {
+        return (1 << level) + next;
+    }
+
+    private int bucketOf(long hash) {
+        int bucket = (int) (hash & ((1L << level) - 1));
+        if (bucket < next) {
+            bucket = (int) (hash & ((1L << (level + 1)) - 1)); // Already split
+        }
+        return bucket;
+    }
+
+    /**
+     * Reads all records of a bucket, collecting the numbers of its overflow pages.
+     */
+    private List<Credential> readBucket(int bucket, List<Long> chain) throws IOException {
+        List<Credential> result = new ArrayList<>();
+        ByteBuffer buffer = readBucketPage(bucket);
+        while (true) {
+            int count = buffer.getInt(0);
+            for (int slot = 0; slot < count; slot++) {
+                result.add(readRecord(buffer, slot));
+            }
+            long page = buffer.getLong(8);
+            if (page == NO_PAGE) {
+                return result;
+            }
+            chain.add(page);
+            buffer = readOverflowPage(page);
+        }
+    }
+
+    /**
+     * Writes the records of a bucket, reusing its overflow pages. The overflow pages are written before the
+     * page that links to them, and pages that are no longer needed are released afterwards.
+     */
+    private void writeBucket(int bucket, List<Credential> bucketRecords, List<Long> chain) throws IOException {
+        int pages = Math.max(1, (bucketRecords.size() + SLOTS_PER_PAGE - 1) / SLOTS_PER_PAGE);
+        long[] pageNumbers = new long[pages];
+        for (int i = 1; i < pages; i++) {
+            pageNumbers[i] = i - 1 < chain.size() ? chain.get(i - 1) : allocateOverflowPage();
+        }
+        for (int i = pages - 1; i >= 0; i--) {
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+            int from = i * SLOTS_PER_PAGE;
+            int count = Math.min(SLOTS_PER_PAGE, bucketRecords.size() - from);
+            buffer.putInt(0, Math.max(0, count));
+            buffer.putLong(8, i + 1 < pages ? pageNumbers[i + 1] : NO_PAGE);
+            for (int slot = 0; slot < count; slot++) {
+                writeRecord(buffer, slot, bucketRecords.get(from + slot));
+            }
+            if (i == 0) {
+                writePage(index, bucket + 1L, buffer);
+            } else {
+                writePage(overflow, pageNumbers[i] - 1, buffer);
+            }
+        }
+        for (int i = pages - 1; i < chain.size(); i++) {
+            releaseOverflowPage(chain.get(i));
+        }
+    }
+
+    private long allocateOverflowPage() throws IOException {
+        if (freeOverflow == NO_PAGE) {
+            return ++overflowPages;
+        }
+        long page = freeOverflow;
+        freeOverflow = readOverflowPage(page).getLong(8);
+        return page;
+    }
+
+    private void releaseOverflowPage(long page) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        buffer.putLong(8, freeOverflow);
+        writePage(overflow, page - 1, buffer);
+        freeOverflow = page;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, level);
+        header.putInt(12, next);
+        header.putLong(16, records);
+        header.putLong(24, overflowPages);
+        header.putLong(32, freeOverflow);
+        writePage(index, 0, header);
+    }
+
+    private ByteBuffer readBucketPage(int bucket) throws IOException {
+        return readPage(index, bucket + 1L);
+    }
+
+    private ByteBuffer readOverflowPage(long page) throws IOException {
+        return readPage(overflow, page - 1);
+    }
+
+    private static ByteBuffer readPage(FileChannel channel, long page) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        long position = page * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Login index page " + page + " is missing.");
+            }
+        }
+        return buffer.clear();
+    }
+
+    private static void writePage(FileChannel channel, long page, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        long position = page * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static boolean loginMatches(ByteBuffer buffer, int slot, byte[] loginBytes) {
+        int offset = PAGE_HEADER + slot * SLOT_SIZE;
+        if ((buffer.get(offset) & 0xFF) != loginBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < loginBytes.length; i++) {
+            if (buffer.get(offset + 1 + i) != loginBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Credential readRecord(ByteBuffer buffer, int slot) {
+        int offset = PAGE_HEADER + slot * SLOT_SIZE;
+        byte[] login = new byte[buffer.get(offset) & 0xFF];
+        buffer.get(offset + 1, login);
+        offset += 1 + MAX_LOGIN_BYTES;
+        UuidKey uuid = new UuidKey(buffer.getLong(offset), buffer.getLong(offset + 8));
+        offset += 16;
+        byte[] secret = new byte[buffer.get(offset) & 0xFF];
+        buffer.get(offset + 1, secret);
+        return new Credential(new String(login, StandardCharsets.UTF_8), uuid, secret);
+    }
+
+    private static void writeRecord(ByteBuffer buffer, int slot, Credential record) {
+        int offset = PAGE_HEADER + slot * SLOT_SIZE;
+        buffer.put(offset, new byte[SLOT_SIZE]); // Leaves nothing of a replaced secret behind
+        byte[] login = record.login.getBytes(StandardCharsets.UTF_8);
+        buffer.put(offset, (byte) login.length);
+        buffer.put(offset + 1, login);
+        offset += 1 + MAX_LOGIN_BYTES;
+        buffer.putLong(offset, record.uuid.getMostSignificantBits());
+        buffer.putLong(offset + 8, record.uuid.getLeastSignificantBits());
+        offset += 16;
+        buffer.put(offset, (byte) record.secret.length);
+        buffer.put(offset + 1, record.secret);
+    }
+
+    /**
+     * Hashes the UTF-8 bytes of a login (FNV-1a, then mixed so that the low bits used for the bucket are well distributed).
+     */
+    static long hash(byte[] loginBytes) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : loginBytes) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return UuidKey.mix(hash, loginBytes.length);
+    }
+}
@@ -0,0 +1,41 @@
+package main.java.storage;
+
+/**
+ * The {@code FsyncPolicy} enum decides when appended journal records are forced to the storage device.
+ * Stronger policies survive power loss at the price of one device flush per write.
+ */
+public enum FsyncPolicy {
+    /**
+     * Forces the journal after every appended record.
+     */
+    ALWAYS,
+
+    /**
+     * Forces the journal periodically from a background thread, grouping many records into one flush.
+     */
+    INTERVAL,
+
+    /**
+     * Never forces explicitly and leaves write-back to the operating system.
+     */
+    NEVER;
+
+    /**
+     * Resolves a policy from its name, falling back to the given default for unknown or missing values.
+     *
+     * @param name         The name of the policy (case-insensitive), may be {@code null}.
+     * @param defaultValue The policy to use when the name cannot be resolved.
+     * @return The matching {@code FsyncPolicy}.
+     */
+    public static FsyncPolicy fromName(String name, FsyncPolicy defaultValue) {
+        if (name == null) {
+            return defaultValue;
+        }
+        for (FsyncPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name.trim())) {
+                return policy;
+            }
+        }
+        return defaultValue;
+    }
+}
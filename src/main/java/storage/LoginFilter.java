@@ -0,0 +1,167 @@
+package main.java.storage;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * The {@code LoginFilter} class is a persistent sidecar that holds a {@link ScalableBloomFilter} over all
+ * registered logins, so the registration screen can tell that a login is still free from memory. Only a login
+ * the filter reports as possibly taken has to be looked up in the {@link CredentialIndex}.
+ * <p>
+ * Like the {@link RollupIndex}, the sidecar is a snapshot followed by appended entries: every registration appends
+ * the new login, and the snapshot is only rewritten once {@value #SNAPSHOT_THRESHOLD} logins have been appended.
+ * On open, the number of logins in the filter is compared with the number of users in the credential index; if they
+ * do not match (e.g. after a crash between the two writes), the filter is rebuilt from the index.
+ */
+public final class LoginFilter {
+    public static final String FILTER_FILE = "src/main/resources/usersLogin.bloom";
+
+    private static final int MAGIC = 0x4654424C; // "FTBL"
+    private static final int VERSION = 1;
+    private static final int SNAPSHOT_THRESHOLD = 1024;
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final double INITIAL_ERROR_RATE = 0.005; // About 1% false positives in total
+
+    private static LoginFilter defaultFilter; // Filter shared by the registration screens
+
+    private final Path filterFile;
+    private ScalableBloomFilter filter;
+    private int appendedEntries;       // Logins appended since the last snapshot
+    private DataOutputStream appender; // Appends logins to the sidecar
+
+    /**
+     * Returns the filter shared by the whole application, over the logins of the default {@link CredentialIndex}.
+     *
+     * @return The default {@code LoginFilter}.
+     */
+    public static synchronized LoginFilter getDefault() {
+        if (defaultFilter == null) {
+            try {
+                defaultFilter = new LoginFilter(Paths.get(FILTER_FILE), CredentialIndex.getDefault());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open the login filter.", e);
+            }
+        }
+        return defaultFilter;
+    }
+
+    /**
+     * Opens the sidecar and rebuilds the filter if it does not hold as many logins as the credential index.
+     *
+     * @param filterFile The sidecar file.
+     * @param index      The credential index holding the registered logins.
+     * @throws IOException If the index cannot be read or the sidecar cannot be written.
+     */
+    public LoginFilter(Path filterFile, CredentialIndex index) throws IOException {
+        this.filterFile = filterFile;
+
+        boolean loaded = load();
+        if (!loaded || filter.size() != index.size()) {
+            filter = new ScalableBloomFilter(INITIAL_CAPACITY, INITIAL_ERROR_RATE);
+            index.forEachLogin(login -> filter.add(login.getBytes(StandardCharsets.UTF_8)));
+            writeSnapshot();
+        } else if (appendedEntries > 0) {
+            writeSnapshot();
+        }
+        openAppender();
+    }
+
+    /**
+     * Tells whether a login might be registered.
+     *
+     * @param login The login.
+     * @return {@code false} if the login is certainly free; {@code true} if it must be looked up in the credential index.
+     */
+    public synchronized boolean mightContain(String login) {
+        return filter.mightContain(login.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds a login that has just been registered.
+     *
+     * @param login The login.
+     * @throws IOException If the sidecar cannot be written.
+     */
+    public synchronized void add(String login) throws IOException {
+        filter.add(login.getBytes(StandardCharsets.UTF_8));
+        if (++appendedEntries >= SNAPSHOT_THRESHOLD) {
+            appender.close();
+            writeSnapshot();
+            openAppender();
+            return;
+        }
+        appender.writeUTF(login);
+        appender.flush(); // A lost entry is rebuilt from the credential index on the next open
+    }
+
+    /**
+     * Closes the sidecar file.
+     */
+    public synchronized void close() {
+        try {
+            appender.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the login filter: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the sidecar if it exists.
+     *
+     * @return {@code true} if the sidecar was loaded; {@code false} if the filter must be rebuilt.
+     */
+    private boolean load() {
+        if (!Files.exists(filterFile)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(filterFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            filter = ScalableBloomFilter.readFrom(in);
+            // Logins appended after the snapshot
+            while (true) {
+                String login;
+                try {
+                    login = in.readUTF();
+                } catch (EOFException e) {
+                    break;
+                }
+                filter.add(login.getBytes(StandardCharsets.UTF_8));
+                appendedEntries++;
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Also a torn trailing entry: the filter is rebuilt, so new entries do not follow the torn one
+            appendedEntries = 0;
+            return false;
+        }
+    }
+
+    /**
+     * Writes the filter as a new snapshot, replacing the sidecar atomically.
+     *
+     * @throws IOException If the sidecar cannot be written.
+     */
+    private void writeSnapshot() throws IOException {
+        Path temporary = filterFile.resolveSibling(filterFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            filter.writeTo(out);
+        }
+        Files.move(temporary, filterFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appendedEntries = 0;
+    }
+
+    /**
+     * Opens the sidecar for appending logins behind the snapshot.
+     *
+     * @throws IOException If the sidecar cannot be opened.
+     */
+    private void openAppender() throws IOException {
+        appender = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(filterFile, StandardOpenOption.APPEND)));
+    }
+}
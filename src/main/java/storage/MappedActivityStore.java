@@ -0,0 +1,81 @@
+package main.java.storage;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@code MappedActivityStore} class gives read-only, zero-copy access to the fixed-width records of
+ * the training data file through memory mapping. Records are decoded straight from the OS page cache,
+ * so repeated visits to the stats screens neither read the file again nor copy or allocate per record.
+ * <p>
+ * The file is mapped in segments of {@value #SEGMENT_SIZE} bytes, so files larger than 2 GB (or than the
+ * available RAM) work as well: only the pages that are actually read are loaded, and the OS evicts them
+ * under memory pressure. Since the segment size is a multiple of the record size and records start at
+ * record-aligned offsets, no record crosses a segment boundary.
+ * <p>
+ * A store describes one generation of the data file. Compaction writes the next generation under a new
+ * name, after which the journal opens a new store; the mapped file itself is never replaced or written.
+ */
+public class MappedActivityStore {
+    static final int SEGMENT_SIZE = 1 << 30; // 1 GB, a multiple of the record size
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    /**
+     * Maps the given data file. A missing file is treated as empty.
+     *
+     * @param dataFile The training data file.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public MappedActivityStore(Path dataFile) throws IOException {
+        if (!Files.exists(dataFile)) {
+            this.segments = new MappedByteBuffer[0];
+            this.size = 0;
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            this.size = channel.size();
+            this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long offset = (long) i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, size - offset));
+            }
+        } // The mapping stays valid after the channel is closed
+    }
+
+    /**
+     * Decodes the records in the given byte range and reports them to the listener.
+     * The store can be read by any number of threads at the same time.
+     *
+     * @param offset   The byte offset of the first record.
+     * @param length   The length of the records in bytes, a multiple of the record size.
+     * @param listener The {@code ActivityListener} receiving the activities.
+     * @throws IOException If the range lies outside the file or holds a corrupt record.
+     */
+    public void scan(long offset, long length, ActivityListener listener) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > size || length % ActivityCodec.RECORD_SIZE != 0) {
+            throw new IOException("Invalid training data range: " + offset + "+" + length);
+        }
+        try {
+            for (long position = offset; position < offset + length; position += ActivityCodec.RECORD_SIZE) {
+                ActivityCodec.decode(segments[(int) (position / SEGMENT_SIZE)], (int) (position % SEGMENT_SIZE), listener);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt activity record in the training data file.", e);
+        }
+    }
+
+    /**
+     * Returns the size of the mapped file.
+     *
+     * @return The size in bytes.
+     */
+    public long size() {
+        return size;
+    }
+}
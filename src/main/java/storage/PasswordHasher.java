@@ -0,0 +1,202 @@
+package main.java.storage;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * The {@code PasswordHasher} class turns passwords into salted PBKDF2 hashes (HMAC-SHA256) that are stored
+ * as the secrets of the {@link CredentialIndex}, and checks passwords against them.
+ * <p>
+ * A secret holds a format byte, the iteration count, a random 16-byte salt and the 32-byte hash, 53 bytes in total.
+ * Because the iteration count is stored with every secret, the cost can be raised at any time: older secrets stay
+ * valid and {@link #needsRehash} reports them, so they can be replaced after the next successful login. Secrets
+ * that earlier versions imported from the legacy text login file are the plain password and are recognized the same way.
+ * <p>
+ * Hashing deliberately takes a noticeable amount of CPU time and must not run on the event dispatch thread.
+ */
+public class PasswordHasher {
+    public static final int DEFAULT_ITERATIONS = 600_000; // OWASP recommendation for PBKDF2-HMAC-SHA256
+    public static final int MIN_ITERATIONS = 10_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int FORMAT = 1;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+    private static final int SECRET_BYTES = 1 + 4 + SALT_BYTES + HASH_BYTES;
+    private static final int PROBE_ITERATIONS = 20_000; // Iterations of one calibration run
+
+    private static PasswordHasher defaultHasher; // Hasher shared by the whole application
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private byte[] dummySecret; // Guarded by this; created on first use
+
+    /**
+     * Returns the hasher shared by the whole application. Its cost is the {@code fitness.pbkdf2.iterations}
+     * system property if it is set; otherwise, if {@code fitness.pbkdf2.targetMillis} is set, the cost is
+     * calibrated to that verification time on this machine; otherwise it is {@value #DEFAULT_ITERATIONS}.
+     *
+     * @return The default {@code PasswordHasher}.
+     */
+    public static synchronized PasswordHasher getDefault() {
+        if (defaultHasher == null) {
+            Integer iterations = Integer.getInteger("fitness.pbkdf2.iterations");
+            Integer targetMillis = Integer.getInteger("fitness.pbkdf2.targetMillis");
+            if (iterations == null) {
+                iterations = targetMillis == null ? DEFAULT_ITERATIONS : calibrate(targetMillis);
+            }
+            defaultHasher = new PasswordHasher(iterations);
+        }
+        return defaultHasher;
+    }
+
+    /**
+     * Constructs a hasher that hashes new passwords with the given cost.
+     *
+     * @param iterations The PBKDF2 iteration count, at least {@value #MIN_ITERATIONS}.
+     * @throws IllegalArgumentException If the iteration count is too low.
+     */
+    public PasswordHasher(int iterations) {
+        if (iterations < MIN_ITERATIONS) {
+            throw new IllegalArgumentException("Iterations must be at least " + MIN_ITERATIONS + ": " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Hashes a password with a new random salt.
+     *
+     * @param password The password.
+     * @return The secret to store, {@value #SECRET_BYTES} bytes long.
+     */
+    public byte[] hash(char[] password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return ByteBuffer.allocate(SECRET_BYTES)
+                .put((byte) FORMAT)
+                .putInt(iterations)
+                .put(salt)
+                .put(pbkdf2(password, salt, iterations))
+                .array();
+    }
+
+    /**
+     * Checks a password against a stored secret, using the cost the secret was hashed with.
+     *
+     * @param password The password entered by the user.
+     * @param secret   The stored secret.
+     * @return {@code true} if the password matches.
+     */
+    public boolean verify(char[] password, byte[] secret) {
+        if (!isHashed(secret)) {
+            return MessageDigest.isEqual(toUtf8(password), secret); // Plain password of the legacy text file
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(secret, 1, SECRET_BYTES - 1);
+        int secretIterations = buffer.getInt();
+        byte[] salt = new byte[SALT_BYTES];
+        buffer.get(salt);
+        byte[] expected = Arrays.copyOfRange(secret, SECRET_BYTES - HASH_BYTES, SECRET_BYTES);
+        return MessageDigest.isEqual(expected, pbkdf2(password, salt, secretIterations));
+    }
+
+    /**
+     * Returns a secret of the current cost for a random password nobody knows. Checking the password of a
+     * login that is not registered against it takes as long as checking a registered one, so the response
+     * time does not tell whether a login exists.
+     *
+     * @return The dummy secret; it must not be modified.
+     */
+    public synchronized byte[] getDummySecret() {
+        if (dummySecret == null) {
+            byte[] password = new byte[SALT_BYTES];
+            random.nextBytes(password);
+            dummySecret = hash(Base64.getEncoder().encodeToString(password).toCharArray());
+        }
+        return dummySecret;
+    }
+
+    /**
+     * Tells whether a secret should be replaced by a new hash after the password has been verified,
+     * because it is a plain password or was hashed with a lower cost.
+     *
+     * @param secret The stored secret.
+     * @return {@code true} if the secret should be rehashed.
+     */
+    public boolean needsRehash(byte[] secret) {
+        return !isHashed(secret) || ByteBuffer.wrap(secret, 1, 4).getInt() < iterations;
+    }
+
+    /**
+     * Measures how many iterations this machine hashes in the target time. The best of several runs is
+     * used, so a run slowed down by other work or by the JIT compiler warming up does not lower the cost.
+     *
+     * @param targetMillis The target verification time in milliseconds.
+     * @return The iteration count, at least {@value #MIN_ITERATIONS}.
+     */
+    public static int calibrate(long targetMillis) {
+        char[] password = "calibration".toCharArray();
+        byte[] salt = new byte[SALT_BYTES];
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            pbkdf2(password, salt, PROBE_ITERATIONS);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double iterations = PROBE_ITERATIONS * (targetMillis * 1_000_000.0 / Math.max(1, best));
+        return (int) Math.max(MIN_ITERATIONS, Math.min(Integer.MAX_VALUE, iterations));
+    }
+
+    /**
+     * Prints the iteration counts that match common verification times on this machine, and how long
+     * verifying one password takes with them, to choose {@code fitness.pbkdf2.iterations}.
+     *
+     * @param args Optional target times in milliseconds.
+     */
+    public static void main(String[] args) {
+        long[] targets = args.length == 0 ? new long[]{100, 250, 500} : Arrays.stream(args).mapToLong(Long::parseLong).toArray();
+        for (long target : targets) {
+            PasswordHasher hasher = new PasswordHasher(calibrate(target));
+            byte[] secret = hasher.hash("benchmark".toCharArray());
+            long start = System.nanoTime();
+            hasher.verify("benchmark".toCharArray(), secret);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("target %d ms: -Dfitness.pbkdf2.iterations=%d (verify took %d ms)%n",
+                    target, hasher.getIterations(), millis);
+        }
+    }
+
+    private static boolean isHashed(byte[] secret) {
+        // A typed password never starts with the control character of the format byte
+        return secret.length == SECRET_BYTES && secret[0] == FORMAT;
+    }
+
+    private static byte[] pbkdf2(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BYTES * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available.", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static byte[] toUtf8(char[] password) {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        byte[] result = new byte[bytes.remaining()];
+        bytes.get(result);
+        return result;
+    }
+}
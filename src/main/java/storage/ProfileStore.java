@@ -0,0 +1,585 @@
+package main.java.storage;
+
+import main.java.WeightSeries;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The {@code ProfileStore} class holds the profiles ({@code usersData.txt}) and weight histories
+ * ({@code weightsData.bin}, one {@link WeightSeries} per user) of all users as a multi-version store. Every committed write creates a new
+ * immutable version of one user's data and publishes it with a single volatile write of the commit counter.
+ * <p>
+ * Readers open a {@link Snapshot}, which sees exactly the versions committed before it was opened. Reading
+ * takes no lock: a reader walks the version chain of a user to the newest version of its snapshot, so it
+ * never blocks on a writer and never sees half of an update. Writers are serialized with each other; they
+ * rewrite the data files as temporary files that are moved over the old ones, so readers of the files
+ * never see a partially written file either. Every commit rewrites the whole profile file, and a commit
+ * with a weigh-in also the whole weight file; both are written before either is moved.
+ * <p>
+ * Versions that are older than the oldest open snapshot are unlinked after every commit and then
+ * collected by the Java garbage collector. Snapshots should therefore be closed when they are no longer needed.
+ * <p>
+ * The newest version of every user is found through a {@link Directory}: a {@link UuidOffsetMap} from the
+ * user's {@link UuidKey} to a slot of an array of versions. Adding a user publishes a new directory; the
+ * versions of existing users are swapped in their slots. Users whose key is not a UUID are skipped on load.
+ */
+public class ProfileStore {
+    public static final String USERS_DATA_FILE = "src/main/resources/usersData.txt";
+    public static final String WEIGHTS_DATA_FILE = "src/main/resources/weightsData.bin";
+    public static final String LEGACY_WEIGHTS_DATA_FILE = "src/main/resources/weightsData.txt"; // Text weights before the binary format
+
+    private static final int WEIGHTS_MAGIC = 0x46545753; // "FTWS"
+    private static final int WEIGHTS_VERSION = 2; // Version 1 stored the UUIDs as strings
+    private static final WeightSeries EMPTY_SERIES = new WeightSeries();
+
+    private static ProfileStore defaultStore; // Store shared by all screens
+
+    /**
+     * The profile of a user, as stored in a line of {@code usersData.txt}. Profiles are immutable.
+     */
+    public static final class Profile {
+        private final String userUUID;
+        private final String name;
+        private final double weight;
+        private final double height;
+        private final int age;
+        private final String gender;
+        private final String accountCreationDate;
+        private final String currentWeightDate;
+
+        /**
+         * Constructs a {@code Profile}.
+         *
+         * @param userUUID            The UUID of the user.
+         * @param name                The name of the user.
+         * @param weight              The weight in kilograms.
+         * @param height              The height in centimeters.
+         * @param age                 The age in years.
+         * @param gender              The gender of the user.
+         * @param accountCreationDate The date the account was created.
+         * @param currentWeightDate   The date of the current weight.
+         */
+        public Profile(String userUUID, String name, double weight, double height, int age, String gender,
+                       String accountCreationDate, String currentWeightDate) {
+            this.userUUID = userUUID;
+            this.name = name;
+            this.weight = weight;
+            this.height = height;
+            this.age = age;
+            this.gender = gender;
+            this.accountCreationDate = accountCreationDate;
+            this.currentWeightDate = currentWeightDate;
+        }
+
+        public String getUserUUID() {
+            return userUUID;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public double getHeight() {
+            return height;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public String getGender() {
+            return gender;
+        }
+
+        public String getAccountCreationDate() {
+            return accountCreationDate;
+        }
+
+        public String getCurrentWeightDate() {
+            return currentWeightDate;
+        }
+    }
+
+    /**
+     * A consistent, read-only view of the store as of the moment it was opened.
+     */
+    public final class Snapshot implements AutoCloseable {
+        private final long version;
+
+        private Snapshot(long version) {
+            this.version = version;
+        }
+
+        /**
+         * Returns the profile of a user.
+         *
+         * @param userUUID The UUID of the user.
+         * @return The {@code Profile}, or {@code null} if the user has no profile in this snapshot.
+         */
+        public Profile getProfile(String userUUID) {
+            Version found = find(userUUID);
+            return found == null ? null : found.profile;
+        }
+
+        /**
+         * Returns the weight history of a user. The series must not be modified.
+         *
+         * @param userUUID The UUID of the user.
+         * @return The {@code WeightSeries} of the user, empty if there is none.
+         */
+        public WeightSeries getWeightSeries(String userUUID) {
+            Version found = find(userUUID);
+            return found == null ? EMPTY_SERIES : found.weights;
+        }
+
+        /**
+         * Releases the snapshot, so the versions only it needed can be collected.
+         */
+        @Override
+        public void close() {
+            openSnapshots.remove(this);
+        }
+
+        /**
+         * Finds the newest version of a user that is visible in this snapshot.
+         */
+        private Version find(String userUUID) {
+            Version candidate = head(userUUID);
+            while (candidate != null && candidate.version > version) {
+                candidate = candidate.previous;
+            }
+            return candidate;
+        }
+    }
+
+    /**
+     * One immutable version of a user's data. Versions form a chain from the newest to the oldest.
+     */
+    private static final class Version {
+        final long version;
+        final Profile profile;           // Null if the user has no line in usersData.txt
+        final WeightSeries weights;      // Never modified once the version is installed
+        volatile Version previous;       // Cut off once no open snapshot needs it
+
+        Version(long version, Profile profile, WeightSeries weights, Version previous) {
+            this.version = version;
+            this.profile = profile;
+            this.weights = weights;
+            this.previous = previous;
+        }
+    }
+
+    private final Path usersFile;
+    private final Path weightsFile;
+
+    /**
+     * The users of the store and their newest versions. A directory is never changed once it is published,
+     * except for the versions in its slots, so readers may use it without a lock.
+     */
+    private static final class Directory {
+        final UuidOffsetMap slots;              // UUID -> slot in heads, in the order of userOrder
+        final AtomicReferenceArray<Version> heads;
+
+        Directory(UuidOffsetMap slots, AtomicReferenceArray<Version> heads) {
+            this.slots = slots;
+            this.heads = heads;
+        }
+    }
+
+    private volatile Directory directory;
+    private final Set<Snapshot> openSnapshots = ConcurrentHashMap.newKeySet();
+    private volatile long committedVersion; // Snapshots see the versions up to this one
+    private volatile long horizon;          // Versions before this one may already be unlinked
+
+    private final Object writeLock = new Object();
+    private final List<String> userOrder = new ArrayList<>();           // Guarded by writeLock; order of the files
+    private final Set<String> usersWithHistory = new HashSet<>();       // Guarded by writeLock; chains with old versions
+
+    /**
+     * Returns the store of the application's data files, loading it on first use.
+     *
+     * @return The default {@code ProfileStore}.
+     */
+    public static synchronized ProfileStore getDefault() {
+        if (defaultStore == null) {
+            try {
+                defaultStore = new ProfileStore(Paths.get(USERS_DATA_FILE), Paths.get(WEIGHTS_DATA_FILE),
+                        Paths.get(LEGACY_WEIGHTS_DATA_FILE));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load the user profiles.", e);
+            }
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Loads the store from the given data files. If the binary weight file does not exist yet, the legacy
+     * text weight file is imported once and written in the binary format; the text file is left in place as a backup.
+     *
+     * @param usersFile         The profile file ({@code uuid;name;weight;height;age;gender;createdAt;weightDate}).
+     * @param weightsFile       The binary weight history file.
+     * @param legacyWeightsFile The legacy text weight history file ({@code uuid;date~weight;date~weight...}).
+     * @throws IOException If a file cannot be read, or the imported weights cannot be written.
+     */
+    public ProfileStore(Path usersFile, Path weightsFile, Path legacyWeightsFile) throws IOException {
+        this.usersFile = usersFile;
+        this.weightsFile = weightsFile;
+
+        Map<String, Profile> profiles = loadProfiles(usersFile);
+        boolean migrate = !Files.exists(weightsFile) && Files.exists(legacyWeightsFile);
+        Map<String, WeightSeries> weights = migrate ? loadLegacyWeights(legacyWeightsFile) : loadWeights(weightsFile);
+        Set<String> keys = new LinkedHashSet<>(profiles.keySet());
+        keys.addAll(weights.keySet());
+        UuidOffsetMap slots = new UuidOffsetMap(keys.size());
+        List<Version> heads = new ArrayList<>();
+        for (String userUUID : keys) {
+            UuidKey key = UuidKey.tryParse(userUUID);
+            if (key == null || slots.get(key) != UuidOffsetMap.NO_OFFSET) {
+                System.err.println("Skipping user without a unique canonical UUID: " + userUUID);
+                continue;
+            }
+            slots.put(key, userOrder.size());
+            userOrder.add(userUUID);
+            heads.add(new Version(0, profiles.get(userUUID), weights.getOrDefault(userUUID, EMPTY_SERIES), null));
+        }
+        directory = new Directory(slots, new AtomicReferenceArray<>(heads.toArray(new Version[0])));
+        if (migrate) {
+            replace(weightsFile, writeWeights(0));
+        }
+    }
+
+    /**
+     * Opens a snapshot of the current state of the store. Call {@link Snapshot#close()} when done.
+     *
+     * @return A new {@code Snapshot}.
+     */
+    public Snapshot openSnapshot() {
+        while (true) {
+            Snapshot snapshot = new Snapshot(committedVersion);
+            openSnapshots.add(snapshot);
+            if (snapshot.version >= horizon) {
+                return snapshot;
+            }
+            // A concurrent commit may already be unlinking versions this snapshot would need
+            openSnapshots.remove(snapshot);
+        }
+    }
+
+    /**
+     * Adds the profile of a new user, or replaces the profile of an existing one.
+     *
+     * @param profile The profile to store.
+     * @throws IOException If the data files cannot be written; the store is unchanged then.
+     */
+    public void putProfile(Profile profile) throws IOException {
+        updateProfile(profile, null);
+    }
+
+    /**
+     * Replaces the profile of a user and records the weight of the profile in the weight history, as one
+     * atomic update. The history keeps one weight per day; a later weigh-in replaces the weight of its day.
+     *
+     * @param profile    The new profile.
+     * @param weighInDay The day to record the weight of the profile for, or {@code null} to keep the history unchanged.
+     * @throws IOException              If the data files cannot be written; the store is unchanged then.
+     * @throws IllegalArgumentException If the UUID of the profile is not a canonical UUID.
+     */
+    public void updateProfile(Profile profile, LocalDate weighInDay) throws IOException {
+        String userUUID = profile.getUserUUID();
+        UuidKey key = UuidKey.parse(userUUID);
+        synchronized (writeLock) {
+            Directory current = directory;
+            long slot = current.slots.get(key);
+            Version head = slot == UuidOffsetMap.NO_OFFSET ? null : current.heads.get((int) slot);
+            WeightSeries history = head == null ? EMPTY_SERIES : head.weights;
+            if (weighInDay != null) {
+                // Copy on write; published series are never modified
+                history = new WeightSeries(history);
+                history.upsert(weighInDay, profile.getWeight());
+            }
+
+            // Install the new version; it stays invisible to snapshots until the commit counter is raised
+            long version = committedVersion + 1;
+            Version installed = new Version(version, profile, history, head);
+            boolean added = head == null;
+            if (added) {
+                // Readers may be using the current directory, so the new user goes into a copy
+                UuidOffsetMap slots = new UuidOffsetMap(current.slots);
+                slots.put(key, userOrder.size());
+                AtomicReferenceArray<Version> heads = new AtomicReferenceArray<>(userOrder.size() + 1);
+                for (int i = 0; i < userOrder.size(); i++) {
+                    heads.set(i, current.heads.get(i));
+                }
+                heads.set(userOrder.size(), installed);
+                userOrder.add(userUUID);
+                directory = new Directory(slots, heads);
+            } else {
+                current.heads.set((int) slot, installed);
+            }
+            try {
+                // Both files are written in full before either replaces the old one, so a failed write
+                // leaves both old files, which still match the rolled back memory
+                Path profilesFile = writeProfiles(version);
+                Path newWeightsFile = weighInDay != null ? writeWeights(version) : null;
+                if (newWeightsFile != null) {
+                    replace(weightsFile, newWeightsFile);
+                }
+                replace(usersFile, profilesFile);
+            } catch (IOException e) {
+                deleteQuietly(temporaryFile(usersFile));
+                deleteQuietly(temporaryFile(weightsFile));
+                // Roll back the invisible version
+                if (added) {
+                    directory = current;
+                    userOrder.remove(userOrder.size() - 1);
+                } else {
+                    current.heads.set((int) slot, head);
+                }
+                throw e;
+            }
+            committedVersion = version;
+            if (!added) {
+                usersWithHistory.add(userUUID);
+            }
+            collectOldVersions();
+        }
+    }
+
+    /**
+     * Returns the number of versions kept for a user, for diagnostics.
+     *
+     * @param userUUID The UUID of the user.
+     * @return The length of the user's version chain.
+     */
+    public int getVersionCount(String userUUID) {
+        int count = 0;
+        for (Version version = head(userUUID); version != null; version = version.previous) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Unlinks the versions that no open snapshot can see anymore. The horizon is raised before the open
+     * snapshots are inspected, so a snapshot that is being opened concurrently either is seen here or
+     * sees the new horizon and is opened again.
+     */
+    private void collectOldVersions() {
+        long oldest = committedVersion;
+        horizon = oldest;
+        for (Snapshot snapshot : openSnapshots) {
+            oldest = Math.min(oldest, snapshot.version);
+        }
+
+        List<String> collected = new ArrayList<>();
+        for (String userUUID : usersWithHistory) {
+            Version needed = head(userUUID);
+            while (needed.version > oldest && needed.previous != null) {
+                needed = needed.previous;
+            }
+            needed.previous = null; // Older versions are invisible to every snapshot
+            if (head(userUUID).previous == null) {
+                collected.add(userUUID);
+            }
+        }
+        usersWithHistory.removeAll(collected);
+    }
+
+    /**
+     * Writes the profile file as of the given version to a temporary file.
+     *
+     * @param version The version to write.
+     * @return The temporary file, to be moved over the profile file with {@link #replace}.
+     * @throws IOException If the file cannot be written.
+     */
+    private Path writeProfiles(long version) throws IOException {
+        StringBuilder users = new StringBuilder();
+        for (String userUUID : userOrder) {
+            Profile profile = versionAt(userUUID, version).profile;
+            if (profile != null) {
+                users.append(userUUID).append(';').append(profile.getName()).append(';')
+                        .append(profile.getWeight()).append(';').append(profile.getHeight()).append(';')
+                        .append(profile.getAge()).append(';').append(profile.getGender()).append(';')
+                        .append(profile.getAccountCreationDate()).append(';')
+                        .append(profile.getCurrentWeightDate()).append(System.lineSeparator());
+            }
+        }
+        Path temporary = temporaryFile(usersFile);
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(temporary.toFile(), false))) {
+            bw.write(users.toString());
+        }
+        return temporary;
+    }
+
+    /**
+     * Writes the binary weight file as of the given version to a temporary file.
+     * The file holds a header (magic, format version, user count) followed by the compact
+     * {@link UuidKey} and the delta-encoded {@link WeightSeries} of every user with a weight history.
+     *
+     * @param version The version to write.
+     * @return The temporary file, to be moved over the weight file with {@link #replace}.
+     * @throws IOException If the file cannot be written.
+     */
+    private Path writeWeights(long version) throws IOException {
+        List<String> withWeights = new ArrayList<>();
+        for (String userUUID : userOrder) {
+            if (!versionAt(userUUID, version).weights.isEmpty()) {
+                withWeights.add(userUUID);
+            }
+        }
+        Path temporary = temporaryFile(weightsFile);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(WEIGHTS_MAGIC);
+            out.writeInt(WEIGHTS_VERSION);
+            out.writeInt(withWeights.size());
+            for (String userUUID : withWeights) {
+                UuidKey.writeUserKey(out, userUUID);
+                versionAt(userUUID, version).weights.writeTo(out);
+            }
+        }
+        return temporary;
+    }
+
+    /**
+     * Replaces a data file atomically with a temporary file written by {@link #writeProfiles} or {@link #writeWeights}.
+     *
+     * @param file      The data file.
+     * @param temporary The temporary file holding the new content.
+     * @throws IOException If the file cannot be replaced.
+     */
+    private static void replace(Path file, Path temporary) throws IOException {
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path temporaryFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Error deleting " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the newest version of a user that is not newer than the given version.
+     */
+    private Version versionAt(String userUUID, long version) {
+        Version current = head(userUUID);
+        while (current.version > version) {
+            current = current.previous;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the newest installed version of a user.
+     *
+     * @param userUUID The UUID of the user.
+     * @return The newest {@code Version}, or {@code null} if the user is not in the store.
+     */
+    private Version head(String userUUID) {
+        UuidKey key = UuidKey.tryParse(userUUID);
+        Directory current = directory;
+        long slot = key == null ? UuidOffsetMap.NO_OFFSET : current.slots.get(key);
+        return slot == UuidOffsetMap.NO_OFFSET ? null : current.heads.get((int) slot);
+    }
+
+    /**
+     * Loads the profiles from {@code usersData.txt}. Unparsable numbers are read as zero.
+     */
+    private static Map<String, Profile> loadProfiles(Path file) throws IOException {
+        Map<String, Profile> profiles = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return profiles;
+        }
+        try (BufferedReader br = new BufferedReader(new FileReader(file.toFile()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(";", -1);
+                if (parts.length < 6 || parts[0].isEmpty()) continue; // Ensure the line has all required fields
+                profiles.put(parts[0], new Profile(parts[0], parts[1], parseDouble(parts[2]), parseDouble(parts[3]),
+                        (int) parseDouble(parts[4]), parts[5],
+                        parts.length > 6 ? parts[6] : "", parts.length > 7 ? parts[7] : ""));
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Loads the weight histories from the binary weight file.
+     */
+    private static Map<String, WeightSeries> loadWeights(Path file) throws IOException {
+        Map<String, WeightSeries> weights = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return weights;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readInt() == WEIGHTS_MAGIC ? in.readInt() : -1;
+            if (version != 1 && version != WEIGHTS_VERSION) {
+                throw new IOException("Unsupported weight data file: " + file);
+            }
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                String userUUID = version == 1 ? in.readUTF() : UuidKey.readUserKey(in);
+                weights.put(userUUID, WeightSeries.readFrom(in));
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Loads the weight histories from the legacy {@code weightsData.txt}. Entries are dated
+     * {@code yyyy-MM-dd HH:mm:ss}; of several weigh-ins on one day, the last one is kept.
+     */
+    private static Map<String, WeightSeries> loadLegacyWeights(Path file) throws IOException {
+        Map<String, WeightSeries> weights = new LinkedHashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file.toFile()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] parts = line.split(";");
+                if (parts.length < 2) continue;
+
+                // From index 1 to the end, we have entries in the format "date~weight"
+                WeightSeries series = weights.computeIfAbsent(parts[0], k -> new WeightSeries());
+                for (int i = 1; i < parts.length; i++) {
+                    String[] subParts = parts[i].split("~");
+                    if (subParts.length != 2 || subParts[0].length() < 10) continue;
+                    try {
+                        series.upsert(LocalDate.parse(subParts[0].substring(0, 10)), Double.parseDouble(subParts[1]));
+                    } catch (DateTimeParseException | NumberFormatException e) {
+                        System.err.println("Skipping invalid weight entry: " + parts[i]);
+                    }
+                }
+            }
+        }
+        return weights;
+    }
+
+    private static double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+}
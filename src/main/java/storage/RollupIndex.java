@@ -0,0 +1,190 @@
+package main.java.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code RollupIndex} class is a persistent sidecar that keeps the {@link ActivityRollups} of every
+ * user, so the totals of a date range are available without reading the user's activities.
+ * <p>
+ * Like the {@link TrainingIndex}, the sidecar is a snapshot followed by appended entries: every saved
+ * activity appends the user's UUID and its {@link ActivityCodec} record, and the snapshot is only
+ * rewritten once {@value #SNAPSHOT_THRESHOLD} entries have been appended. On open, the activity count
+ * of every user's rollups is compared with the number of records the training index holds for that user;
+ * the rollups of users that do not match (e.g. after a crash between the two writes) are recomputed.
+ */
+public class RollupIndex {
+    private static final int MAGIC = 0x46545255; // "FTRU"
+    private static final int VERSION = 2;
+    private static final int SNAPSHOT_THRESHOLD = 1024;
+
+    /**
+     * Recomputes the rollups of one user from the stored activities.
+     */
+    public interface Source {
+        /**
+         * Reads all activities of the given user into the listener.
+         *
+         * @param userUUID The UUID of the user.
+         * @param listener The listener receiving the activities.
+         * @throws IOException If the activities cannot be read.
+         */
+        void readActivities(String userUUID, ActivityListener listener) throws IOException;
+    }
+
+    private final Path rollupFile;
+    private final Map<String, ActivityRollups> rollupsByUser = new HashMap<>();
+    private int appendedEntries;       // Entries appended since the last snapshot
+    private DataOutputStream appender; // Appends entries to the sidecar
+
+    /**
+     * Opens the sidecar and recomputes the rollups of every user whose activity count does not match.
+     *
+     * @param rollupFile   The sidecar file.
+     * @param recordCounts The number of stored activities of every user.
+     * @param source       Reads the activities of a user whose rollups must be recomputed.
+     * @throws IOException If the activities cannot be read or the sidecar cannot be written.
+     */
+    public RollupIndex(Path rollupFile, Map<String, Long> recordCounts, Source source) throws IOException {
+        this.rollupFile = rollupFile;
+
+        boolean changed = !load();
+        changed |= rollupsByUser.keySet().retainAll(recordCounts.keySet());
+        for (Map.Entry<String, Long> entry : recordCounts.entrySet()) {
+            ActivityRollups rollups = rollupsByUser.get(entry.getKey());
+            if (rollups == null || rollups.getCount() != entry.getValue()) {
+                rollups = new ActivityRollups();
+                source.readActivities(entry.getKey(), rollups);
+                rollupsByUser.put(entry.getKey(), rollups);
+                changed = true;
+            }
+        }
+        if (changed || appendedEntries > 0) {
+            writeSnapshot();
+        }
+        openAppender();
+    }
+
+    /**
+     * Returns a copy of the rollups of a user.
+     *
+     * @param userUUID The UUID of the user.
+     * @return The user's {@code ActivityRollups}, empty if the user has no activities.
+     */
+    public synchronized ActivityRollups rollupsOf(String userUUID) {
+        ActivityRollups rollups = rollupsByUser.get(userUUID);
+        return rollups == null ? new ActivityRollups() : new ActivityRollups(rollups);
+    }
+
+    /**
+     * Adds an activity that has just been stored.
+     *
+     * @param userUUID The UUID of the user the activity belongs to.
+     * @param record   A buffer holding the encoded activity.
+     * @param base     The index of the record in the buffer.
+     * @throws IOException If the sidecar cannot be written.
+     */
+    public synchronized void add(String userUUID, ByteBuffer record, int base) throws IOException {
+        ActivityCodec.decode(record, base, rollupsByUser.computeIfAbsent(userUUID, k -> new ActivityRollups()));
+        if (++appendedEntries >= SNAPSHOT_THRESHOLD) {
+            appender.close();
+            writeSnapshot();
+            openAppender();
+            return;
+        }
+        byte[] bytes = new byte[ActivityCodec.RECORD_SIZE];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = record.get(base + i);
+        }
+        UuidKey.writeUserKey(appender, userUUID);
+        appender.write(bytes);
+        appender.flush(); // A lost entry is recomputed from the activities on the next open
+    }
+
+    /**
+     * Closes the sidecar file.
+     */
+    public synchronized void close() {
+        try {
+            appender.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the rollup index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the sidecar if it exists.
+     *
+     * @return {@code true} if the sidecar was loaded; {@code false} if it must be written again.
+     */
+    private boolean load() {
+        if (!Files.exists(rollupFile)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(rollupFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                String uuid = UuidKey.readUserKey(in);
+                rollupsByUser.put(uuid, ActivityRollups.readFrom(in));
+            }
+            // Activities appended after the snapshot
+            byte[] bytes = new byte[ActivityCodec.RECORD_SIZE];
+            while (true) {
+                String uuid;
+                try {
+                    uuid = UuidKey.readUserKey(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                in.readFully(bytes);
+                ActivityCodec.decode(ByteBuffer.wrap(bytes), 0, rollupsByUser.computeIfAbsent(uuid, k -> new ActivityRollups()));
+                appendedEntries++;
+            }
+            return true;
+        } catch (EOFException e) {
+            // A torn trailing entry; the count check recomputes the user it belonged to,
+            // and the sidecar is written again so new entries do not follow the torn one
+            return false;
+        } catch (IOException | RuntimeException e) {
+            rollupsByUser.clear();
+            appendedEntries = 0;
+            return false;
+        }
+    }
+
+    /**
+     * Writes the rollups of all users as a new snapshot, replacing the sidecar atomically.
+     *
+     * @throws IOException If the sidecar cannot be written.
+     */
+    private void writeSnapshot() throws IOException {
+        Path temporary = rollupFile.resolveSibling(rollupFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rollupsByUser.size());
+            for (Map.Entry<String, ActivityRollups> entry : rollupsByUser.entrySet()) {
+                UuidKey.writeUserKey(out, entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+        }
+        Files.move(temporary, rollupFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appendedEntries = 0;
+    }
+
+    /**
+     * Opens the sidecar for appending entries behind the snapshot.
+     *
+     * @throws IOException If the sidecar cannot be opened.
+     */
+    private void openAppender() throws IOException {
+        appender = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(rollupFile, StandardOpenOption.APPEND)));
+    }
+}
@@ -0,0 +1,188 @@
+package main.java.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code ScalableBloomFilter} class is a Bloom filter that grows with the number of keys added to it.
+ * It answers whether a key might have been added: a {@code false} answer is always right, while a {@code true}
+ * answer may be wrong with a small probability.
+ * <p>
+ * The filter is a series of ordinary Bloom filters. Keys are added to the newest one until it holds its capacity;
+ * then a filter twice as large is started, with half the false positive probability of the previous one. A lookup
+ * checks every filter, so the false positive probability stays below twice that of the first filter no matter
+ * how many keys are added, while the memory used grows with the number of keys (a few bytes per key).
+ */
+public class ScalableBloomFilter {
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+
+    private final int initialCapacity;
+    private final double initialErrorRate;
+    private final List<Stage> stages = new ArrayList<>();
+
+    /**
+     * One ordinary Bloom filter of the series.
+     */
+    private static final class Stage {
+        final long[] bits;
+        final long bitCount;
+        final int hashes;
+        final long capacity;
+        long size;
+
+        Stage(long capacity, double errorRate) {
+            this.capacity = capacity;
+            this.bitCount = Math.max(64, (long) Math.ceil(capacity * -Math.log(errorRate) / LN2_SQUARED));
+            this.hashes = Math.max(1, (int) Math.ceil(-Math.log(errorRate) / Math.log(2)));
+            this.bits = new long[(int) ((bitCount + 63) / 64)];
+        }
+
+        boolean mightContain(long hash1, long hash2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+                if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(long hash1, long hash2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+            size++;
+        }
+    }
+
+    /**
+     * Constructs an empty filter.
+     *
+     * @param initialCapacity  The number of keys the first filter of the series holds.
+     * @param initialErrorRate The false positive probability of the first filter, between 0 and 1.
+     * @throws IllegalArgumentException If the capacity is not positive or the error rate is out of range.
+     */
+    public ScalableBloomFilter(int initialCapacity, double initialErrorRate) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + initialCapacity);
+        }
+        if (!(initialErrorRate > 0 && initialErrorRate < 1)) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1: " + initialErrorRate);
+        }
+        this.initialCapacity = initialCapacity;
+        this.initialErrorRate = initialErrorRate;
+        stages.add(new Stage(initialCapacity, initialErrorRate));
+    }
+
+    /**
+     * Tells whether a key might have been added.
+     *
+     * @param key The bytes of the key.
+     * @return {@code false} if the key has certainly not been added; {@code true} if it probably has.
+     */
+    public boolean mightContain(byte[] key) {
+        long hash1 = hash1(key);
+        long hash2 = hash2(hash1);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a key, starting a larger filter if the newest one is full.
+     *
+     * @param key The bytes of the key.
+     */
+    public void add(byte[] key) {
+        long hash1 = hash1(key);
+        long hash2 = hash2(hash1);
+        Stage last = stages.get(stages.size() - 1);
+        if (last.size >= last.capacity) {
+            last = nextStage();
+            stages.add(last);
+        }
+        last.add(hash1, hash2);
+    }
+
+    /**
+     * Returns the number of keys added.
+     *
+     * @return The number of keys.
+     */
+    public long size() {
+        long size = 0;
+        for (Stage stage : stages) {
+            size += stage.size;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the filter.
+     *
+     * @param out The output to write to.
+     * @throws IOException If the filter cannot be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(initialCapacity);
+        out.writeDouble(initialErrorRate);
+        out.writeInt(stages.size());
+        for (Stage stage : stages) {
+            out.writeLong(stage.size);
+            for (long word : stage.bits) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    /**
+     * Reads a filter written by {@link #writeTo}.
+     *
+     * @param in The input to read from.
+     * @return The filter that was read.
+     * @throws IOException If the filter cannot be read.
+     */
+    public static ScalableBloomFilter readFrom(DataInput in) throws IOException {
+        ScalableBloomFilter filter = new ScalableBloomFilter(in.readInt(), in.readDouble());
+        int stageCount = in.readInt();
+        for (int i = 0; i < stageCount; i++) {
+            // The sizes of the stages follow from the parameters, as they did when the filter grew
+            if (i > 0) {
+                filter.stages.add(filter.nextStage());
+            }
+            Stage stage = filter.stages.get(i);
+            stage.size = in.readLong();
+            for (int w = 0; w < stage.bits.length; w++) {
+                stage.bits[w] = in.readLong();
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Creates the filter that follows the newest one: twice the capacity, half the false positive probability.
+     */
+    private Stage nextStage() {
+        Stage last = stages.get(stages.size() - 1);
+        return new Stage(last.capacity * 2, initialErrorRate / (1L << Math.min(stages.size(), 62)));
+    }
+
+    private static long hash1(byte[] key) {
+        long hash = 0xCBF29CE484222325L; // FNV-1a
+        for (byte b : key) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return UuidKey.mix(hash, key.length);
+    }
+
+    private static long hash2(long hash1) {
+        return UuidKey.mix(hash1, 0x9E3779B97F4A7C15L) | 1; // Never 0, so the probes of a key differ
+    }
+}
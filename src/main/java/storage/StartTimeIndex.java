@@ -0,0 +1,280 @@
+package main.java.storage;
+
+import main.java.ActivityType;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code StartTimeIndex} class is a persistent sidecar that keeps the start times of every user's
+ * activities sorted, each with the position of its record among the user's records (its ordinal).
+ * The activities of a time range are found with two binary searches, so a range query costs
+ * O(log n + k) for k matching activities instead of reading all n activities of the user.
+ * <p>
+ * Ordinals stay valid across compactions, because a compaction appends the journal records of a user
+ * behind the user's existing block and so keeps the order of the records. Like the {@link RollupIndex},
+ * the sidecar is a snapshot followed by appended entries, and the entries of every user whose activity
+ * count does not match the {@link TrainingIndex} are recomputed on open.
+ */
+public class StartTimeIndex {
+    private static final int MAGIC = 0x46545354; // "FTST"
+    private static final int VERSION = 2;
+    private static final int SNAPSHOT_THRESHOLD = 1024;
+
+    /**
+     * The {@code Entries} class holds the sorted start times of one user and the ordinals of their records.
+     * Activities without a start time are counted but not indexed.
+     */
+    private static final class Entries implements ActivityListener {
+        private long[] startTimes = new long[8];
+        private int[] ordinals = new int[8];
+        private int size;
+        private long count; // All records of the user, including those without a start time
+
+        @Override
+        public void onActivity(ActivityType type, double burnedCalories, double duration,
+                               double distance, double speed, int repetitions) {
+            add(ActivityCodec.NO_TIME);
+        }
+
+        @Override
+        public void onActivity(ActivityType type, long startTime, double burnedCalories, double duration,
+                               double distance, double speed, int repetitions) {
+            add(startTime);
+        }
+
+        /**
+         * Adds the next record of the user. Records with equal start times keep the order they were added in.
+         */
+        void add(long startTime) {
+            int ordinal = Math.toIntExact(count++);
+            if (startTime == ActivityCodec.NO_TIME) {
+                return;
+            }
+            if (size == startTimes.length) {
+                startTimes = Arrays.copyOf(startTimes, size * 2);
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            int index = upperBound(startTime); // Equal to size for activities saved in order
+            System.arraycopy(startTimes, index, startTimes, index + 1, size - index);
+            System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+            startTimes[index] = startTime;
+            ordinals[index] = ordinal;
+            size++;
+        }
+
+        /**
+         * Returns the index of the first start time that is not before the given one.
+         */
+        int lowerBound(long startTime) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (startTimes[middle] < startTime) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the index of the first start time that is after the given one.
+         */
+        int upperBound(long startTime) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (startTimes[middle] <= startTime) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final Path indexFile;
+    private final Map<String, Entries> entriesByUser = new HashMap<>();
+    private int appendedEntries;       // Entries appended since the last snapshot
+    private DataOutputStream appender; // Appends entries to the sidecar
+
+    /**
+     * Opens the sidecar and recomputes the entries of every user whose activity count does not match.
+     *
+     * @param indexFile    The sidecar file.
+     * @param recordCounts The number of stored activities of every user.
+     * @param source       Reads the activities of a user whose entries must be recomputed.
+     * @throws IOException If the activities cannot be read or the sidecar cannot be written.
+     */
+    public StartTimeIndex(Path indexFile, Map<String, Long> recordCounts, RollupIndex.Source source) throws IOException {
+        this.indexFile = indexFile;
+
+        boolean changed = !load();
+        changed |= entriesByUser.keySet().retainAll(recordCounts.keySet());
+        for (Map.Entry<String, Long> entry : recordCounts.entrySet()) {
+            Entries entries = entriesByUser.get(entry.getKey());
+            if (entries == null || entries.count != entry.getValue()) {
+                entries = new Entries();
+                source.readActivities(entry.getKey(), entries);
+                entriesByUser.put(entry.getKey(), entries);
+                changed = true;
+            }
+        }
+        if (changed || appendedEntries > 0) {
+            writeSnapshot();
+        }
+        openAppender();
+    }
+
+    /**
+     * Returns the ordinals of the activities of a user that started within a time range,
+     * ordered by start time.
+     *
+     * @param userUUID The UUID of the user.
+     * @param from     The first start time in epoch seconds.
+     * @param to       The last start time in epoch seconds, inclusive.
+     * @return The positions of the matching records among the user's records.
+     */
+    public synchronized int[] ordinalsBetween(String userUUID, long from, long to) {
+        Entries entries = entriesByUser.get(userUUID);
+        if (entries == null || from > to) {
+            return new int[0];
+        }
+        int first = entries.lowerBound(from);
+        int end = entries.upperBound(to);
+        return Arrays.copyOfRange(entries.ordinals, first, Math.max(first, end));
+    }
+
+    /**
+     * Adds an activity that has just been stored as the user's last record.
+     *
+     * @param userUUID The UUID of the user the activity belongs to.
+     * @param record   A buffer holding the encoded activity.
+     * @param base     The index of the record in the buffer.
+     * @throws IOException If the sidecar cannot be written.
+     */
+    public synchronized void add(String userUUID, ByteBuffer record, int base) throws IOException {
+        long startTime = record.getLong(base + ActivityCodec.START_OFFSET);
+        entriesByUser.computeIfAbsent(userUUID, k -> new Entries()).add(startTime);
+        if (++appendedEntries >= SNAPSHOT_THRESHOLD) {
+            appender.close();
+            writeSnapshot();
+            openAppender();
+            return;
+        }
+        UuidKey.writeUserKey(appender, userUUID);
+        appender.writeLong(startTime);
+        appender.flush(); // A lost entry is recomputed from the activities on the next open
+    }
+
+    /**
+     * Closes the sidecar file.
+     */
+    public synchronized void close() {
+        try {
+            appender.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the start time index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the sidecar if it exists.
+     *
+     * @return {@code true} if the sidecar was loaded; {@code false} if it must be written again.
+     */
+    private boolean load() {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                String uuid = UuidKey.readUserKey(in);
+                Entries entries = new Entries();
+                entries.count = in.readLong();
+                int size = in.readInt();
+                if (size < 0 || size > entries.count) {
+                    throw new IOException("Corrupt start time count: " + size);
+                }
+                entries.startTimes = new long[Math.max(8, size)];
+                entries.ordinals = new int[Math.max(8, size)];
+                for (int j = 0; j < size; j++) {
+                    entries.startTimes[j] = in.readLong();
+                    entries.ordinals[j] = in.readInt();
+                }
+                entries.size = size;
+                entriesByUser.put(uuid, entries);
+            }
+            // Activities appended after the snapshot
+            while (true) {
+                String uuid;
+                try {
+                    uuid = UuidKey.readUserKey(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                long startTime = in.readLong();
+                entriesByUser.computeIfAbsent(uuid, k -> new Entries()).add(startTime);
+                appendedEntries++;
+            }
+            return true;
+        } catch (EOFException e) {
+            // A torn trailing entry; the count check recomputes the user it belonged to,
+            // and the sidecar is written again so new entries do not follow the torn one
+            return false;
+        } catch (IOException | RuntimeException e) {
+            entriesByUser.clear();
+            appendedEntries = 0;
+            return false;
+        }
+    }
+
+    /**
+     * Writes the entries of all users as a new snapshot, replacing the sidecar atomically.
+     *
+     * @throws IOException If the sidecar cannot be written.
+     */
+    private void writeSnapshot() throws IOException {
+        Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entriesByUser.size());
+            for (Map.Entry<String, Entries> entry : entriesByUser.entrySet()) {
+                Entries entries = entry.getValue();
+                UuidKey.writeUserKey(out, entry.getKey());
+                out.writeLong(entries.count);
+                out.writeInt(entries.size);
+                for (int i = 0; i < entries.size; i++) {
+                    out.writeLong(entries.startTimes[i]);
+                    out.writeInt(entries.ordinals[i]);
+                }
+            }
+        }
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appendedEntries = 0;
+    }
+
+    /**
+     * Opens the sidecar for appending entries behind the snapshot.
+     *
+     * @throws IOException If the sidecar cannot be opened.
+     */
+    private void openAppender() throws IOException {
+        appender = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(indexFile, StandardOpenOption.APPEND)));
+    }
+}
@@ -0,0 +1,495 @@
+package main.java.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code TrainingIndex} class is a persistent sidecar index that maps a user's UUID to the byte
+ * ranges holding that user's encoded activity records in the training data files. It lets the activity
+ * journal read one user's data with positional reads instead of scanning every file.
+ * <p>
+ * The index distinguishes three files: the compacted data file, the journal that is currently being
+ * compacted and the live journal. Appends to the live journal are added to the sidecar incrementally;
+ * the sidecar is only rewritten when the journal is rotated or compacted. On open, the sidecar is
+ * validated against the files it describes and caught up or rebuilt if it is stale.
+ * <p>
+ * Users are looked up by their {@link UuidKey} in a {@link UuidOffsetMap} that holds the position of
+ * the user's span list, so the index keeps no key string or boxed value per user. Keys that are not
+ * UUIDs are not indexed.
+ */
+public class TrainingIndex {
+    private static final int MAGIC = 0x46544958; // "FTIX"
+    private static final int VERSION = 3;
+
+    /**
+     * The file a {@code Span} points into.
+     */
+    public enum Source { DATA, COMPACTING, JOURNAL }
+
+    /**
+     * The {@code Span} class describes a byte range of consecutive {@link ActivityCodec} records
+     * (a user block of the data file or the payload of one journal record).
+     */
+    public static final class Span {
+        private final Source source;
+        private final long offset;
+        private final int length;
+
+        /**
+         * Constructs a {@code Span}.
+         *
+         * @param source The file the span points into.
+         * @param offset The byte offset of the first record.
+         * @param length The length of the records in bytes.
+         */
+        public Span(Source source, long offset, int length) {
+            this.source = source;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public Source getSource() {
+            return source;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+
+    private final Path indexFile;
+    private Path dataFile; // The current generation of the data file
+    private final Path compactingFile;
+    private final Path journalFile;
+
+    private UuidOffsetMap slots = new UuidOffsetMap();              // UUID -> position in users and spansByUser
+    private final List<UuidKey> users = new ArrayList<>();
+    private final List<List<Span>> spansByUser = new ArrayList<>(); // Record spans of every user in file order
+    private long journalCoverage;  // Journal bytes already described by the index
+    private DataOutputStream appender; // Appends journal spans to the sidecar; null after a failed append
+
+    /**
+     * Opens the index for the given files, validating it and catching it up or rebuilding it if needed.
+     *
+     * @param indexFile      The sidecar index file.
+     * @param dataFile       The current generation of the compacted training data file.
+     * @param compactingFile The journal file that is being compacted (may not exist).
+     * @param journalFile    The live journal file.
+     * @throws IOException If the files cannot be read or the sidecar cannot be written.
+     */
+    public TrainingIndex(Path indexFile, Path dataFile, Path compactingFile, Path journalFile) throws IOException {
+        this.indexFile = indexFile;
+        this.dataFile = dataFile;
+        this.compactingFile = compactingFile;
+        this.journalFile = journalFile;
+
+        long journalLength = sizeOf(journalFile);
+        if (!load() || journalCoverage > journalLength) {
+            rebuild(); // Missing, corrupt or describing other files
+        } else if (journalCoverage < journalLength) {
+            // Records appended after the last index update (e.g. before a crash)
+            scanJournal(journalFile, Source.JOURNAL, journalCoverage);
+            journalCoverage = journalLength;
+            writeSnapshot();
+        }
+        openAppender();
+    }
+
+    /**
+     * Returns the record spans of a user in the order they were written.
+     *
+     * @param userUUID The UUID of the user.
+     * @return An unmodifiable list of spans, empty if the user has no records.
+     */
+    public synchronized List<Span> spansOf(String userUUID) {
+        UuidKey key = UuidKey.tryParse(userUUID);
+        long slot = key == null ? UuidOffsetMap.NO_OFFSET : slots.get(key);
+        return slot == UuidOffsetMap.NO_OFFSET ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(spansByUser.get((int) slot)));
+    }
+
+    /**
+     * Returns the number of activity records of every user.
+     *
+     * @return A map from UUID to the number of records of that user.
+     */
+    public synchronized Map<String, Long> recordCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            long length = 0;
+            for (Span span : spansByUser.get(i)) {
+                length += span.getLength();
+            }
+            counts.put(users.get(i).toString(), length / ActivityCodec.RECORD_SIZE);
+        }
+        return counts;
+    }
+
+    /**
+     * Records a journal record that has just been appended. The record is added in memory first, so it
+     * can be read even if the sidecar cannot be written. After a failed write no further entries are
+     * appended behind the possibly torn one; the sidecar is caught up by the journal scan on the next
+     * open, or rewritten when the journal is rotated.
+     *
+     * @param user   The UUID of the user the record belongs to.
+     * @param offset The byte offset of the encoded activity in the journal.
+     * @param length The length of the encoded activity.
+     * @throws IOException If the sidecar cannot be written.
+     */
+    public synchronized void addJournalRecord(UuidKey user, long offset, int length) throws IOException {
+        spansOf(user).add(new Span(Source.JOURNAL, offset, length));
+        journalCoverage = offset + length;
+        if (appender == null) {
+            return; // An earlier entry failed
+        }
+        try {
+            UuidKey.writeUserKey(appender, user.toString());
+            appender.writeLong(offset);
+            appender.writeInt(length);
+            appender.flush(); // A lost entry is recovered by the journal scan on the next open
+        } catch (IOException e) {
+            closeAppender();
+            throw e;
+        }
+    }
+
+    /**
+     * Marks the live journal as rotated: its spans now point into the compacting file.
+     *
+     * @throws IOException If the sidecar cannot be rewritten.
+     */
+    public synchronized void journalRotated() throws IOException {
+        for (List<Span> spans : spansByUser) {
+            for (int i = 0; i < spans.size(); i++) {
+                Span span = spans.get(i);
+                if (span.getSource() == Source.JOURNAL) {
+                    spans.set(i, new Span(Source.COMPACTING, span.getOffset(), span.getLength()));
+                }
+            }
+        }
+        journalCoverage = 0;
+        rewrite();
+    }
+
+    /**
+     * Replaces the data file and compacting spans after a compaction switched to a new generation of the
+     * data file. Spans of the live journal are kept.
+     *
+     * @param dataFile  The new generation of the data file.
+     * @param dataSpans The spans of every user block in the new data file.
+     * @throws IOException If the sidecar cannot be rewritten.
+     */
+    public synchronized void dataReplaced(Path dataFile, Map<String, Span> dataSpans) throws IOException {
+        this.dataFile = dataFile;
+        List<UuidKey> journalUsers = new ArrayList<>(users);
+        List<List<Span>> journalSpans = new ArrayList<>();
+        for (List<Span> spans : spansByUser) {
+            List<Span> kept = new ArrayList<>();
+            for (Span span : spans) {
+                if (span.getSource() == Source.JOURNAL) {
+                    kept.add(span);
+                }
+            }
+            journalSpans.add(kept);
+        }
+        clear();
+        for (Map.Entry<String, Span> entry : dataSpans.entrySet()) {
+            UuidKey user = UuidKey.tryParse(entry.getKey());
+            if (user != null) {
+                spansOf(user).add(entry.getValue());
+            }
+        }
+        for (int i = 0; i < journalUsers.size(); i++) {
+            if (!journalSpans.get(i).isEmpty()) {
+                spansOf(journalUsers.get(i)).addAll(journalSpans.get(i));
+            }
+        }
+        rewrite();
+    }
+
+    /**
+     * Closes the sidecar file.
+     */
+    public synchronized void close() {
+        closeAppender();
+    }
+
+    /**
+     * Loads the sidecar if it exists and still describes the current data and compacting files.
+     *
+     * @return {@code true} if the sidecar was loaded; {@code false} if it must be rebuilt.
+     */
+    private boolean load() {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != sizeOf(dataFile) || in.readLong() != sizeOf(compactingFile)) {
+                return false;
+            }
+            int snapshotCount = in.readInt();
+            for (int i = 0; i < snapshotCount; i++) {
+                UuidKey uuid = UuidKey.parse(UuidKey.readUserKey(in));
+                Source source = Source.values()[in.readByte()];
+                long offset = in.readLong();
+                int length = in.readInt();
+                addSpan(uuid, new Span(source, offset, length));
+            }
+            // Journal spans appended after the snapshot
+            while (true) {
+                UuidKey uuid;
+                long offset;
+                int length;
+                try {
+                    uuid = UuidKey.parse(UuidKey.readUserKey(in));
+                    offset = in.readLong();
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    // The end, or a torn trailing entry; the journal scan covers whatever it described
+                    return true;
+                }
+                addSpan(uuid, new Span(Source.JOURNAL, offset, length));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Also a truncated header or snapshot, or a key that is not a UUID
+            clear();
+            journalCoverage = 0;
+            return false;
+        }
+    }
+
+    /**
+     * Adds a loaded span and advances the journal coverage.
+     *
+     * @param uuid The UUID of the user.
+     * @param span The span to add.
+     */
+    private void addSpan(UuidKey uuid, Span span) {
+        spansOf(uuid).add(span);
+        if (span.getSource() == Source.JOURNAL) {
+            journalCoverage = Math.max(journalCoverage, span.getOffset() + span.getLength());
+        }
+    }
+
+    /**
+     * Returns the span list of a user, adding the user if it has none yet.
+     *
+     * @param user The UUID of the user.
+     * @return The modifiable span list of the user.
+     */
+    private List<Span> spansOf(UuidKey user) {
+        long slot = slots.get(user);
+        if (slot != UuidOffsetMap.NO_OFFSET) {
+            return spansByUser.get((int) slot);
+        }
+        List<Span> spans = new ArrayList<>();
+        slots.put(user, users.size());
+        users.add(user);
+        spansByUser.add(spans);
+        return spans;
+    }
+
+    /**
+     * Removes all users from the index.
+     */
+    private void clear() {
+        slots = new UuidOffsetMap();
+        users.clear();
+        spansByUser.clear();
+    }
+
+    /**
+     * Rebuilds the whole index by scanning the data, compacting and journal files.
+     *
+     * @throws IOException If a file cannot be read or the sidecar cannot be written.
+     */
+    private void rebuild() throws IOException {
+        clear();
+        scanData();
+        scanJournal(compactingFile, Source.COMPACTING, 0);
+        scanJournal(journalFile, Source.JOURNAL, 0);
+        journalCoverage = sizeOf(journalFile);
+        writeSnapshot();
+    }
+
+    /**
+     * Scans the data file block by block and adds a span per user block.
+     * Only the key slots are read; the activity records are skipped.
+     *
+     * @throws IOException If the data file cannot be read or has an unsupported format.
+     */
+    private void scanData() throws IOException {
+        if (!Files.exists(dataFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            ByteBuffer slot = ByteBuffer.allocate(ActivityCodec.KEY_SIZE);
+            long size = channel.size();
+            if (!readFully(channel, slot, 0)) {
+                return; // A data file without a header holds no records
+            }
+            ActivityCodec.readHeader(slot, ActivityJournal.DATA_MAGIC);
+            long position = ActivityCodec.HEADER_SIZE;
+            while (position + ActivityCodec.KEY_SIZE <= size && readFully(channel, slot, position)) {
+                String uuid = ActivityCodec.readKey(slot);
+                long length = ActivityCodec.readKeyValue(slot) * ActivityCodec.RECORD_SIZE;
+                if (uuid == null || length < 0 || position + ActivityCodec.KEY_SIZE + length > size) {
+                    throw new IOException("Corrupt training data block at offset " + position);
+                }
+                UuidKey user = UuidKey.tryParse(uuid);
+                if (user != null) {
+                    spansOf(user).add(new Span(Source.DATA, position + ActivityCodec.KEY_SIZE, (int) length));
+                }
+                position += ActivityCodec.KEY_SIZE + length;
+            }
+        }
+    }
+
+    /**
+     * Scans a journal file from the given offset and adds a span per journal record.
+     * A trailing partial record is incomplete and ignored.
+     *
+     * @param file   The file to scan, ignored if it does not exist.
+     * @param source The source the spans point into.
+     * @param from   The byte offset to start scanning at.
+     * @throws IOException If the file cannot be read.
+     */
+    private void scanJournal(Path file, Source source, long from) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer window = ByteBuffer.allocate(ActivityJournal.JOURNAL_RECORD_SIZE * 512);
+            long position = Math.max(from, ActivityCodec.HEADER_SIZE);
+            while (true) {
+                window.clear();
+                while (window.hasRemaining()) {
+                    if (channel.read(window, position + window.position()) <= 0) {
+                        break; // End of the file
+                    }
+                }
+                window.flip();
+                if (window.remaining() < ActivityJournal.JOURNAL_RECORD_SIZE) {
+                    return;
+                }
+                while (window.remaining() >= ActivityJournal.JOURNAL_RECORD_SIZE) {
+                    UuidKey user = UuidKey.tryParse(ActivityCodec.readKey(window));
+                    if (user != null) {
+                        spansOf(user).add(new Span(source, position + ActivityCodec.KEY_SIZE, ActivityCodec.RECORD_SIZE));
+                    }
+                    window.position(window.position() + ActivityJournal.JOURNAL_RECORD_SIZE);
+                    position += ActivityJournal.JOURNAL_RECORD_SIZE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the buffer from the given position of the channel and rewinds it.
+     *
+     * @param channel  The channel to read from.
+     * @param buffer   The buffer to fill.
+     * @param position The byte offset to read at.
+     * @return {@code true} if the buffer was filled; {@code false} if the file ended first.
+     * @throws IOException If reading fails.
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Rewrites the sidecar from memory and reopens it for appending.
+     *
+     * @throws IOException If the sidecar cannot be written.
+     */
+    private void rewrite() throws IOException {
+        closeAppender();
+        writeSnapshot();
+        openAppender();
+    }
+
+    /**
+     * Writes the in-memory index to a temporary file and atomically replaces the sidecar with it.
+     *
+     * @throws IOException If the sidecar cannot be written.
+     */
+    private void writeSnapshot() throws IOException {
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        int count = 0;
+        for (List<Span> spans : spansByUser) {
+            count += spans.size();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sizeOf(dataFile));
+            out.writeLong(sizeOf(compactingFile));
+            out.writeInt(count);
+            for (int i = 0; i < users.size(); i++) {
+                String uuid = users.get(i).toString();
+                for (Span span : spansByUser.get(i)) {
+                    UuidKey.writeUserKey(out, uuid);
+                    out.writeByte(span.getSource().ordinal());
+                    out.writeLong(span.getOffset());
+                    out.writeInt(span.getLength());
+                }
+            }
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Opens the sidecar for appending journal spans.
+     *
+     * @throws IOException If the sidecar cannot be opened.
+     */
+    private void openAppender() throws IOException {
+        appender = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(indexFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    /**
+     * Closes the sidecar for appending, if it is open.
+     */
+    private void closeAppender() {
+        if (appender == null) {
+            return;
+        }
+        try {
+            appender.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the training index: " + e.getMessage());
+        }
+        appender = null;
+    }
+
+    /**
+     * Returns the size of a file, or -1 if it does not exist.
+     *
+     * @param file The file.
+     * @return The size in bytes, or -1.
+     * @throws IOException If the size cannot be read.
+     */
+    private static long sizeOf(Path file) throws IOException {
+        return Files.exists(file) ? Files.size(file) : -1;
+    }
+}
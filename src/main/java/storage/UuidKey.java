@@ -0,0 +1,206 @@
+package main.java.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The {@code UuidKey} class holds a user UUID as two {@code long}s instead of a 36-character string.
+ * A key takes 32 bytes of memory instead of about 100, is compared with two {@code long} comparisons,
+ * and is stored in 16 bytes.
+ * <p>
+ * The binary files also store user keys that are not UUIDs (such as the keys of older data or of tests):
+ * {@link #writeUserKey} writes a UUID as a tag byte and its 16 bytes, and any other key as a tag byte and
+ * its UTF-8 string.
+ */
+public final class UuidKey implements Comparable<UuidKey> {
+    private static final int TAG_UUID = 1;   // Followed by the two longs of the UUID
+    private static final int TAG_STRING = 2; // Followed by the modified UTF-8 string of the key
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+
+    /**
+     * Constructs a key from the two halves of a UUID.
+     *
+     * @param mostSignificantBits  The upper 64 bits.
+     * @param leastSignificantBits The lower 64 bits.
+     */
+    public UuidKey(long mostSignificantBits, long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+    }
+
+    /**
+     * Parses a UUID in its canonical form ({@code 8-4-4-4-12} hexadecimal digits).
+     *
+     * @param uuid The UUID string.
+     * @return The {@code UuidKey}.
+     * @throws IllegalArgumentException If the string is not a canonical UUID.
+     */
+    public static UuidKey parse(String uuid) {
+        UuidKey key = tryParse(uuid);
+        if (key == null) {
+            throw new IllegalArgumentException("Not a UUID: " + uuid);
+        }
+        return key;
+    }
+
+    /**
+     * Parses a UUID in its canonical form without throwing.
+     *
+     * @param uuid The UUID string.
+     * @return The {@code UuidKey}, or {@code null} if the string is not a canonical UUID.
+     */
+    public static UuidKey tryParse(String uuid) {
+        if (uuid == null || uuid.length() != 36
+                || uuid.charAt(8) != '-' || uuid.charAt(13) != '-' || uuid.charAt(18) != '-' || uuid.charAt(23) != '-') {
+            return null;
+        }
+        long most = 0;
+        long least = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+            int digit = Character.digit(uuid.charAt(i), 16);
+            if (digit < 0) {
+                return null;
+            }
+            if (i < 19) {
+                most = most << 4 | digit;
+            } else {
+                least = least << 4 | digit;
+            }
+        }
+        return new UuidKey(most, least);
+    }
+
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    /**
+     * Returns the canonical lowercase form of the UUID, as produced by {@code UUID.toString()}.
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[36];
+        writeHex(chars, 0, mostSignificantBits >>> 32, 8);
+        chars[8] = '-';
+        writeHex(chars, 9, mostSignificantBits >>> 16, 4);
+        chars[13] = '-';
+        writeHex(chars, 14, mostSignificantBits, 4);
+        chars[18] = '-';
+        writeHex(chars, 19, leastSignificantBits >>> 48, 4);
+        chars[23] = '-';
+        writeHex(chars, 24, leastSignificantBits, 12);
+        return new String(chars);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UuidKey)) return false;
+        UuidKey other = (UuidKey) o;
+        return mostSignificantBits == other.mostSignificantBits && leastSignificantBits == other.leastSignificantBits;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) mix(mostSignificantBits, leastSignificantBits);
+    }
+
+    @Override
+    public int compareTo(UuidKey other) {
+        int comparison = Long.compareUnsigned(mostSignificantBits, other.mostSignificantBits);
+        return comparison != 0 ? comparison : Long.compareUnsigned(leastSignificantBits, other.leastSignificantBits);
+    }
+
+    /**
+     * Writes the key in 16 bytes.
+     *
+     * @param out The output to write to.
+     * @throws IOException If the key cannot be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(mostSignificantBits);
+        out.writeLong(leastSignificantBits);
+    }
+
+    /**
+     * Reads a key written by {@link #writeTo}.
+     *
+     * @param in The input to read from.
+     * @return The key that was read.
+     * @throws IOException If the key cannot be read.
+     */
+    public static UuidKey readFrom(DataInput in) throws IOException {
+        return new UuidKey(in.readLong(), in.readLong());
+    }
+
+    /**
+     * Writes the key of a user: 17 bytes for a UUID, or the string itself for any other key.
+     *
+     * @param out      The output to write to.
+     * @param userUUID The key of the user.
+     * @throws IOException If the key cannot be written.
+     */
+    public static void writeUserKey(DataOutput out, String userUUID) throws IOException {
+        UuidKey key = tryParse(userUUID);
+        if (key != null && key.toString().equals(userUUID)) {
+            out.writeByte(TAG_UUID);
+            key.writeTo(out);
+        } else {
+            // Uppercase UUIDs also take this path, so every key is read back exactly as it was written
+            out.writeByte(TAG_STRING);
+            out.writeUTF(userUUID);
+        }
+    }
+
+    /**
+     * Reads the key of a user written by {@link #writeUserKey}.
+     *
+     * @param in The input to read from.
+     * @return The key of the user.
+     * @throws IOException If the key cannot be read or has an unknown tag.
+     */
+    public static String readUserKey(DataInput in) throws IOException {
+        int tag = in.readByte();
+        switch (tag) {
+            case TAG_UUID:
+                return readFrom(in).toString();
+            case TAG_STRING:
+                return in.readUTF();
+            default:
+                throw new IOException("Unknown user key tag: " + tag);
+        }
+    }
+
+    /**
+     * Mixes both halves of a UUID into a well distributed hash (the finalizer of MurmurHash3).
+     *
+     * @param most  The upper 64 bits.
+     * @param least The lower 64 bits.
+     * @return The hash.
+     */
+    static long mix(long most, long least) {
+        long hash = most * 0x9E3779B97F4A7C15L ^ least;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+
+    private static void writeHex(char[] chars, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[offset + i] = Character.forDigit((int) (value & 0xF), 16);
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package main.java.storage;
+
+import java.util.Arrays;
+
+/**
+ * The {@code UuidOffsetMap} class maps user UUIDs to record offsets (non-negative {@code long}s) without
+ * creating an object per entry. Keys and values are kept in three parallel {@code long} arrays that are
+ * searched with linear probing. A slot takes 24 bytes and the table is kept between three eighths and three
+ * quarters full, so an entry takes 32 to 64 bytes instead of the roughly 200 bytes of a {@code HashMap<String, Long>}
+ * entry with its key string, and a lookup compares two {@code long}s per probe instead of two strings.
+ * <p>
+ * A slot is empty while its value is {@link #NO_OFFSET}. Removed entries are not left as tombstones:
+ * the entries behind them are moved back, so lookups never probe further than needed.
+ * The map is not synchronized.
+ */
+public class UuidOffsetMap {
+    public static final long NO_OFFSET = -1L;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] mostBits;
+    private long[] leastBits;
+    private long[] offsets;
+    private int size;
+
+    /**
+     * Constructs an empty map.
+     */
+    public UuidOffsetMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructs an empty map that holds the given number of entries without growing.
+     *
+     * @param expectedSize The expected number of entries.
+     */
+    public UuidOffsetMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Constructs a copy of another map.
+     *
+     * @param other The map to copy.
+     */
+    public UuidOffsetMap(UuidOffsetMap other) {
+        mostBits = other.mostBits.clone();
+        leastBits = other.leastBits.clone();
+        offsets = other.offsets.clone();
+        size = other.size;
+    }
+
+    /**
+     * Returns the offset of a UUID.
+     *
+     * @param key The UUID.
+     * @return The offset, or {@link #NO_OFFSET} if the UUID is not in the map.
+     */
+    public long get(UuidKey key) {
+        return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns the offset of a UUID given by its two halves.
+     *
+     * @param most  The upper 64 bits of the UUID.
+     * @param least The lower 64 bits of the UUID.
+     * @return The offset, or {@link #NO_OFFSET} if the UUID is not in the map.
+     */
+    public long get(long most, long least) {
+        int mask = offsets.length - 1;
+        for (int slot = home(most, least, mask); offsets[slot] != NO_OFFSET; slot = (slot + 1) & mask) {
+            if (mostBits[slot] == most && leastBits[slot] == least) {
+                return offsets[slot];
+            }
+        }
+        return NO_OFFSET;
+    }
+
+    /**
+     * Maps a UUID to an offset, replacing its previous offset.
+     *
+     * @param key    The UUID.
+     * @param offset The offset, not negative.
+     * @return The previous offset, or {@link #NO_OFFSET} if the UUID was not in the map.
+     * @throws IllegalArgumentException If the offset is negative.
+     */
+    public long put(UuidKey key, long offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative: " + offset);
+        }
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        int mask = offsets.length - 1;
+        int slot = home(most, least, mask);
+        while (offsets[slot] != NO_OFFSET) {
+            if (mostBits[slot] == most && leastBits[slot] == least) {
+                long previous = offsets[slot];
+                offsets[slot] = offset;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mostBits[slot] = most;
+        leastBits[slot] = least;
+        offsets[slot] = offset;
+        if (++size * 4 > offsets.length * 3) {
+            resize(offsets.length * 2);
+        }
+        return NO_OFFSET;
+    }
+
+    /**
+     * Removes a UUID from the map.
+     *
+     * @param key The UUID.
+     * @return The offset it had, or {@link #NO_OFFSET} if the UUID was not in the map.
+     */
+    public long remove(UuidKey key) {
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        int mask = offsets.length - 1;
+        int slot = home(most, least, mask);
+        while (offsets[slot] != NO_OFFSET) {
+            if (mostBits[slot] == most && leastBits[slot] == least) {
+                long previous = offsets[slot];
+                shiftBack(slot, mask);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_OFFSET;
+    }
+
+    /**
+     * Returns the number of UUIDs in the map.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empties the slot of a removed entry and moves every following entry of the probe run that
+     * may not stay behind the gap back into it.
+     */
+    private void shiftBack(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (offsets[slot] == NO_OFFSET) {
+                break;
+            }
+            int home = home(mostBits[slot], leastBits[slot], mask);
+            // The entry may move into the gap unless its home lies cyclically within (gap, slot]
+            boolean homeAfterGap = gap <= slot ? gap < home && home <= slot : gap < home || home <= slot;
+            if (!homeAfterGap) {
+                mostBits[gap] = mostBits[slot];
+                leastBits[gap] = leastBits[slot];
+                offsets[gap] = offsets[slot];
+                gap = slot;
+            }
+        }
+        offsets[gap] = NO_OFFSET;
+    }
+
+    private void resize(int capacity) {
+        long[] oldMost = mostBits;
+        long[] oldLeast = leastBits;
+        long[] oldOffsets = offsets;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldOffsets.length; i++) {
+            if (oldOffsets[i] != NO_OFFSET) {
+                int slot = home(oldMost[i], oldLeast[i], mask);
+                while (offsets[slot] != NO_OFFSET) {
+                    slot = (slot + 1) & mask;
+                }
+                mostBits[slot] = oldMost[i];
+                leastBits[slot] = oldLeast[i];
+                offsets[slot] = oldOffsets[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostBits = new long[capacity];
+        leastBits = new long[capacity];
+        offsets = new long[capacity];
+        Arrays.fill(offsets, NO_OFFSET);
+    }
+
+    private static int home(long most, long least, int mask) {
+        return (int) UuidKey.mix(most, least) & mask;
+    }
+}
@@ -0,0 +1,155 @@
+package test.java;
+
+import main.java.Activity;
+import main.java.ActivityType;
+import main.java.CyclingActivity;
+import main.java.RopeJumpingActivity;
+import main.java.RunningActivity;
+import main.java.storage.ActivityCodec;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * The `ActivityCodecTest` class contains unit tests for the `ActivityCodec` class.
+ * It verifies that activities survive an encode/decode round trip and that
+ * file headers and key slots are validated.
+ */
+public class ActivityCodecTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 5, 17, 18, 30, 15);
+    private final LocalDateTime end = start.plusMinutes(45);
+
+    /**
+     * Tests the round trip of a running activity.
+     */
+    @Test
+    public void testRunningRoundTrip() {
+        RunningActivity decoded = (RunningActivity) roundTrip(new RunningActivity(7, "Running", 312.5, 30.0, start, end, 5.2, 10.4));
+
+        assertEquals(7, decoded.getId());
+        assertEquals("Running", decoded.getName());
+        assertEquals(312.5, decoded.getBurnedCalories());
+        assertEquals(30.0, decoded.getDuration());
+        assertEquals(start, decoded.getStartTime());
+        assertEquals(end, decoded.getEndTime());
+        assertEquals(5.2, decoded.getCoveredDistance());
+        assertEquals(10.4, decoded.getAverageSpeed());
+    }
+
+    /**
+     * Tests the round trip of a cycling activity.
+     */
+    @Test
+    public void testCyclingRoundTrip() {
+        CyclingActivity decoded = (CyclingActivity) roundTrip(new CyclingActivity(-3, "Cycling", 405.0, 45.0, start, end, 50.0, 71.66666666666667));
+
+        assertEquals(-3, decoded.getId());
+        assertEquals("Cycling", decoded.getName());
+        assertEquals(50.0, decoded.getCoveredDistance());
+        assertEquals(71.66666666666667, decoded.getMaxSpeed());
+    }
+
+    /**
+     * Tests that an ID that does not fit into an `int` survives the round trip.
+     */
+    @Test
+    public void testWideIdRoundTrip() {
+        long id = 1L << 40 | 12345;
+        assertEquals(id, roundTrip(new RunningActivity(id, "Running", 100.0, 10.0, start, end, 2.0, 12.0)).getId());
+    }
+
+    /**
+     * Tests the round trip of a rope jumping activity without start and end times.
+     */
+    @Test
+    public void testRopeJumpingRoundTripWithoutTimes() {
+        RopeJumpingActivity decoded = (RopeJumpingActivity) roundTrip(new RopeJumpingActivity(1, "Rope Jumping", 450.0, 30.0, null, null, 3600));
+
+        assertEquals("Rope Jumping", decoded.getName());
+        assertEquals(450.0, decoded.getBurnedCalories());
+        assertEquals(3600, decoded.getNumberOfRepetitions());
+        assertNull(decoded.getStartTime());
+        assertNull(decoded.getEndTime());
+    }
+
+    /**
+     * Tests that records can be decoded field by field without creating activities.
+     */
+    @Test
+    public void testDecodeToListener() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * ActivityCodec.RECORD_SIZE);
+        ActivityCodec.encode(new CyclingActivity(1, "Cycling", 75.0, 10.0, start, end, 4.0, 29.0), buffer);
+        ActivityCodec.encode(new RopeJumpingActivity(2, "Rope Jumping", 200.0, 20.0, start, end, 1500), buffer);
+        buffer.flip();
+
+        StringBuilder decoded = new StringBuilder();
+        while (buffer.hasRemaining()) {
+            ActivityCodec.decode(buffer, (type, burnedCalories, duration, distance, speed, repetitions) ->
+                    decoded.append(type).append(' ').append(burnedCalories).append(' ').append(duration).append(' ')
+                            .append(distance).append(' ').append(speed).append(' ').append(repetitions).append(';'));
+        }
+
+        assertEquals("CYCLING 75.0 10.0 4.0 29.0 0;ROPE_JUMPING 200.0 20.0 0.0 0.0 1500;", decoded.toString());
+    }
+
+    /**
+     * Tests that unsupported activity classes and unknown type tags are rejected.
+     */
+    @Test
+    public void testUnsupportedTypes() {
+        ByteBuffer buffer = ByteBuffer.allocate(ActivityCodec.RECORD_SIZE);
+        assertThrows(IllegalArgumentException.class,
+                () -> ActivityCodec.encode(new TestActivity(1, "Yoga", 100.0, 60.0, start, end), buffer));
+
+        buffer.put(0, (byte) (ActivityType.values().length + 1));
+        assertThrows(IllegalArgumentException.class, () -> ActivityCodec.decode(buffer));
+    }
+
+    /**
+     * Tests that a header written by the codec is accepted and a header of another version is rejected.
+     */
+    @Test
+    public void testHeaderVersion() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ActivityCodec.HEADER_SIZE);
+        ActivityCodec.writeHeader(header, 0x12345678);
+        header.flip();
+        ActivityCodec.readHeader(header, 0x12345678);
+        assertEquals(ActivityCodec.HEADER_SIZE, header.position());
+
+        header.putInt(4, ActivityCodec.VERSION + 1);
+        assertThrows(IOException.class, () -> ActivityCodec.readHeader(header.position(0), 0x12345678));
+        assertThrows(IOException.class, () -> ActivityCodec.readHeader(header.position(0), 0x0BADF00D));
+    }
+
+    /**
+     * Tests writing and reading user key slots.
+     */
+    @Test
+    public void testKeySlot() {
+        ByteBuffer slot = ByteBuffer.allocate(ActivityCodec.KEY_SIZE);
+        ActivityCodec.writeKey(slot, "bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce", 42);
+        slot.flip();
+
+        assertEquals("bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce", ActivityCodec.readKey(slot));
+        assertEquals(42, ActivityCodec.readKeyValue(slot));
+        assertThrows(IllegalArgumentException.class, () -> ActivityCodec.writeKey(slot.clear(), "x".repeat(ActivityCodec.MAX_KEY_BYTES + 1), 0));
+    }
+
+    /**
+     * Encodes and decodes a single activity.
+     *
+     * @param activity the activity to encode
+     * @return the decoded activity
+     */
+    private Activity roundTrip(Activity activity) {
+        ByteBuffer buffer = ByteBuffer.allocate(ActivityCodec.RECORD_SIZE);
+        ActivityCodec.encode(activity, buffer);
+        assertEquals(ActivityCodec.RECORD_SIZE, buffer.position());
+        buffer.flip();
+        return ActivityCodec.decode(buffer);
+    }
+}
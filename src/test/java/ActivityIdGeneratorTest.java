@@ -0,0 +1,94 @@
+package test.java;
+
+import main.java.ActivityIdGenerator;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `ActivityIdGeneratorTest` class contains unit tests for the `ActivityIdGenerator` class.
+ * It verifies the layout of the IDs, that they keep increasing when the sequence of a millisecond
+ * runs out or the clock goes backwards, and that concurrent threads never receive the same ID.
+ */
+public class ActivityIdGeneratorTest {
+
+    private static final long NOW = ActivityIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    /**
+     * Tests the time, node and sequence bits of the generated IDs.
+     */
+    @Test
+    public void testLayout() {
+        ActivityIdGenerator generator = new ActivityIdGenerator(5, () -> NOW);
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertEquals(NOW, ActivityIdGenerator.timestampOf(first));
+        assertEquals(5, (first >>> ActivityIdGenerator.SEQUENCE_BITS) & ActivityIdGenerator.MAX_NODE);
+        assertEquals(first + 1, second);
+        assertThrows(IllegalArgumentException.class, () -> new ActivityIdGenerator(ActivityIdGenerator.MAX_NODE + 1, () -> NOW));
+    }
+
+    /**
+     * Tests that the IDs keep increasing when a millisecond runs out of sequence numbers
+     * and when the clock is set back.
+     */
+    @Test
+    public void testMonotonicWithExhaustedSequenceAndClockSetBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        ActivityIdGenerator generator = new ActivityIdGenerator(0, clock::get);
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) { // More than one millisecond's worth
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertTrue(ActivityIdGenerator.timestampOf(previous) > NOW);
+
+        clock.set(NOW - 60_000);
+        assertTrue(generator.nextId() > previous);
+
+        clock.set(NOW + 60_000);
+        assertEquals(NOW + 60_000, ActivityIdGenerator.timestampOf(generator.nextId()));
+    }
+
+    /**
+     * Tests that threads generating IDs at the same time never receive the same one.
+     */
+    @Test
+    public void testUniqueAcrossThreads() throws InterruptedException {
+        ActivityIdGenerator generator = new ActivityIdGenerator(1, System::currentTimeMillis);
+        List<long[]> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long[] ids = new long[50_000];
+            results.add(ids);
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<Long> unique = new HashSet<>();
+        for (long[] ids : results) {
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(unique.add(ids[i]));
+                if (i > 0) {
+                    assertTrue(ids[i] > ids[i - 1]); // Increasing within every thread
+                }
+            }
+        }
+        assertEquals(200_000, unique.size());
+    }
+}
@@ -0,0 +1,195 @@
+package test.java;
+
+import main.java.CyclingActivity;
+import main.java.RunningActivity;
+import main.java.storage.ActivityJournal;
+import main.java.storage.FsyncPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The `ActivityJournalTest` class contains unit tests for the `ActivityJournal` class.
+ * It verifies that appended activities are read back per user in the order they were saved,
+ * and that they survive a compaction, a torn trailing record and an interrupted compaction.
+ * It also verifies that compactions write new generations of the data file.
+ */
+public class ActivityJournalTest {
+
+    private static final String ANNA = "bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce";
+    private static final String BEN = "0c7d3a5e-2b8f-4e61-9a0d-5f3b6c1e8d47";
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 7, 0);
+
+    private Path directory;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that every user reads back exactly their own activities, in the order they were appended.
+     */
+    @Test
+    public void testAppendAndRead() throws IOException {
+        ActivityJournal journal = open();
+        journal.append(ANNA, running(300));
+        journal.append(BEN, cycling(450));
+        journal.append(ANNA, cycling(200));
+
+        assertEquals(List.of(300.0, 200.0), caloriesOf(journal, ANNA));
+        assertEquals(List.of(450.0), caloriesOf(journal, BEN));
+        assertTrue(caloriesOf(journal, "5a1e7c2d-9b3f-4d8e-8c6a-2f4b1d9e7a03").isEmpty());
+        assertEquals(500.0, journal.computeStats(ANNA).getTotalCalories());
+        journal.close();
+    }
+
+    /**
+     * Tests that a compaction keeps all activities in order, also with activities appended after it
+     * and after reopening the journal.
+     */
+    @Test
+    public void testCompactionKeepsActivities() throws IOException {
+        ActivityJournal journal = open();
+        journal.append(ANNA, running(1));
+        journal.append(BEN, running(2));
+        journal.compact();
+        journal.append(ANNA, running(3));
+        journal.compact();
+        journal.append(ANNA, running(4));
+        assertEquals(List.of(1.0, 3.0, 4.0), caloriesOf(journal, ANNA));
+        journal.close();
+
+        ActivityJournal reopened = open();
+        assertEquals(List.of(1.0, 3.0, 4.0), caloriesOf(reopened, ANNA));
+        assertEquals(List.of(2.0), caloriesOf(reopened, BEN));
+        reopened.close();
+    }
+
+    /**
+     * Tests that a record torn by a crash is cut off when the journal is opened again,
+     * and that records appended afterwards are read back.
+     */
+    @Test
+    public void testTornRecordIsDiscarded() throws IOException {
+        ActivityJournal journal = open();
+        journal.append(ANNA, running(1));
+        journal.append(ANNA, running(2));
+        journal.close();
+        Path journalFile = directory.resolve("trainingJournal.bin");
+        long size = Files.size(journalFile);
+        Files.write(journalFile, new byte[]{1, 2, 3, 4, 5}, StandardOpenOption.APPEND); // Half a record
+
+        ActivityJournal reopened = open();
+        assertEquals(size, Files.size(journalFile));
+        reopened.append(ANNA, running(3));
+        assertEquals(List.of(1.0, 2.0, 3.0), caloriesOf(reopened, ANNA));
+        reopened.close();
+    }
+
+    /**
+     * Tests that a journal rotated for a compaction that never finished is still read,
+     * and that a partial merge result left behind is discarded.
+     */
+    @Test
+    public void testInterruptedCompactionIsRecovered() throws IOException {
+        ActivityJournal journal = open();
+        journal.append(ANNA, running(1));
+        journal.compact();
+        journal.append(ANNA, running(2));
+        journal.append(BEN, running(3));
+        journal.close();
+        // Simulate a crash after the rotation of the journal, in the middle of the merge
+        Files.move(directory.resolve("trainingJournal.bin"), directory.resolve("trainingJournal.bin.compacting"));
+        Files.write(directory.resolve("trainingData.bin.merged"), new byte[]{9, 9, 9});
+
+        ActivityJournal reopened = open();
+        assertEquals(List.of(1.0, 2.0), caloriesOf(reopened, ANNA));
+        // Waits for the compaction the reopened journal scheduled, whose own merge file may exist until then
+        reopened.compact();
+        assertFalse(Files.exists(directory.resolve("trainingData.bin.merged")));
+        assertFalse(Files.exists(directory.resolve("trainingJournal.bin.compacting")));
+        assertEquals(List.of(1.0, 2.0), caloriesOf(reopened, ANNA));
+        assertEquals(List.of(3.0), caloriesOf(reopened, BEN));
+        reopened.close();
+    }
+
+    /**
+     * Tests that every compaction switches to a new generation of the data file and deletes the old one,
+     * and that a merge that was committed before a crash is switched in when the journal is opened again.
+     */
+    @Test
+    public void testCompactionWritesNewGenerations() throws IOException {
+        ActivityJournal journal = open();
+        journal.append(ANNA, running(1));
+        journal.compact();
+        assertTrue(Files.exists(directory.resolve("trainingData.bin.1")));
+        journal.append(ANNA, running(2));
+        journal.compact();
+        assertTrue(Files.exists(directory.resolve("trainingData.bin.2")));
+        assertFalse(Files.exists(directory.resolve("trainingData.bin.1")));
+        journal.append(BEN, running(3));
+        journal.close();
+
+        // Simulate a crash after the commit point of a compaction, before the switch
+        Files.copy(directory.resolve("trainingData.bin.2"), directory.resolve("trainingData.bin.merged"));
+        Files.createFile(directory.resolve("trainingJournal.bin.committed"));
+
+        ActivityJournal reopened = open();
+        assertTrue(Files.exists(directory.resolve("trainingData.bin.3")));
+        assertFalse(Files.exists(directory.resolve("trainingData.bin.2")));
+        assertFalse(Files.exists(directory.resolve("trainingJournal.bin.committed")));
+        assertEquals(List.of(1.0, 2.0), caloriesOf(reopened, ANNA));
+        assertEquals(List.of(3.0), caloriesOf(reopened, BEN));
+        reopened.close();
+    }
+
+    /**
+     * Opens a journal in the temporary directory that never compacts on its own.
+     */
+    private ActivityJournal open() throws IOException {
+        return new ActivityJournal(directory.resolve("trainingData.bin"), directory.resolve("trainingJournal.bin"),
+                directory.resolve("trainingData.idx"), directory.resolve("trainingRollups.bin"),
+                directory.resolve("trainingTimes.idx"), FsyncPolicy.NEVER, 1000, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the calories, used as ids, of the activities of a user in the order they are read.
+     */
+    private static List<Double> caloriesOf(ActivityJournal journal, String userUUID) throws IOException {
+        List<Double> calories = new ArrayList<>();
+        journal.readActivities(userUUID, (type, burnedCalories, duration, distance, speed, repetitions) -> calories.add(burnedCalories));
+        return calories;
+    }
+
+    private static RunningActivity running(double calories) {
+        return new RunningActivity(1, "Running", calories, 30.0, START, START.plusMinutes(30), 5.0, 10.0);
+    }
+
+    private static CyclingActivity cycling(double calories) {
+        return new CyclingActivity(2, "Cycling", calories, 45.0, START, START.plusMinutes(45), 20.0, 35.0);
+    }
+}
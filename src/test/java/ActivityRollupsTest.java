@@ -0,0 +1,147 @@
+package test.java;
+
+import main.java.ActivityType;
+import main.java.CyclingActivity;
+import main.java.RopeJumpingActivity;
+import main.java.RunningActivity;
+import main.java.storage.ActivityCodec;
+import main.java.storage.ActivityRollups;
+import main.java.storage.RollupIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The `ActivityRollupsTest` class contains unit tests for the `ActivityRollups` and `RollupIndex`
+ * classes. It verifies that range totals read from the buckets match the activities of the range,
+ * and that the sidecar keeps the rollups across reopening and recomputes stale ones.
+ */
+public class ActivityRollupsTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private Path directory;
+    private Path rollupFile;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("rollups");
+        rollupFile = directory.resolve("trainingRollups.bin");
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that the totals of several ranges match the totals of the activities within them.
+     */
+    @Test
+    public void testQueryMatchesActivities() {
+        ActivityRollups rollups = new ActivityRollups();
+        for (int day = 0; day < 500; day += 3) {
+            rollups.add(running(START.plusDays(day), 30.0 + day % 7));
+        }
+
+        LocalDate[][] ranges = {
+                {START, START.plusDays(499)},
+                {START.plusDays(10), START.plusDays(40)},
+                {LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1)},
+                {START.plusDays(3), START.plusDays(3)}
+        };
+        for (LocalDate[] range : ranges) {
+            int count = 0;
+            double duration = 0;
+            for (int day = 0; day < 500; day += 3) {
+                LocalDate date = START.plusDays(day);
+                if (!date.isBefore(range[0]) && !date.isAfter(range[1])) {
+                    count++;
+                    duration += 30.0 + day % 7;
+                }
+            }
+            ActivityRollups.Totals totals = rollups.query(range[0], range[1]);
+            assertEquals(count, totals.getCount(ActivityType.RUNNING));
+            assertEquals(duration, totals.getTotalDuration(), 1e-9);
+            assertEquals(count * 5.0, totals.getTotalDistance(), 1e-9);
+        }
+    }
+
+    /**
+     * Tests the buckets of each granularity and that rope jumping adds no distance.
+     */
+    @Test
+    public void testBuckets() {
+        ActivityRollups rollups = new ActivityRollups();
+        LocalDate wednesday = LocalDate.of(2025, 1, 29);
+        rollups.add(running(wednesday, 30.0));
+        rollups.add(new CyclingActivity(2, "Cycling", 400.0, 60.0, LocalDateTime.of(2025, 2, 1, 9, 0), null, 20.0, 30.0));
+        rollups.add(new RopeJumpingActivity(3, "Rope Jumping", 100.0, 10.0, LocalDateTime.of(2025, 2, 1, 18, 0), null, 900));
+        rollups.add(new RopeJumpingActivity(4, "Rope Jumping", 50.0, 5.0, null, null, 300));
+
+        assertEquals(4, rollups.getCount());
+        ActivityRollups.Totals week = rollups.getBucket(ActivityRollups.Granularity.WEEK, LocalDate.of(2025, 1, 27));
+        assertEquals(3, week.getCount());
+        assertEquals(25.0, week.getTotalDistance());
+        ActivityRollups.Totals february = rollups.getBucket(ActivityRollups.Granularity.MONTH, LocalDate.of(2025, 2, 1));
+        assertEquals(500.0, february.getTotalCalories());
+        assertEquals(1, rollups.getBucket(ActivityRollups.Granularity.DAY, wednesday).getCount(ActivityType.RUNNING));
+        assertNull(rollups.getBucket(ActivityRollups.Granularity.DAY, wednesday.plusDays(1)));
+    }
+
+    /**
+     * Tests that appended activities survive reopening the sidecar and that the rollups of a user
+     * whose count does not match the stored activities are recomputed.
+     */
+    @Test
+    public void testSidecarSurvivesReopen() throws IOException {
+        RollupIndex.Source noActivities = (userUUID, listener) -> fail("Nothing should be recomputed");
+        RollupIndex index = new RollupIndex(rollupFile, Collections.emptyMap(), noActivities);
+        ByteBuffer record = ByteBuffer.allocate(ActivityCodec.RECORD_SIZE);
+        ActivityCodec.encode(running(START, 45.0), record);
+        index.add("u1", record, 0);
+        index.close();
+
+        RollupIndex reopened = new RollupIndex(rollupFile, Map.of("u1", 1L), noActivities);
+        assertEquals(45.0, reopened.rollupsOf("u1").query(START, START).getTotalDuration());
+        reopened.close();
+
+        // The training data holds two activities of u1, e.g. after a crash before the sidecar was written
+        RollupIndex recomputed = new RollupIndex(rollupFile, Map.of("u1", 2L), (userUUID, listener) -> {
+            for (int i = 0; i < 2; i++) {
+                listener.onActivity(ActivityType.RUNNING, ActivityCodec.toEpochSecond(START.atTime(8, 0)),
+                        200.0, 20.0, 4.0, 12.0, 0);
+            }
+        });
+        assertEquals(40.0, recomputed.rollupsOf("u1").query(START, START).getTotalDuration());
+        assertEquals(0, recomputed.rollupsOf("u2").getCount());
+        recomputed.close();
+    }
+
+    /**
+     * Creates a running activity of 5 km starting on the given day.
+     */
+    private static RunningActivity running(LocalDate day, double duration) {
+        LocalDateTime start = day.atTime(7, 30);
+        return new RunningActivity(1, "Running", 10.0 * duration, duration, start, start.plusMinutes((long) duration), 5.0, 10.0);
+    }
+}
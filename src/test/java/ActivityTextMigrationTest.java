@@ -0,0 +1,86 @@
+package test.java;
+
+import main.java.CyclingActivity;
+import main.java.RopeJumpingActivity;
+import main.java.RunningActivity;
+import main.java.storage.ActivityJournal;
+import main.java.storage.ActivityStats;
+import main.java.storage.ActivityTextMigration;
+import main.java.storage.FsyncPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * The `ActivityTextMigrationTest` class contains unit tests for the `ActivityTextMigration` class.
+ * It verifies that the legacy `trainingData.txt` is imported into the binary data file exactly once.
+ */
+public class ActivityTextMigrationTest {
+
+    private static final String ANNA = "bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce";
+    private static final String BEN = "0c7d3a5e-2b8f-4e61-9a0d-5f3b6c1e8d47";
+
+    private Path directory;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("migration");
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that every user's activities are imported and that an existing data file is never overwritten.
+     */
+    @Test
+    public void testMigrateOnce() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        Path textFile = directory.resolve("trainingData.txt");
+        Path dataFile = directory.resolve("trainingData.bin");
+        Files.writeString(textFile,
+                ANNA + ";" + new RunningActivity(1, "Running", 300.0, 30.0, now, now, 5.0, 10.0).getAllInfo()
+                        + "~" + new CyclingActivity(2, "Cycling", 450.0, 45.0, now, now, 20.0, 35.0).getAllInfo() + "\n"
+                        + BEN + ";" + new RopeJumpingActivity(3, "Rope Jumping", 200.0, 20.0, now, now, 1500).getAllInfo() + "\n");
+
+        assertTrue(ActivityTextMigration.migrate(textFile, dataFile));
+        assertFalse(ActivityTextMigration.migrate(textFile, dataFile));
+        assertTrue(Files.exists(textFile)); // Kept as a backup
+
+        ActivityJournal journal = new ActivityJournal(dataFile, directory.resolve("trainingJournal.bin"),
+                directory.resolve("trainingData.idx"), directory.resolve("trainingRollups.bin"),
+                directory.resolve("trainingTimes.idx"), FsyncPolicy.NEVER, 1000, Long.MAX_VALUE);
+        ActivityStats anna = journal.computeStats(ANNA);
+        assertEquals(2, anna.getCount());
+        assertEquals(750.0, anna.getTotalCalories());
+        assertEquals(1500, journal.computeStats(BEN).getShortest().getRepetitions());
+        journal.close();
+    }
+
+    /**
+     * Tests that nothing is created when there is no text file to migrate.
+     */
+    @Test
+    public void testNothingToMigrate() throws IOException {
+        Path dataFile = directory.resolve("trainingData.bin");
+        assertFalse(ActivityTextMigration.migrate(directory.resolve("trainingData.txt"), dataFile));
+        assertFalse(Files.exists(dataFile));
+    }
+}
@@ -0,0 +1,129 @@
+package test.java;
+
+import main.java.ActivityType;
+import main.java.CyclingActivity;
+import main.java.RopeJumpingActivity;
+import main.java.RunningActivity;
+import main.java.storage.ActivityTextParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+/**
+ * The `ActivityTextParserTest` class contains unit tests for the `ActivityTextParser` class.
+ * It verifies that activities are parsed correctly from the training data text format,
+ * regardless of how the bytes are split into windows.
+ */
+public class ActivityTextParserTest {
+
+    private ArrayList<double[]> parsed;
+    private ArrayList<ActivityType> parsedTypes;
+    private ActivityTextParser parser;
+
+    /**
+     * Sets up the test environment before each test.
+     * Initializes a parser that collects every parsed activity.
+     */
+    @BeforeEach
+    public void setUp() {
+        parsed = new ArrayList<>();
+        parsedTypes = new ArrayList<>();
+        parser = new ActivityTextParser((type, burnedCalories, duration, distance, speed, repetitions) -> {
+            parsedTypes.add(type);
+            parsed.add(new double[]{burnedCalories, duration, distance, speed, repetitions});
+        });
+    }
+
+    /**
+     * Tests parsing a user line with all supported activity types.
+     */
+    @Test
+    public void testParseAllActivityTypes() {
+        LocalDateTime now = LocalDateTime.now();
+        String line = "uuid-1;" + new RunningActivity(1, "Running", 312.5, 30.0, now, now, 5.2, 10.4).getAllInfo()
+                + "~" + new CyclingActivity(2, "Cycling", 450.0, 45.5, now, now, 20.25, 35.0).getAllInfo()
+                + "~" + new RopeJumpingActivity(3, "Rope Jumping", 200.0, 20.0, now, now, 1500).getAllInfo() + "\n";
+
+        feed(line, 64 * 1024);
+
+        assertEquals(3, parsed.size());
+        assertEquals(ActivityType.RUNNING, parsedTypes.get(0));
+        assertArrayEquals(new double[]{312.5, 30.0, 5.2, 10.4, 0}, parsed.get(0));
+        assertEquals(ActivityType.CYCLING, parsedTypes.get(1));
+        assertArrayEquals(new double[]{450.0, 45.5, 20.25, 35.0, 0}, parsed.get(1));
+        assertEquals(ActivityType.ROPE_JUMPING, parsedTypes.get(2));
+        assertArrayEquals(new double[]{200.0, 20.0, 0, 0, 1500}, parsed.get(2));
+        assertEquals(0, parser.getMalformedEntries());
+    }
+
+    /**
+     * Tests that entries split across window boundaries are parsed the same way.
+     */
+    @Test
+    public void testParseAcrossWindowBoundaries() {
+        String line = "uuid-1;Name: Running Burned calories: 123.456 Duration: 12.0 Distance ran: 2.5 km Average speed: 12.5 km/h"
+                + "~Name: Rope Jumping Burned calories: 1.0E-4 Duration: 3.0 Repetitions: 42\n"
+                + "uuid-2;Name: Cycling Burned calories: 1.5E7 Duration: 60.0 Distance cycled: 0.1 km Maximum speed: 28.000000000000004 km/h\n";
+
+        for (int windowSize = 1; windowSize <= 7; windowSize++) {
+            setUp();
+            feed(line, windowSize);
+            assertEquals(3, parsed.size());
+            assertArrayEquals(new double[]{123.456, 12.0, 2.5, 12.5, 0}, parsed.get(0));
+            assertArrayEquals(new double[]{1.0E-4, 3.0, 0, 0, 42}, parsed.get(1));
+            assertArrayEquals(new double[]{1.5E7, 60.0, 0.1, 28.000000000000004, 0}, parsed.get(2));
+        }
+    }
+
+    /**
+     * Tests that numbers are parsed to the same values as {@code Double.parseDouble}.
+     */
+    @Test
+    public void testNumbersMatchDoubleParsing() {
+        String[] numbers = {"0.0", "-0.0", "1.0", "0.1", "0.30000000000000004", "123456.789", "3.141592653589793",
+                "1.7976931348623157E308", "4.9E-324", "2.2250738585072014E-308", "1.0E22", "9.007199254740993E15",
+                "Infinity", "-Infinity", "NaN"};
+        for (String number : numbers) {
+            setUp();
+            feed("u;Name: Rope Jumping Burned calories: " + number + " Duration: 1.0 Repetitions: 1\n", 3);
+            assertEquals(1, parsed.size(), number);
+            assertEquals(Double.parseDouble(number), parsed.get(0)[0], number);
+        }
+    }
+
+    /**
+     * Tests that malformed and unsupported entries are skipped without affecting the other entries.
+     */
+    @Test
+    public void testMalformedEntriesAreSkipped() {
+        String line = "u;Name: Swimming Burned calories: 10.0 Duration: 1.0"
+                + "~Name: Running Burned calories: abc Duration: 1.0 Distance ran: 1.0 km Average speed: 1.0 km/h"
+                + "~garbage"
+                + "~Name: Rope Jumping Burned calories: 5.0 Duration: 1.0 Repetitions: 10\n";
+
+        feed(line, 5);
+
+        assertEquals(1, parsed.size());
+        assertEquals(ActivityType.ROPE_JUMPING, parsedTypes.get(0));
+        assertEquals(3, parser.getMalformedEntries());
+    }
+
+    /**
+     * Feeds the text to the parser in windows of the given size.
+     *
+     * @param text       the text to parse
+     * @param windowSize the number of bytes per window
+     */
+    private void feed(String text, int windowSize) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int offset = 0; offset < bytes.length; offset += windowSize) {
+            parser.feed(ByteBuffer.wrap(bytes, offset, Math.min(windowSize, bytes.length - offset)));
+        }
+        parser.endOfRecord();
+    }
+}
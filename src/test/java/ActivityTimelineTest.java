@@ -0,0 +1,117 @@
+package test.java;
+
+import main.java.ActivityType;
+import main.java.RunningActivity;
+import main.java.storage.ActivityCodec;
+import main.java.storage.ActivityJournal;
+import main.java.storage.ActivityListener;
+import main.java.storage.FsyncPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The `ActivityTimelineTest` class contains unit tests for the start time range queries of the
+ * `ActivityJournal`. It verifies that a range returns exactly the activities that started within it,
+ * in start time order, also after a compaction and reopening.
+ */
+public class ActivityTimelineTest {
+
+    private static final String ANNA = "bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce";
+    private static final String BEN = "0c7d3a5e-2b8f-4e61-9a0d-5f3b6c1e8d47";
+    private static final String CLEO = "7e2d9c41-3b5a-4f60-8d1e-a4c2b7f9e053";
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 7, 0);
+
+    private Path directory;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("timeline");
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that the journal returns the activities of a range from the journal, from the compacted
+     * data file, and after reopening, without returning those of other users.
+     */
+    @Test
+    public void testJournalRangeSurvivesCompactionAndReopen() throws IOException {
+        ActivityJournal journal = open();
+        for (int day = 9; day >= 0; day--) {
+            journal.append(ANNA, running(day, day));
+            journal.append(BEN, running(day, 100 + day));
+        }
+        assertEquals(List.of(3L, 4L, 5L), idsBetween(journal, ANNA, 3, 5));
+
+        journal.compact();
+        journal.append(ANNA, running(4, 44));
+        assertEquals(List.of(3L, 4L, 44L, 5L), idsBetween(journal, ANNA, 3, 5));
+        journal.close();
+
+        ActivityJournal reopened = open();
+        assertEquals(List.of(3L, 4L, 44L, 5L), idsBetween(reopened, ANNA, 3, 5));
+        assertEquals(List.of(100L, 101L), idsBetween(reopened, BEN, 0, 1));
+        assertTrue(idsBetween(reopened, CLEO, 0, 9).isEmpty());
+        reopened.close();
+    }
+
+    /**
+     * Opens a journal in the temporary directory.
+     */
+    private ActivityJournal open() throws IOException {
+        return new ActivityJournal(directory.resolve("trainingData.bin"), directory.resolve("trainingJournal.bin"),
+                directory.resolve("trainingData.idx"), directory.resolve("trainingRollups.bin"),
+                directory.resolve("trainingTimes.idx"), FsyncPolicy.NEVER, 1000, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the calories, used as ids, of the activities of a user that started between two days.
+     */
+    private static List<Long> idsBetween(ActivityJournal journal, String userUUID, int firstDay, int lastDay) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        journal.readActivities(userUUID, START.plusDays(firstDay), START.plusDays(lastDay), new ActivityListener() {
+            @Override
+            public void onActivity(ActivityType type, double burnedCalories, double duration,
+                                   double distance, double speed, int repetitions) {
+                fail("The range should be read with start times");
+            }
+
+            @Override
+            public void onActivity(ActivityType type, long startTime, double burnedCalories, double duration,
+                                   double distance, double speed, int repetitions) {
+                assertNotEquals(ActivityCodec.NO_TIME, startTime);
+                ids.add((long) burnedCalories);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Creates a running activity that starts on a day after the start of the test.
+     */
+    private static RunningActivity running(int day, int calories) {
+        LocalDateTime start = START.plusDays(day);
+        return new RunningActivity(1, "Running", calories, 30.0, start, start.plusMinutes(30), 5.0, 10.0);
+    }
+}
@@ -0,0 +1,144 @@
+package test.java;
+
+import main.java.storage.CoachIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The `CoachIndexTest` class contains unit tests for the `CoachIndex` class. It verifies the
+ * lookups in both directions, that committed transactions survive reopening the index, with and
+ * without folding the write-ahead log into the text files, and that interrupted ones are discarded.
+ */
+public class CoachIndexTest {
+
+    private Path directory;
+    private Path studentsFile;
+    private Path requestsFile;
+    private Path changeLogFile;
+
+    /**
+     * Sets up the test environment before each test.
+     * Writes relation files in the format of the application, including its empty entries.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("coaches");
+        studentsFile = directory.resolve("coachesStudents.txt");
+        requestsFile = directory.resolve("coachesRequests.txt");
+        changeLogFile = directory.resolve("coachesChanges.log");
+        Files.write(studentsFile, Arrays.asList("c1;;u1;u2", "c2;;u1"));
+        Files.write(requestsFile, Arrays.asList("c1;", "c2;u3"));
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests the lookups in both directions of the loaded relations.
+     */
+    @Test
+    public void testLookups() throws IOException {
+        CoachIndex index = new CoachIndex(studentsFile, requestsFile, changeLogFile, 100);
+
+        assertEquals(Arrays.asList("u1", "u2"), index.getStudents("c1"));
+        assertEquals(Arrays.asList("c1", "c2"), index.getCoaches("u1"));
+        assertTrue(index.isStudent("c2", "u1"));
+        assertFalse(index.isStudent("c2", "u2"));
+        assertTrue(index.hasRequested("c2", "u3"));
+        assertEquals(Collections.emptyList(), index.getRequests("c1"));
+        assertEquals(Collections.emptyList(), index.getStudents("c3"));
+    }
+
+    /**
+     * Tests that accepting a request is visible in both directions and survives reopening the index.
+     */
+    @Test
+    public void testChangesSurviveReopen() throws IOException {
+        CoachIndex index = new CoachIndex(studentsFile, requestsFile, changeLogFile, 100);
+        assertTrue(index.addStudent("c2", "u3"));
+        assertTrue(index.removeRequest("c2", "u3"));
+        assertFalse(index.addStudent("c2", "u3"));
+        assertFalse(index.removeRequest("c2", "u3"));
+        assertEquals(Arrays.asList("c2"), index.getCoaches("u3"));
+        assertEquals(Collections.emptyList(), index.getRequestedCoaches("u3"));
+        assertEquals(2, Files.readAllLines(changeLogFile).stream().filter(line -> line.startsWith("COMMIT;")).count());
+
+        CoachIndex reopened = new CoachIndex(studentsFile, requestsFile, changeLogFile, 100);
+        assertEquals(Arrays.asList("u1", "u3"), reopened.getStudents("c2"));
+        assertFalse(reopened.hasRequested("c2", "u3"));
+    }
+
+    /**
+     * Tests that folding the write-ahead log rewrites the text files and deletes the log.
+     */
+    @Test
+    public void testCompaction() throws IOException {
+        CoachIndex index = new CoachIndex(studentsFile, requestsFile, changeLogFile, 2);
+        index.addRequest("c1", "u4");
+        index.removeStudent("c1", "u1");
+
+        assertFalse(Files.exists(changeLogFile));
+        assertEquals(Arrays.asList("c1;u2", "c2;u1"), Files.readAllLines(studentsFile));
+        assertEquals(Arrays.asList("c1;u4", "c2;u3"), Files.readAllLines(requestsFile));
+    }
+
+    /**
+     * Tests that a transaction is applied completely and survives reopening the index.
+     */
+    @Test
+    public void testTransaction() throws IOException {
+        CoachIndex index = new CoachIndex(studentsFile, requestsFile, changeLogFile, 100);
+        index.addRequest("c1", "u4");
+        int applied = index.begin()
+                .addStudent("c2", "u3").removeRequest("c2", "u3")
+                .addStudent("c1", "u4").removeRequest("c1", "u4")
+                .commit();
+        assertEquals(4, applied);
+
+        CoachIndex reopened = new CoachIndex(studentsFile, requestsFile, changeLogFile, 100);
+        assertEquals(Arrays.asList("u1", "u2", "u4"), reopened.getStudents("c1"));
+        assertEquals(Arrays.asList("u1", "u3"), reopened.getStudents("c2"));
+        assertEquals(Collections.emptyList(), reopened.getRequests("c1"));
+        assertEquals(Collections.emptyList(), reopened.getRequests("c2"));
+    }
+
+    /**
+     * Tests that an interrupted transaction is discarded as a whole and does not corrupt later ones.
+     */
+    @Test
+    public void testInterruptedTransaction() throws IOException {
+        CoachIndex index = new CoachIndex(studentsFile, requestsFile, changeLogFile, 100);
+        index.addStudent("c1", "u5");
+        // A transaction that crashed after its first change line was written
+        Files.write(changeLogFile, "ADD_STUDENT;c2;u3\nREMOVE_REQUEST;c2;u"
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        CoachIndex reopened = new CoachIndex(studentsFile, requestsFile, changeLogFile, 100);
+        assertEquals(Arrays.asList("u1", "u2", "u5"), reopened.getStudents("c1"));
+        assertFalse(reopened.isStudent("c2", "u3"));
+        assertTrue(reopened.hasRequested("c2", "u3"));
+        reopened.addStudent("c1", "u6");
+
+        List<String> students = new CoachIndex(studentsFile, requestsFile, changeLogFile, 100).getStudents("c1");
+        assertEquals(Arrays.asList("u1", "u2", "u5", "u6"), students);
+    }
+}
@@ -0,0 +1,143 @@
+package test.java;
+
+import main.java.storage.CredentialIndex;
+import main.java.storage.PasswordHasher;
+import main.java.storage.UuidKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The `CredentialIndexTest` class contains unit tests for the `CredentialIndex` class.
+ * It verifies that credentials are found after many inserts and splits and after reopening the files,
+ * that a login can only be registered once, that secrets can be replaced, and that the legacy text login file is imported.
+ */
+public class CredentialIndexTest {
+
+    private Path directory;
+    private Path indexFile;
+    private Path overflowFile;
+    private Path legacyFile;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("credentials");
+        indexFile = directory.resolve("usersLogin.idx");
+        overflowFile = directory.resolve("usersLogin.ovf");
+        legacyFile = directory.resolve("usersLoginData.txt");
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that every inserted login is found with its UUID and secret, also after reopening.
+     */
+    @Test
+    public void testInsertAndFindAcrossSplits() throws IOException {
+        Random random = new Random(21);
+        Map<String, UuidKey> expected = new HashMap<>();
+        CredentialIndex index = new CredentialIndex(indexFile, overflowFile, legacyFile);
+        for (int i = 0; i < 5000; i++) {
+            String login = "user" + i;
+            UuidKey uuid = new UuidKey(random.nextLong(), random.nextLong());
+            assertTrue(index.insert(login, uuid, ("pass" + i).getBytes(StandardCharsets.UTF_8)));
+            expected.put(login, uuid);
+        }
+        assertEquals(5000, index.size());
+        assertFalse(index.insert("user42", new UuidKey(1, 2), new byte[0]));
+        assertNull(index.find("user5000"));
+        index.close();
+
+        index = new CredentialIndex(indexFile, overflowFile, legacyFile);
+        assertEquals(5000, index.size());
+        for (Map.Entry<String, UuidKey> entry : expected.entrySet()) {
+            CredentialIndex.Credential credential = index.find(entry.getKey());
+            assertNotNull(credential);
+            assertEquals(entry.getValue(), credential.getUuid());
+            assertArrayEquals(("pass" + entry.getKey().substring(4)).getBytes(StandardCharsets.UTF_8), credential.getSecret());
+        }
+        // The file grows with the number of users, it is not allocated up front
+        assertTrue(Files.size(indexFile) < 5000L * 4096 / 10);
+        index.close();
+    }
+
+    /**
+     * Tests that logins longer than a record allows are rejected.
+     */
+    @Test
+    public void testRejectsTooLongLogin() throws IOException {
+        CredentialIndex index = new CredentialIndex(indexFile, overflowFile, legacyFile);
+        String login = "x".repeat(CredentialIndex.MAX_LOGIN_BYTES + 1);
+        assertThrows(IllegalArgumentException.class, () -> index.insert(login, new UuidKey(1, 2), new byte[0]));
+        assertNull(index.find(login));
+        index.close();
+    }
+
+    /**
+     * Tests that replacing a secret keeps the login and UUID and survives reopening.
+     */
+    @Test
+    public void testReplaceSecret() throws IOException {
+        CredentialIndex index = new CredentialIndex(indexFile, overflowFile, legacyFile);
+        UuidKey uuid = new UuidKey(3, 4);
+        index.insert("anna", uuid, "plain-password".getBytes(StandardCharsets.UTF_8));
+        assertTrue(index.replaceSecret("anna", new byte[]{1, 2, 3}));
+        assertFalse(index.replaceSecret("ben", new byte[]{1}));
+        index.close();
+
+        index = new CredentialIndex(indexFile, overflowFile, legacyFile);
+        CredentialIndex.Credential credential = index.find("anna");
+        assertEquals(uuid, credential.getUuid());
+        assertArrayEquals(new byte[]{1, 2, 3}, credential.getSecret());
+        index.close();
+    }
+
+    /**
+     * Tests that the legacy text login file is imported once with hashed passwords, skipping lines without
+     * a canonical UUID, and that the text file is deleted afterwards.
+     */
+    @Test
+    public void testImportsLegacyFile() throws IOException {
+        PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+        String uuid = "bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce";
+        Files.write(legacyFile, Arrays.asList(uuid + ";anna;secret", "u2;ben;other", "broken line"));
+        CredentialIndex index = new CredentialIndex(indexFile, overflowFile, legacyFile, hasher);
+        assertEquals(1, index.size());
+        CredentialIndex.Credential anna = index.find("anna");
+        assertEquals(uuid, anna.getUuid().toString());
+        assertFalse(hasher.needsRehash(anna.getSecret()));
+        assertTrue(hasher.verify("secret".toCharArray(), anna.getSecret()));
+        assertNull(index.find("ben"));
+        assertFalse(Files.exists(legacyFile));
+        index.close();
+
+        // A text file that appears later is not imported again
+        Files.write(legacyFile, Arrays.asList(uuid + ";carl;secret"));
+        index = new CredentialIndex(indexFile, overflowFile, legacyFile, hasher);
+        assertNull(index.find("carl"));
+        assertNotNull(index.find("anna"));
+        index.close();
+    }
+}
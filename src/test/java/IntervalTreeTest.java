@@ -0,0 +1,67 @@
+package test.java;
+
+import main.java.IntervalTree;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The `IntervalTreeTest` class contains unit tests for the `IntervalTree` class.
+ * It compares the tree with a plain scan over random intervals.
+ */
+public class IntervalTreeTest {
+
+    /**
+     * Tests that the overlaps found by the tree match a scan over all intervals, also after removals.
+     */
+    @Test
+    public void testOverlapsMatchScan() {
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        List<long[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(100_000);
+            long end = start + random.nextInt(500);
+            tree.add(start, end, i);
+            intervals.add(new long[]{start, end, i});
+        }
+        for (int i = 0; i < 2000; i += 3) {
+            long[] interval = intervals.get(i);
+            assertTrue(tree.remove(interval[0], interval[1], i));
+            interval[2] = -1;
+        }
+        assertFalse(tree.remove(1, 2, -5));
+
+        for (int query = 0; query < 300; query++) {
+            long start = random.nextInt(100_000);
+            long end = start + random.nextInt(300);
+            int expected = 0;
+            for (long[] interval : intervals) {
+                if (interval[2] >= 0 && interval[0] < Math.max(end, start + 1) && start < Math.max(interval[1], interval[0] + 1)) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, tree.findOverlaps(start, end).size());
+            assertEquals(expected > 0, tree.findOverlap(start, end) != null);
+        }
+        assertEquals(2000 - 667, tree.size());
+    }
+
+    /**
+     * Tests that touching intervals do not overlap and that intervals starting together always do.
+     */
+    @Test
+    public void testBoundaries() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.add(100, 200, "a");
+        tree.add(300, 300, "b"); // Treated as one second long
+
+        assertNull(tree.findOverlap(200, 300));
+        assertEquals("a", tree.findOverlap(150, 160).getValue());
+        assertEquals("b", tree.findOverlap(300, 300).getValue());
+        assertEquals(2, tree.findOverlaps(0, 1000).size());
+    }
+}
@@ -0,0 +1,122 @@
+package test.java;
+
+import main.java.storage.CredentialIndex;
+import main.java.storage.LoginFilter;
+import main.java.storage.ScalableBloomFilter;
+import main.java.storage.UuidKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The `LoginFilterTest` class contains unit tests for the `ScalableBloomFilter` and `LoginFilter` classes.
+ * It verifies that the filter never misses an added key, keeps its false positive rate low while it grows,
+ * is read back exactly, and that the persisted login filter keeps appended logins and is rebuilt from the
+ * credential index when it is out of date.
+ */
+public class LoginFilterTest {
+
+    private Path directory;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("loginFilter");
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that a growing filter has no false negatives and few false positives.
+     */
+    @Test
+    public void testGrowingFilter() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.005);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add(key("user" + i));
+        }
+        assertEquals(50_000, filter.size());
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(filter.mightContain(key("user" + i)));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 50_000; i++) {
+            if (filter.mightContain(key("other" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 1000, "false positives: " + falsePositives); // About 1% expected
+    }
+
+    /**
+     * Tests that a written filter is read back with the same answers.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        ScalableBloomFilter filter = new ScalableBloomFilter(16, 0.01);
+        for (int i = 0; i < 100; i++) {
+            filter.add(key("user" + i));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+        ScalableBloomFilter read = ScalableBloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(filter.size(), read.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(filter.mightContain(key("user" + i)), read.mightContain(key("user" + i)));
+        }
+    }
+
+    /**
+     * Tests that appended logins survive reopening and that an outdated filter is rebuilt from the index.
+     */
+    @Test
+    public void testPersistedFilter() throws IOException {
+        Path filterFile = directory.resolve("usersLogin.bloom");
+        CredentialIndex index = new CredentialIndex(directory.resolve("usersLogin.idx"),
+                directory.resolve("usersLogin.ovf"), directory.resolve("usersLoginData.txt"));
+        index.insert("anna", new UuidKey(1, 1), new byte[0]);
+
+        LoginFilter filter = new LoginFilter(filterFile, index);
+        assertTrue(filter.mightContain("anna"));
+        index.insert("ben", new UuidKey(2, 2), new byte[0]);
+        filter.add("ben");
+        filter.close();
+
+        filter = new LoginFilter(filterFile, index);
+        assertTrue(filter.mightContain("ben"));
+        filter.close();
+
+        // A registration whose filter entry was lost
+        index.insert("carl", new UuidKey(3, 3), new byte[0]);
+        filter = new LoginFilter(filterFile, index);
+        assertTrue(filter.mightContain("carl"));
+        filter.close();
+        index.close();
+    }
+
+    private static byte[] key(String login) {
+        return login.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,131 @@
+package test.java;
+
+import main.java.ActivityType;
+import main.java.CyclingActivity;
+import main.java.RopeJumpingActivity;
+import main.java.RunningActivity;
+import main.java.storage.ActivityCodec;
+import main.java.storage.ActivityStats;
+import main.java.storage.MappedActivityStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * The `MappedActivityStoreTest` class contains unit tests for the `MappedActivityStore` and
+ * `ActivityStats` classes. It verifies that statistics computed over a memory-mapped range of
+ * encoded records match the stored activities.
+ */
+public class MappedActivityStoreTest {
+
+    private Path file;
+
+    /**
+     * Sets up the test environment before each test.
+     * Writes a file with a header-sized gap followed by four encoded activities.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        ByteBuffer buffer = ByteBuffer.allocate(ActivityCodec.HEADER_SIZE + 4 * ActivityCodec.RECORD_SIZE);
+        buffer.position(ActivityCodec.HEADER_SIZE);
+        ActivityCodec.encode(new RunningActivity(1, "Running", 300.0, 30.0, now, now, 5.0, 10.0), buffer);
+        ActivityCodec.encode(new CyclingActivity(2, "Cycling", 450.0, 45.0, now, now, 20.0, 35.0), buffer);
+        ActivityCodec.encode(new RopeJumpingActivity(3, "Rope Jumping", 450.0, 20.0, now, now, 1500), buffer);
+        ActivityCodec.encode(new RunningActivity(4, "Running", 100.0, 20.0, now, now, 2.0, 6.0), buffer);
+
+        file = Files.createTempFile("activities", ".bin");
+        Files.write(file, buffer.array());
+    }
+
+    /**
+     * Deletes the temporary file after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Tests computing statistics over all mapped records.
+     */
+    @Test
+    public void testStatsOverMappedRecords() throws IOException {
+        MappedActivityStore store = new MappedActivityStore(file);
+        ActivityStats stats = new ActivityStats();
+        store.scan(ActivityCodec.HEADER_SIZE, 4 * ActivityCodec.RECORD_SIZE, stats);
+
+        assertEquals(4, stats.getCount());
+        assertEquals(2, stats.getCount(ActivityType.RUNNING));
+        assertEquals(400.0, stats.getCalories(ActivityType.RUNNING));
+        assertEquals(1300.0, stats.getTotalCalories());
+        assertEquals(115.0, stats.getTotalDuration());
+        assertEquals(28.75, stats.getAverageDuration());
+        assertEquals(325.0, stats.getAverageCalories());
+
+        // The first activity wins ties
+        assertEquals(ActivityType.CYCLING, stats.getMostIntense().getType());
+        assertEquals(35.0, stats.getMostIntense().getSpeed());
+        assertEquals(45.0, stats.getLongest().getDuration());
+        assertEquals(ActivityType.ROPE_JUMPING, stats.getShortest().getType());
+        assertEquals(1500, stats.getShortest().getRepetitions());
+    }
+
+    /**
+     * Tests scanning a sub-range and rejecting ranges outside the file.
+     */
+    @Test
+    public void testScanRange() throws IOException {
+        MappedActivityStore store = new MappedActivityStore(file);
+        ActivityStats stats = new ActivityStats();
+        store.scan(ActivityCodec.HEADER_SIZE + 3 * ActivityCodec.RECORD_SIZE, ActivityCodec.RECORD_SIZE, stats);
+
+        assertEquals(1, stats.getCount());
+        assertEquals(100.0, stats.getTotalCalories());
+        assertThrows(IOException.class, () -> store.scan(ActivityCodec.HEADER_SIZE, 5 * ActivityCodec.RECORD_SIZE, new ActivityStats()));
+    }
+
+    /**
+     * Tests that adding activities one by one gives the same statistics as scanning their records.
+     */
+    @Test
+    public void testAddMatchesScan() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        ActivityStats added = new ActivityStats();
+        added.add(new RunningActivity(1, "Running", 300.0, 30.0, now, now, 5.0, 10.0));
+        added.add(new CyclingActivity(2, "Cycling", 450.0, 45.0, now, now, 20.0, 35.0));
+        added.add(new RopeJumpingActivity(3, "Rope Jumping", 450.0, 20.0, now, now, 1500));
+        added.add(new RunningActivity(4, "Running", 100.0, 20.0, now, now, 2.0, 6.0));
+
+        ActivityStats scanned = new ActivityStats();
+        new MappedActivityStore(file).scan(ActivityCodec.HEADER_SIZE, 4 * ActivityCodec.RECORD_SIZE, scanned);
+
+        assertEquals(scanned.getCount(), added.getCount());
+        assertEquals(scanned.getTotalCalories(), added.getTotalCalories());
+        assertEquals(scanned.getTotalDistance(), added.getTotalDistance());
+        assertEquals(scanned.getCalories(ActivityType.CYCLING), added.getCalories(ActivityType.CYCLING));
+        assertEquals(scanned.getShortest().getRepetitions(), added.getShortest().getRepetitions());
+    }
+
+    /**
+     * Tests that a missing file is an empty store and empty statistics have no extremes.
+     */
+    @Test
+    public void testMissingFile() throws IOException {
+        MappedActivityStore store = new MappedActivityStore(file.resolveSibling(file.getFileName() + ".missing"));
+        ActivityStats stats = new ActivityStats();
+        store.scan(0, 0, stats);
+
+        assertEquals(0, store.size());
+        assertEquals(0, stats.getCount());
+        assertEquals(0.0, stats.getAverageDuration());
+        assertNull(stats.getMostIntense());
+    }
+}
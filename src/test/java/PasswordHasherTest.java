@@ -0,0 +1,82 @@
+package test.java;
+
+import main.java.storage.PasswordHasher;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The `PasswordHasherTest` class contains unit tests for the `PasswordHasher` class.
+ * It verifies that hashed passwords are salted and verified with the cost they were hashed with,
+ * that plain passwords of the legacy login file are still accepted but reported for rehashing,
+ * and that calibration respects the minimum cost.
+ */
+public class PasswordHasherTest {
+
+    /**
+     * Tests that a hashed password is verified and a wrong one is not, and that salts differ.
+     */
+    @Test
+    public void testHashAndVerify() {
+        PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+        byte[] first = hasher.hash("secret".toCharArray());
+        byte[] second = hasher.hash("secret".toCharArray());
+
+        assertTrue(hasher.verify("secret".toCharArray(), first));
+        assertFalse(hasher.verify("Secret".toCharArray(), first));
+        assertFalse(Arrays.equals(first, second));
+        assertFalse(hasher.needsRehash(first));
+    }
+
+    /**
+     * Tests that secrets hashed with a lower cost still verify but are reported for rehashing.
+     */
+    @Test
+    public void testRehashAfterCostIncrease() {
+        byte[] cheap = new PasswordHasher(PasswordHasher.MIN_ITERATIONS).hash("secret".toCharArray());
+        PasswordHasher stronger = new PasswordHasher(2 * PasswordHasher.MIN_ITERATIONS);
+
+        assertTrue(stronger.verify("secret".toCharArray(), cheap));
+        assertTrue(stronger.needsRehash(cheap));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(PasswordHasher.MIN_ITERATIONS - 1));
+    }
+
+    /**
+     * Tests that plain passwords imported from the legacy login file are verified and reported for rehashing.
+     */
+    @Test
+    public void testLegacyPlainPassword() {
+        PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+        byte[] plain = "pa55word".getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(hasher.verify("pa55word".toCharArray(), plain));
+        assertFalse(hasher.verify("password".toCharArray(), plain));
+        assertTrue(hasher.needsRehash(plain));
+    }
+
+    /**
+     * Tests that the dummy secret for unknown logins has the cost of the hasher and matches no typed password.
+     */
+    @Test
+    public void testDummySecret() {
+        PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+        byte[] dummy = hasher.getDummySecret();
+
+        assertSame(dummy, hasher.getDummySecret());
+        assertEquals(hasher.hash("secret".toCharArray()).length, dummy.length);
+        assertFalse(hasher.needsRehash(dummy));
+        assertFalse(hasher.verify("".toCharArray(), dummy));
+        assertFalse(hasher.verify("secret".toCharArray(), dummy));
+    }
+
+    /**
+     * Tests that calibration never goes below the minimum cost.
+     */
+    @Test
+    public void testCalibrate() {
+        assertEquals(PasswordHasher.MIN_ITERATIONS, PasswordHasher.calibrate(0));
+        assertTrue(PasswordHasher.calibrate(50) >= PasswordHasher.MIN_ITERATIONS);
+    }
+}
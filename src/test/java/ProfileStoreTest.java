@@ -0,0 +1,192 @@
+package test.java;
+
+import main.java.storage.ProfileStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The `ProfileStoreTest` class contains unit tests for the `ProfileStore` class. It verifies that
+ * snapshots keep seeing the versions they were opened with, that old versions are released once no
+ * snapshot needs them, that committed updates are written to the data files, that a failed update
+ * leaves them unchanged, and that the legacy text weight history is imported into the binary weight file.
+ */
+public class ProfileStoreTest {
+
+    private static final String ANNA = "bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce";
+    private static final String BEN = "0c7d3a5e-2b8f-4e61-9a0d-5f3b6c1e8d47";
+    private static final String CLEO = "7e2d9c41-3b5a-4f60-8d1e-a4c2b7f9e053";
+    private static final String NOBODY = "5a1e7c2d-9b3f-4d8e-8c6a-2f4b1d9e7a03";
+
+    private Path directory;
+    private Path usersFile;
+    private Path weightsFile;
+    private Path legacyWeightsFile;
+
+    /**
+     * Sets up the test environment before each test.
+     * Writes data files in the format of the application.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("profiles");
+        usersFile = directory.resolve("usersData.txt");
+        weightsFile = directory.resolve("weightsData.bin");
+        legacyWeightsFile = directory.resolve("weightsData.txt");
+        Files.write(usersFile, Arrays.asList(
+                ANNA + ";Anna;60.0;165.0;30;Female;2025-01-20 14:18:21;2025-01-22 12:11:29",
+                BEN + ";Ben;80.0;180;25;Male;2025-01-22 01:49:30;2025-01-22 01:49:30"));
+        Files.write(legacyWeightsFile, Arrays.asList(ANNA + ";2025-01-21 23:25:36~62.0;2025-01-22 12:11:29~60.0"));
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that an open snapshot does not see a later update, while a new snapshot sees all of it.
+     */
+    @Test
+    public void testSnapshotIsolation() throws IOException {
+        ProfileStore store = new ProfileStore(usersFile, weightsFile, legacyWeightsFile);
+        ProfileStore.Snapshot before = store.openSnapshot();
+
+        store.updateProfile(profile(ANNA, "Anna B", 58.0, "2025-02-01 10:00:00"), LocalDate.of(2025, 2, 1));
+
+        assertEquals("Anna", before.getProfile(ANNA).getName());
+        assertEquals(2, before.getWeightSeries(ANNA).size());
+        try (ProfileStore.Snapshot after = store.openSnapshot()) {
+            assertEquals("Anna B", after.getProfile(ANNA).getName());
+            assertEquals(58.0, after.getProfile(ANNA).getWeight());
+            assertEquals(3, after.getWeightSeries(ANNA).size());
+        }
+        before.close();
+    }
+
+    /**
+     * Tests that a user added after a snapshot was opened is invisible to it, while the snapshot still
+     * finds the users that existed before, and that keys which are not UUIDs are rejected.
+     */
+    @Test
+    public void testNewUserIsInvisibleToOlderSnapshot() throws IOException {
+        ProfileStore store = new ProfileStore(usersFile, weightsFile, legacyWeightsFile);
+        try (ProfileStore.Snapshot before = store.openSnapshot()) {
+            store.putProfile(profile(CLEO, "Cleo", 55.0, "2025-02-02 10:00:00"));
+            store.updateProfile(profile(ANNA, "Anna B", 58.0, "2025-02-03 10:00:00"), null);
+
+            assertNull(before.getProfile(CLEO));
+            assertEquals("Anna", before.getProfile(ANNA).getName());
+            try (ProfileStore.Snapshot after = store.openSnapshot()) {
+                assertEquals("Cleo", after.getProfile(CLEO).getName());
+                assertEquals("Anna B", after.getProfile(ANNA).getName());
+                assertNull(after.getProfile("u1"));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> store.putProfile(profile("u1", "Dan", 70.0, "2025-02-04 10:00:00")));
+    }
+
+    /**
+     * Tests that old versions are kept while a snapshot needs them and released afterwards.
+     */
+    @Test
+    public void testOldVersionsAreCollected() throws IOException {
+        ProfileStore store = new ProfileStore(usersFile, weightsFile, legacyWeightsFile);
+        ProfileStore.Snapshot reader = store.openSnapshot();
+        store.updateProfile(profile(BEN, "Ben 1", 81.0, "2025-02-01 10:00:00"), null);
+        store.updateProfile(profile(BEN, "Ben 2", 82.0, "2025-02-02 10:00:00"), null);
+
+        assertEquals(3, store.getVersionCount(BEN));
+        assertEquals("Ben", reader.getProfile(BEN).getName());
+
+        reader.close();
+        store.updateProfile(profile(ANNA, "Anna", 61.0, "2025-02-03 10:00:00"), null);
+        assertEquals(1, store.getVersionCount(BEN));
+        assertEquals(1, store.getVersionCount(ANNA));
+    }
+
+    /**
+     * Tests that committed updates and new users survive reloading the data files.
+     */
+    @Test
+    public void testUpdatesArePersisted() throws IOException {
+        ProfileStore store = new ProfileStore(usersFile, weightsFile, legacyWeightsFile);
+        store.updateProfile(profile(BEN, "Ben", 79.5, "2025-02-01 10:00:00"), LocalDate.of(2025, 2, 1));
+        store.putProfile(profile(CLEO, "Cleo", 55.0, "2025-02-02 10:00:00"));
+
+        ProfileStore reloaded = new ProfileStore(usersFile, weightsFile, legacyWeightsFile);
+        try (ProfileStore.Snapshot snapshot = reloaded.openSnapshot()) {
+            assertEquals(79.5, snapshot.getProfile(BEN).getWeight());
+            assertEquals(LocalDate.of(2025, 2, 1), snapshot.getWeightSeries(BEN).getDate(0));
+            assertEquals("Cleo", snapshot.getProfile(CLEO).getName());
+            assertEquals(2, snapshot.getWeightSeries(ANNA).size());
+            assertNull(snapshot.getProfile(NOBODY));
+        }
+        assertEquals(3, Files.readAllLines(usersFile).size());
+    }
+
+    /**
+     * Tests that an update whose weight file cannot be written leaves both data files and the store unchanged.
+     */
+    @Test
+    public void testFailedUpdateKeepsBothFiles() throws IOException {
+        ProfileStore store = new ProfileStore(usersFile, weightsFile, legacyWeightsFile);
+        byte[] users = Files.readAllBytes(usersFile);
+        byte[] weights = Files.readAllBytes(weightsFile);
+        Files.createDirectory(directory.resolve("weightsData.bin.tmp")); // The weight file cannot be written
+
+        assertThrows(IOException.class, () -> store.updateProfile(profile(ANNA, "Anna B", 58.0, "2025-02-01 10:00:00"),
+                LocalDate.of(2025, 2, 1)));
+
+        assertArrayEquals(users, Files.readAllBytes(usersFile));
+        assertArrayEquals(weights, Files.readAllBytes(weightsFile));
+        assertFalse(Files.exists(directory.resolve("usersData.txt.tmp")));
+        assertFalse(Files.exists(directory.resolve("weightsData.bin.tmp")));
+        try (ProfileStore.Snapshot snapshot = store.openSnapshot()) {
+            assertEquals("Anna", snapshot.getProfile(ANNA).getName());
+            assertEquals(2, snapshot.getWeightSeries(ANNA).size());
+        }
+    }
+
+    /**
+     * Tests that the legacy text weights are imported once, keeping the text file, and that a
+     * weigh-in on a day that already has a weight replaces it.
+     */
+    @Test
+    public void testLegacyWeightsAreImported() throws IOException {
+        ProfileStore store = new ProfileStore(usersFile, weightsFile, legacyWeightsFile);
+        assertTrue(Files.exists(weightsFile));
+        assertTrue(Files.exists(legacyWeightsFile));
+
+        store.updateProfile(profile(ANNA, "Anna", 59.5, "2025-01-22 20:00:00"), LocalDate.of(2025, 1, 22));
+        Files.write(legacyWeightsFile, Arrays.asList(ANNA + ";2025-03-01 08:00:00~70.0"));
+
+        ProfileStore reloaded = new ProfileStore(usersFile, weightsFile, legacyWeightsFile);
+        try (ProfileStore.Snapshot snapshot = reloaded.openSnapshot()) {
+            assertEquals(2, snapshot.getWeightSeries(ANNA).size());
+            assertEquals(62.0, snapshot.getWeightSeries(ANNA).getWeight(0));
+            assertEquals(59.5, snapshot.getWeightSeries(ANNA).getWeight(1));
+            assertTrue(snapshot.getWeightSeries(BEN).isEmpty());
+        }
+    }
+
+    /**
+     * Creates a profile with the given values and fixed other fields.
+     */
+    private static ProfileStore.Profile profile(String uuid, String name, double weight, String weightDate) {
+        return new ProfileStore.Profile(uuid, name, weight, 170.0, 30, "Other", "2025-01-01 00:00:00", weightDate);
+    }
+}
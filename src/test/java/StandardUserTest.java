@@ -2,11 +2,13 @@ package test.java;
 
 import main.java.Activity;
 import main.java.StandardUser;
+import main.java.WeightSeries;
 import test.java.TestActivity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,7 +21,7 @@ import java.util.Arrays;
 public class StandardUserTest {
 
     private StandardUser user;
-    private ArrayList<Double> weightHistory;
+    private WeightSeries weightHistory;
     private ArrayList<Activity> activitiesList;
 
     /**
@@ -29,7 +31,11 @@ public class StandardUserTest {
     @BeforeEach
     public void setUp() {
         // Initialize weight history
-        weightHistory = new ArrayList<>(Arrays.asList(80.0, 79.5, 79.0, 78.5));
+        weightHistory = new WeightSeries();
+        double[] weights = {80.0, 79.5, 79.0, 78.5};
+        for (int i = 0; i < weights.length; i++) {
+            weightHistory.upsert(LocalDate.of(2025, 1, 1).plusDays(i), weights[i]);
+        }
 
         // Initialize activities list
         activitiesList = new ArrayList<>();
@@ -165,6 +171,40 @@ public class StandardUserTest {
         assertEquals(10.0, mostEffective.calculateCaloriesPerMinute(), 0.0001);
     }
 
+    /**
+     * Tests that the statistics are updated when activities are added and removed,
+     * including removing the current longest activity.
+     */
+    @Test
+    public void testAddAndRemoveActivityUpdatesStatistics() {
+        Activity walk = new TestActivity(4, "Walking", 100.0, 60.0, LocalDateTime.now().minusMinutes(60), LocalDateTime.now());
+        user.addActivity(walk);
+        assertEquals(4, user.getActivitiesList().size());
+        assertEquals(155.0, user.calculateTotalActivityTime(), 0.0001);
+        assertEquals(1050.0, user.calculateTotalBurnedCalories(), 0.0001);
+        assertSame(walk, user.findTheLongestActivity());
+
+        assertTrue(user.removeActivity(walk));
+        assertEquals("Cycling", user.findTheLongestActivity().getName());
+        assertEquals(95.0, user.calculateTotalActivityTime(), 0.0001);
+
+        assertTrue(user.removeActivity(user.findTheLongestActivity()));
+        assertEquals("Running", user.findTheLongestActivity().getName());
+        assertEquals(250.0, user.calculateAverageActivityCalories(), 0.0001);
+        assertFalse(user.removeActivity(walk));
+    }
+
+    /**
+     * Tests that calculating the average activity time does not change the durations of the activities.
+     */
+    @Test
+    public void testAverageActivityTimeDoesNotModifyActivities() {
+        Activity activity = new TestActivity(5, "Running", 100.0, 25.0, LocalDateTime.now().minusMinutes(90), LocalDateTime.now());
+        user.addActivity(activity);
+        user.calculateAverageActivityTime();
+        assertEquals(25.0, activity.getDuration());
+    }
+
     /**
      * Tests the BMI calculation method with zero height, which should handle the exception or return Infinity.
      */
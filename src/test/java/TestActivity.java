@@ -20,7 +20,7 @@ public class TestActivity extends Activity {
      * @param startTime      the start time of the activity
      * @param endTime        the end time of the activity
      */
-    public TestActivity(int id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime) {
+    public TestActivity(long id, String name, double burnedCalories, double duration, LocalDateTime startTime, LocalDateTime endTime) {
         super(id, name, burnedCalories, duration, startTime, endTime);
     }
 
@@ -0,0 +1,83 @@
+package test.java;
+
+import main.java.TokenBucketLimiter;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `TokenBucketLimiterTest` class contains unit tests for the `TokenBucketLimiter` class.
+ * It verifies the burst and refill of a bucket, that keys are limited independently, that the number
+ * of remembered buckets is bounded, and that concurrent threads never take more tokens than there are.
+ */
+public class TokenBucketLimiterTest {
+
+    /**
+     * Tests that a key may act `capacity` times at once and then once per refill time.
+     */
+    @Test
+    public void testBurstAndRefill() {
+        AtomicLong clock = new AtomicLong(1_000_000);
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 1000, 100, clock::get);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("anna"));
+        }
+        assertFalse(limiter.tryAcquire("anna"));
+        assertTrue(limiter.tryAcquire("ben")); // Other keys are not affected
+
+        clock.addAndGet(999);
+        assertFalse(limiter.tryAcquire("anna"));
+        clock.addAndGet(1);
+        assertTrue(limiter.tryAcquire("anna"));
+        assertFalse(limiter.tryAcquire("anna"));
+
+        // A long pause refills the bucket, but never beyond its capacity
+        clock.addAndGet(60_000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("anna"));
+        }
+        assertFalse(limiter.tryAcquire("anna"));
+    }
+
+    /**
+     * Tests that the least recently used buckets are dropped once the limiter holds its maximum.
+     */
+    @Test
+    public void testBoundedKeys() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1000, 64, () -> 0);
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("user" + i);
+        }
+        assertTrue(limiter.size() <= 64);
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(0, 1000, 64, () -> 0));
+    }
+
+    /**
+     * Tests that threads hammering one key together take exactly the tokens of its bucket.
+     */
+    @Test
+    public void testConcurrentAcquire() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(500, 1000, 16, () -> 5_000);
+        AtomicInteger granted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (limiter.tryAcquire("anna")) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(500, granted.get());
+    }
+}
@@ -0,0 +1,174 @@
+package test.java;
+
+import main.java.Activity;
+import main.java.RunningActivity;
+import main.java.storage.ActivityCodec;
+import main.java.storage.ActivityJournal;
+import main.java.storage.FsyncPolicy;
+import main.java.storage.TrainingIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The `TrainingIndexTest` class contains unit tests for the `TrainingIndex` class.
+ * It verifies that the spans of a user point at exactly that user's records, and that a stale
+ * or corrupt sidecar is caught up or rebuilt when the index is opened.
+ */
+public class TrainingIndexTest {
+
+    private static final String ANNA = "bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce";
+    private static final String BEN = "0c7d3a5e-2b8f-4e61-9a0d-5f3b6c1e8d47";
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 7, 0);
+
+    private Path directory;
+    private Path indexFile;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("index");
+        indexFile = directory.resolve("trainingData.idx");
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that the spans of a user lead to that user's records in the journal and, after a
+     * compaction, to one block of the data file.
+     */
+    @Test
+    public void testSpansLocateRecords() throws IOException {
+        ActivityJournal journal = openJournal();
+        journal.append(ANNA, running(1));
+        journal.append(BEN, running(2));
+        journal.append(ANNA, running(3));
+        journal.close();
+
+        TrainingIndex index = openIndex();
+        assertEquals(List.of(1.0, 3.0), caloriesAt(index.spansOf(ANNA)));
+        assertEquals(List.of(2.0), caloriesAt(index.spansOf(BEN)));
+        assertTrue(index.spansOf("5a1e7c2d-9b3f-4d8e-8c6a-2f4b1d9e7a03").isEmpty());
+        assertEquals(2, (long) index.recordCounts().get(ANNA));
+        index.close();
+
+        journal = openJournal();
+        journal.compact();
+        journal.close();
+        index = openIndex();
+        List<TrainingIndex.Span> spans = index.spansOf(ANNA);
+        assertEquals(1, spans.size());
+        assertEquals(TrainingIndex.Source.DATA, spans.get(0).getSource());
+        assertEquals(List.of(1.0, 3.0), caloriesAt(spans));
+        index.close();
+    }
+
+    /**
+     * Tests that records appended after the sidecar was last written are found by the catch-up scan.
+     */
+    @Test
+    public void testCatchesUpStaleSidecar() throws IOException {
+        ActivityJournal journal = openJournal();
+        journal.append(ANNA, running(1));
+        journal.close();
+        Path stale = directory.resolve("stale.idx");
+        Files.copy(indexFile, stale);
+
+        journal = openJournal();
+        journal.append(ANNA, running(2));
+        journal.append(BEN, running(3));
+        journal.close();
+        Files.move(stale, indexFile, StandardCopyOption.REPLACE_EXISTING);
+
+        TrainingIndex index = openIndex();
+        assertEquals(List.of(1.0, 2.0), caloriesAt(index.spansOf(ANNA)));
+        assertEquals(List.of(3.0), caloriesAt(index.spansOf(BEN)));
+        index.close();
+    }
+
+    /**
+     * Tests that a corrupt sidecar is rebuilt from the data files.
+     */
+    @Test
+    public void testRebuildsCorruptSidecar() throws IOException {
+        ActivityJournal journal = openJournal();
+        journal.append(ANNA, running(1));
+        journal.compact();
+        journal.append(ANNA, running(2));
+        journal.close();
+        Files.write(indexFile, new byte[]{1, 2, 3});
+
+        TrainingIndex index = openIndex();
+        assertEquals(List.of(1.0, 2.0), caloriesAt(index.spansOf(ANNA)));
+        index.close();
+    }
+
+    private ActivityJournal openJournal() throws IOException {
+        return new ActivityJournal(directory.resolve("trainingData.bin"), directory.resolve("trainingJournal.bin"),
+                indexFile, directory.resolve("trainingRollups.bin"), directory.resolve("trainingTimes.idx"),
+                FsyncPolicy.NEVER, 1000, Long.MAX_VALUE);
+    }
+
+    private TrainingIndex openIndex() throws IOException {
+        return new TrainingIndex(indexFile, dataFile(),
+                directory.resolve("trainingJournal.bin.compacting"), directory.resolve("trainingJournal.bin"));
+    }
+
+    /**
+     * Returns the current generation of the data file, the only one left after a compaction.
+     */
+    private Path dataFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("trainingData\\.bin(\\.\\d+)?"))
+                    .findFirst().orElse(directory.resolve("trainingData.bin"));
+        }
+    }
+
+    /**
+     * Reads the records the spans point at with positional reads and returns their calories.
+     */
+    private List<Double> caloriesAt(List<TrainingIndex.Span> spans) throws IOException {
+        List<Double> calories = new ArrayList<>();
+        for (TrainingIndex.Span span : spans) {
+            Path file = span.getSource() == TrainingIndex.Source.DATA ? dataFile() : directory.resolve("trainingJournal.bin");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer records = ByteBuffer.allocate(span.getLength());
+                channel.read(records, span.getOffset());
+                records.flip();
+                while (records.hasRemaining()) {
+                    Activity activity = ActivityCodec.decode(records);
+                    calories.add(activity.getBurnedCalories());
+                }
+            }
+        }
+        return calories;
+    }
+
+    private static RunningActivity running(double calories) {
+        return new RunningActivity(1, "Running", calories, 30.0, START, START.plusMinutes(30), 5.0, 10.0);
+    }
+}
@@ -0,0 +1,107 @@
+package test.java;
+
+import main.java.CyclingActivity;
+import main.java.RunningActivity;
+import main.java.gui.UserSession;
+import main.java.storage.ActivityJournal;
+import main.java.storage.FsyncPolicy;
+import main.java.storage.ProfileStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The `UserSessionTest` class contains unit tests for the `UserSession` class.
+ * It verifies that workouts logged twice are counted once when the workout history is loaded,
+ * and that only an exact duplicate of a saved workout is recognized as one.
+ */
+public class UserSessionTest {
+
+    private static final String ANNA = "bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce";
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 7, 0);
+
+    private Path directory;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("session");
+    }
+
+    /**
+     * Deletes the temporary files after each test.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that a workout with the same type, start and end as one loaded before is skipped in the
+     * statistics and the rollups, while a different workout at the same time is kept.
+     */
+    @Test
+    public void testDuplicateWorkoutsAreSkipped() throws IOException {
+        ActivityJournal journal = openJournal();
+        journal.append(ANNA, running(START, 300));
+        journal.append(ANNA, running(START, 300)); // Logged twice
+        journal.append(ANNA, cycling(START, 450)); // Same time, other type
+        journal.append(ANNA, running(START.plusDays(1), 200));
+
+        UserSession session = UserSession.load(ANNA, openProfiles(), journal);
+        assertEquals(3, session.getStats().getCount());
+        assertEquals(950.0, session.getStats().getTotalCalories());
+        assertEquals(3, session.getRollups().getCount());
+        assertEquals(950.0, session.getRollups().query(START.toLocalDate(), START.toLocalDate().plusDays(1)).getTotalCalories());
+        assertTrue(session.isDuplicateWorkout(running(START, 100)));
+        assertFalse(session.isDuplicateWorkout(running(START.plusMinutes(10), 100))); // Overlapping is allowed
+        journal.close();
+    }
+
+    /**
+     * Tests that a history without duplicates is loaded in full.
+     */
+    @Test
+    public void testHistoryWithoutDuplicates() throws IOException {
+        ActivityJournal journal = openJournal();
+        journal.append(ANNA, running(START, 300));
+        journal.append(ANNA, running(START.plusHours(2), 300));
+
+        UserSession session = UserSession.load(ANNA, openProfiles(), journal);
+        assertEquals(2, session.getStats().getCount());
+        assertEquals(2, session.getRollups().getCount());
+        assertEquals(600.0, session.getRollups().query(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 1)).getTotalCalories());
+        journal.close();
+    }
+
+    private ActivityJournal openJournal() throws IOException {
+        return new ActivityJournal(directory.resolve("trainingData.bin"), directory.resolve("trainingJournal.bin"),
+                directory.resolve("trainingData.idx"), directory.resolve("trainingRollups.bin"),
+                directory.resolve("trainingTimes.idx"), FsyncPolicy.NEVER, 1000, Long.MAX_VALUE);
+    }
+
+    private ProfileStore openProfiles() throws IOException {
+        return new ProfileStore(directory.resolve("users.txt"), directory.resolve("weights.bin"),
+                directory.resolve("weights.txt"));
+    }
+
+    private static RunningActivity running(LocalDateTime start, double calories) {
+        return new RunningActivity(1, "Running", calories, 30.0, start, start.plusMinutes(30), 5.0, 10.0);
+    }
+
+    private static CyclingActivity cycling(LocalDateTime start, double calories) {
+        return new CyclingActivity(2, "Cycling", calories, 45.0, start, start.plusMinutes(45), 20.0, 35.0);
+    }
+}
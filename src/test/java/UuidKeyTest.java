@@ -0,0 +1,100 @@
+package test.java;
+
+import main.java.storage.UuidKey;
+import main.java.storage.UuidOffsetMap;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * The `UuidKeyTest` class contains unit tests for the `UuidKey` and `UuidOffsetMap` classes.
+ * It verifies that keys match `java.util.UUID`, that user keys are written compactly and read back
+ * exactly, and that the map behaves like a `HashMap` under random puts and removals.
+ */
+public class UuidKeyTest {
+
+    /**
+     * Tests parsing and formatting against {@code java.util.UUID}.
+     */
+    @Test
+    public void testMatchesJavaUuid() {
+        for (int i = 0; i < 100; i++) {
+            UUID uuid = UUID.randomUUID();
+            UuidKey key = UuidKey.parse(uuid.toString());
+            assertEquals(uuid.getMostSignificantBits(), key.getMostSignificantBits());
+            assertEquals(uuid.getLeastSignificantBits(), key.getLeastSignificantBits());
+            assertEquals(uuid.toString(), key.toString());
+            assertEquals(key, UuidKey.parse(uuid.toString().toUpperCase()));
+        }
+        assertNull(UuidKey.tryParse("u1"));
+        assertNull(UuidKey.tryParse("bf4b830a-f78a-45dd-99ef-1fbfd96eb6cg"));
+        assertThrows(IllegalArgumentException.class, () -> UuidKey.parse("bf4b830a+f78a-45dd-99ef-1fbfd96eb6ce"));
+    }
+
+    /**
+     * Tests that UUIDs are written in 17 bytes and that other keys are read back unchanged.
+     */
+    @Test
+    public void testUserKeyRoundTrip() throws IOException {
+        String uuid = "bf4b830a-f78a-45dd-99ef-1fbfd96eb6ce";
+        String[] keys = {uuid, "u1", uuid.toUpperCase()};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        UuidKey.writeUserKey(out, uuid);
+        assertEquals(17, bytes.size());
+        UuidKey.writeUserKey(out, keys[1]);
+        UuidKey.writeUserKey(out, keys[2]);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (String key : keys) {
+            assertEquals(key, UuidKey.readUserKey(in));
+        }
+    }
+
+    /**
+     * Tests the map against a {@code HashMap} with random puts, replacements and removals.
+     */
+    @Test
+    public void testMapMatchesHashMap() {
+        Random random = new Random(7);
+        UuidOffsetMap map = new UuidOffsetMap();
+        Map<UuidKey, Long> expected = new HashMap<>();
+        List<UuidKey> keys = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            keys.add(new UuidKey(random.nextLong(), random.nextLong()));
+        }
+        for (int i = 0; i < 20000; i++) {
+            UuidKey key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, UuidOffsetMap.NO_OFFSET), (Long) map.remove(key));
+                expected.remove(key);
+            } else {
+                long offset = random.nextInt(1_000_000);
+                assertEquals(expected.getOrDefault(key, UuidOffsetMap.NO_OFFSET), (Long) map.put(key, offset));
+                expected.put(key, offset);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (UuidKey key : keys) {
+            assertEquals(expected.getOrDefault(key, UuidOffsetMap.NO_OFFSET), (Long) map.get(key));
+        }
+        assertThrows(IllegalArgumentException.class, () -> map.put(keys.get(0), -5));
+
+        // A copy is independent of the original
+        UuidOffsetMap copy = new UuidOffsetMap(map);
+        copy.put(keys.get(0), 1_000_001);
+        assertEquals(expected.getOrDefault(keys.get(0), UuidOffsetMap.NO_OFFSET), (Long) map.get(keys.get(0)));
+        assertEquals(1_000_001L, copy.get(keys.get(0)));
+    }
+}
@@ -0,0 +1,95 @@
+package test.java;
+
+import main.java.WeightPyramid;
+import main.java.WeightPyramid.Resolution;
+import main.java.WeightSeries;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+/**
+ * The `WeightPyramidTest` class contains unit tests for the `WeightPyramid` class. It verifies the
+ * buckets of each resolution, that updating a day gives the same buckets as rebuilding the pyramid,
+ * and that the chosen resolution keeps the number of drawn buckets bounded.
+ */
+public class WeightPyramidTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 1, 6);
+
+    /**
+     * Tests the minimum, maximum and average of the week, month and year buckets.
+     */
+    @Test
+    public void testBuckets() {
+        WeightSeries series = new WeightSeries();
+        series.upsert(MONDAY, 80.0);
+        series.upsert(MONDAY.plusDays(6), 78.0);  // Sunday of the same week
+        series.upsert(MONDAY.plusDays(7), 77.0);  // Monday of the next week
+        series.upsert(LocalDate.of(2025, 2, 1), 76.0);
+        WeightPyramid pyramid = new WeightPyramid(series);
+
+        WeightPyramid.Level weeks = pyramid.getLevel(Resolution.WEEK);
+        assertEquals(3, weeks.size());
+        assertEquals(MONDAY, weeks.getStartDate(0));
+        assertEquals(78.0, weeks.getMin(0));
+        assertEquals(80.0, weeks.getMax(0));
+        assertEquals(79.0, weeks.getAverage(0), 0.0001);
+
+        WeightPyramid.Level months = pyramid.getLevel(Resolution.MONTH);
+        assertEquals(2, months.size());
+        assertEquals(3, months.getCount(0));
+        assertEquals(LocalDate.of(2025, 2, 1), months.getStartDate(1));
+        assertEquals(1, pyramid.getLevel(Resolution.YEAR).size());
+        assertEquals(4, pyramid.getLevel(Resolution.DAY).size());
+    }
+
+    /**
+     * Tests that updating the pyramid after new and replaced weigh-ins matches a rebuilt pyramid.
+     */
+    @Test
+    public void testUpdateMatchesRebuild() {
+        WeightSeries series = new WeightSeries();
+        for (int i = 0; i < 400; i += 3) {
+            series.upsert(MONDAY.plusDays(i), 90.0 - i / 20.0);
+        }
+        WeightPyramid pyramid = new WeightPyramid(series);
+
+        LocalDate[] days = {MONDAY.plusDays(3), MONDAY.plusDays(100), MONDAY.minusDays(40), MONDAY.plusDays(500)};
+        for (LocalDate day : days) {
+            series.upsert(day, 70.0);
+            pyramid.update(series, Math.toIntExact(day.toEpochDay()));
+        }
+
+        WeightPyramid rebuilt = new WeightPyramid(series);
+        for (Resolution resolution : Resolution.values()) {
+            WeightPyramid.Level updated = pyramid.getLevel(resolution);
+            WeightPyramid.Level expected = rebuilt.getLevel(resolution);
+            assertEquals(expected.size(), updated.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getStartDate(i), updated.getStartDate(i));
+                assertEquals(expected.getMin(i), updated.getMin(i));
+                assertEquals(expected.getMax(i), updated.getMax(i));
+                assertEquals(expected.getAverage(i), updated.getAverage(i), 0.0001);
+            }
+        }
+    }
+
+    /**
+     * Tests that a long range is shown at a coarser resolution than a short one.
+     */
+    @Test
+    public void testSelectResolution() {
+        WeightSeries series = new WeightSeries();
+        for (int i = 0; i < 3650; i++) {
+            series.upsert(MONDAY.plusDays(i), 80.0);
+        }
+        WeightPyramid pyramid = new WeightPyramid(series);
+        int first = Math.toIntExact(MONDAY.toEpochDay());
+
+        assertEquals(Resolution.DAY, pyramid.selectResolution(first, first + 99, 120));
+        assertEquals(Resolution.WEEK, pyramid.selectResolution(first, first + 364, 120));
+        assertEquals(Resolution.MONTH, pyramid.selectResolution(first, first + 2999, 120));
+        assertEquals(Resolution.YEAR, pyramid.selectResolution(first, first + 2999, 20));
+    }
+}
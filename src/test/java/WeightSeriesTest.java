@@ -0,0 +1,75 @@
+package test.java;
+
+import main.java.WeightSeries;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * The `WeightSeriesTest` class contains unit tests for the `WeightSeries` class. It verifies that
+ * entries stay sorted with one weight per day, that date ranges are found correctly, and that the
+ * binary form can be read back.
+ */
+public class WeightSeriesTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 20);
+
+    /**
+     * Tests that weights recorded out of order are kept in date order and that a day is replaced.
+     */
+    @Test
+    public void testUpsertKeepsDateOrder() {
+        WeightSeries series = new WeightSeries();
+        assertTrue(series.upsert(DAY.plusDays(2), 79.0));
+        assertTrue(series.upsert(DAY, 80.0));
+        assertTrue(series.upsert(DAY.plusDays(1), 79.5));
+        assertFalse(series.upsert(DAY.plusDays(2), 78.5));
+
+        assertEquals(3, series.size());
+        assertEquals(DAY, series.getDate(0));
+        assertEquals(DAY.plusDays(2), series.getDate(2));
+        assertEquals(78.5, series.getWeight(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> series.getWeight(3));
+    }
+
+    /**
+     * Tests that a range contains exactly the entries between its first and last day.
+     */
+    @Test
+    public void testRange() {
+        WeightSeries series = new WeightSeries();
+        for (int i = 0; i < 100; i += 2) {
+            series.upsert(DAY.plusDays(i), 80.0 - i / 10.0);
+        }
+
+        WeightSeries range = series.range(DAY.plusDays(9), DAY.plusDays(14));
+        assertEquals(3, range.size());
+        assertEquals(DAY.plusDays(10), range.getDate(0));
+        assertEquals(DAY.plusDays(14), range.getDate(2));
+        assertTrue(series.range(DAY.minusDays(10), DAY.minusDays(1)).isEmpty());
+    }
+
+    /**
+     * Tests that a series written in its binary form is read back unchanged.
+     */
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        WeightSeries series = new WeightSeries();
+        series.upsert(LocalDate.of(1965, 3, 1), 70.0);
+        series.upsert(DAY, 80.0);
+        series.upsert(DAY.plusDays(1), 79.5);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        series.writeTo(new DataOutputStream(bytes));
+        WeightSeries read = WeightSeries.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(series, read);
+        assertEquals(LocalDate.of(1965, 3, 1), read.getDate(0));
+    }
+}
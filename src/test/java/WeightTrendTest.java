@@ -0,0 +1,78 @@
+package test.java;
+
+import main.java.WeightSeries;
+import main.java.WeightTrend;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+/**
+ * The `WeightTrendTest` class contains unit tests for the `WeightTrend` class. It verifies the
+ * regression and the goal projection, and that updating the trend weigh-in by weigh-in gives the
+ * same result as computing it from the whole series.
+ */
+public class WeightTrendTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    /**
+     * Tests the slope of a steady loss and the projected day of a goal weight.
+     */
+    @Test
+    public void testRegressionAndProjection() {
+        WeightSeries series = new WeightSeries();
+        for (int i = 0; i < 60; i++) {
+            series.upsert(START.plusDays(i), 90.0 - 0.1 * i); // 0.1 kg per day
+        }
+        WeightTrend trend = new WeightTrend(series);
+
+        assertEquals(-0.1, trend.getSlope(), 1e-9);
+        assertEquals(84.1, trend.getRegressionWeight(Math.toIntExact(START.plusDays(59).toEpochDay())), 1e-9);
+        assertEquals(START.plusDays(100), trend.projectGoalDate(series, 80.0));
+        assertNull(trend.projectGoalDate(series, 95.0));
+        assertTrue(trend.getAverage(59) > 84.1); // The moving average lags behind a steady loss
+    }
+
+    /**
+     * Tests that a trend without enough weigh-ins has no slope.
+     */
+    @Test
+    public void testNoTrendWithOneWeighIn() {
+        WeightSeries series = new WeightSeries();
+        series.upsert(START, 80.0);
+        WeightTrend trend = new WeightTrend(series);
+
+        assertTrue(Double.isNaN(trend.getSlope()));
+        assertNull(trend.projectGoalDate(series, 75.0));
+        assertEquals(80.0, trend.getAverage(0));
+    }
+
+    /**
+     * Tests that new, replaced and backdated weigh-ins give the same trend as computing it again.
+     */
+    @Test
+    public void testRecordMatchesRebuild() {
+        WeightSeries series = new WeightSeries();
+        WeightTrend trend = new WeightTrend(series);
+        for (int i = 0; i < 200; i += 2) {
+            LocalDate day = START.plusDays(i);
+            series.upsert(day, 80.0 + Math.sin(i / 10.0));
+            trend.record(series, Math.toIntExact(day.toEpochDay()));
+        }
+        LocalDate last = START.plusDays(198);
+        series.upsert(last, 75.0);
+        trend.record(series, Math.toIntExact(last.toEpochDay()));
+        assertEquals(new WeightTrend(series).getSlope(), trend.getSlope(), 1e-9);
+
+        LocalDate backdated = START.plusDays(101);
+        series.upsert(backdated, 70.0);
+        trend.record(series, Math.toIntExact(backdated.toEpochDay()));
+
+        WeightTrend rebuilt = new WeightTrend(series);
+        assertEquals(rebuilt.getSlope(), trend.getSlope(), 1e-9);
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(rebuilt.getAverage(i), trend.getAverage(i), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package test.java;
+
+import main.java.WeightedLruCache;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The `WeightedLruCacheTest` class contains unit tests for the `WeightedLruCache` class.
+ * It verifies that the cache is bounded by the number and by the total weight of its values,
+ * that it evicts the values used longest ago, and that removed values are not reported as evicted.
+ */
+public class WeightedLruCacheTest {
+
+    /**
+     * Creates a cache whose values weigh their length and which records the evicted keys.
+     */
+    private static WeightedLruCache<String, String> cache(int maxEntries, long maxWeight, List<String> evicted) {
+        return new WeightedLruCache<>(maxEntries, maxWeight, String::length, (key, value) -> evicted.add(key));
+    }
+
+    /**
+     * Tests that the value used longest ago is evicted once there are too many values.
+     */
+    @Test
+    public void testEntryBound() {
+        List<String> evicted = new ArrayList<>();
+        WeightedLruCache<String, String> cache = cache(2, 100, evicted);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+
+        assertEquals(List.of("a"), evicted);
+        assertNull(cache.get("a"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(2, cache.size());
+    }
+
+    /**
+     * Tests that values are evicted until their total weight fits again.
+     */
+    @Test
+    public void testWeightBound() {
+        List<String> evicted = new ArrayList<>();
+        WeightedLruCache<String, String> cache = cache(10, 10, evicted);
+        cache.put("a", "xxxx");
+        cache.put("b", "xxxx");
+        cache.put("c", "xxxxxxxx");
+
+        assertEquals(List.of("a", "b"), evicted);
+        assertEquals(8, cache.weight());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Tests that reading a value makes it the most recently used.
+     */
+    @Test
+    public void testGetRefreshesOrder() {
+        List<String> evicted = new ArrayList<>();
+        WeightedLruCache<String, String> cache = cache(2, 100, evicted);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertEquals(List.of("b"), evicted);
+        assertEquals("1", cache.get("a"));
+    }
+
+    /**
+     * Tests that replacing and removing values updates the weight without reporting an eviction.
+     */
+    @Test
+    public void testReplaceAndRemove() {
+        List<String> evicted = new ArrayList<>();
+        WeightedLruCache<String, String> cache = cache(2, 100, evicted);
+        cache.put("a", "xx");
+        cache.put("a", "xxx");
+        assertEquals(3, cache.weight());
+
+        assertEquals("xxx", cache.remove("a"));
+        assertNull(cache.remove("a"));
+        assertEquals(0, cache.weight());
+        assertEquals(0, cache.size());
+        assertTrue(evicted.isEmpty());
+    }
+
+    /**
+     * Tests that a value weighing more than the whole cache is evicted at once.
+     */
+    @Test
+    public void testOversizedValue() {
+        List<String> evicted = new ArrayList<>();
+        WeightedLruCache<String, String> cache = cache(2, 3, evicted);
+        cache.put("a", "xxxx");
+
+        assertEquals(List.of("a"), evicted);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+    }
+
+    /**
+     * Tests that bounds which are not positive are rejected.
+     */
+    @Test
+    public void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> cache(0, 10, new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> cache(1, 0, new ArrayList<>()));
+    }
+}